@@ -70,6 +70,44 @@ function resize() {
 function setUpWebSocket() {
   if (typeof WEBSOCKET_LIB !== 'undefined') {
     WEBSOCKET_LIB.webSocketManager.subscribeToNamespace("ControlHubUpdater");
+    // The robot controller broadcasts each change to the projects, so the table is kept up to date
+    // without fetching the whole list again.
+    WEBSOCKET_LIB.webSocketManager.subscribeToNamespace(PROJECTS_NAMESPACE);
+    WEBSOCKET_LIB.webSocketManager.registerTypeHandler(PROJECTS_NAMESPACE, PROJECT_CHANGED_MESSAGE_TYPE, handleProjectChanged);
+    WEBSOCKET_LIB.webSocketManager.registerTypeHandler(PROJECTS_NAMESPACE, PROJECT_DELETED_MESSAGE_TYPE, handleProjectDeleted);
+  }
+}
+
+function handleProjectChanged(webSocketMessage) {
+  var project = JSON.parse(webSocketMessage.payload);
+  removeProject(project.name);
+  projects.push(project);
+  sortProjectsAndFillTable();
+}
+
+function handleProjectDeleted(webSocketMessage) {
+  if (removeProject(webSocketMessage.payload)) {
+    sortProjectsAndFillTable();
+  }
+}
+
+function removeProject(projectName) {
+  for (var i = 0; i < projects.length; i++) {
+    if (projects[i].name == projectName) {
+      projects.splice(i, 1);
+      return true;
+    }
+  }
+  return false;
+}
+
+/**
+ * Fetches the list of projects after they have been changed, unless the changes will be
+ * broadcast over the web socket.
+ */
+function refreshProjects() {
+  if (typeof WEBSOCKET_LIB === 'undefined' || !WEBSOCKET_LIB.isWebSocketConnected()) {
+    initializeProjects();
   }
 }
 
@@ -413,7 +451,7 @@ function finishNewOrUploadProject(projectName, blkFileContent, errorElement, dia
   }
 
   document.body.classList.add('waitCursor');
-  saveProject(projectName, blkFileContent, jsFileContent, function(success, errorMessage) {
+  saveProject(projectName, blkFileContent, jsFileContent, '', function(success, errorMessage) {
     if (success) {
       document.body.classList.remove('waitCursor');
       // Close the dialog.
@@ -442,7 +480,7 @@ function renameProjectOk(oldProjectName, newProjectName) {
     if (success) {
       // Close the dialog.
       document.getElementById('newProjectNameDialog').style.display = 'none';
-      initializeProjects();
+      refreshProjects();
     } else {
       document.getElementById('newProjectNameError').innerHTML = errorMessage;
     }
@@ -470,7 +508,7 @@ function copyProjectOk(oldProjectName, newProjectName) {
       }
       // Close the dialog.
       document.getElementById('newProjectNameDialog').style.display = 'none';
-      initializeProjects();
+      refreshProjects();
     } else {
       document.getElementById('newProjectNameError').innerHTML = errorMessage;
     }
@@ -536,7 +574,7 @@ function yesDeleteProjectsDialog() {
   deleteProjects(starDelimitedDeleteProjectNames, function(success, errorMessage) {
     starDelimitedDeleteProjectNames = '';
     if (success) {
-      initializeProjects();
+      refreshProjects();
     } else {
       alert(errorMessage);
     }
@@ -225,7 +225,16 @@ function saveProjectNow(opt_success_callback) {
     // Generate JavaScript code.
     const jsFileContent = generateJavaScriptCode();
 
-    saveProject(currentProjectName, blkFileContent, jsFileContent,
+    // Generate the java that the robot controller compiles to run this project as a compiled op
+    // mode. If it can't be generated, the robot controller runs the project's JavaScript instead.
+    let javaFileContent = '';
+    try {
+      javaFileContent = Blockly.FtcJava.workspaceToCompiledCode(workspace);
+    } catch (e) {
+      console.log('Could not generate compiled java. ' + e);
+    }
+
+    saveProject(currentProjectName, blkFileContent, jsFileContent, javaFileContent,
         function(success, errorMessage) {
       if (success) {
         savedBlkFileContent = blkFileContent;
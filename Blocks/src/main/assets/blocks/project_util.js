@@ -82,12 +82,13 @@ function newProject(projectName, sampleName, callback) {
   }
 }
 
-function saveProject(projectName, blkFileContent, jsFileContent, callback) {
+function saveProject(projectName, blkFileContent, jsFileContent, javaFileContent, callback) {
   if (window.location.protocol === 'http:' || window.location.protocol === 'https:') {
     // html/js is in a browser, loaded as an http:// URL.
-    saveProjectViaHttp(projectName, blkFileContent, jsFileContent, callback);
+    saveProjectViaHttp(projectName, blkFileContent, jsFileContent, javaFileContent, callback);
   } else if (window.location.protocol === 'file:') {
     // html/js is in a browser, loaded as an file:// URL.
+    // The compiled java is only used on the robot controller.
     saveProjectViaFile(projectName, blkFileContent, jsFileContent, callback);
   }
 }
@@ -254,11 +255,14 @@ function newProjectViaHttp(projectName, sampleName, callback) {
   xhr.send(params);
 }
 
-function saveProjectViaHttp(projectName, blkFileContent, jsFileContent, callback) {
+function saveProjectViaHttp(projectName, blkFileContent, jsFileContent, javaFileContent, callback) {
   var xhr = new XMLHttpRequest();
   var params = PARAM_NAME + '=' + encodeURIComponent(projectName) +
       '&' + PARAM_BLK + '=' + encodeURIComponent(blkFileContent) +
       '&' + PARAM_JS + '=' + encodeURIComponent(jsFileContent);
+  if (javaFileContent) {
+    params += '&' + PARAM_JAVA + '=' + encodeURIComponent(javaFileContent);
+  }
   xhr.open('POST', URI_SAVE_PROJECT, true);
   xhr.setRequestHeader('Content-type', 'application/x-www-form-urlencoded');
   xhr.onreadystatechange = function() {
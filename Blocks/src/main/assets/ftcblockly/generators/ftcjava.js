@@ -43,6 +43,21 @@ Blockly.FtcJava.INDENT_CONTINUE = '    ';
 
 Blockly.FtcJava.CLASS_SCOPE = '<class>';
 
+/**
+ * The package, superclass, and placeholder class name of the Java generated for running a blocks
+ * project as a compiled op mode. The robot controller replaces the class name with one derived
+ * from the project name.
+ */
+Blockly.FtcJava.COMPILED_PACKAGE = 'org.firstinspires.ftc.blocks.compiled';
+Blockly.FtcJava.COMPILED_SUPERCLASS = 'org.firstinspires.ftc.robotcore.internal.opmode.CompiledBlocksOpMode';
+Blockly.FtcJava.COMPILED_CLASS_NAME = 'CompiledBlocksProgram';
+
+/**
+ * Precedes, in compiled Java, the code for each statement block, so that the robot controller can
+ * report which block was executing when an error occurs.
+ */
+Blockly.FtcJava.COMPILED_BLOCK_MARKER = '// @block ';
+
 /**
  * Order of operation ENUMs.
  * https://docs.oracle.com/javase/tutorial/java/nutsandbolts/operators.html
@@ -770,13 +785,21 @@ Blockly.FtcJava.blockToCode = function(block) {
 Blockly.FtcJava.finish = function(code) {
   // FYI: We ignore code, which is not within a procedure definition.
 
-  var packageName = 'org.firstinspires.ftc.teamcode';
+  var compiled = Blockly.FtcJava.generatingCompiledJava_;
+  var packageName = compiled ? Blockly.FtcJava.COMPILED_PACKAGE : 'org.firstinspires.ftc.teamcode';
   var completedCode =
       'package ' + packageName + ';\n\n';
 
   // The annotations for the class must be determined now, because getClassAnnotationsForFtcJava_()
   // will call generateImport_() for the annotation classes that are used.
-  var annotations = Blockly.FtcJava.getClassAnnotationsForFtcJava_();
+  // A compiled op mode has none; it is registered with the project's own op mode meta data.
+  var annotations = compiled ? '' : Blockly.FtcJava.getClassAnnotationsForFtcJava_();
+  var superclass = 'LinearOpMode';
+  if (compiled) {
+    Blockly.FtcJava.generateImportStatement_(Blockly.FtcJava.COMPILED_SUPERCLASS);
+    superclass = 'CompiledBlocksOpMode';
+  }
+
   // Convert the definitions dictionary into several lists.
   var imports = [];
   var fieldDeclarations = [];
@@ -804,7 +827,7 @@ Blockly.FtcJava.finish = function(code) {
   }
 
   completedCode += annotations +
-      'public class ' + Blockly.FtcJava.getClassNameForFtcJava_() + ' extends LinearOpMode {\n\n';
+      'public class ' + Blockly.FtcJava.getClassNameForFtcJava_() + ' extends ' + superclass + ' {\n\n';
   if (fieldDeclarations.length) {
     completedCode += fieldDeclarations.join('\n') + '\n\n';
   }
@@ -945,11 +968,47 @@ Blockly.FtcJava.scrub_ = function(block, code) {
       }
     }
   }
+  if (Blockly.FtcJava.generatingCompiledJava_ && !block.outputConnection) {
+    commentCode += Blockly.FtcJava.COMPILED_BLOCK_MARKER + Blockly.FtcJava.getBlockLabel_(block) + '\n';
+  }
   var nextBlock = block.nextConnection && block.nextConnection.targetBlock();
   var nextCode = Blockly.FtcJava.blockToCode(nextBlock);
   return commentCode + code + nextCode;
 };
 
+/**
+ * Returns the label by which the robot controller identifies the given block in error messages.
+ * The label is used in a line comment, so it must be a single line, and it must not contain a
+ * backslash, which could begin a unicode escape.
+ * @param {!Blockly.Block} block The block.
+ * @return {string} The label.
+ * @private
+ */
+Blockly.FtcJava.getBlockLabel_ = function(block) {
+  return block.toString(60).replace(/\s+/g, ' ').replace(/\\/g, '/');
+};
+
+/**
+ * Generate Java for running the blocks in the given workspace as a compiled op mode on the robot
+ * controller. The Java is the same as that shown in the editor, except that the class is a
+ * {@link CompiledBlocksOpMode} without annotations, in its own package, the code for each
+ * statement block is preceded by a comment labelling the block, and division is never integer
+ * division, as in JavaScript.
+ * @param {!Blockly.Workspace} workspace The workspace.
+ * @return {string} The generated Java.
+ */
+Blockly.FtcJava.workspaceToCompiledCode = function(workspace) {
+  var className = Blockly.FtcJava.classNameForFtcJava_;
+  Blockly.FtcJava.classNameForFtcJava_ = Blockly.FtcJava.COMPILED_CLASS_NAME;
+  Blockly.FtcJava.generatingCompiledJava_ = true;
+  try {
+    return Blockly.FtcJava.workspaceToCode(workspace);
+  } finally {
+    Blockly.FtcJava.generatingCompiledJava_ = false;
+    Blockly.FtcJava.classNameForFtcJava_ = className;
+  }
+};
+
 /**
  * Gets a property and adjusts the value while taking into account indexing.
  * @param {!Blockly.Block} block The block.
@@ -1076,8 +1135,10 @@ Blockly.FtcJava.generateImportStatement_ = function(type) {
   if (type.startsWith('java.lang.') && type.lastIndexOf('.') == 9) {
     return;
   }
-  // Don't import classes in the org.firstinspires.ftc.teamcode package.
-  if (type.startsWith('org.firstinspires.ftc.teamcode.') && type.lastIndexOf('.') == 30) {
+  // Don't import classes in the org.firstinspires.ftc.teamcode package, unless generating compiled
+  // Java, which is in a package of its own.
+  if (!Blockly.FtcJava.generatingCompiledJava_ &&
+      type.startsWith('org.firstinspires.ftc.teamcode.') && type.lastIndexOf('.') == 30) {
     return;
   }
   var importCode = 'import ' + type + ';';
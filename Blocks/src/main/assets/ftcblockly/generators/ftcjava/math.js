@@ -91,11 +91,34 @@ Blockly.FtcJava['math_arithmetic'] = function(block) {
     code = 'Math.pow(' + argument0 + ', ' + argument1 + ')';
     return [code, Blockly.FtcJava.ORDER_FUNCTION_CALL];
   }
+  if (Blockly.FtcJava.isCompiledIntegerDivision_(block)) {
+    // A compiled op mode must divide as JavaScript does, so it can't use integer division.
+    argument0 = Blockly.FtcJava.valueToCode(block, 'A', Blockly.FtcJava.ORDER_CAST) || '0';
+    code = '(double) ' + argument0 + operator + argument1;
+    return [code, order];
+  }
   code = argument0 + operator + argument1;
   return [code, order];
 };
 
+/**
+ * Returns true if the given block divides one integer by another and Java is being generated for
+ * running as a compiled op mode, where the division must be done as in JavaScript.
+ */
+Blockly.FtcJava.isCompiledIntegerDivision_ = function(block) {
+  if (!Blockly.FtcJava.generatingCompiledJava_ || block.getFieldValue('OP') != 'DIVIDE') {
+    return false;
+  }
+  var type = Blockly.FtcJava.getArithmeticResultType_(
+      Blockly.FtcJava.getOutputType_(block.getInputTargetBlock('A')),
+      Blockly.FtcJava.getOutputType_(block.getInputTargetBlock('B')));
+  return type != 'double' && type != 'float';
+};
+
 Blockly.FtcJava.getOutputType_math_arithmetic_ = function(block) {
+  if (Blockly.FtcJava.isCompiledIntegerDivision_(block)) {
+    return 'double';
+  }
   switch (block.getFieldValue('OP')) {
     case 'ADD':
     case 'MINUS':
@@ -19,6 +19,7 @@ package com.google.blocks.ftcrobotcontroller;
 import com.google.blocks.ftcrobotcontroller.util.ClipboardUtil;
 import com.google.blocks.ftcrobotcontroller.hardware.HardwareUtil;
 import com.google.blocks.ftcrobotcontroller.util.OfflineBlocksUtil;
+import com.google.blocks.ftcrobotcontroller.util.ProjectsIndex;
 import com.google.blocks.ftcrobotcontroller.util.ProjectsUtil;
 import com.google.blocks.ftcrobotcontroller.util.FileManager;
 import com.qualcomm.ftccommon.CommandList;
@@ -148,6 +149,9 @@ public class ProgrammingWebHandlers implements ProgrammingMode {
       js.append("var PARAM_JS = '").append(PARAM_JS).append("';\n");
       js.append("var PARAM_JAVA = '").append(PARAM_JAVA).append("';\n");
       js.append("var PARAM_ENABLE = '").append(PARAM_ENABLE).append("';\n");
+      js.append("var PROJECTS_NAMESPACE = '").append(ProjectsIndex.NAMESPACE).append("';\n");
+      js.append("var PROJECT_CHANGED_MESSAGE_TYPE = '").append(ProjectsIndex.PROJECT_CHANGED_MESSAGE_TYPE).append("';\n");
+      js.append("var PROJECT_DELETED_MESSAGE_TYPE = '").append(ProjectsIndex.PROJECT_DELETED_MESSAGE_TYPE).append("';\n");
       js.append("var PARAM_CLIPBOARD = '").append(PARAM_CLIPBOARD).append("';\n");
       js.append("var PARAM_CONTENT = '").append(PARAM_CONTENT).append("';\n");
       return NoCachingWebHandler.setNoCache(session, newFixedLengthResponse(Response.Status.OK, "application/javascript", js.toString()));
@@ -173,8 +177,14 @@ public class ProgrammingWebHandlers implements ProgrammingMode {
     }
 
     private Response fetchProjects(NanoHTTPD.IHTTPSession session) throws IOException {
-      String jsonProjects = ProjectsUtil.fetchProjectsWithBlocks();
-      return NoCachingWebHandler.setNoCache(session, newFixedLengthResponse(Response.Status.OK, NanoHTTPD.MIME_PLAINTEXT, jsonProjects));
+      ProjectsIndex.Listing listing = ProjectsIndex.getInstance().getListing();
+      // The browser revalidates the listing (it is marked no-cache), so if it hasn't changed, we
+      // can tell the browser to use the copy it already has.
+      Response response = listing.etag.equals(session.getHeaders().get("if-none-match"))
+          ? newFixedLengthResponse(Response.Status.NOT_MODIFIED, NanoHTTPD.MIME_PLAINTEXT, "")
+          : newFixedLengthResponse(Response.Status.OK, NanoHTTPD.MIME_PLAINTEXT, listing.json);
+      response.addHeader("ETag", listing.etag);
+      return NoCachingWebHandler.setNoCache(session, response);
     }
   }
 
@@ -291,7 +301,7 @@ public class ProgrammingWebHandlers implements ProgrammingMode {
   }
 
   /**
-   * Saves the blocks and JavaScript files for the given project.
+   * Saves the blocks and JavaScript files, and the compiled Java if given, for the given project.
    */
   private static class SaveProject implements WebHandler {
 
@@ -300,8 +310,9 @@ public class ProgrammingWebHandlers implements ProgrammingMode {
       String name = getFirstNamedParameter(session, PARAM_NAME);
       String blk = getFirstNamedParameter(session, PARAM_BLK);
       String js = getFirstNamedParameter(session, PARAM_JS);
+      String java = getFirstNamedParameter(session, PARAM_JAVA); // optional
       if (name != null && blk != null && js != null) {
-        return saveProject(name, blk, js);
+        return saveProject(name, blk, js, java);
       } else {
         return newFixedLengthResponse(
                 Response.Status.BAD_REQUEST, NanoHTTPD.MIME_PLAINTEXT,
@@ -309,8 +320,8 @@ public class ProgrammingWebHandlers implements ProgrammingMode {
       }
     }
 
-    private Response saveProject(String projectName, String blkFileContent, String jsFileContent) throws IOException {
-      ProjectsUtil.saveProject(projectName, blkFileContent, jsFileContent);
+    private Response saveProject(String projectName, String blkFileContent, String jsFileContent, String javaFileContent) throws IOException {
+      ProjectsUtil.saveProject(projectName, blkFileContent, jsFileContent, javaFileContent);
       return newFixedLengthResponse(Response.Status.OK, NanoHTTPD.MIME_PLAINTEXT, "");
     }
   }
@@ -774,6 +785,7 @@ public class ProgrammingWebHandlers implements ProgrammingMode {
     manager.register(URI_RESTART_ROBOT,    decorateWithLogging(new RestartRobot()));
     manager.register(URI_COLORS,           decorateWithLogging(manager.getRegisteredHandler(URI_COLORS)));
     manager.register(RobotControllerWebHandlers.URI_RC_CONFIG,  new RobotControllerConfiguration());
+    ProjectsIndex.getInstance().setWebSocketManager(manager.getWebServer().getWebSocketManager());
   }
 
   static String getFirstNamedParameter(NanoHTTPD.IHTTPSession session, String name) {
@@ -0,0 +1,207 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.google.blocks.ftcrobotcontroller.hardware;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import com.google.blocks.ftcrobotcontroller.hardware.HardwareUtil.Capability;
+import com.google.blocks.ftcrobotcontroller.util.FileUtil;
+import com.qualcomm.ftccommon.configuration.RobotConfigFileManager;
+import com.qualcomm.robotcore.util.ReadWriteFile;
+import com.qualcomm.robotcore.util.RobotLog;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.firstinspires.ftc.robotcore.external.ExportToBlocks;
+import org.firstinspires.ftc.robotcore.internal.opmode.BlocksClassFilter;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+/**
+ * A cache, in memory and on disk, of the JavaScript generated by
+ * {@link HardwareUtil#fetchJavaScriptForHardware(HardwareItemMap)}, so that the blocks editor
+ * doesn't regenerate the toolbox and hardware JavaScript each time it is loaded.
+ *
+ * <p>The cached JavaScript is identified by a hash of everything it is generated from: the app
+ * version, the hardware items, the camera capabilities, the TeleOp op modes, and the methods that
+ * are exported to blocks. Only the most recent JavaScript is kept, and it is discarded when a
+ * different configuration is activated or a configuration file is saved.</p>
+ */
+class HardwareJavaScriptCache {
+  private static final String TAG = "HardwareJavaScriptCache";
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String FILE_PREFIX = "hardware_";
+  private static final String FILE_SUFFIX = ".js";
+
+  private static final Object lock = new Object();
+  private static int configChangeCount = RobotConfigFileManager.getConfigChangeCount();
+  private static String cachedKey;
+  private static String cachedJavaScript;
+
+  // Prevent instantiation of utility class.
+  private HardwareJavaScriptCache() {
+  }
+
+  /**
+   * Returns the key that identifies the JavaScript generated from the given inputs.
+   */
+  static String computeKey(HardwareItemMap hardwareItemMap, Map<Capability, Boolean> capabilities,
+      Collection<String> teleOpNames) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(getAppVersion()).append('\n');
+    for (HardwareItem hardwareItem : hardwareItemMap.getAllHardwareItems()) {
+      sb.append(hardwareItem.hardwareType.name()).append(' ').append(hardwareItem.deviceName).append('\n');
+    }
+    sb.append(new TreeMap<>(capabilities)).append('\n');
+    sb.append(teleOpNames).append('\n');
+    BlocksClassFilter blocksClassFilter = BlocksClassFilter.getInstance();
+    List<String> methods = new ArrayList<>();
+    for (Set<Method> set : blocksClassFilter.getHardwareMethodsByClass().values()) {
+      addMethods(methods, set);
+    }
+    for (Set<Method> set : blocksClassFilter.getStaticMethodsByClass().values()) {
+      addMethods(methods, set);
+    }
+    Collections.sort(methods);
+    for (String method : methods) {
+      sb.append(method).append('\n');
+    }
+    return md5(sb.toString());
+  }
+
+  private static void addMethods(List<String> methods, Set<Method> set) {
+    for (Method method : set) {
+      // The annotation holds the block's labels, tooltip, and so on.
+      methods.add(method.toString() + " " + method.getAnnotation(ExportToBlocks.class));
+    }
+  }
+
+  /**
+   * Returns the cached JavaScript with the given key, or null if there is none.
+   */
+  static String get(String key) {
+    synchronized (lock) {
+      discardIfConfigChanged();
+      if (key.equals(cachedKey)) {
+        return cachedJavaScript;
+      }
+      File file = getFile(key);
+      if (file.isFile()) {
+        try {
+          cachedJavaScript = FileUtil.readFile(file);
+          cachedKey = key;
+          return cachedJavaScript;
+        } catch (IOException e) {
+          RobotLog.ww(TAG, e, "unable to read %s", file.getName());
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Stores the given JavaScript with the given key, replacing whatever was cached before.
+   */
+  static void put(String key, String javaScript) {
+    synchronized (lock) {
+      discardIfConfigChanged();
+      deleteFiles();
+      cachedKey = key;
+      cachedJavaScript = javaScript;
+      File dir = getDirectory();
+      AppUtil.getInstance().ensureDirectoryExists(dir, false);
+      ReadWriteFile.writeFile(getFile(key), javaScript);
+    }
+  }
+
+  private static void discardIfConfigChanged() {
+    int count = RobotConfigFileManager.getConfigChangeCount();
+    if (count != configChangeCount) {
+      configChangeCount = count;
+      cachedKey = null;
+      cachedJavaScript = null;
+      deleteFiles();
+    }
+  }
+
+  private static void deleteFiles() {
+    File[] files = getDirectory().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().startsWith(FILE_PREFIX) && file.getName().endsWith(FILE_SUFFIX)) {
+          file.delete();
+        }
+      }
+    }
+  }
+
+  private static File getDirectory() {
+    return new File(AppUtil.getDefContext().getCacheDir(), "blocks");
+  }
+
+  private static File getFile(String key) {
+    return new File(getDirectory(), FILE_PREFIX + key + FILE_SUFFIX);
+  }
+
+  private static String getAppVersion() {
+    // The last update time distinguishes builds that have the same version name.
+    try {
+      Context context = AppUtil.getDefContext();
+      PackageInfo packageInfo = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+      return packageInfo.versionName + " " + packageInfo.lastUpdateTime;
+    } catch (Exception e) {
+      return "";
+    }
+  }
+
+  private static String md5(String s) {
+    try {
+      byte[] hash = MessageDigest.getInstance("MD5").digest(s.getBytes(UTF_8));
+      StringBuilder result = new StringBuilder();
+      for (byte b : hash) {
+        result.append(String.format(Locale.ROOT, "%02x", b));
+      }
+      return result.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -196,10 +196,26 @@ public class HardwareUtil {
    */
   // visible for testing
   public static String fetchJavaScriptForHardware(HardwareItemMap hardwareItemMap) throws IOException {
+    Map<Capability, Boolean> capabilities = getCapabilities(hardwareItemMap);
+
+    Set<String> teleOpNames = new TreeSet<>();
+    RegisteredOpModes registeredOpModes = RegisteredOpModes.getInstance();
+    registeredOpModes.waitOpModesRegistered();
+    for (OpModeMeta opModeMeta : registeredOpModes.getOpModes()) {
+      if (opModeMeta.flavor == OpModeMeta.Flavor.TELEOP) {
+        teleOpNames.add(opModeMeta.name);
+      }
+    }
+
+    String cacheKey = HardwareJavaScriptCache.computeKey(hardwareItemMap, capabilities, teleOpNames);
+    String cachedJsHardware = HardwareJavaScriptCache.get(cacheKey);
+    if (cachedJsHardware != null) {
+      return cachedJsHardware;
+    }
+
     Context context = AppUtil.getDefContext();
     AssetManager assetManager = context.getAssets();
     StringBuilder jsHardware = new StringBuilder().append("\n");
-    Map<Capability, Boolean> capabilities = getCapabilities(hardwareItemMap);
 
     Set<String> additionalReservedWordsForFtcJava = new HashSet<>();
     Set<String> methodLookupStrings = new HashSet<>();
@@ -211,15 +227,6 @@ public class HardwareUtil {
     // The toolbox is added at the end, because it makes it easier to troubleshoot problems with
     // this code.
 
-    Set<String> teleOpNames = new TreeSet<>();
-    RegisteredOpModes registeredOpModes = RegisteredOpModes.getInstance();
-    registeredOpModes.waitOpModesRegistered();
-    for (OpModeMeta opModeMeta : registeredOpModes.getOpModes()) {
-      if (opModeMeta.flavor == OpModeMeta.Flavor.TELEOP) {
-        teleOpNames.add(opModeMeta.name);
-      }
-    }
-
     jsHardware.append("var IDENTIFIERS_USED_PREFIX = '").append(IDENTIFIERS_USED_PREFIX).append("';\n\n");
 
     jsHardware.append("var AUTO_TRANSITION_OPTIONS = [\n");
@@ -783,7 +790,9 @@ public class HardwareUtil {
         .append("  return '").append(escapeSingleQuotes(toolbox)).append("';\n")
         .append("}\n\n");
 
-    return jsHardware.toString();
+    String result = jsHardware.toString();
+    HardwareJavaScriptCache.put(cacheKey, result);
+    return result;
   }
 
   /**
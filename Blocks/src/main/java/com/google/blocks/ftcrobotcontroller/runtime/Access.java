@@ -25,7 +25,9 @@ import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.util.RobotLog;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraName;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
 import org.firstinspires.ftc.robotcore.external.matrices.MatrixF;
@@ -39,6 +41,7 @@ import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer.Parameters.CameraMonitorFeedback;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackable;
+import org.firstinspires.ftc.robotcore.internal.opmode.BlocksClassFilter;
 
 /**
  * An abstract class for classes that provides JavaScript access to an object.
@@ -53,6 +56,14 @@ abstract class Access {
   protected final String blockFirstName;
   private final Set<String> warningsReported = new HashSet<>();
 
+  // The strings that javascript passes to java are new objects on every call, but the values they
+  // resolve to don't change while the op mode runs. These caches, keyed by string contents, let a
+  // block that executes repeatedly (for example, inside a loop) resolve its enum arguments, its
+  // label, and its hardware devices only the first time it executes.
+  private final ConcurrentHashMap<Class<?>, Map<String, Enum<?>>> enumCache = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Map<String, String>> methodBlockLabelCache = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Class<?>, Map<String, Object>> deviceCache = new ConcurrentHashMap<>();
+
   protected Access(BlocksOpMode blocksOpMode, String identifier, String blockFirstName) {
     this.blocksOpMode = blocksOpMode;
     this.identifier = identifier;
@@ -79,6 +90,65 @@ abstract class Access {
     blocksOpMode.endBlockExecution();
   }
 
+  /**
+   * Returns the block label formed by concatenating the given prefix and the user visible name of
+   * the method identified by the given lookup string. The label is created only the first time a
+   * given prefix and lookup string are seen.
+   */
+  protected final String getMethodBlockLabel(String prefix, String methodLookupString) {
+    Map<String, String> labels = getSubCache(methodBlockLabelCache, prefix);
+    String label = labels.get(methodLookupString);
+    if (label == null) {
+      label = prefix + BlocksClassFilter.getUserVisibleName(methodLookupString);
+      labels.put(methodLookupString, label);
+    }
+    return label;
+  }
+
+  /**
+   * Returns the device with the given type and name, throwing if there is no such device. Devices
+   * that are found are remembered, so later calls don't search the hardware map.
+   */
+  @SuppressWarnings("unchecked")
+  protected final <T> T getDevice(HardwareMap hardwareMap, Class<? extends T> type, String deviceName) {
+    Map<String, Object> devices = getSubCache(deviceCache, type);
+    Object device = devices.get(deviceName);
+    if (device == null) {
+      device = hardwareMap.get(type, deviceName);
+      devices.put(deviceName, device);
+    }
+    return (T) device;
+  }
+
+  /**
+   * Returns the device with the given type and name, or null if there is no such device. Devices
+   * that are found are remembered, so later calls don't search the hardware map.
+   */
+  @SuppressWarnings("unchecked")
+  protected final <T> T tryGetDevice(HardwareMap hardwareMap, Class<? extends T> type, String deviceName) {
+    Map<String, Object> devices = getSubCache(deviceCache, type);
+    Object device = devices.get(deviceName);
+    if (device == null) {
+      device = hardwareMap.tryGet(type, deviceName);
+      if (device != null) {
+        devices.put(deviceName, device);
+      }
+    }
+    return (T) device;
+  }
+
+  private static <K, V> Map<String, V> getSubCache(ConcurrentHashMap<K, Map<String, V>> cache, K key) {
+    Map<String, V> subCache = cache.get(key);
+    if (subCache == null) {
+      subCache = new ConcurrentHashMap<>();
+      Map<String, V> existing = cache.putIfAbsent(key, subCache);
+      if (existing != null) {
+        subCache = existing;
+      }
+    }
+    return subCache;
+  }
+
   protected AngleUnit checkAngleUnit(String angleUnitString) {
     return checkArg(angleUnitString, AngleUnit.class, "angleUnit");
   }
@@ -145,7 +215,10 @@ abstract class Access {
   }
 
   protected CameraName cameraNameFromString(HardwareMap hardwareMap, String cameraNameString) {
-    return hardwareMap.tryGet(WebcamName.class, cameraNameString);
+    if (cameraNameString == null) {
+      return null;
+    }
+    return tryGetDevice(hardwareMap, WebcamName.class, cameraNameString);
   }
 
   protected String cameraNameToString(HardwareMap hardwareMap, CameraName cameraName) {
@@ -182,6 +255,21 @@ abstract class Access {
       reportInvalidArg(socketName, enumClass.getSimpleName());
       return null;
     }
+    Map<String, Enum<?>> constants = getSubCache(enumCache, enumClass);
+    Enum<?> cached = constants.get(arg);
+    if (cached != null) {
+      return enumClass.cast(cached);
+    }
+    T value = parseEnum(arg, enumClass);
+    if (value == null) {
+      reportInvalidArg(socketName, enumClass.getSimpleName());
+      return null;
+    }
+    constants.put(arg, value);
+    return value;
+  }
+
+  private static <T extends Enum<T>> T parseEnum(String arg, Class<T> enumClass) {
     // First, try the arg as is.
     try {
       return Enum.valueOf(enumClass, arg);
@@ -191,7 +279,6 @@ abstract class Access {
     try {
       return Enum.valueOf(enumClass, arg.toUpperCase(Locale.ENGLISH));
     } catch (IllegalArgumentException e) {
-      reportInvalidArg(socketName, enumClass.getSimpleName());
       return null;
     }
   }
@@ -28,6 +28,7 @@ import com.google.blocks.ftcrobotcontroller.hardware.HardwareItem;
 import com.google.blocks.ftcrobotcontroller.hardware.HardwareItemMap;
 import com.google.blocks.ftcrobotcontroller.hardware.HardwareType;
 import com.google.blocks.ftcrobotcontroller.hardware.HardwareUtil;
+import com.google.blocks.ftcrobotcontroller.util.CompiledBlocksUtil;
 import com.google.blocks.ftcrobotcontroller.util.FileUtil;
 import com.google.blocks.ftcrobotcontroller.util.Identifier;
 import com.google.blocks.ftcrobotcontroller.util.ProjectsUtil;
@@ -37,6 +38,7 @@ import com.qualcomm.hardware.lynx.LynxI2cDeviceSynch;
 import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.hardware.lynx.commands.core.LynxFirmwareVersionManager;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.eventloop.opmode.OpModeManager;
 import com.qualcomm.robotcore.hardware.HardwareDevice;
 import com.qualcomm.robotcore.util.RobotLog;
@@ -753,7 +755,15 @@ public final class BlocksOpMode extends LinearOpMode {
           // fetchEnabledProjectsWithJavaScript is thread-safe wrt concurrent saves from the browswer
           List<OpModeMeta> projects = ProjectsUtil.fetchEnabledProjectsWithJavaScript();
           for (OpModeMeta opModeMeta : projects) {
-            manager.register(opModeMeta, new BlocksOpMode(opModeMeta.name));
+            // Run the project as its compiled op mode if OnBotJava has built a current one.
+            // Otherwise, run it as JavaScript in the WebView.
+            OpMode compiledOpMode = CompiledBlocksUtil.newCompiledOpMode(opModeMeta.name);
+            if (compiledOpMode != null) {
+              RobotLog.i(LOG_PREFIX + "\"" + opModeMeta.name + "\" - registering compiled op mode");
+              manager.register(opModeMeta, compiledOpMode);
+            } else {
+              manager.register(opModeMeta, new BlocksOpMode(opModeMeta.name));
+            }
           }
         } catch (Exception e) {
           RobotLog.logStackTrace(e);
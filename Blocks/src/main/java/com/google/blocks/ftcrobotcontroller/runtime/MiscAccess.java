@@ -28,6 +28,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.firstinspires.ftc.robotcore.external.JavaUtil;
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.robotcore.external.matrices.OpenGLMatrix;
@@ -45,6 +47,7 @@ import org.firstinspires.ftc.robotcore.internal.opmode.BlocksClassFilter;
  */
 class MiscAccess extends Access {
   private HardwareMap hardwareMap;
+  private final Map<Method, String[]> parameterLabelsCache = new ConcurrentHashMap<>();
 
   MiscAccess(BlocksOpMode blocksOpMode, String identifier, HardwareMap hardwareMap) {
     super(blocksOpMode, identifier, ""); // misc blocks don't have a first name.
@@ -152,7 +155,7 @@ class MiscAccess extends Access {
       Object a15, Object a16, Object a17, Object a18, Object a19, Object a20) {
     try {
       startBlockExecution(BlockType.FUNCTION,
-          "Java method " + BlocksClassFilter.getUserVisibleName(methodLookupString));
+          getMethodBlockLabel("Java method ", methodLookupString));
       return callJavaVarArgs(methodLookupString, json,
           a0, a1, a2, a3, a4, a5, a6, a7,
           a8, a9, a10, a11, a12, a13, a14,
@@ -173,7 +176,7 @@ class MiscAccess extends Access {
       Object a15, Object a16, Object a17, Object a18, Object a19, Object a20) {
     try {
       startBlockExecution(BlockType.FUNCTION,
-          "Java method " + BlocksClassFilter.getUserVisibleName(methodLookupString));
+          getMethodBlockLabel("Java method ", methodLookupString));
       return (Boolean) callJavaVarArgs(methodLookupString, json,
           a0, a1, a2, a3, a4, a5, a6, a7,
           a8, a9, a10, a11, a12, a13, a14,
@@ -194,7 +197,7 @@ class MiscAccess extends Access {
       Object a15, Object a16, Object a17, Object a18, Object a19, Object a20) {
     try {
       startBlockExecution(BlockType.FUNCTION,
-          "Java method " + BlocksClassFilter.getUserVisibleName(methodLookupString));
+          getMethodBlockLabel("Java method ", methodLookupString));
       Object result = callJavaVarArgs(methodLookupString, json,
           a0, a1, a2, a3, a4, a5, a6, a7,
           a8, a9, a10, a11, a12, a13, a14,
@@ -218,7 +221,7 @@ class MiscAccess extends Access {
     if (jsonArgs.length != parameterTypes.length || objectArgs.length < parameterTypes.length) {
       throw new RuntimeException("Number of arguments does not match required number of parameters.");
     }
-    String[] parameterLabels = HardwareUtil.getParameterLabels(method);
+    String[] parameterLabels = getParameterLabels(method);
     List<Gamepad> gamepads = new ArrayList<>();
     Object[] args = new Object[parameterTypes.length];
     for (int i = 0; i < args.length; i++) {
@@ -246,7 +249,7 @@ class MiscAccess extends Access {
       Object a15, Object a16, Object a17, Object a18, Object a19, Object a20) {
     try {
       startBlockExecution(BlockType.FUNCTION,
-          "Hardware method " + BlocksClassFilter.getUserVisibleName(methodLookupString));
+          getMethodBlockLabel("Hardware method ", methodLookupString));
       return callHardwareVarArgs(deviceName, methodLookupString, json,
           a0, a1, a2, a3, a4, a5, a6, a7,
           a8, a9, a10, a11, a12, a13, a14,
@@ -267,7 +270,7 @@ class MiscAccess extends Access {
       Object a15, Object a16, Object a17, Object a18, Object a19, Object a20) {
     try {
       startBlockExecution(BlockType.FUNCTION,
-          "Hardware method " + BlocksClassFilter.getUserVisibleName(methodLookupString));
+          getMethodBlockLabel("Hardware method ", methodLookupString));
       return (Boolean) callHardwareVarArgs(deviceName, methodLookupString, json,
           a0, a1, a2, a3, a4, a5, a6, a7,
           a8, a9, a10, a11, a12, a13, a14,
@@ -288,7 +291,7 @@ class MiscAccess extends Access {
       Object a15, Object a16, Object a17, Object a18, Object a19, Object a20) {
     try {
       startBlockExecution(BlockType.FUNCTION,
-          "Hardware method " + BlocksClassFilter.getUserVisibleName(methodLookupString));
+          getMethodBlockLabel("Hardware method ", methodLookupString));
       Object result = callHardwareVarArgs(deviceName, methodLookupString, json,
           a0, a1, a2, a3, a4, a5, a6, a7,
           a8, a9, a10, a11, a12, a13, a14,
@@ -307,14 +310,14 @@ class MiscAccess extends Access {
     if (method == null) {
       throw new RuntimeException("Could not find method " + methodLookupString + ".");
     }
-    Object hardwareDevice = hardwareMap.get(method.getDeclaringClass(), deviceName);
+    Object hardwareDevice = getDevice(hardwareMap, method.getDeclaringClass(), deviceName);
 
     Object[] jsonArgs = SimpleGson.getInstance().fromJson(json, Object[].class);
     Class[] parameterTypes = method.getParameterTypes();
     if (jsonArgs.length != parameterTypes.length || objectArgs.length < parameterTypes.length) {
       throw new RuntimeException("Number of arguments does not match required number of parameters.");
     }
-    String[] parameterLabels = HardwareUtil.getParameterLabels(method);
+    String[] parameterLabels = getParameterLabels(method);
     List<Gamepad> gamepads = new ArrayList<>();
     Object[] args = new Object[parameterTypes.length];
     for (int i = 0; i < args.length; i++) {
@@ -334,6 +337,15 @@ class MiscAccess extends Access {
     }
   }
 
+  private String[] getParameterLabels(Method method) {
+    String[] parameterLabels = parameterLabelsCache.get(method);
+    if (parameterLabels == null) {
+      parameterLabels = HardwareUtil.getParameterLabels(method);
+      parameterLabelsCache.put(method, parameterLabels);
+    }
+    return parameterLabels;
+  }
+
   private Class adjustParameterType(Class parameterType) {
     if (parameterType.equals(boolean.class)) {
       return Boolean.class;
@@ -0,0 +1,206 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.blocks.ftcrobotcontroller.util;
+
+import static org.firstinspires.ftc.robotcore.internal.system.AppUtil.BLOCKS_BLK_EXT;
+import static org.firstinspires.ftc.robotcore.internal.system.AppUtil.BLOCK_OPMODES_DIR;
+
+import androidx.annotation.Nullable;
+
+import com.qualcomm.robotcore.util.ReadWriteFile;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.Supplier;
+import org.firstinspires.ftc.robotcore.internal.opmode.BlocksClassFilter;
+import org.firstinspires.ftc.robotcore.internal.opmode.CompiledBlocksOpMode;
+import org.firstinspires.ftc.robotcore.internal.opmode.OnBotJavaHelper;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * A class that provides utility methods related to compiling blocks projects ahead of time.
+ *
+ * <p>When a project is saved from the blocks editor, the editor also generates Java for it, as a
+ * subclass of {@link CompiledBlocksOpMode}. That Java is written to OnBotJava's blocks source
+ * folder, not the team's source folder, and an OnBotJava build is requested. OnBotJava compiles
+ * each generated file on its own, after the team's sources, so generated Java that doesn't
+ * compile is left out without failing the team's build. Once a build has included the class, the
+ * project runs as the compiled class; until then, or if the generated Java can't be compiled, it
+ * runs as JavaScript in the WebView, as before.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class CompiledBlocksUtil {
+
+  public static final String TAG = "CompiledBlocksUtil";
+
+  // The class declaration that the editor generates. The class name is replaced with one
+  // derived from the project name.
+  private static final String GENERATED_CLASS_DECLARATION =
+      "public class CompiledBlocksProgram extends CompiledBlocksOpMode {";
+  // The comment that the Blocks-to-Java generator emits for a block it can't translate.
+  private static final String GENERATOR_ERROR_MARKER = "Sorry, FTC Blocks-to-Java has a bug!";
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  // Prevent instantiation of utility class.
+  private CompiledBlocksUtil() {
+  }
+
+  /**
+   * Returns the simple name of the compiled class for the given project.
+   */
+  public static String getCompiledClassName(String projectName) {
+    StringBuilder className = new StringBuilder();
+    if (!Character.isJavaIdentifierStart(projectName.charAt(0))) {
+      className.append('_');
+    }
+    int length = projectName.length();
+    for (int i = 0; i < length; i++) {
+      char ch = projectName.charAt(i);
+      if (Character.isJavaIdentifierPart(ch)) {
+        className.append(ch);
+      }
+    }
+    return className.toString();
+  }
+
+  private static File getCompiledJavaFile(String projectName) {
+    return new File(CompiledBlocksOpMode.SOURCE_DIR, getCompiledClassName(projectName) + ".java");
+  }
+
+  /**
+   * Writes the compiled Java for the given project and requests an OnBotJava build. If there is
+   * no Java, or it can't be compiled faithfully, any earlier compiled Java is deleted so that the
+   * project runs as JavaScript. Must be called while holding the projects lock.
+   *
+   * @param projectName the name of the project
+   * @param blkFileContent the content of the project's blocks file
+   * @param javaContent the Java generated by the blocks editor, or null
+   */
+  static void saveCompiledJava(String projectName, String blkFileContent, @Nullable String javaContent) {
+    if (javaContent == null || javaContent.isEmpty()) {
+      deleteCompiledJava(projectName);
+      return;
+    }
+    if (javaContent.contains(GENERATOR_ERROR_MARKER)) {
+      RobotLog.ww(TAG, "Project \"%s\" contains blocks that can't be translated to Java; it will run as JavaScript", projectName);
+      deleteCompiledJava(projectName);
+      return;
+    }
+    int declaration = javaContent.indexOf(GENERATED_CLASS_DECLARATION);
+    int closingBrace = javaContent.lastIndexOf('}');
+    if (declaration == -1 || closingBrace < declaration) {
+      RobotLog.ww(TAG, "Compiled Java for project \"%s\" is malformed; it will run as JavaScript", projectName);
+      deleteCompiledJava(projectName);
+      return;
+    }
+
+    String java = "// Generated from the blocks project \"" + projectName + "\" each time it is saved. Do not edit.\n" +
+        javaContent.substring(0, declaration) +
+        "public class " + getCompiledClassName(projectName) + " extends CompiledBlocksOpMode {" +
+        javaContent.substring(declaration + GENERATED_CLASS_DECLARATION.length(), closingBrace) +
+        "\n" +
+        "  @Override\n" +
+        "  public long getBlkChecksum() {\n" +
+        "    return 0x" + Long.toHexString(checksum(blkFileContent)) + "L;\n" +
+        "  }\n" +
+        javaContent.substring(closingBrace);
+
+    File javaFile = getCompiledJavaFile(projectName);
+    if (javaFile.exists() && java.equals(ReadWriteFile.readFile(javaFile))) {
+      // Saving without changing the blocks doesn't need a build.
+      return;
+    }
+    AppUtil.getInstance().ensureDirectoryExists(CompiledBlocksOpMode.SOURCE_DIR, false);
+    ReadWriteFile.updateFileRequiringCommit(javaFile, java);
+    requestOnBotJavaBuild();
+  }
+
+  /**
+   * Deletes the compiled Java for the given project, if there is any. Must be called while
+   * holding the projects lock.
+   */
+  static void deleteCompiledJava(String projectName) {
+    File javaFile = getCompiledJavaFile(projectName);
+    if (javaFile.exists()) {
+      if (javaFile.delete()) {
+        requestOnBotJavaBuild();
+      } else {
+        RobotLog.ww(TAG, "Unable to delete %s", javaFile.getPath());
+      }
+    }
+  }
+
+  private static void requestOnBotJavaBuild() {
+    // Without OnBotJava, there's no one to build, and the projects simply run as JavaScript.
+    if (OnBotJavaHelper.controlDir.isDirectory()) {
+      ReadWriteFile.writeFile(OnBotJavaHelper.buildRequestFile,
+          System.currentTimeMillis() + " - begin build (blocks)");
+    }
+  }
+
+  private static long checksum(String blkFileContent) {
+    CRC32 crc32 = new CRC32();
+    crc32.update(blkFileContent.getBytes(UTF8));
+    return crc32.getValue();
+  }
+
+  /**
+   * Returns a new instance of the compiled op mode for the given project, or null if there is
+   * none that was compiled from the project's current blocks.
+   */
+  @Nullable
+  public static CompiledBlocksOpMode newCompiledOpMode(final String projectName) {
+    final Class<? extends CompiledBlocksOpMode> compiledClass =
+        BlocksClassFilter.getInstance().findCompiledBlocksOpMode(getCompiledClassName(projectName));
+    if (compiledClass == null) {
+      return null;
+    }
+    return ProjectsLockManager.lockProjectsWhile(new Supplier<CompiledBlocksOpMode>() {
+      @Override public CompiledBlocksOpMode get() {
+        try {
+          CompiledBlocksOpMode opMode = compiledClass.newInstance();
+          String blkFileContent = ReadWriteFile.readFileOrThrow(new File(BLOCK_OPMODES_DIR, projectName + BLOCKS_BLK_EXT));
+          if (opMode.getBlkChecksum() != checksum(blkFileContent)) {
+            RobotLog.ii(TAG, "Compiled op mode for project \"%s\" is out of date; it will run as JavaScript", projectName);
+            return null;
+          }
+          return opMode;
+        } catch (IOException | InstantiationException | IllegalAccessException | RuntimeException e) {
+          RobotLog.ee(TAG, e, "Unable to instantiate compiled op mode for project \"%s\"", projectName);
+          return null;
+        }
+      }
+    });
+  }
+}
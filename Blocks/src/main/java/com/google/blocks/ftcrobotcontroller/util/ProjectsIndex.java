@@ -0,0 +1,345 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.google.blocks.ftcrobotcontroller.util;
+
+import static org.firstinspires.ftc.robotcore.internal.system.AppUtil.BLOCKS_BLK_EXT;
+import static org.firstinspires.ftc.robotcore.internal.system.AppUtil.BLOCK_OPMODES_DIR;
+
+import android.os.FileObserver;
+import android.text.Html;
+import androidx.annotation.Nullable;
+
+import com.google.gson.reflect.TypeToken;
+import com.qualcomm.robotcore.util.ReadWriteFile;
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
+
+import org.firstinspires.ftc.robotcore.external.Supplier;
+import org.firstinspires.ftc.robotcore.internal.collections.SimpleGson;
+import org.firstinspires.ftc.robotcore.internal.files.FileObserverManager;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.robotcore.internal.webserver.websockets.FtcWebSocketMessage;
+import org.firstinspires.ftc.robotcore.internal.webserver.websockets.WebSocketManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * An index of the blocks projects, from which the projects page gets its listing.
+ *
+ * <p>Listing the projects requires reading every blocks file, to find out whether the project is
+ * enabled. The index remembers that, along with each file's modification time and length, and
+ * keeps it on disk, so that after the first listing since the robot controller started, only
+ * files that have changed are read. The index is kept up to date by {@link ProjectsUtil}, for
+ * changes it makes, and by a file observer, for changes made some other way. Each change is
+ * broadcast over the {@link #NAMESPACE} web socket namespace.</p>
+ */
+public class ProjectsIndex {
+  public static final String TAG = "ProjectsIndex";
+
+  /**
+   * The web socket namespace over which changes to the projects are broadcast.
+   */
+  public static final String NAMESPACE = "BlocksProjects";
+  /**
+   * The type of the message sent when a project is created or changed. The payload is the JSON
+   * for the project, as it appears in the listing.
+   */
+  public static final String PROJECT_CHANGED_MESSAGE_TYPE = "projectChanged";
+  /**
+   * The type of the message sent when a project is deleted. The payload is the project name.
+   */
+  public static final String PROJECT_DELETED_MESSAGE_TYPE = "projectDeleted";
+
+  private static final int OBSERVER_MASK = FileObserver.CLOSE_WRITE | FileObserver.CREATE |
+      FileObserver.DELETE | FileObserver.MOVED_FROM | FileObserver.MOVED_TO;
+
+  private static final ProjectsIndex instance = new ProjectsIndex();
+
+  // Identifies this run of the robot controller in etags, since version restarts at zero.
+  private final String etagPrefix = Long.toHexString(System.currentTimeMillis());
+  private final Set<String> changedProjectNames =
+      Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  private final ExecutorService executor = ThreadPool.newSingleThreadExecutor(TAG);
+  private final Runnable updateChangedProjects = new Runnable() {
+    @Override public void run() {
+      ProjectsLockManager.lockProjectsWhile(new Supplier<Void>() {
+        @Override public Void get() {
+          updateChangedProjectsLocked();
+          return null;
+        }
+      });
+    }
+  };
+
+  // The following fields are guarded by the projects lock.
+  private final Map<String, Project> projects = new TreeMap<>();
+  private boolean scanned;
+  private FileObserver fileObserver;
+  private long version;
+  private Listing listing;
+
+  private volatile WebSocketManager webSocketManager;
+
+  /**
+   * A blocks project, as it appears in the listing.
+   */
+  private static class Project {
+    final String name;
+    final String escapedName;
+    final long dateModifiedMillis;
+    final long length;
+    final boolean enabled;
+
+    Project(String name, long dateModifiedMillis, long length, boolean enabled) {
+      this.name = name;
+      this.escapedName = Html.escapeHtml(name);
+      this.dateModifiedMillis = dateModifiedMillis;
+      this.length = length;
+      this.enabled = enabled;
+    }
+
+    boolean isCurrent(File blkFile) {
+      return blkFile.lastModified() == dateModifiedMillis && blkFile.length() == length;
+    }
+  }
+
+  /**
+   * The listing of all projects, as JSON, along with an etag that changes whenever it does.
+   */
+  public static class Listing {
+    public final String json;
+    public final String etag;
+
+    private Listing(String json, String etag) {
+      this.json = json;
+      this.etag = etag;
+    }
+  }
+
+  public static ProjectsIndex getInstance() {
+    return instance;
+  }
+
+  private ProjectsIndex() {
+  }
+
+  /**
+   * Sets the web socket manager over which changes are broadcast.
+   */
+  public void setWebSocketManager(WebSocketManager webSocketManager) {
+    webSocketManager.registerNamespaceAsBroadcastOnly(NAMESPACE);
+    this.webSocketManager = webSocketManager;
+  }
+
+  /**
+   * Returns the listing of all projects.
+   */
+  public Listing getListing() {
+    return ProjectsLockManager.lockProjectsWhile(new Supplier<Listing>() {
+      @Override public Listing get() {
+        if (!scanned) {
+          scanLocked();
+        }
+        updateChangedProjectsLocked();
+        if (listing == null) {
+          listing = new Listing(
+              SimpleGson.getInstance().toJson(projects.values()),
+              "\"" + etagPrefix + "-" + version + "\"");
+        }
+        return listing;
+      }
+    });
+  }
+
+  /**
+   * Updates the index for the project with the given name, which has been created, changed, or
+   * deleted. The caller must hold the projects lock.
+   */
+  void projectChangedLocked(String projectName) {
+    changedProjectNames.remove(projectName);
+    if (scanned) {
+      updateLocked(projectName);
+    }
+  }
+
+  private void scanLocked() {
+    startObserving();
+    ReadWriteFile.ensureAllChangesAreCommitted(BLOCK_OPMODES_DIR);
+
+    Map<String, Project> saved = readIndexFile();
+    projects.clear();
+    String[] filenames = BLOCK_OPMODES_DIR.list();
+    if (filenames != null) {
+      for (String filename : filenames) {
+        String projectName = getProjectName(filename);
+        if (projectName == null) {
+          continue;
+        }
+        File blkFile = new File(BLOCK_OPMODES_DIR, filename);
+        Project project = saved.get(projectName);
+        if (project == null || !project.isCurrent(blkFile)) {
+          project = readProject(projectName, blkFile);
+        }
+        if (project != null) {
+          projects.put(projectName, project);
+        }
+      }
+    }
+    scanned = true;
+    indexChangedLocked();
+  }
+
+  private void updateChangedProjectsLocked() {
+    if (!scanned) {
+      return;
+    }
+    for (String projectName : changedProjectNames.toArray(new String[0])) {
+      changedProjectNames.remove(projectName);
+      updateLocked(projectName);
+    }
+  }
+
+  private void updateLocked(String projectName) {
+    File blkFile = new File(BLOCK_OPMODES_DIR, projectName + BLOCKS_BLK_EXT);
+    Project oldProject = projects.get(projectName);
+    if (blkFile.isFile()) {
+      if (oldProject != null && oldProject.isCurrent(blkFile)) {
+        return;
+      }
+      Project project = readProject(projectName, blkFile);
+      if (project != null) {
+        projects.put(projectName, project);
+        indexChangedLocked();
+        broadcast(PROJECT_CHANGED_MESSAGE_TYPE, SimpleGson.getInstance().toJson(project));
+        return;
+      }
+    }
+    if (projects.remove(projectName) != null) {
+      indexChangedLocked();
+      broadcast(PROJECT_DELETED_MESSAGE_TYPE, projectName);
+    }
+  }
+
+  private void indexChangedLocked() {
+    version++;
+    listing = null;
+    writeIndexFile();
+  }
+
+  @Nullable
+  private static Project readProject(String projectName, File blkFile) {
+    try {
+      // Read the modification time and length first, so that a change made while the file is
+      // being read makes the entry out of date, rather than missing.
+      long dateModifiedMillis = blkFile.lastModified();
+      long length = blkFile.length();
+      boolean enabled = ProjectsUtil.isProjectEnabled(projectName);
+      return new Project(projectName, dateModifiedMillis, length, enabled);
+    } catch (IOException e) {
+      RobotLog.e("ProjectsIndex.readProject(\"" + projectName + "\") - problem with project");
+      RobotLog.logStackTrace(e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static String getProjectName(String filename) {
+    if (filename != null && filename.endsWith(BLOCKS_BLK_EXT)) {
+      String projectName = filename.substring(0, filename.length() - BLOCKS_BLK_EXT.length());
+      if (ProjectsUtil.isValidProjectName(projectName)) {
+        return projectName;
+      }
+    }
+    return null;
+  }
+
+  private void startObserving() {
+    if (fileObserver == null) {
+      AppUtil.getInstance().ensureDirectoryExists(BLOCK_OPMODES_DIR, false);
+      fileObserver = FileObserverManager.from(BLOCK_OPMODES_DIR.getAbsolutePath(), OBSERVER_MASK,
+          new FileObserverManager.Listener() {
+            @Override public void onEvent(int event, String path) {
+              String projectName = getProjectName(path);
+              if (projectName != null && changedProjectNames.add(projectName)) {
+                // Don't hold up the observer while waiting for the projects lock.
+                executor.execute(updateChangedProjects);
+              }
+            }
+          });
+      fileObserver.startWatching();
+    }
+  }
+
+  private void broadcast(String type, String payload) {
+    WebSocketManager webSocketManager = this.webSocketManager;
+    if (webSocketManager != null) {
+      webSocketManager.broadcastToNamespace(NAMESPACE, new FtcWebSocketMessage(NAMESPACE, type, payload));
+    }
+  }
+
+  private static File getIndexFile() {
+    return new File(new File(AppUtil.getDefContext().getCacheDir(), "blocks"), "projects.json");
+  }
+
+  private static Map<String, Project> readIndexFile() {
+    Map<String, Project> saved = new TreeMap<>();
+    File indexFile = getIndexFile();
+    if (indexFile.isFile()) {
+      try {
+        List<Project> list = SimpleGson.getInstance().fromJson(
+            ReadWriteFile.readFileOrThrow(indexFile), new TypeToken<List<Project>>() {}.getType());
+        if (list != null) {
+          for (Project project : list) {
+            saved.put(project.name, project);
+          }
+        }
+      } catch (Exception e) {
+        RobotLog.ww(TAG, e, "unable to read %s", indexFile.getName());
+      }
+    }
+    return saved;
+  }
+
+  private void writeIndexFile() {
+    File indexFile = getIndexFile();
+    AppUtil.getInstance().ensureDirectoryExists(indexFile.getParentFile(), false);
+    ReadWriteFile.writeFile(indexFile, SimpleGson.getInstance().toJson(new ArrayList<>(projects.values())));
+  }
+}
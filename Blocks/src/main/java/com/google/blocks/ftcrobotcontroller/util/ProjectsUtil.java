@@ -99,48 +99,7 @@ public class ProjectsUtil {
    * Returns the names and last modified time of existing blocks projects that have a blocks file.
    */
   public static String fetchProjectsWithBlocks() {
-    ReadWriteFile.ensureAllChangesAreCommitted(BLOCK_OPMODES_DIR);
-
-    return ProjectsLockManager.lockProjectsWhile(new Supplier<String>() {
-      @Override public String get() {
-        File[] files = BLOCK_OPMODES_DIR.listFiles(new FilenameFilter() {
-          @Override
-          public boolean accept(File dir, String filename) {
-            if (filename.endsWith(BLOCKS_BLK_EXT)) {
-              String projectName = filename.substring(0, filename.length() - BLOCKS_BLK_EXT.length());
-              return isValidProjectName(projectName);
-            }
-            return false;
-          }
-        });
-        if (files != null) {
-          StringBuilder jsonProjects = new StringBuilder();
-          jsonProjects.append("[");
-          String delimiter = "";
-          for (File file : files) {
-            String filename = file.getName();
-            String projectName = filename.substring(0, filename.length() - BLOCKS_BLK_EXT.length());
-            try {
-              boolean enabled = isProjectEnabled(projectName);
-              jsonProjects.append(delimiter)
-                  .append("{")
-                  .append("\"name\":\"").append(escapeDoubleQuotes(projectName)).append("\", ")
-                  .append("\"escapedName\":\"").append(escapeDoubleQuotes(Html.escapeHtml(projectName))).append("\", ")
-                  .append("\"dateModifiedMillis\":").append(file.lastModified()).append(", ")
-                  .append("\"enabled\":").append(enabled)
-                  .append("}");
-              delimiter = ",";
-            } catch (IOException e) {
-              RobotLog.e("ProjectsUtil.fetchProjectsWithBlocks() - problem with project " + projectName);
-              RobotLog.logStackTrace(e);
-            }
-          }
-          jsonProjects.append("]");
-          return jsonProjects.toString();
-        }
-        return "[]";
-      }
-    });
+    return ProjectsIndex.getInstance().getListing().json;
   }
 
   public static String escapeSingleQuotes(String s) {
@@ -686,6 +645,21 @@ public class ProjectsUtil {
    */
   public static void saveProject(final String projectName, final String blkFileContent, final String jsFileContent)
       throws IOException {
+    saveProject(projectName, blkFileContent, jsFileContent, null);
+  }
+
+  /**
+   * Save the blocks file and JavaScript file with the given project name, along with the Java
+   * generated for running the project as a compiled op mode.
+   *
+   * @param projectName the name of the project
+   * @param blkFileContent the content to write to the blocks file.
+   * @param jsFileContent the content to write to the JavaScript file.
+   * @param javaFileContent the Java generated for the project, or null if there is none, in which
+   *                        case the project will run as JavaScript.
+   */
+  public static void saveProject(final String projectName, final String blkFileContent, final String jsFileContent,
+      @Nullable final String javaFileContent) throws IOException {
 
     if (!isValidProjectName(projectName)) {
       throw new IllegalArgumentException();
@@ -699,6 +673,8 @@ public class ProjectsUtil {
         File jsFile = new File(BLOCK_OPMODES_DIR, projectName + BLOCKS_JS_EXT);
         ReadWriteFile.updateFileRequiringCommit(blkFile, blkFileContent);
         ReadWriteFile.updateFileRequiringCommit(jsFile, jsFileContent);
+        CompiledBlocksUtil.saveCompiledJava(projectName, blkFileContent, javaFileContent);
+        ProjectsIndex.getInstance().projectChangedLocked(projectName);
         return null;
       }
     });
@@ -725,6 +701,11 @@ public class ProjectsUtil {
           File oldJs = new File(BLOCK_OPMODES_DIR, oldProjectName + BLOCKS_JS_EXT);
           File newJs = new File(BLOCK_OPMODES_DIR, newProjectName + BLOCKS_JS_EXT);
           oldJs.renameTo(newJs);
+          // The compiled class is named for the project, so the project runs as JavaScript until
+          // it is next saved.
+          CompiledBlocksUtil.deleteCompiledJava(oldProjectName);
+          ProjectsIndex.getInstance().projectChangedLocked(oldProjectName);
+          ProjectsIndex.getInstance().projectChangedLocked(newProjectName);
         }
         return null;
       }
@@ -750,6 +731,7 @@ public class ProjectsUtil {
         File oldBlk = new File(BLOCK_OPMODES_DIR, oldProjectName + BLOCKS_BLK_EXT);
         File newBlk = new File(BLOCK_OPMODES_DIR, newProjectName + BLOCKS_BLK_EXT);
         FileUtil.copyFile(oldBlk, newBlk);
+        ProjectsIndex.getInstance().projectChangedLocked(newProjectName);
         try {
           File oldJs = new File(BLOCK_OPMODES_DIR, oldProjectName + BLOCKS_JS_EXT);
           File newJs = new File(BLOCK_OPMODES_DIR, newProjectName + BLOCKS_JS_EXT);
@@ -800,6 +782,7 @@ public class ProjectsUtil {
         String newBlkFileContent = blocksContent +
             formatExtraXml(opModeMeta.flavor, opModeMeta.group, opModeMeta.autoTransition, enable);
         ReadWriteFile.updateFileRequiringCommit(blkFile, newBlkFileContent);
+        ProjectsIndex.getInstance().projectChangedLocked(projectName);
         return null;
       }
     });
@@ -835,6 +818,10 @@ public class ProjectsUtil {
               }
             }
           }
+          if (success) {
+            CompiledBlocksUtil.deleteCompiledJava(projectName);
+          }
+          ProjectsIndex.getInstance().projectChangedLocked(projectName);
         }
         return success;
       }
@@ -974,7 +961,7 @@ public class ProjectsUtil {
     return builder.build();
   }
 
-  private static boolean isProjectEnabled(String projectName) throws IOException {
+  static boolean isProjectEnabled(String projectName) throws IOException {
     if (!isValidProjectName(projectName)) {
       throw new IllegalArgumentException();
     }
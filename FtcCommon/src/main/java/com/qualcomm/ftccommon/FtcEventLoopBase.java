@@ -165,6 +165,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 /**
@@ -189,6 +190,7 @@ public abstract class FtcEventLoopBase implements EventLoop
     protected FtcEventLoopHandler ftcEventLoopHandler;
     protected boolean runningOnDriverStation = false;
     protected USBScanManager usbScanManager;
+    protected final AtomicInteger lynxFirmwareUpdatesActive = new AtomicInteger(0);
     protected final OpModeRegister userOpmodeRegister;
 
     protected final RegisteredOpModes registeredOpModes;
@@ -511,7 +513,7 @@ public abstract class FtcEventLoopBase implements EventLoop
         {
         RobotConfigFile cfgFile = robotCfgFileMgr.getConfigFromString(fileInfo);
         File file = RobotConfigFileManager.getFullPath(cfgFile.getName());
-        if (file.delete())
+        if (RobotConfigFileManager.deleteConfigFile(file))
             {
             /* all is well */
             }
@@ -660,11 +662,12 @@ public abstract class FtcEventLoopBase implements EventLoop
      * Updates the firmware of the Expansion Hub in the indicated USB-attached device
      * to be the indicated firmware.
      */
-    protected LynxFirmwareUpdateResp updateLynxFirmware(final SerialNumber serialNumber, final CommandList.FWImage image, String requestId)
+    protected LynxFirmwareUpdateResp updateLynxFirmware(final SerialNumber serialNumber, final CommandList.FWImage image, final String requestId)
         {
         LynxFirmwareUpdateResp result = new LynxFirmwareUpdateResp();
         result.success = false;
         result.originatorId = requestId;
+        lynxFirmwareUpdatesActive.incrementAndGet();
 
         final boolean updatingControlHub = serialNumber.isEmbedded();
         Consumer<ProgressParameters> progressConsumer = new Consumer<ProgressParameters>()
@@ -689,6 +692,7 @@ public abstract class FtcEventLoopBase implements EventLoop
                             message,
                             parameters.fractionComplete(),
                             100);
+                    broadcastLynxFirmwareUpdateProgress(serialNumber, requestId, parameters, false, false);
                     }
                 }
             };
@@ -714,12 +718,29 @@ public abstract class FtcEventLoopBase implements EventLoop
             }
         finally
             {
-            AppUtil.getInstance().dismissProgress(UILocation.BOTH);
+            // Other hubs may still be updating; the dialog is shared, so leave it up for them
+            if (lynxFirmwareUpdatesActive.decrementAndGet() == 0)
+                {
+                AppUtil.getInstance().dismissProgress(UILocation.BOTH);
+                }
             }
+        broadcastLynxFirmwareUpdateProgress(serialNumber, requestId, new ProgressParameters(1, 1), true, result.success);
         RobotLog.vv(TAG, "updateLynxFirmware(%s, %s): result=%s", serialNumber, image.getName(), result.serialize());
         return result;
         }
 
+    protected void broadcastLynxFirmwareUpdateProgress(SerialNumber serialNumber, String requestId, ProgressParameters parameters, boolean done, boolean success)
+        {
+        CommandList.LynxFirmwareUpdateProgress progress = new CommandList.LynxFirmwareUpdateProgress();
+        progress.serialNumber = serialNumber;
+        progress.originatorId = requestId;
+        progress.cur = parameters.cur;
+        progress.max = parameters.max;
+        progress.done = done;
+        progress.success = success;
+        AppUtil.getInstance().broadcastFirmwareUpdateProgress(progress);
+        }
+
     protected void handleCommandGetUSBAccessibleLynxModules(final Command commandRequest)
         {
         ThreadPool.getDefault().execute(new Runnable()
@@ -335,7 +335,7 @@ public class FtcLoadFileActivity extends EditActivity {
     } else {
       if (robotConfigFile.getLocation() == RobotConfigFile.FileLocation.LOCAL_STORAGE) {
         File file = robotConfigFile.getFullPath();
-        if (file.delete()) {
+        if (RobotConfigFileManager.deleteConfigFile(file)) {
           // all is well
         } else {
           String filenameWExt = file.getName();
@@ -21,6 +21,7 @@ import com.qualcomm.ftccommon.CommandList;
 import com.qualcomm.ftccommon.R;
 import com.qualcomm.robotcore.exception.DuplicateNameException;
 import com.qualcomm.robotcore.exception.RobotCoreException;
+import com.qualcomm.robotcore.hardware.configuration.CompiledConfigCache;
 import com.qualcomm.robotcore.hardware.configuration.ControllerConfiguration;
 import com.qualcomm.robotcore.hardware.configuration.ReadXMLFileHandler;
 import com.qualcomm.robotcore.hardware.configuration.WriteXMLFileHandler;
@@ -50,6 +51,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import javax.xml.transform.Result;
@@ -95,6 +98,18 @@ public class RobotConfigFileManager {
     private static Supplier<Collection<Integer>> xmlResourceIdSupplier = null;
     private static Supplier<Collection<Integer>> xmlResourceTemplateIdsSupplier = null;
 
+    /*
+     * Resource-based configurations can't change while we're running, so we only ever need
+     * to open each of them once in order to learn its name.
+     */
+    private static final Map<Integer, String> xmlResourceNames = new ConcurrentHashMap<Integer, String>();
+
+    /*
+     * Counts the changes to which configuration is active and the writes of configuration files,
+     * so that anything derived from the active configuration can cheaply tell that it's stale.
+     */
+    private static final AtomicInteger configChangeCount = new AtomicInteger();
+
     public RobotConfigFileManager(Activity activity)
     {
         this.activity = activity;
@@ -143,6 +158,15 @@ public class RobotConfigFileManager {
         return "FirstInspires-FTC-template";
     }
 
+    /**
+     * Returns a number that changes each time a configuration is made active or a configuration
+     * file is written by this process.
+     */
+    public static int getConfigChangeCount()
+    {
+        return configChangeCount.get();
+    }
+
     /** Sets the collection into which our class filter will insert the resource ids of
      * the resource-based robot XML configurations.
      * @see RobotConfigResFilter */
@@ -231,6 +255,7 @@ public class RobotConfigFileManager {
 
         edit.putString(key, objSerialized);
         edit.apply();
+        configChangeCount.incrementAndGet();
     }
 
     public void sendRobotControllerActiveConfigAndUpdateUI(@NonNull RobotConfigFile config)
@@ -389,20 +414,10 @@ public class RobotConfigFileManager {
      */
     public ArrayList<RobotConfigFile> getXMLFiles()
     {
-        File robotDir = AppUtil.CONFIG_FILES_DIR;
-        File[] configFiles = robotDir.listFiles();
-
         ArrayList<RobotConfigFile> fileList = new ArrayList<RobotConfigFile>();
 
-        for (File f: configFiles) {
-            if (f.isFile()) {
-                String name = f.getName();
-                Pattern pattern = Pattern.compile("(?i).xml");
-                if (pattern.matcher(name).find()) {
-                    String nameNoExt = stripFileNameExtension(name);
-                    fileList.add(new RobotConfigFile(this, nameNoExt));
-                }
-            }
+        for (String nameNoExt : getXMLFileNames()) {
+            fileList.add(new RobotConfigFile(this, nameNoExt));
         }
 
         /*
@@ -410,6 +425,53 @@ public class RobotConfigFileManager {
          */
         for (@XmlRes int id : getXmlResourceIds()) {
 
+            // Avoid duplicate names
+            RobotConfigFile configFile = new RobotConfigFile(getXmlResourceName(id), id);
+            if (!configFile.containedIn(fileList)) {
+                fileList.add(configFile);
+            }
+        }
+
+        return fileList;
+    }
+
+    /**
+     * Returns the names (sans extension) of the configuration files in the configuration folder.
+     * The folder is only actually enumerated if it has changed since we last looked at it; otherwise,
+     * the names are taken from the index maintained by {@link CompiledConfigCache}.
+     */
+    protected List<String> getXMLFileNames()
+    {
+        File robotDir = AppUtil.CONFIG_FILES_DIR;
+        List<String> result = CompiledConfigCache.readIndex(robotDir);
+        if (result != null) {
+            return result;
+        }
+
+        long dirLastModified = robotDir.lastModified();
+        File[] configFiles = robotDir.listFiles();
+        result = new ArrayList<String>();
+
+        if (configFiles != null) {
+            Pattern pattern = Pattern.compile("(?i).xml");
+            for (File f: configFiles) {
+                if (f.isFile()) {
+                    String name = f.getName();
+                    if (pattern.matcher(name).find()) {
+                        result.add(stripFileNameExtension(name));
+                    }
+                }
+            }
+        }
+
+        CompiledConfigCache.writeIndex(robotDir, dirLastModified, result);
+        return result;
+    }
+
+    protected String getXmlResourceName(@XmlRes int id)
+    {
+        String name = xmlResourceNames.get(id);
+        if (name == null) {
             /**
              * With file-based configurations, the name of the configuration always
              * matches the name of the file in which the XML is stored. And by default,
@@ -419,28 +481,18 @@ public class RobotConfigFileManager {
              * may optionally be taken from the "name" attribute of the root element.
              */
             XmlResourceParser xpp = resources.getXml(id);
-            String name = RobotConfigResFilter.getRootAttribute(xpp, RobotConfigResFilter.robotConfigRootTag, "name", resources.getResourceEntryName(id));
-
-            // Avoid duplicate names
-            RobotConfigFile configFile = new RobotConfigFile(name, id);
-            if (!configFile.containedIn(fileList)) {
-                fileList.add(configFile);
-            }
+            name = RobotConfigResFilter.getRootAttribute(xpp, RobotConfigResFilter.robotConfigRootTag, "name", resources.getResourceEntryName(id));
+            xmlResourceNames.put(id, name);
         }
-
-        return fileList;
+        return name;
     }
 
     public ArrayList<RobotConfigFile> getXMLTemplates()
     {
         ArrayList<RobotConfigFile> templateList = new ArrayList<RobotConfigFile>();
         for (@XmlRes int id : getXmlResourceTemplateIds()) {
-            /**  @see #getXMLFiles() */
-            XmlResourceParser xpp = resources.getXml(id);
-            String name = RobotConfigResFilter.getRootAttribute(xpp, RobotConfigResFilter.robotConfigRootTag, "name", resources.getResourceEntryName(id));
-
             // Avoid duplicate names
-            RobotConfigFile configFile = new RobotConfigFile(name, id);
+            RobotConfigFile configFile = new RobotConfigFile(getXmlResourceName(id), id);
             if (!configFile.containedIn(templateList)) {
                 templateList.add(configFile);
             }
@@ -605,9 +657,20 @@ public class RobotConfigFileManager {
 
     void writeXMLToFile(String filenameWithExt, String data) throws RobotCoreException, IOException
     {
+        CompiledConfigCache.invalidate(new File(AppUtil.CONFIG_FILES_DIR, filenameWithExt));
         writer.writeToFile(data, AppUtil.CONFIG_FILES_DIR, filenameWithExt);
     }
 
+    /**
+     * Deletes the indicated (local storage) configuration file, along with any compiled form thereof.
+     * @return whether the file was deleted
+     */
+    public static boolean deleteConfigFile(File file)
+    {
+        CompiledConfigCache.invalidate(file);
+        return file.delete();
+    }
+
     void writeToRobotController(RobotConfigFile cfgFile, String data)
     {
         networkConnectionHandler.sendCommand(new Command(CommandList.CMD_SAVE_CONFIGURATION, cfgFile.toString() + FILE_LIST_COMMAND_DELIMITER + data));
@@ -624,6 +687,7 @@ public class RobotConfigFileManager {
             }
             else {
                 this.writeXMLToFile(RobotConfigFileManager.withExtension(cfgFile.getName()), data);
+                configChangeCount.incrementAndGet();
             }
         } catch (RobotCoreException|IOException|RuntimeException e) {
             if (wasDirty) cfgFile.markDirty();
@@ -128,6 +128,7 @@ import org.firstinspires.inspection.RcInspectionActivity;
 import org.threeten.bp.YearMonth;
 import org.xmlpull.v1.XmlPullParserException;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.List;
 import java.util.Queue;
@@ -717,7 +718,14 @@ public class FtcRobotControllerActivity extends Activity
     RobotConfigFile file = cfgFileMgr.getActiveConfigAndUpdateUI();
     HardwareFactory hardwareFactory = new HardwareFactory(context);
     try {
-      hardwareFactory.setXmlPullParser(file.getXml());
+      if (file.getLocation() == RobotConfigFile.FileLocation.LOCAL_STORAGE) {
+        // The factory reads the file itself, so don't open a parser that nothing would consume
+        File xmlFile = file.getFullPath();
+        if (!xmlFile.isFile()) throw new FileNotFoundException(xmlFile.getPath());
+        hardwareFactory.setXmlFile(xmlFile);
+      } else {
+        hardwareFactory.setXmlPullParser(file.getXml());
+      }
     } catch (FileNotFoundException | XmlPullParserException e) {
       RobotLog.ww(TAG, e, "Unable to set configuration file %s. Falling back on noConfig.", file.getName());
       file = RobotConfigFile.noConfig(cfgFileMgr);
@@ -32,6 +32,7 @@ package com.qualcomm.hardware;
 
 import android.content.Context;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.qualcomm.hardware.lynx.LynxAnalogInputController;
 import com.qualcomm.hardware.lynx.LynxDcMotorController;
@@ -82,6 +83,7 @@ import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
 import com.qualcomm.hardware.lynx.EmbeddedControlHubModule;
 import org.xmlpull.v1.XmlPullParser;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -101,6 +103,7 @@ public class HardwareFactory {
 
   private Context       context;
   private XmlPullParser xmlPullParser = null;
+  private File          xmlFile = null;
 
   //------------------------------------------------------------------------------------------------
   // Construction
@@ -132,12 +135,15 @@ public class HardwareFactory {
 
       HardwareMap map = new HardwareMap(context);
 
-      if (xmlPullParser != null) {
+      if (xmlFile != null || xmlPullParser != null) {
         DeviceManager deviceMgr = new HardwareDeviceManager(context, manager);
 
         ReadXMLFileHandler readXmlFileHandler = new ReadXMLFileHandler(deviceMgr);
 
-        List<ControllerConfiguration> ctrlConfList = readXmlFileHandler.parse(xmlPullParser);
+        // Prefer the file, if we have one, so that we can take advantage of its compiled form
+        List<ControllerConfiguration> ctrlConfList = xmlFile != null
+                ? readXmlFileHandler.parse(xmlFile)
+                : readXmlFileHandler.parse(xmlPullParser);
 
         for (ControllerConfiguration ctrlConf : ctrlConfList) {
           mapControllerConfiguration(map, deviceMgr, ctrlConf);
@@ -179,6 +185,15 @@ public class HardwareFactory {
     return xmlPullParser;
   }
 
+  /**
+   * Sets the file from which the configuration was read, if any. If set, this is used in preference
+   * to the {@link #setXmlPullParser(XmlPullParser) XmlPullParser}, as it allows the parsed
+   * configuration to be cached.
+   */
+  public void setXmlFile(@Nullable File xmlFile) {
+    this.xmlFile = xmlFile;
+  }
+
   private void mapMotor(HardwareMap map, DeviceManager deviceMgr, DeviceConfiguration motorConf, DcMotorController dcMotorController) {
     if (!motorConf.isEnabled()) return;
     DcMotor dcMotor = deviceMgr.createDcMotor(dcMotorController, motorConf.getPort(), (MotorConfigurationType) motorConf.getConfigurationType(), motorConf.getName());
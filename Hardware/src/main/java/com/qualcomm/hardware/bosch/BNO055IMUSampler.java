@@ -0,0 +1,262 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.qualcomm.hardware.bosch;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Acceleration;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link BNO055IMUSampler} is an opt-in service that reads orientation, angular velocity and
+ * linear acceleration from a {@link BNO055IMU} at a fixed rate on a dedicated thread. Each set
+ * of readings is published as an immutable {@link Sample}, which can then be retrieved by any
+ * number of threads without blocking and without incurring an I2C transaction:
+ *
+ * <pre>
+ *    BNO055IMUSampler sampler = new BNO055IMUSampler(imu, 10, 100);
+ *    sampler.start();
+ *    ...
+ *    while (opModeIsActive()) {
+ *        float heading = sampler.getLatest().orientation.firstAngle;
+ *        ...
+ *    }
+ *    sampler.stop();
+ * </pre>
+ *
+ * <p>A bounded history of recent samples is also maintained, so that, for example, a
+ * vision measurement taken some time ago can be paired with the orientation of the robot at
+ * that time; see {@link #getOrientationAt(long)}.</p>
+ *
+ * <p>Timestamps throughout are those on the {@link System#nanoTime()} clock recorded by the
+ * underlying I2C reads (see {@link com.qualcomm.robotcore.hardware.TimestampedData}).</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class BNO055IMUSampler
+    {
+    //------------------------------------------------------------------------------------------
+    // State
+    //------------------------------------------------------------------------------------------
+
+    public static final String TAG = "BNO055IMUSampler";
+
+    /**
+     * One set of readings from the IMU. Samples are shared between all readers, and so
+     * must not be modified.
+     */
+    public static class Sample
+        {
+        /** the orientation, as returned by {@link BNO055IMU#getAngularOrientation()} */
+        public final @NonNull Orientation     orientation;
+        /** the angular velocity, as returned by {@link BNO055IMU#getAngularVelocity()} */
+        public final @NonNull AngularVelocity angularVelocity;
+        /** the linear acceleration, as returned by {@link BNO055IMU#getLinearAcceleration()} */
+        public final @NonNull Acceleration    linearAcceleration;
+        /** the sequence number of this sample; increases by one with each sample taken */
+        public final long                     sequence;
+
+        public Sample(@NonNull Orientation orientation, @NonNull AngularVelocity angularVelocity, @NonNull Acceleration linearAcceleration, long sequence)
+            {
+            this.orientation = orientation;
+            this.angularVelocity = angularVelocity;
+            this.linearAcceleration = linearAcceleration;
+            this.sequence = sequence;
+            }
+
+        /** Returns the time at which the orientation in this sample was acquired */
+        public long getNanoTime()
+            {
+            return orientation.acquisitionTime;
+            }
+        }
+
+    protected final BNO055IMU                     imu;
+    protected final int                           msInterval;
+    protected final AtomicReferenceArray<Sample>  history;
+    protected final Object                        startStopLock = new Object();
+    protected volatile Sample                     latest = null;
+    protected long                                sequence = 0;     // only touched on the sampling thread
+    protected ScheduledExecutorService            executor = null;
+
+    //------------------------------------------------------------------------------------------
+    // Construction
+    //------------------------------------------------------------------------------------------
+
+    /**
+     * @param imu           the (initialized) IMU to sample
+     * @param msInterval    the interval at which samples are to be taken
+     * @param historySize   the number of recent samples to retain for {@link #getSampleAt(long)}
+     */
+    public BNO055IMUSampler(@NonNull BNO055IMU imu, int msInterval, int historySize)
+        {
+        if (msInterval <= 0) throw new IllegalArgumentException("msInterval must be positive: " + msInterval);
+        if (historySize <= 0) throw new IllegalArgumentException("historySize must be positive: " + historySize);
+        this.imu = imu;
+        this.msInterval = msInterval;
+        this.history = new AtomicReferenceArray<Sample>(historySize);
+        }
+
+    //------------------------------------------------------------------------------------------
+    // Operations
+    //------------------------------------------------------------------------------------------
+
+    /** Begins sampling. Has no effect if sampling is already underway. */
+    public void start()
+        {
+        synchronized (startStopLock)
+            {
+            if (executor == null)
+                {
+                executor = ThreadPool.newScheduledExecutor(1, "imu sampler");
+                executor.scheduleAtFixedRate(new Runnable()
+                    {
+                    @Override public void run()
+                        {
+                        takeSample();
+                        }
+                    }, 0, msInterval, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+    /** Stops sampling. Samples already taken remain available. */
+    public void stop()
+        {
+        synchronized (startStopLock)
+            {
+            if (executor != null)
+                {
+                executor.shutdownNow();
+                ThreadPool.awaitTerminationOrExitApplication(executor, 10, TimeUnit.SECONDS, "IMU sampler", "IMU read unresponsive");
+                executor = null;
+                }
+            }
+        }
+
+    public boolean isSampling()
+        {
+        synchronized (startStopLock)
+            {
+            return executor != null;
+            }
+        }
+
+    protected void takeSample()
+        {
+        try {
+            Orientation orientation = imu.getAngularOrientation();
+            AngularVelocity angularVelocity = imu.getAngularVelocity();
+            Acceleration linearAcceleration = imu.getLinearAcceleration();
+
+            Sample sample = new Sample(orientation, angularVelocity, linearAcceleration, sequence);
+            history.set((int)(sequence % history.length()), sample);
+            sequence++;
+            latest = sample;    // publish last, so that history is never behind latest
+            }
+        catch (RuntimeException e)
+            {
+            // An exception escaping would silently cancel all future samples
+            RobotLog.ee(TAG, e, "exception reading IMU; sample skipped");
+            }
+        }
+
+    //------------------------------------------------------------------------------------------
+    // Accessing
+    //------------------------------------------------------------------------------------------
+
+    /** Returns the most recent sample, or null if none has yet been taken. Never blocks. */
+    public @Nullable Sample getLatest()
+        {
+        return latest;
+        }
+
+    /**
+     * Returns the most recent sample acquired at or before the indicated time, or null if no
+     * such sample remains in the history. Never blocks.
+     */
+    public @Nullable Sample getSampleAt(long nanoTime)
+        {
+        Sample newest = latest;
+        if (newest == null) return null;
+
+        // Walk backwards from the newest sample. Samples have monotonically increasing timestamps,
+        // and a slot overwritten while we walk just shows up as a sequence discontinuity.
+        int capacity = history.length();
+        for (long seq = newest.sequence; seq >= 0 && seq > newest.sequence - capacity; seq--)
+            {
+            Sample sample = history.get((int)(seq % capacity));
+            if (sample == null || sample.sequence != seq) return null;
+            if (sample.getNanoTime() <= nanoTime) return sample;
+            }
+        return null;
+        }
+
+    /**
+     * Returns the orientation at the indicated time, interpolating linearly between the samples
+     * on either side of that time. If the time is later than the latest sample, the latest
+     * orientation is returned; if it's older than any retained sample, null is returned.
+     */
+    public @Nullable Orientation getOrientationAt(long nanoTime)
+        {
+        Sample before = getSampleAt(nanoTime);
+        if (before == null) return null;
+
+        Sample after = history.get((int)((before.sequence + 1) % history.length()));
+        if (after == null || after.sequence != before.sequence + 1 || before.getNanoTime() == nanoTime)
+            {
+            return before.orientation;
+            }
+
+        Orientation a = before.orientation;
+        Orientation b = after.orientation;
+        float fraction = (float)(nanoTime - a.acquisitionTime) / (float)(b.acquisitionTime - a.acquisitionTime);
+        return new Orientation(a.axesReference, a.axesOrder, a.angleUnit,
+                interpolate(a.angleUnit, a.firstAngle, b.firstAngle, fraction),
+                interpolate(a.angleUnit, a.secondAngle, b.secondAngle, fraction),
+                interpolate(a.angleUnit, a.thirdAngle, b.thirdAngle, fraction),
+                nanoTime);
+        }
+
+    /** Interpolates along the shorter arc between two angles */
+    protected static float interpolate(AngleUnit unit, float from, float to, float fraction)
+        {
+        return unit.normalize(from + unit.normalize(to - from) * fraction);
+        }
+    }
@@ -34,6 +34,7 @@ import com.qualcomm.robotcore.hardware.configuration.LynxConstants;
 import com.qualcomm.robotcore.hardware.usb.ftdi.RobotUsbDeviceFtdi;
 import com.qualcomm.robotcore.util.ReadWriteFile;
 import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.SerialNumber;
 
 import org.firstinspires.ftc.robotcore.external.Consumer;
 import org.firstinspires.ftc.robotcore.internal.hardware.android.AndroidBoard;
@@ -45,14 +46,22 @@ import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
 import org.firstinspires.ftc.robotcore.internal.ui.ProgressParameters;
 import org.firstinspires.ftc.robotcore.internal.usb.exception.RobotUsbException;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 // package-private. This should ONLY be accessed via LynxUsbDeviceImpl
 class LynxFirmwareUpdater {
     private static final String TAG = "LynxFirmwareUpdater";
 
-    // For now, we only allow 1 firmware update at a time across ALL devices, so this is static
-    private static final AtomicBoolean firmwareUpdateInProgress = new AtomicBoolean(false);
+    // Independent hubs each have their own USB link, so they may be flashed concurrently; we
+    // only refuse a second update of a device that's already being updated.
+    private static final Set<SerialNumber> firmwareUpdatesInProgress = Collections.newSetFromMap(new ConcurrentHashMap<SerialNumber, Boolean>());
+
+    // Images read for earlier updates, so flashing several hubs reads the image only once
+    private static final Map<String, CachedImage> cachedImages = new HashMap<>();
 
     private final LynxUsbDeviceImpl device;
     private final boolean isControlHub;
@@ -69,15 +78,16 @@ class LynxFirmwareUpdater {
 
         RobotLog.vv(TAG, "updateFirmware() serialNumber=%s, fwimage=%s", device.getSerialNumber(), image.getName());
 
-        byte[] firmwareImage = ReadWriteFile.readBytes(image);
+        byte[] firmwareImage = getFirmwareImage(image);
         if (firmwareImage.length <= 0) {
             result.errorMessage = AppUtil.getDefContext().getString(R.string.lynxFirmwareFileEmpty);
             RobotLog.vv(TAG, "Firmware update file was empty");
             return result;
         }
 
+        boolean firmwareUpdateAllowed = false;
         try {
-            boolean firmwareUpdateAllowed = firmwareUpdateInProgress.compareAndSet(false, true);
+            firmwareUpdateAllowed = firmwareUpdatesInProgress.add(device.getSerialNumber());
             if (!firmwareUpdateAllowed) {
                 result.errorMessage = AppUtil.getDefContext().getString(R.string.lynxFirmwareUpdateAlreadyInProgress);
                 RobotLog.vv(TAG, "Cannot update firmware: a firmware update is already in progress");
@@ -102,13 +112,49 @@ class LynxFirmwareUpdater {
         } catch (RuntimeException e) {
             RobotLog.ee(TAG, e, "RuntimeException in updateLynxFirmware()");
         } finally {
-            RobotLog.vv(TAG, "reengaging lynx usb device %s", device.getSerialNumber());
-            device.engage();
-            firmwareUpdateInProgress.set(false);
+            if (firmwareUpdateAllowed) {
+                RobotLog.vv(TAG, "reengaging lynx usb device %s", device.getSerialNumber());
+                device.engage();
+                firmwareUpdatesInProgress.remove(device.getSerialNumber());
+            }
         }
         return result;
     }
 
+    /**
+     * Returns the contents of the indicated image, reading it only if we haven't already done so.
+     * Files are re-read should they change on disk; assets can't change under us. The returned
+     * array is shared, and must not be modified.
+     */
+    static byte[] getFirmwareImage(RobotCoreCommandList.FWImage image) {
+        String key = (image.isAsset ? "asset:" : "file:") + image.file.getPath();
+        long lastModified = image.isAsset ? 0 : image.file.lastModified();
+        long length = image.isAsset ? 0 : image.file.length();
+        synchronized (cachedImages) {
+            CachedImage cached = cachedImages.get(key);
+            if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+                return cached.bytes;
+            }
+            byte[] bytes = ReadWriteFile.readBytes(image);
+            if (bytes.length > 0) {
+                cachedImages.put(key, new CachedImage(bytes, lastModified, length));
+            }
+            return bytes;
+        }
+    }
+
+    private static class CachedImage {
+        final byte[] bytes;
+        final long lastModified;
+        final long length;
+
+        CachedImage(byte[] bytes, long lastModified, long length) {
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+
     private boolean updateFirmwareOnce(byte[] firmwareImage, Consumer<ProgressParameters> progressConsumer) {
         boolean success = true;
         if (enterFirmwareUpdateMode()) {
@@ -0,0 +1,346 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.qualcomm.hardware.lynx;
+
+import com.qualcomm.hardware.lynx.commands.LynxDatagram;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link LynxTransmitQueue} combines datagrams that are ready to go at the same moment, possibly
+ * from different threads or for different modules, into a single USB bulk transfer. The Lynx
+ * serial stream has no notion of transfer boundaries, so datagrams can simply be concatenated.
+ *
+ * There's no dedicated writer thread: whichever caller finds the queue idle becomes the flusher,
+ * and writes whatever has accumulated, while the others wait for their datagrams to go out. Each
+ * call to {@link #transmit} returns only once its datagram has been written (or not), so callers
+ * see the same synchronous semantics as writing directly.
+ *
+ * Batches are capped at a whole number of USB packets so that, under load, transfers fill frames
+ * completely rather than ending in a short packet. Optionally, the flusher will linger for up to
+ * {@link #setFlushDelay(long) a bounded delay} to let a batch fill; by default it does not, and
+ * coalesces only what queued up while the previous transfer was in progress.
+ */
+@SuppressWarnings("WeakerAccess")
+public class LynxTransmitQueue
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    public enum Outcome { WRITTEN, PRETENDED, FAILED }
+
+    /**
+     * Performs the actual USB write of the first cb bytes of data. Called on the flushing thread.
+     * The array is reused for later batches, so it mustn't be retained.
+     */
+    public interface Sink
+        {
+        Outcome write(byte[] data, int cb) throws InterruptedException;
+        }
+
+    protected static class Entry
+        {
+        final LynxDatagram datagram;
+        final int          cb;
+        Outcome            outcome;
+
+        Entry(LynxDatagram datagram)
+            {
+            this.datagram = datagram;
+            this.cb = datagram.updatePacketLength();
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "LynxTransmitQueue";
+    public static final int cbUsbPacket = 64;
+
+    protected final String          name;
+    protected final Sink            sink;
+    protected final Object          lock = new Object();
+    protected final List<Entry>     queue = new ArrayList<Entry>();
+    protected       int             cbQueued = 0;
+    protected       boolean         flushing = false;
+    protected       ByteBuffer      batch;                  // only touched by the flusher
+    protected       int             cbBatchMax = 8 * cbUsbPacket;
+    protected       long            nsFlushDelay = 0;
+
+    // Instrumentation; guarded by lock
+    protected final int[]           batchSizeHistogram = new int[9];   // datagrams per transfer; last bucket is '8 or more'
+    protected       long            transferCount;
+    protected       long            datagramCount;
+    protected       long            byteCount;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public LynxTransmitQueue(String name, Sink sink)
+        {
+        this.name  = name;
+        this.sink  = sink;
+        this.batch = ByteBuffer.allocate(cbBatchMax);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    /** Sets how long the flusher may wait for more datagrams before writing a partial batch */
+    public void setFlushDelay(long nsFlushDelay)
+        {
+        synchronized (lock)
+            {
+            this.nsFlushDelay = Math.max(0, nsFlushDelay);
+            }
+        }
+
+    /** Sets the batch limit, in USB packets */
+    public void setMaxBatchPackets(int packetCount)
+        {
+        synchronized (lock)
+            {
+            this.cbBatchMax = Math.max(1, packetCount) * cbUsbPacket;
+            }
+        }
+
+    public long getTransferCount()
+        {
+        synchronized (lock) { return transferCount; }
+        }
+
+    public long getDatagramCount()
+        {
+        synchronized (lock) { return datagramCount; }
+        }
+
+    /** Returns a copy of the histogram of datagrams per transfer, indexed by count (the last bucket holds all larger batches) */
+    public int[] getBatchSizeHistogram()
+        {
+        synchronized (lock) { return batchSizeHistogram.clone(); }
+        }
+
+    public void logStatistics()
+        {
+        synchronized (lock)
+            {
+            if (transferCount > 0)
+                {
+                RobotLog.vv(TAG, "%s: transfers=%d datagrams=%d (%.2f/transfer) bytes=%d (%.1f/transfer) batches=%s",
+                        name, transferCount, datagramCount, datagramCount / (double)transferCount,
+                        byteCount, byteCount / (double)transferCount, Arrays.toString(batchSizeHistogram));
+                }
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Writes the datagram, perhaps together with others, returning once it has been written.
+     * May be called on any thread.
+     */
+    public Outcome transmit(LynxDatagram datagram) throws InterruptedException
+        {
+        Entry entry = new Entry(datagram);
+        boolean interrupted = false;
+
+        synchronized (lock)
+            {
+            queue.add(entry);
+            cbQueued += entry.cb;
+            lock.notifyAll();   // a lingering flusher may be waiting for more
+
+            // Wait until either our datagram has gone out or it's our turn to flush. We don't
+            // give up on an interrupt: our entry must be accounted for one way or the other.
+            while (entry.outcome == null && flushing)
+                {
+                try {
+                    lock.wait();
+                    }
+                catch (InterruptedException e)
+                    {
+                    interrupted = true;
+                    }
+                }
+            if (entry.outcome != null)
+                {
+                if (interrupted) Thread.currentThread().interrupt();
+                return entry.outcome;
+                }
+            flushing = true;
+            }
+
+        try {
+            // We're the flusher. Keep going until our own datagram is out; anything left over
+            // will be picked up by one of the waiters, who we'll wake on the way out.
+            while (entry.outcome == null)
+                {
+                flushOneBatch(entry);
+                }
+            }
+        finally
+            {
+            synchronized (lock)
+                {
+                // If we're leaving on an exception before our own datagram went out, withdraw it,
+                // lest a later flusher send a command our caller has been told failed
+                if (entry.outcome == null && queue.remove(entry))
+                    {
+                    cbQueued -= entry.cb;
+                    entry.outcome = Outcome.FAILED;
+                    }
+                flushing = false;
+                lock.notifyAll();
+                }
+            if (interrupted) Thread.currentThread().interrupt();
+            }
+        return entry.outcome;
+        }
+
+    protected void flushOneBatch(Entry own) throws InterruptedException
+        {
+        List<Entry> taken = takeBatch();
+
+        // Serialize into our reusable batch buffer, growing it only for an outsized datagram
+        int cb = 0;
+        for (Entry entry : taken) cb += entry.cb;
+        if (batch.capacity() < cb)
+            {
+            batch = ByteBuffer.allocate(cb);
+            }
+        batch.clear();
+        for (Entry entry : taken)
+            {
+            entry.datagram.writeTo(batch);
+            }
+
+        Outcome outcome;
+        try {
+            outcome = sink.write(batch.array(), cb);
+            }
+        catch (InterruptedException|RuntimeException e)
+            {
+            // The exception (typically an interrupt) belongs to our caller alone: only our own
+            // datagram fails. The others go back to the head of the queue for the next flusher.
+            requeue(taken, own);
+            throw e;
+            }
+        complete(taken, outcome, cb);
+        }
+
+    protected void requeue(List<Entry> taken, Entry own)
+        {
+        synchronized (lock)
+            {
+            int index = 0;
+            for (Entry entry : taken)
+                {
+                if (entry == own)
+                    {
+                    entry.outcome = Outcome.FAILED;
+                    }
+                else
+                    {
+                    queue.add(index++, entry);
+                    cbQueued += entry.cb;
+                    }
+                }
+            lock.notifyAll();
+            }
+        }
+
+    protected List<Entry> takeBatch()
+        {
+        synchronized (lock)
+            {
+            // Linger, if we're allowed, to let the batch fill
+            if (nsFlushDelay > 0 && cbQueued < cbBatchMax)
+                {
+                long nsDeadline = System.nanoTime() + nsFlushDelay;
+                for (;;)
+                    {
+                    long nsRemaining = nsDeadline - System.nanoTime();
+                    if (nsRemaining <= 0 || cbQueued >= cbBatchMax) break;
+                    try {
+                        lock.wait(nsRemaining / 1000000, (int)(nsRemaining % 1000000));
+                        }
+                    catch (InterruptedException e)
+                        {
+                        Thread.currentThread().interrupt();  // stop lingering; the write will notice
+                        break;
+                        }
+                    }
+                }
+
+            // Take datagrams in order until the next won't fit, but always at least one
+            List<Entry> result = new ArrayList<Entry>(queue.size());
+            int cb = 0;
+            while (!queue.isEmpty())
+                {
+                Entry entry = queue.get(0);
+                if (!result.isEmpty() && cb + entry.cb > cbBatchMax) break;
+                queue.remove(0);
+                cbQueued -= entry.cb;
+                cb += entry.cb;
+                result.add(entry);
+                }
+            return result;
+            }
+        }
+
+    protected void complete(List<Entry> entries, Outcome outcome, int cb)
+        {
+        synchronized (lock)
+            {
+            for (Entry entry : entries)
+                {
+                entry.outcome = outcome;
+                }
+            if (outcome == Outcome.WRITTEN)
+                {
+                transferCount++;
+                datagramCount += entries.size();
+                byteCount += cb;
+                batchSizeHistogram[Math.min(entries.size(), batchSizeHistogram.length - 1)]++;
+                }
+            lock.notifyAll();
+            }
+        }
+    }
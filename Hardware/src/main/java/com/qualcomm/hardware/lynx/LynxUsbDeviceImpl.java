@@ -126,6 +126,7 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
     // performSystemOperationOnConnectedModule() and any methods that should not run concurrently it must hold this lock
     protected final Object                                  systemOperationLock = new Object();
     protected final LynxFirmwareUpdater                     lynxFirmwareUpdater = new LynxFirmwareUpdater(this);
+    protected final LynxTransmitQueue                       transmitQueue;
 
     // The lynx hw schematic puts the reset and prog lines on particular pins, CBUS0 and CBUS1 respectively
     protected final static int cbusNReset           = 0x01;
@@ -161,6 +162,13 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
         this.isSystemSynthetic       = false;
         this.isEngaged               = true;
         this.wasPollingWhenEngaged   = true;
+        this.transmitQueue           = new LynxTransmitQueue(serialNumber.toString(), new LynxTransmitQueue.Sink()
+            {
+            @Override public LynxTransmitQueue.Outcome write(byte[] data, int cb) throws InterruptedException
+                {
+                return writeTransmitBatch(data, cb);
+                }
+            });
 
         // findOrCreateAndArm will lock this for us
         extantDevices.add(this);
@@ -389,6 +397,7 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
 
             pretendFinishExtantCommands();
             abandonUnfinishedCommands();
+            transmitQueue.logStatistics();
 
             stopRegularPinging();
             stopPollingForIncomingDatagrams();
@@ -996,38 +1005,21 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
     @Override public void transmit(LynxMessage message) throws InterruptedException
     // Note that this might be called on ANY thread.
         {
-        synchronized (engageLock)
+        LynxDatagram datagram = message.getSerialization();
+        /**
+         * {@link LynxModule#finishedWithMessage()} might have nulled the serialization
+         */
+        if (datagram != null)
             {
-            if (this.isArmedOrArming() && !this.hasShutdownAbnormally() && isEngaged)
+            if (DEBUG_LOG_DATAGRAMS || DEBUG_LOG_MESSAGES)
                 {
-                LynxDatagram datagram = message.getSerialization();
-                /**
-                 * {@link LynxModule#finishedWithMessage()} might have nulled the serialization
-                 */
-                if (datagram != null)
-                    {
-                    if (DEBUG_LOG_DATAGRAMS || DEBUG_LOG_MESSAGES)
-                        {
-                        RobotLog.vv(TAG, "xmit'ing: mod=%d cmd=0x%02x(%s) msg#=%d ref#=%d ", message.getModuleAddress(), message.getCommandNumber(), message.getClass().getSimpleName(), message.getMessageNumber(), message.getReferenceNumber());
-                        }
-
-                    byte[] bytes = datagram.toByteArray();
-
-                    try {
-                        this.robotUsbDevice.write(bytes);
-                        }
-                    catch (RobotUsbException|RuntimeException e)    // RuntimeException is just paranoia
-                        {
-                        // For now, at least, we're brutal: we don't quarter ANY usb transmission errors
-                        // before giving up and shutting things down. In the wake of future experience, it
-                        // might later be reasonable to reconsider this decision.
-                        shutdownAbnormally();
-                        //
-                        RobotLog.ee(TAG, e, "exception thrown in LynxUsbDevice.transmit");
-                        //
-                        return;
-                        }
+                RobotLog.vv(TAG, "xmit'ing: mod=%d cmd=0x%02x(%s) msg#=%d ref#=%d ", message.getModuleAddress(), message.getCommandNumber(), message.getClass().getSimpleName(), message.getMessageNumber(), message.getReferenceNumber());
+                }
 
+            // Datagrams from concurrent transmitters are combined into shared USB transfers
+            switch (transmitQueue.transmit(datagram))
+                {
+                case WRITTEN:
                     long now = System.nanoTime();
                     message.setNanotimeLastTransmit(now);
 
@@ -1036,20 +1028,51 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
                     // Keep Alive". Other messages will do the trick, too.
                     //
                     message.resetModulePingTimer();
+                    break;
+                case PRETENDED:
+                    message.onPretendTransmit();
+                    break;
+                case FAILED:
+                    return;
+                }
+            }
+        else
+            {
+            message.onPretendTransmit();
+            }
+
+        // Do this last so as to make LynxModule.retransmitDatagrams() interlock more robust
+        message.noteHasBeenTransmitted();
+        }
+
+    /** Writes a batch of one or more datagrams on behalf of {@link #transmitQueue} */
+    protected LynxTransmitQueue.Outcome writeTransmitBatch(byte[] data, int cb) throws InterruptedException
+        {
+        synchronized (engageLock)
+            {
+            if (this.isArmedOrArming() && !this.hasShutdownAbnormally() && isEngaged)
+                {
+                try {
+                    this.robotUsbDevice.write(data, 0, cb);
+                    return LynxTransmitQueue.Outcome.WRITTEN;
                     }
-                else
+                catch (RobotUsbException|RuntimeException e)    // RuntimeException is just paranoia
                     {
-                    message.onPretendTransmit();
+                    // For now, at least, we're brutal: we don't quarter ANY usb transmission errors
+                    // before giving up and shutting things down. In the wake of future experience, it
+                    // might later be reasonable to reconsider this decision.
+                    shutdownAbnormally();
+                    //
+                    RobotLog.ee(TAG, e, "exception thrown in LynxUsbDevice.transmit");
+                    //
+                    return LynxTransmitQueue.Outcome.FAILED;
                     }
                 }
             else
                 {
-                message.onPretendTransmit();
+                return LynxTransmitQueue.Outcome.PRETENDED;
                 }
             }
-
-        // Do this last so as to make LynxModule.retransmitDatagrams() interlock more robust
-        message.noteHasBeenTransmitted();
         }
 
     protected void shutdownAbnormally()
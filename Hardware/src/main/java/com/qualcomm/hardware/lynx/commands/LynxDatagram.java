@@ -299,11 +299,19 @@ public class LynxDatagram
     //----------------------------------------------------------------------------------------------
 
     public byte[] toByteArray()
+        {
+        ByteBuffer buffer = ByteBuffer.allocate(updatePacketLength());
+        writeTo(buffer);
+        return buffer.array();
+        }
+
+    /** Serializes this datagram at the buffer's position, which is advanced past it. The buffer
+     * must have room for {@link #updatePacketLength()} bytes. Returns the number of bytes written. */
+    public int writeTo(ByteBuffer buffer)
         {
         int cb = updatePacketLength();
         setChecksum(computeChecksum());
 
-        ByteBuffer buffer = ByteBuffer.allocate(cb);
         buffer.order(LYNX_ENDIAN);
 
         buffer.put(frameBytes);
@@ -316,7 +324,7 @@ public class LynxDatagram
         buffer.put(this.payloadData);
         buffer.put(this.checksum);
 
-        return buffer.array();
+        return cb;
         }
 
     public void fromByteArray(byte[] byteArray) throws RobotCoreException
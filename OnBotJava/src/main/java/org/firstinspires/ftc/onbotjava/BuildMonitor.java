@@ -148,7 +148,7 @@ public class BuildMonitor {
     }
 
     private void broadcastUpdateToWebsocket() {
-        webSocketBroadcastManager.broadcast(BuildStatusReportWebsocket.TAG, new BuildStatusReportWebsocket(buildStatus, lastStartedBuild));
+        webSocketBroadcastManager.broadcastLatest(BuildStatusReportWebsocket.TAG, new BuildStatusReportWebsocket(buildStatus, lastStartedBuild));
     }
 
     public BuildStatusReport currentBuildStatus() {
@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import org.firstinspires.ftc.onbotjava.handlers.javascript.AutocompleteIndex;
 import org.firstinspires.ftc.robotcore.external.Predicate;
 import org.firstinspires.ftc.robotcore.internal.opmode.ClassManager;
 import org.firstinspires.ftc.robotcore.internal.opmode.RegisteredOpModes;
@@ -235,6 +236,7 @@ public class ExternalLibraries {
 
       ClassManager.getInstance().processExternalLibrariesClasses();
       RegisteredOpModes.getInstance().setExternalLibrariesChanged();
+      AutocompleteIndex.getInstance().refreshAsync();
 
     } else {
       // Uh oh... there's an error. Delete the uploaded file.
@@ -279,6 +281,7 @@ public class ExternalLibraries {
 
     ClassManager.getInstance().processExternalLibrariesClasses();
     RegisteredOpModes.getInstance().setExternalLibrariesChanged();
+    AutocompleteIndex.getInstance().refreshAsync();
   }
 
   /**
@@ -36,6 +36,23 @@ public class OnBotJavaBroadcastManager {
         }
     }
 
+    /**
+     * Sends a message over the OnBotJava namespace that reports only the latest value of something,
+     * such as the build status. Clients that haven't yet received an earlier message of the same type
+     * will receive only this one.
+     *
+     * @param type the message type
+     * @param message the message to send, the clients receiving the message will see a JSON response
+     */
+    public void broadcastLatest(String type, Object message) {
+        FtcWebSocketMessage msg = new FtcWebSocketMessage(NAMESPACE, type, SimpleGson.getInstance().toJson(message));
+        if (webSocketManager == null) {
+            messageQueue.add(msg);
+        } else {
+            webSocketManager.broadcastToNamespace(NAMESPACE, msg, type);
+        }
+    }
+
     void registerWebSocketManager(WebSocketManager webSocketManager) {
         this.webSocketManager = webSocketManager;
         while (!messageQueue.isEmpty()) {
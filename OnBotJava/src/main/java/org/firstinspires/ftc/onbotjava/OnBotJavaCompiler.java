@@ -73,11 +73,21 @@ public class OnBotJavaCompiler
 
     public boolean compile(File srcRoot, OnBotJavaDiagnosticsListener diagnosticListener)
         {
-        List<File> javaFiles = javaFilesUnder(srcRoot);
+        return compile(javaFilesUnder(srcRoot), srcRoot, OnBotJavaManager.classesOutputDir, Collections.<File>emptyList(), diagnosticListener);
+        }
 
+    /**
+     * Compiles the given source files into classOutputDir. The additional class path entries are
+     * searched after the robot controller libraries; OnBotJava uses this to compile the Java
+     * generated for Blocks projects against the classes of the team's own build, separately from it.
+     */
+    public boolean compile(List<File> javaFiles, File srcRoot, File classOutputDir, List<File> additionalClassPath, OnBotJavaDiagnosticsListener diagnosticListener)
+        {
         JavacTool javac = JavacTool.create();
         OnBotJavaStandardFileManager fileManager = new OnBotJavaStandardFileManager(javac.getStandardFileManager(diagnosticListener, null, null));
         fileManager.setSourcePath(Collections.singleton(srcRoot));
+        fileManager.setClassOutput(classOutputDir);
+        fileManager.addClassPath(additionalClassPath);
 
         Iterable<? extends JavaFileObject> javaFileObjects = fileManager.getJavaFileObjects(javaFiles.toArray(new File[javaFiles.size()]));
         if (javaFileObjects.iterator().hasNext())
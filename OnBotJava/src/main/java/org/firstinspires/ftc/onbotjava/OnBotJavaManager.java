@@ -91,6 +91,9 @@ import java.util.zip.ZipFile;
  *  <ol>
  *      <li>src:  .java source code is placed here in package-appropriate subdirectories, in the
  *                 usual Java style</li>
+ *      <li>blocks: .java generated from Blocks projects is placed here, in the same style. After
+ *                the sources in 'src' compile, each of these files is compiled on its own against
+ *                them; one that fails is left out of the build, and its project runs as JavaScript.</li>
  *      <li>jars: (optional) Any externally-compiled jar files can be placed in this
  *                directory. They will be installed in the system, much as the .java source
  *                files are after they have been compiled.</li>
@@ -145,6 +148,10 @@ public class OnBotJavaManager implements Closeable
      * appropriate reverse-domain subdirs for .java, as usual) */
     public static final File srcDir                 = new File(javaRoot, "/src/");
 
+    /** the directory into which Blocks writes the .java generated for its projects. This is kept
+     * apart from {@link #srcDir} so that generated code which doesn't compile can't fail the build */
+    public static final File blocksSrcDir           = new File(javaRoot, "/blocks/");
+
     // Support for external libraries (uploaded .jar and .aar files)
     public static final boolean USE_D8 = (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N);
     public static final boolean ALLOW_EXTERNAL_LIBRARIES = USE_D8;
@@ -157,6 +164,7 @@ public class OnBotJavaManager implements Closeable
 
     public static final File statusDir              = new File(javaRoot, "/status/");
     public static final File buildLogFile           = new File(statusDir, "buildLog.txt");
+    public static final File blocksBuildLogFile     = new File(statusDir, "blocksBuildLog.txt");
     public static final File buildStartedFile       = new File(statusDir, "buildStarted.txt");
     public static final File buildCompleteFile      = new File(statusDir, "buildComplete.txt");
     public static final File currentOnBotJavaDirFile = new File(statusDir, "currentOnBotJavaDir.txt");
@@ -165,7 +173,9 @@ public class OnBotJavaManager implements Closeable
     public static final File buildDir               = new File(javaRoot, "/build/");
     public static final File sourceOutputDir        = new File(buildDir, "/gensrc/");
     public static final File classesOutputDir       = new File(buildDir, "/classes/");
+    public static final File blocksClassesOutputDir = new File(buildDir, "/blocksClasses/");
     public static final File jarsOutputDir          = new File(buildDir, "/jars/");
+    public static final File autocompleteDir        = new File(buildDir, "/autocomplete/");
     public static final String onBotJavaJarName     = "OnBotJava.jar";
 
     public static final File assetRoot              = new File("java");
@@ -211,11 +221,13 @@ public class OnBotJavaManager implements Closeable
         {
         ensureDirs(libDir);
         ensureDirs(srcDir);
+        ensureDirs(blocksSrcDir);
         ensureDirs(extLibDir);
         ensureDirs(controlDir);
         ensureDirs(statusDir);
         ensureDirs(buildDir);
         ReadWriteFile.ensureAllChangesAreCommitted(srcDir);
+        ReadWriteFile.ensureAllChangesAreCommitted(blocksSrcDir);
         }
 
     protected void ensureBuildDirs()
@@ -339,6 +351,7 @@ public class OnBotJavaManager implements Closeable
                         ensureBuildDirs();
                         if (compileJavaFiles())
                             {
+                            compileBlocksJavaFiles();
                             // We can't reuse cached locations or we seem to always crash the vm. So we uniquify.
                             // We associate the uniqueness with the consolidated file itself rather than with
                             // an *opening* of same so as to uniquify on the semantic contents, saving files.
@@ -410,6 +423,7 @@ public class OnBotJavaManager implements Closeable
                 // of the buildDir won't work; we have to be smarter. We don't *exactly* understand
                 // what's going on, but we don't want to put more work into it.
                 AppUtil.getInstance().delete(classesOutputDir);
+                AppUtil.getInstance().delete(blocksClassesOutputDir);
                 AppUtil.getInstance().delete(sourceOutputDir);
 
                 // Leave the most recently built stuff so that the loader will find it
@@ -434,6 +448,58 @@ public class OnBotJavaManager implements Closeable
             }});
         }
 
+    /**
+     * Compiles the Java generated for Blocks projects, each file on its own, against the classes
+     * just compiled from {@link #srcDir}. Classes from the files that compile are added to the
+     * build; errors are reported to {@link #blocksBuildLogFile} rather than to the team's build
+     * log, and never fail the build.
+     */
+    protected void compileBlocksJavaFiles()
+        {
+        trace("compileBlocksJavaFiles()", new Runnable() { @Override public void run()
+            {
+            OnBotJavaCompiler javaCompiler = new OnBotJavaCompiler();
+            List<File> javaFiles = javaCompiler.javaFilesUnder(blocksSrcDir);
+            if (javaFiles.isEmpty())
+                {
+                return;
+                }
+            try {
+                OnBotJavaDiagnosticsListener blocksDiagnosticListener = new OnBotJavaDiagnosticsListener(blocksSrcDir, blocksBuildLogFile);
+                try {
+                    for (File javaFile : javaFiles)
+                        {
+                        File classOutputDir = new File(blocksClassesOutputDir, javaFile.getName());
+                        ensureDirs(classOutputDir);
+                        if (javaCompiler.compile(Collections.singletonList(javaFile), blocksSrcDir, classOutputDir,
+                                Collections.singletonList(classesOutputDir), blocksDiagnosticListener))
+                            {
+                            for (File classFile : AppUtil.getInstance().filesUnder(classOutputDir, ".class"))
+                                {
+                                File destFile = new File(classesOutputDir, AppUtil.getInstance().getRelativePath(classOutputDir, classFile).getPath());
+                                ensureDirs(destFile.getParentFile());
+                                AppUtil.getInstance().copyFile(classFile, destFile);
+                                }
+                            }
+                        else
+                            {
+                            RobotLog.ww(TAG, "%s did not compile; its blocks project will run as JavaScript", javaFile.getName());
+                            }
+                        }
+                    }
+                finally
+                    {
+                    blocksDiagnosticListener.flush();
+                    blocksDiagnosticListener.close();
+                    }
+                }
+            catch (IOException e)
+                {
+                RobotLog.ee(TAG, e, "unable to compile blocks projects; they will run as JavaScript");
+                }
+            }});
+        }
+
     protected void consolidateClassFilesToJar(final File onBotJavaDirDirectory) throws IOException
         {
         trace("consolidateClassFilesInJar()", new ThrowingCallable<Void, IOException>()
@@ -37,6 +37,7 @@ import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -105,4 +106,36 @@ public class OnBotJavaStandardFileManager extends OnBotJavaDelegatingStandardFil
             throw AppUtil.getInstance().unreachable(OnBotJavaManager.TAG, e);
             }
         }
-    }
\ No newline at end of file
+
+    public void setClassOutput(File classOutputDir)
+        {
+        try {
+            delegate.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(classOutputDir));
+            }
+        catch (IOException e)
+            {
+            throw AppUtil.getInstance().unreachable(OnBotJavaManager.TAG, e);
+            }
+        }
+
+    public void addClassPath(Collection<? extends File> additionalClassPath)
+        {
+        if (additionalClassPath.isEmpty())
+            {
+            return;
+            }
+        try {
+            List<File> classPath = new ArrayList<File>();
+            for (File file : delegate.getLocation(StandardLocation.CLASS_PATH))
+                {
+                classPath.add(file);
+                }
+            classPath.addAll(additionalClassPath);
+            delegate.setLocation(StandardLocation.CLASS_PATH, classPath);
+            }
+        catch (IOException e)
+            {
+            throw AppUtil.getInstance().unreachable(OnBotJavaManager.TAG, e);
+            }
+        }
+    }
@@ -0,0 +1,591 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.onbotjava.handlers.javascript;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.qualcomm.robotcore.util.ReadWriteFile;
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
+
+import org.firstinspires.ftc.onbotjava.OnBotJavaManager;
+import org.firstinspires.ftc.onbotjava.OnBotJavaWebInterfaceManager;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The autocomplete index for OnBotJava.
+ *
+ * The declarations in each jar are read from the class files and kept in a fragment under
+ * {@link OnBotJavaManager#autocompleteDir}, named by the hash of the jar's contents, so that a jar
+ * is only read once. When a jar is added, only that jar is read; the fragments for the other jars
+ * are loaded from disk and merged with it.
+ */
+public class AutocompleteIndex {
+    private static final String TAG = "AutocompleteIndex";
+
+    /** Change this when the format of a fragment changes, so that old fragments aren't used. */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final File hashesFile = new File(OnBotJavaManager.autocompleteDir, "hashes.json");
+
+    private static class InstanceHolder {
+        private static final AutocompleteIndex theInstance = new AutocompleteIndex();
+    }
+
+    public static AutocompleteIndex getInstance() {
+        return InstanceHolder.theInstance;
+    }
+
+    private final Gson gson = new Gson();
+    private final Object lock = new Object();
+    private final ExecutorService executor = ThreadPool.newSingleThreadExecutor("AutocompleteIndex");
+    private HashMap<String, JarHash> jarHashes; // by path
+    private Snapshot snapshot;
+    private String snapshotSignature;
+
+    private AutocompleteIndex() {
+    }
+
+    /**
+     * The autocomplete JSON, ready to be served.
+     */
+    public static class Snapshot {
+        public final String json;
+        public final byte[] gzippedJson;
+        public final String etag;
+
+        private Snapshot(String json, byte[] gzippedJson, String etag) {
+            this.json = json;
+            this.gzippedJson = gzippedJson;
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * Brings the index up to date on a background thread.
+     */
+    public void refreshAsync() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    getSnapshot();
+                } catch (IOException e) {
+                    RobotLog.ee(TAG, e, "Error with autocomplete index");
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the autocomplete JSON for the jars that are currently present, reading only those
+     * jars that haven't been read before.
+     */
+    public Snapshot getSnapshot() throws IOException {
+        synchronized (lock) {
+            List<File> jarFiles = AppUtil.getInstance().filesIn(OnBotJavaManager.libDir, ".jar");
+            jarFiles.addAll(AppUtil.getInstance().filesUnder(OnBotJavaManager.extLibDir, ".jar"));
+
+            String signature = signatureOf(jarFiles);
+            if (snapshot != null && signature.equals(snapshotSignature)) {
+                return snapshot;
+            }
+
+            long start = System.currentTimeMillis();
+            snapshot = build(jarFiles);
+            snapshotSignature = signature;
+            RobotLog.vv(TAG, "built autocomplete index for %d jars in %d ms", jarFiles.size(), System.currentTimeMillis() - start);
+            return snapshot;
+        }
+    }
+
+    private Snapshot build(List<File> jarFiles) throws IOException {
+        OnBotJavaManager.autocompleteDir.mkdirs();
+        loadJarHashes();
+
+        List<JarIndex> jarIndices = new ArrayList<>(jarFiles.size());
+        StringBuilder keys = new StringBuilder();
+        try {
+            for (File jarFile : jarFiles) {
+                boolean isExternalLibrary = jarFile.getParentFile().equals(OnBotJavaManager.extLibDir);
+                JarIndex jarIndex = openJarIndex(jarFile, isExternalLibrary);
+                jarIndices.add(jarIndex);
+                keys.append(jarIndex.key).append('\n');
+            }
+
+            final HashMap<String, List<AutoClass>> autoClassList = new HashMap<>();
+            Merger merger = new Merger(jarIndices, autoClassList);
+            for (JarIndex jarIndex : jarIndices) {
+                for (String className : jarIndex.fragment.roots) {
+                    merger.parseClassForAutocomplete(className);
+                }
+            }
+
+            // Classes that were read while merging are saved with the jar that contains them.
+            for (JarIndex jarIndex : jarIndices) {
+                if (jarIndex.dirty) saveFragment(jarIndex);
+            }
+            saveJarHashes();
+
+            String json = OnBotJavaWebInterfaceManager.instance().gson().toJson(autoClassList);
+            return new Snapshot(json, gzip(json.getBytes(UTF8)), "\"" + md5(keys.toString()) + "\"");
+        } finally {
+            for (JarIndex jarIndex : jarIndices) {
+                jarIndex.close();
+            }
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // Jars
+    //----------------------------------------------------------------------------------------------
+
+    /** The hash of a jar's contents, remembered so that an unchanged jar isn't hashed again. */
+    private static class JarHash {
+        long length;
+        long lastModified;
+        String md5;
+    }
+
+    /** The declarations read from one jar. */
+    private static class Fragment {
+        /** The classes that autocomplete starts from, in the order they appear in the jar. */
+        List<String> roots = new ArrayList<>();
+        /** The classes read so far, by name. */
+        HashMap<String, ClassRecord> classes = new HashMap<>();
+    }
+
+    private class JarIndex {
+        final File jarFile;
+        final String key;
+        final Fragment fragment;
+        JarFile openJarFile;
+        boolean dirty;
+
+        JarIndex(File jarFile, String key, Fragment fragment) {
+            this.jarFile = jarFile;
+            this.key = key;
+            this.fragment = fragment;
+        }
+
+        /**
+         * Returns the class with the given name, reading it from the jar if it hasn't been read
+         * yet, or null if the jar doesn't contain it.
+         */
+        ClassRecord find(String className) throws IOException {
+            ClassRecord record = fragment.classes.get(className);
+            if (record != null) return record;
+
+            if (openJarFile == null) openJarFile = new JarFile(jarFile);
+            JarEntry entry = openJarFile.getJarEntry(className.replace('.', '/') + ".class");
+            if (entry == null) return null;
+
+            record = readClass(openJarFile, entry);
+            if (record != null) {
+                fragment.classes.put(className, record);
+                dirty = true;
+            }
+            return record;
+        }
+
+        void close() {
+            if (openJarFile != null) {
+                try {
+                    openJarFile.close();
+                } catch (IOException ignored) {
+                }
+                openJarFile = null;
+            }
+        }
+    }
+
+    private JarIndex openJarIndex(File jarFile, boolean isExternalLibrary) throws IOException {
+        String key = md5(hashOf(jarFile) + (isExternalLibrary ? ":external:" : ":") + FORMAT_VERSION);
+        Fragment fragment = loadFragment(fragmentFileFor(key));
+        if (fragment != null) {
+            return new JarIndex(jarFile, key, fragment);
+        }
+
+        // Read the classes that autocomplete starts from; the classes that they refer to are
+        // read later, when they are needed.
+        fragment = new Fragment();
+        JarIndex jarIndex = new JarIndex(jarFile, key, fragment);
+        jarIndex.openJarFile = new JarFile(jarFile);
+        Enumeration<JarEntry> entries = jarIndex.openJarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            final String entryName = entry.getName();
+            // Skip the unimportant classes
+            if (!entryName.endsWith(".class")) continue;
+            if (!isExternalLibrary && !packagesToAutoComplete(entryName)) continue;
+            // A "$" denotes an inner class which we will parse as referenced by the classes we scan
+            if (entryName.contains("$")) continue;
+
+            ClassRecord record = readClass(jarIndex.openJarFile, entry);
+            if (record == null) continue;
+            fragment.roots.add(record.name);
+            fragment.classes.put(record.name, record);
+        }
+        jarIndex.dirty = true;
+        return jarIndex;
+    }
+
+    private static File fragmentFileFor(String key) {
+        return new File(OnBotJavaManager.autocompleteDir, key + ".json");
+    }
+
+    private ClassRecord readClass(JarFile jarFile, JarEntry entry) throws IOException {
+        InputStream inputStream = jarFile.getInputStream(entry);
+        try {
+            return ClassFileParser.parse(readFully(inputStream));
+        } catch (IOException|RuntimeException e) {
+            RobotLog.ww(TAG, "unable to read %s from %s: %s", entry.getName(), jarFile.getName(), e.getMessage());
+            return null;
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private String hashOf(File jarFile) throws IOException {
+        JarHash jarHash = jarHashes.get(jarFile.getAbsolutePath());
+        if (jarHash != null && jarHash.length == jarFile.length() && jarHash.lastModified == jarFile.lastModified()) {
+            return jarHash.md5;
+        }
+
+        jarHash = new JarHash();
+        jarHash.length = jarFile.length();
+        jarHash.lastModified = jarFile.lastModified();
+        try {
+            jarHash.md5 = AppUtil.computeMd5(jarFile);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        jarHashes.put(jarFile.getAbsolutePath(), jarHash);
+        return jarHash.md5;
+    }
+
+    private static String signatureOf(List<File> jarFiles) {
+        StringBuilder signature = new StringBuilder();
+        for (File jarFile : jarFiles) {
+            signature.append(jarFile.getAbsolutePath())
+                    .append(':').append(jarFile.length())
+                    .append(':').append(jarFile.lastModified())
+                    .append('\n');
+        }
+        return signature.toString();
+    }
+
+    private static boolean packagesToAutoComplete(String entryName) {
+        for (String testPackage : OnBotJavaWebInterfaceManager.packagesToAutocomplete()) {
+            if (entryName.startsWith(testPackage)) return true;
+        }
+
+        return false;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // Persistence
+    //----------------------------------------------------------------------------------------------
+
+    private void loadJarHashes() {
+        if (jarHashes != null) return;
+        if (hashesFile.exists()) {
+            try {
+                Type type = new TypeToken<HashMap<String, JarHash>>() {}.getType();
+                jarHashes = gson.fromJson(ReadWriteFile.readFileOrThrow(hashesFile), type);
+            } catch (IOException|JsonSyntaxException e) {
+                RobotLog.ww(TAG, "unable to read %s: %s", hashesFile.getName(), e.getMessage());
+            }
+        }
+        if (jarHashes == null) jarHashes = new HashMap<>();
+    }
+
+    private void saveJarHashes() {
+        // Forget the jars that are gone, so that the file doesn't grow without bound.
+        Set<String> present = new HashSet<>();
+        for (File jarFile : AppUtil.getInstance().filesIn(OnBotJavaManager.libDir, ".jar")) {
+            present.add(jarFile.getAbsolutePath());
+        }
+        for (File jarFile : AppUtil.getInstance().filesUnder(OnBotJavaManager.extLibDir, ".jar")) {
+            present.add(jarFile.getAbsolutePath());
+        }
+        jarHashes.keySet().retainAll(present);
+        ReadWriteFile.writeFile(hashesFile, gson.toJson(jarHashes));
+    }
+
+    private Fragment loadFragment(File fragmentFile) {
+        if (!fragmentFile.exists()) return null;
+        try {
+            Fragment fragment = gson.fromJson(ReadWriteFile.readFileOrThrow(fragmentFile), Fragment.class);
+            if (fragment != null && fragment.roots != null && fragment.classes != null) return fragment;
+        } catch (IOException|JsonSyntaxException e) {
+            RobotLog.ww(TAG, "unable to read %s: %s", fragmentFile.getName(), e.getMessage());
+        }
+        return null;
+    }
+
+    private void saveFragment(JarIndex jarIndex) {
+        ReadWriteFile.writeFile(fragmentFileFor(jarIndex.key), gson.toJson(jarIndex.fragment));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // Merging
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Produces the same result as reflecting over the classes: the public and protected classes
+     * that autocomplete starts from, together with their superclasses, interfaces and member
+     * classes.
+     */
+    private static class Merger {
+        private final List<JarIndex> jarIndices;
+        private final HashMap<String, List<AutoClass>> autoClassList;
+        private final HashMap<String, ClassRecord> found = new HashMap<>();
+        private final Set<String> notFound = new HashSet<>();
+        private final Set<String> added = new HashSet<>();
+
+        Merger(List<JarIndex> jarIndices, HashMap<String, List<AutoClass>> autoClassList) {
+            this.jarIndices = jarIndices;
+            this.autoClassList = autoClassList;
+        }
+
+        private ClassRecord find(String className) throws IOException {
+            ClassRecord record = found.get(className);
+            if (record != null || notFound.contains(className)) return record;
+
+            for (JarIndex jarIndex : jarIndices) {
+                record = jarIndex.find(className);
+                if (record != null) {
+                    found.put(className, record);
+                    return record;
+                }
+            }
+            notFound.add(className);
+            return null;
+        }
+
+        void parseClassForAutocomplete(String className) throws IOException {
+            ClassRecord record = find(className);
+            if (record == null) return;
+
+            SecurityModifier classModifier = SecurityModifier.fromModifierInt(record.access);
+            if (classModifier != SecurityModifier.PUBLIC && classModifier != SecurityModifier.PROTECTED)
+                return;
+
+            // Check if we have already added this class (to prevent recursion loops), if so do nothing more
+            if (!added.add(className)) return;
+
+            final String superclassName;
+            if (record.superName != null) {
+                superclassName = record.superName;
+                parseClassForAutocomplete(record.superName);
+            } else {
+                superclassName = Object.class.getName();
+            }
+
+            List<String> interfaces = getInterfacesFor(record, new ArrayList<String>());
+
+            final String currentClassName = simpleNameFor(className);
+            AutoClass autoClass = new AutoClass(classModifier, record.methods, record.fields, packageNameFor(className), interfaces, superclassName);
+            if (!autoClassList.containsKey(currentClassName))
+                autoClassList.put(currentClassName, new ArrayList<AutoClass>());
+            autoClassList.get(currentClassName).add(autoClass);
+
+            for (String innerClass : record.memberClasses) {
+                parseClassForAutocomplete(innerClass);
+            }
+        }
+
+        private List<String> getInterfacesFor(ClassRecord record, List<String> list) throws IOException {
+            if (record == null || record.name.equals(Object.class.getName())) return list;
+
+            for (String interfaceName : record.interfaces) {
+                list.add(interfaceName);
+                parseClassForAutocomplete(interfaceName);
+            }
+
+            return getInterfacesFor(record.superName == null ? null : find(record.superName), list);
+        }
+
+        private static String simpleNameFor(String className) {
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+
+        private static String packageNameFor(String className) {
+            int index = className.lastIndexOf('.');
+            return index >= 0 ? className.substring(0, index) : "";
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int cbRead;
+        while ((cbRead = inputStream.read(buffer)) >= 0) {
+            outputStream.write(buffer, 0, cbRead);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4);
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+        try {
+            gzipOutputStream.write(bytes);
+        } finally {
+            gzipOutputStream.close();
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static String md5(String s) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] bytes = digest.digest(s.getBytes(UTF8));
+            StringBuilder result = new StringBuilder();
+            for (byte b : bytes) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    /** The declarations of a class, as read from its class file. */
+    static class ClassRecord {
+        String name;
+        int access;
+        String superName;
+        List<String> interfaces;
+        HashMap<String, AutoField> fields;
+        HashMap<String, ArrayList<AutoMethod>> methods;
+        List<String> memberClasses;
+
+        ClassRecord(String name, int access, String superName, List<String> interfaces,
+                    HashMap<String, AutoField> fields, HashMap<String, ArrayList<AutoMethod>> methods,
+                    List<String> memberClasses) {
+            this.name = name;
+            this.access = access;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.fields = fields;
+            this.methods = methods;
+            this.memberClasses = memberClasses;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class AutoClass {
+        private SecurityModifier modifier;
+        private HashMap<String, ArrayList<AutoMethod>> methods;
+        private HashMap<String, AutoField> fields;
+        private String packageName;
+        private List<String> interfaces;
+        private String parentClass;
+
+        private AutoClass(SecurityModifier modifier, HashMap<String, ArrayList<AutoMethod>> methods, HashMap<String, AutoField> fields,
+                          String packageName, List<String> interfaces, String parentClass) {
+            this.modifier = modifier;
+            this.methods = methods;
+            this.fields = fields;
+            this.packageName = packageName;
+            this.interfaces = interfaces;
+            this.parentClass = parentClass;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class AutoField {
+        private SecurityModifier modifier;
+        private String type;
+
+        AutoField(SecurityModifier modifier, String type) {
+            this.modifier = modifier;
+            this.type = type;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class AutoMethod {
+        private SecurityModifier modifier;
+        private String type;
+        private List<String> params;
+
+        AutoMethod(SecurityModifier modifier, String type, List<String> params) {
+            this.modifier = modifier;
+            this.type = type;
+            this.params = params;
+        }
+    }
+
+    enum SecurityModifier {
+        PUBLIC, PRIVATE, PROTECTED, PACKAGE_PRIVATE, UNKNOWN;
+
+        static SecurityModifier fromModifierInt(int modifier) {
+            if (Modifier.isPublic(modifier)) return PUBLIC;
+            if (Modifier.isPrivate(modifier)) return PRIVATE;
+            if (Modifier.isProtected(modifier)) return PROTECTED;
+            return PACKAGE_PRIVATE;
+        }
+    }
+}
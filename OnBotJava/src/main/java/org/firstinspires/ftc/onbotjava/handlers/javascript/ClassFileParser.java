@@ -0,0 +1,261 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.onbotjava.handlers.javascript;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reads the declarations that autocomplete needs from a class file, without loading the class.
+ *
+ * The names and types that are produced are in the same form as the ones produced by reflection
+ * (for example, {@link Class#getName()}), so that the autocomplete JSON is unchanged.
+ */
+class ClassFileParser {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int CONSTANT_Utf8 = 1;
+    private static final int CONSTANT_Integer = 3;
+    private static final int CONSTANT_Float = 4;
+    private static final int CONSTANT_Long = 5;
+    private static final int CONSTANT_Double = 6;
+    private static final int CONSTANT_Class = 7;
+    private static final int CONSTANT_String = 8;
+    private static final int CONSTANT_Fieldref = 9;
+    private static final int CONSTANT_Methodref = 10;
+    private static final int CONSTANT_InterfaceMethodref = 11;
+    private static final int CONSTANT_NameAndType = 12;
+    private static final int CONSTANT_MethodHandle = 15;
+    private static final int CONSTANT_MethodType = 16;
+    private static final int CONSTANT_Dynamic = 17;
+    private static final int CONSTANT_InvokeDynamic = 18;
+    private static final int CONSTANT_Module = 19;
+    private static final int CONSTANT_Package = 20;
+
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private final DataInputStream in;
+    private String[] utf8;
+    private int[] classNameIndex;
+
+    private ClassFileParser(byte[] classFile) {
+        this.in = new DataInputStream(new ByteArrayInputStream(classFile));
+    }
+
+    /**
+     * Parses the given class file.
+     */
+    static AutocompleteIndex.ClassRecord parse(byte[] classFile) throws IOException {
+        return new ClassFileParser(classFile).parse();
+    }
+
+    private AutocompleteIndex.ClassRecord parse() throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("not a class file");
+        in.readUnsignedShort(); // minor_version
+        in.readUnsignedShort(); // major_version
+        readConstantPool();
+
+        int access = in.readUnsignedShort();
+        String name = className(in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        String superName = superIndex == 0 ? null : className(superIndex);
+        // Like Class.getSuperclass(), an interface has no superclass.
+        if ((access & ACC_INTERFACE) != 0) superName = null;
+
+        int interfacesCount = in.readUnsignedShort();
+        List<String> interfaces = new ArrayList<>(interfacesCount);
+        for (int i = 0; i < interfacesCount; i++) {
+            interfaces.add(className(in.readUnsignedShort()));
+        }
+
+        HashMap<String, AutocompleteIndex.AutoField> fields = new HashMap<>();
+        int fieldsCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldsCount; i++) {
+            int fieldAccess = in.readUnsignedShort();
+            String fieldName = utf8[in.readUnsignedShort()];
+            String descriptor = utf8[in.readUnsignedShort()];
+            skipAttributes();
+            AutocompleteIndex.SecurityModifier modifier = AutocompleteIndex.SecurityModifier.fromModifierInt(fieldAccess);
+            if (modifier == AutocompleteIndex.SecurityModifier.PRIVATE) continue;
+            fields.put(fieldName, new AutocompleteIndex.AutoField(modifier, typeName(descriptor, new int[] {0})));
+        }
+
+        HashMap<String, ArrayList<AutocompleteIndex.AutoMethod>> methods = new HashMap<>();
+        int methodsCount = in.readUnsignedShort();
+        for (int i = 0; i < methodsCount; i++) {
+            int methodAccess = in.readUnsignedShort();
+            String methodName = utf8[in.readUnsignedShort()];
+            String descriptor = utf8[in.readUnsignedShort()];
+            skipAttributes();
+            // Class.getDeclaredMethods() doesn't include constructors or static initializers.
+            if (methodName.startsWith("<")) continue;
+            AutocompleteIndex.SecurityModifier modifier = AutocompleteIndex.SecurityModifier.fromModifierInt(methodAccess);
+            if (modifier == AutocompleteIndex.SecurityModifier.PRIVATE) continue;
+
+            List<String> params = new ArrayList<>();
+            int[] position = {1};
+            while (descriptor.charAt(position[0]) != ')') {
+                params.add(typeName(descriptor, position));
+            }
+            position[0]++;
+            String returnType = typeName(descriptor, position);
+
+            if (!methods.containsKey(methodName)) methods.put(methodName, new ArrayList<AutocompleteIndex.AutoMethod>());
+            methods.get(methodName).add(new AutocompleteIndex.AutoMethod(modifier, returnType, params));
+        }
+
+        // The InnerClasses attribute gives the modifiers of a member class, which aren't all
+        // representable in its access flags, and lists the member classes of this class.
+        List<String> memberClasses = new ArrayList<>();
+        int attributesCount = in.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            String attributeName = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (!attributeName.equals("InnerClasses")) {
+                skipFully(length);
+                continue;
+            }
+            int numberOfClasses = in.readUnsignedShort();
+            for (int j = 0; j < numberOfClasses; j++) {
+                int innerIndex = in.readUnsignedShort();
+                int outerIndex = in.readUnsignedShort();
+                int innerNameIndex = in.readUnsignedShort();
+                int innerAccess = in.readUnsignedShort();
+                String innerName = className(innerIndex);
+                if (innerName.equals(name)) {
+                    access = innerAccess;
+                } else if (outerIndex != 0 && innerNameIndex != 0 && className(outerIndex).equals(name)) {
+                    memberClasses.add(innerName);
+                }
+            }
+        }
+
+        return new AutocompleteIndex.ClassRecord(name, access, superName, interfaces, fields, methods, memberClasses);
+    }
+
+    private void readConstantPool() throws IOException {
+        int count = in.readUnsignedShort();
+        utf8 = new String[count];
+        classNameIndex = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case CONSTANT_Utf8:
+                    utf8[i] = in.readUTF();
+                    break;
+                case CONSTANT_Class:
+                    classNameIndex[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_String:
+                case CONSTANT_MethodType:
+                case CONSTANT_Module:
+                case CONSTANT_Package:
+                    skipFully(2);
+                    break;
+                case CONSTANT_MethodHandle:
+                    skipFully(3);
+                    break;
+                case CONSTANT_Integer:
+                case CONSTANT_Float:
+                case CONSTANT_Fieldref:
+                case CONSTANT_Methodref:
+                case CONSTANT_InterfaceMethodref:
+                case CONSTANT_NameAndType:
+                case CONSTANT_Dynamic:
+                case CONSTANT_InvokeDynamic:
+                    skipFully(4);
+                    break;
+                case CONSTANT_Long:
+                case CONSTANT_Double:
+                    skipFully(8);
+                    i++; // these take two entries
+                    break;
+                default:
+                    throw new IOException("unknown constant pool tag " + tag);
+            }
+        }
+    }
+
+    private void skipAttributes() throws IOException {
+        int attributesCount = in.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            in.readUnsignedShort(); // attribute_name_index
+            skipFully(in.readInt());
+        }
+    }
+
+    private void skipFully(int n) throws IOException {
+        if (in.skipBytes(n) != n) throw new IOException("truncated class file");
+    }
+
+    private String className(int index) {
+        return utf8[classNameIndex[index]].replace('/', '.');
+    }
+
+    /**
+     * Returns, in the form of {@link Class#getName()}, the type whose descriptor starts at
+     * position[0] in the given descriptor, and advances position[0] past it.
+     */
+    private static String typeName(String descriptor, int[] position) {
+        int start = position[0];
+        char c = descriptor.charAt(start);
+        switch (c) {
+            case 'B': position[0]++; return "byte";
+            case 'C': position[0]++; return "char";
+            case 'D': position[0]++; return "double";
+            case 'F': position[0]++; return "float";
+            case 'I': position[0]++; return "int";
+            case 'J': position[0]++; return "long";
+            case 'S': position[0]++; return "short";
+            case 'Z': position[0]++; return "boolean";
+            case 'V': position[0]++; return "void";
+            case 'L': {
+                int end = descriptor.indexOf(';', start);
+                position[0] = end + 1;
+                return descriptor.substring(start + 1, end).replace('/', '.');
+            }
+            case '[': {
+                // Class.getName() names array types by their descriptors.
+                int elementStart = start;
+                while (descriptor.charAt(elementStart) == '[') elementStart++;
+                position[0] = elementStart;
+                typeName(descriptor, position);
+                return descriptor.substring(start, position[0]).replace('/', '.');
+            }
+            default:
+                throw new IllegalArgumentException("bad descriptor " + descriptor);
+        }
+    }
+}
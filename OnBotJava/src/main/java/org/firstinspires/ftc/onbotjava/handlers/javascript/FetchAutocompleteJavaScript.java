@@ -35,249 +35,56 @@ package org.firstinspires.ftc.onbotjava.handlers.javascript;
 
 
 import org.firstinspires.ftc.onbotjava.OnBotJavaProgrammingMode;
-import org.firstinspires.ftc.onbotjava.OnBotJavaWebInterfaceManager;
 import org.firstinspires.ftc.onbotjava.RegisterWebHandler;
 import org.firstinspires.ftc.onbotjava.StandardResponses;
 import com.qualcomm.robotcore.util.RobotLog;
 
-import org.firstinspires.ftc.onbotjava.OnBotJavaManager;
-import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
 import org.firstinspires.ftc.robotcore.internal.webserver.WebHandler;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
 
 import fi.iki.elonen.NanoHTTPD;
 
-import static org.firstinspires.ftc.onbotjava.StandardResponses.serverError;
+import static org.firstinspires.ftc.robotserver.internal.webserver.MimeTypesUtil.MIME_JSON;
 
 @RegisterWebHandler(uri = OnBotJavaProgrammingMode.URI_JS_AUTOCOMPLETE)
 public class FetchAutocompleteJavaScript implements WebHandler {
-    private static volatile String response = null;
-    private static final Object lock = new Object();
-
     public FetchAutocompleteJavaScript() {
-        (new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    buildResponse();
-                } catch (Exception e) {
-                    RobotLog.ee(FetchAutocompleteJavaScript.class.getName(), e,
-                            "Error with autocomplete response");
-                    response = "";
-                }
-            }
-        })).start();
+        // Get the index ready before the editor asks for it
+        AutocompleteIndex.getInstance().refreshAsync();
     }
 
     @Override
     public NanoHTTPD.Response getResponse(NanoHTTPD.IHTTPSession session) {
-        // Wait for the build response to complete, it is still running
-        synchronized (lock) {
-            while (response == null) {
-                try {
-                    lock.wait();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return StandardResponses.serverError();
-                }
-            }
-        }
-        // Make sure the result is valid...
-        if (response.equals("")) return StandardResponses.serverError();
-        return StandardResponses.successfulJsonRequest(response);
-    }
-
-    private static void buildResponse() throws IOException {
-        ClassLoader parentClassLoader = OnBotJavaManager.getParentClassLoaderForOnBotJava();
-        final List<File> jarFiles = AppUtil.getInstance().filesIn(OnBotJavaManager.libDir, ".jar");
-        jarFiles.addAll(AppUtil.getInstance().filesUnder(OnBotJavaManager.extLibDir, ".jar"));
-        final HashMap<String, List<AutoClass>> autoClassList = new HashMap<>();
-        for (File jarFile : jarFiles) {
-            boolean isExternalLibrary = jarFile.getParentFile().equals(OnBotJavaManager.extLibDir);
-            JarInputStream jarInputStream = new JarInputStream(new FileInputStream(jarFile));
-            JarEntry entry;
-            while ((entry = jarInputStream.getNextJarEntry()) != null) {
-                final String entryName = entry.getName();
-                // Skip the unimportant classes
-                if (!entryName.endsWith(".class")) continue;
-                if (!isExternalLibrary && !packagesToAutoComplete(entryName)) continue;
-                String className = entryName.replaceAll("/", "\\.");
-                String myClass = className.substring(0, className.lastIndexOf('.'));
-                // A "$" denotes an inner class which we will parse as referenced by the classes we scan
-                if (myClass.contains("$")) continue;
-                final Class currentClass;
-                try {
-                    currentClass = Class.forName(myClass, false, parentClassLoader);
-                } catch (ClassNotFoundException ignored) {
-                    continue;
-                }
-
-                parseClassForAutocomplete(autoClassList, currentClass);
-            }
-        }
-
-        response = OnBotJavaWebInterfaceManager.instance().gson().toJson(autoClassList);
-        synchronized (lock) {
-            lock.notifyAll();
-        }
-    }
-
-    private static void parseClassForAutocomplete(HashMap<String, List<AutoClass>> autoClassList, Class currentClass) {
-        final AutoClass autoClass;
-        final String currentClassName;
-
-        SecurityModifier classModifier = SecurityModifier.fromModifierInt(currentClass.getModifiers());
-        if (classModifier != SecurityModifier.PUBLIC && classModifier != SecurityModifier.PROTECTED)
-            return;
-
-        currentClassName = classNameFor(currentClass);
-        String packageName = currentClass.getPackage().getName();
-
-        // Check if we have already added this class (to prevent recursion loops), if so do nothing more
-        if (autoClassList.containsKey(currentClassName)) {
-            for (AutoClass klazz : autoClassList.get(currentClassName)) {
-                if (klazz.packageName.equals(packageName)) return;
-            }
+        final AutocompleteIndex.Snapshot snapshot;
+        try {
+            snapshot = AutocompleteIndex.getInstance().getSnapshot();
+        } catch (IOException e) {
+            RobotLog.ee(FetchAutocompleteJavaScript.class.getName(), e,
+                    "Error with autocomplete response");
+            return StandardResponses.serverError();
         }
 
-        HashMap<String, AutoField> fields = new HashMap<>();
-        for (Field field : currentClass.getDeclaredFields()) {
-            SecurityModifier fieldSecurityModifier = SecurityModifier.fromModifierInt(field.getModifiers());
-            if (fieldSecurityModifier == SecurityModifier.PRIVATE) continue;
-            final String name1 = field.getName();
-            final String fieldType = field.getType().getName();
-            fields.put(name1, new AutoField(fieldSecurityModifier, fieldType));
-        }
-
-        HashMap<String, ArrayList<AutoMethod>> methods = new HashMap<>();
-        for (Method method : currentClass.getDeclaredMethods()) {
-            SecurityModifier fieldSecurityModifier = SecurityModifier.fromModifierInt(method.getModifiers());
-            if (fieldSecurityModifier == SecurityModifier.PRIVATE) continue;
-            final String methodName = method.getName();
-            final String fieldType = method.getReturnType().getName();
-            final Class<?>[] parameterTypes = method.getParameterTypes();
-            final List<String> paramTypes = new ArrayList<>(parameterTypes.length);
-            for (Class<?> paramType : parameterTypes) {
-                paramTypes.add(paramType.getName());
-            }
-
-            if (!methods.containsKey(methodName)) methods.put(methodName, new ArrayList<AutoMethod>());
-            methods.get(methodName)
-                    .add(new AutoMethod(fieldSecurityModifier, fieldType,paramTypes));
-        }
-
-        final Class superclass = currentClass.getSuperclass();
-        final String superclassName;
-        if (superclass != null) {
-            superclassName = superclass.getName();
-            parseClassForAutocomplete(autoClassList, superclass);
+        final NanoHTTPD.Response response;
+        if (snapshot.etag.equals(session.getHeaders().get("if-none-match"))) {
+            response = NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.NOT_MODIFIED, NanoHTTPD.MIME_PLAINTEXT, "");
+        } else if (acceptsGzip(session)) {
+            // The index is compressed once when it is built; setting the content length keeps
+            // NanoHTTPD from compressing it again.
+            response = NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.OK, MIME_JSON,
+                    new ByteArrayInputStream(snapshot.gzippedJson), snapshot.gzippedJson.length);
+            response.addHeader("Content-Encoding", "gzip");
+            response.addHeader("Content-Length", String.valueOf(snapshot.gzippedJson.length));
         } else {
-            superclassName = Object.class.getName();
-        }
-
-        List<String> interfaces = getInterfacesFor(currentClass, autoClassList, new ArrayList<String>());
-
-        autoClass = new AutoClass(classModifier, methods, fields, currentClassName, packageName, interfaces, superclassName);
-        if (!autoClassList.containsKey(currentClassName))
-            autoClassList.put(currentClassName, new ArrayList<AutoClass>());
-        autoClassList.get(currentClassName).add(autoClass);
-
-        for (Class<?> innerClass : currentClass.getDeclaredClasses()) {
-            parseClassForAutocomplete(autoClassList, innerClass);
+            response = StandardResponses.successfulJsonRequest(snapshot.json);
         }
+        response.addHeader("ETag", snapshot.etag);
+        return response;
     }
 
-    private static List<String> getInterfacesFor(Class<?> currentClass, HashMap<String, List<AutoClass>> autoClassMap, List<String> list) {
-        if (currentClass == null || currentClass.equals(Object.class)) return list;
-
-        for (Class<?> klazz : currentClass.getInterfaces()) {
-            list.add(klazz.getName());
-            parseClassForAutocomplete(autoClassMap, klazz);
-        }
-
-        return getInterfacesFor(currentClass.getSuperclass(), autoClassMap, list);
-    }
-
-    private static boolean packagesToAutoComplete(String entryName) {
-        for (String testPackage : OnBotJavaWebInterfaceManager.packagesToAutocomplete()) {
-            if (entryName.startsWith(testPackage)) return true;
-        }
-
-        return false;
-    }
-
-    private static String classNameFor(Class<?> klazz) {
-        final String fullClassName = klazz.getName();
-        if (fullClassName.indexOf('.') >= 0) {
-            return fullClassName.substring(fullClassName.lastIndexOf('.') + 1);
-        } else {
-            return fullClassName;
-        }
-    }
-
-    @SuppressWarnings("unused")
-    private static class AutoClass {
-        private SecurityModifier modifier;
-        private HashMap<String, ArrayList<AutoMethod>> methods;
-        private HashMap<String, AutoField> fields;
-        private String packageName;
-        private List<String> interfaces;
-        private String parentClass;
-
-        private AutoClass(SecurityModifier modifier, HashMap<String, ArrayList<AutoMethod>> methods, HashMap<String, AutoField> fields,
-                          String name, String packageName, List<String> interfaces, String parentClass) {
-            this.modifier = modifier;
-            this.methods = methods;
-            this.fields = fields;
-            this.packageName = packageName;
-            this.interfaces = interfaces;
-            this.parentClass = parentClass;
-        }
-    }
-
-    @SuppressWarnings("unused")
-    private static class AutoField {
-        private SecurityModifier modifier;
-        private String type;
-
-        private AutoField(SecurityModifier modifier, String type) {
-            this.modifier = modifier;
-            this.type = type;
-        }
-    }
-
-    @SuppressWarnings("unused")
-    private static class AutoMethod {
-        private SecurityModifier modifier;
-        private String type;
-        private List<String> params;
-
-        private AutoMethod(SecurityModifier modifier, String type, List<String> params) {
-            this.modifier = modifier;
-            this.type = type;
-            this.params = params;
-        }
-    }
-
-    private enum SecurityModifier {
-        PUBLIC, PRIVATE, PROTECTED, PACKAGE_PRIVATE, UNKNOWN;
-
-        static SecurityModifier fromModifierInt(int modifier) {
-            if (Modifier.isPublic(modifier)) return PUBLIC;
-            if (Modifier.isPrivate(modifier)) return PRIVATE;
-            if (Modifier.isProtected(modifier)) return PROTECTED;
-            return PACKAGE_PRIVATE;
-        }
+    private static boolean acceptsGzip(NanoHTTPD.IHTTPSession session) {
+        final String acceptEncoding = session.getHeaders().get("accept-encoding");
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
     }
 }
@@ -39,6 +39,7 @@ import com.qualcomm.robotcore.eventloop.opmode.OpModeManager;
 import com.qualcomm.robotcore.exception.RobotCoreException;
 import com.qualcomm.robotcore.exception.RobotProtocolException;
 import com.qualcomm.robotcore.hardware.Gamepad;
+import com.qualcomm.robotcore.hardware.GamepadDeltaCodec;
 import com.qualcomm.robotcore.hardware.usb.RobotUsbModule;
 import com.qualcomm.robotcore.robocol.Command;
 import com.qualcomm.robotcore.robocol.Heartbeat;
@@ -115,6 +116,8 @@ public class EventLoopManager implements RecvLoopRunnable.RecvLoopCallback, Netw
   private final         Gamepad               gamepads[]                = { new Gamepad(), new Gamepad() };
   private               Heartbeat             heartbeat                 = new Heartbeat();
   private               boolean               receivedTimeFromCurrentPeer = false;
+  private               boolean               announcedGamepadDeltasToCurrentPeer = false;
+  private final         GamepadDeltaCodec.Decoder gamepadDecoder        = new GamepadDeltaCodec.Decoder();
   private               EventLoopMonitor      callback                  = null;
   private final         Set<SyncdDevice>      syncdDevices              = new CopyOnWriteArraySet<SyncdDevice>(); // Would be nice if this held weak references
   private final         Command[]             commandRecvCache          = new Command[MAX_COMMAND_CACHE];
@@ -642,8 +645,11 @@ public class EventLoopManager implements RecvLoopRunnable.RecvLoopCallback, Netw
   @Override
   public CallbackResult gamepadEvent(RobocolDatagram packet) throws RobotCoreException {
     if (DEBUG) RobotLog.vv(RobocolDatagram.TAG, "processing gamepad event");
-    Gamepad gamepad = new Gamepad();
-    gamepad.fromByteArray(packet.getData());
+    Gamepad gamepad = gamepadDecoder.decode(packet.getData());
+    if (gamepad == null) {
+      // stale, or a delta whose keyframe was lost; a later packet will bring us up to date
+      return CallbackResult.HANDLED;
+    }
 
     if (gamepad.getUser() == null) {
       // this gamepad user is invalid, we cannot use
@@ -731,6 +737,8 @@ public class EventLoopManager implements RecvLoopRunnable.RecvLoopCallback, Netw
 
     lastHeartbeatReceived = new ElapsedTime(0);
     receivedTimeFromCurrentPeer = false; // Use the time of the next Driver Station that connects to us
+    announcedGamepadDeltasToCurrentPeer = false;
+    gamepadDecoder.reset();
   }
 
   public CallbackResult peerDiscoveryEvent(RobocolDatagram packet) throws RobotCoreException {
@@ -742,6 +750,12 @@ public class EventLoopManager implements RecvLoopRunnable.RecvLoopCallback, Netw
         PeerDiscovery payload = networkConnectionHandler.updateConnection(packet);
         SoftwareVersionWarningSource.getInstance().onReceivedPeerDiscoveryFromCurrentPeer(payload);
 
+        if (!announcedGamepadDeltasToCurrentPeer) {
+          // Let the DS know that it may send us gamepad deltas rather than full gamepad state
+          networkConnectionHandler.sendCommand(new Command(RobotCoreCommandList.CMD_NOTIFY_GAMEPAD_DELTAS_SUPPORTED));
+          announcedGamepadDeltasToCurrentPeer = true;
+        }
+
         // We successfully established a connection. Clear the robocol mismatch error, if applicable
         if (displayingRobocolMismatchError) {
           RobotLog.clearGlobalErrorMsg();
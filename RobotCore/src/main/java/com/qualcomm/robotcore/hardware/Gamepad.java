@@ -364,8 +364,6 @@ public class Gamepad extends RobocolParsableBase {
     ByteBuffer buffer = getWriteBuffer(PAYLOAD_SIZE);
 
     try {
-      int buttons = 0;
-
       buffer.put(ROBOCOL_GAMEPAD_VERSION);
       buffer.putInt(id);
       buffer.putLong(timestamp).array();
@@ -376,25 +374,7 @@ public class Gamepad extends RobocolParsableBase {
       buffer.putFloat(left_trigger).array();
       buffer.putFloat(right_trigger).array();
 
-      buttons = (buttons << 1) + (touchpad_finger_1 ? 1 : 0);
-      buttons = (buttons << 1) + (touchpad_finger_2 ? 1 : 0);
-      buttons = (buttons << 1) + (touchpad ? 1 : 0);
-      buttons = (buttons << 1) + (left_stick_button ? 1 : 0);
-      buttons = (buttons << 1) + (right_stick_button ? 1 : 0);
-      buttons = (buttons << 1) + (dpad_up ? 1 : 0);
-      buttons = (buttons << 1) + (dpad_down ? 1 : 0);
-      buttons = (buttons << 1) + (dpad_left ? 1 : 0);
-      buttons = (buttons << 1) + (dpad_right ? 1 : 0);
-      buttons = (buttons << 1) + (a ? 1 : 0);
-      buttons = (buttons << 1) + (b ? 1 : 0);
-      buttons = (buttons << 1) + (x ? 1 : 0);
-      buttons = (buttons << 1) + (y ? 1 : 0);
-      buttons = (buttons << 1) + (guide ? 1 : 0);
-      buttons = (buttons << 1) + (start ? 1 : 0);
-      buttons = (buttons << 1) + (back ? 1 : 0);
-      buttons = (buttons << 1) + (left_bumper ? 1 : 0);
-      buttons = (buttons << 1) + (right_bumper ? 1 : 0);
-      buffer.putInt(buttons);
+      buffer.putInt(getButtonsAsInt());
 
       // Version 2
       buffer.put(user);
@@ -419,14 +399,15 @@ public class Gamepad extends RobocolParsableBase {
 
   @Override
   public void fromByteArray(byte[] byteArray) throws RobotCoreException {
+    if (GamepadDeltaCodec.isDeltaEncoded(byteArray)) {
+      throw new RobotCoreException("Delta-encoded gamepad state must be decoded with a GamepadDeltaCodec.Decoder");
+    }
     if (byteArray.length < BUFFER_SIZE) {
       throw new RobotCoreException("Expected buffer of at least " + BUFFER_SIZE + " bytes, received " + byteArray.length);
     }
 
     ByteBuffer byteBuffer = getReadBuffer(byteArray);
 
-    int buttons = 0;
-
     byte version = byteBuffer.get();
 
     // TODO(Noah): Reset version to 1
@@ -441,25 +422,7 @@ public class Gamepad extends RobocolParsableBase {
       left_trigger = byteBuffer.getFloat();
       right_trigger = byteBuffer.getFloat();
 
-      buttons = byteBuffer.getInt();
-      touchpad_finger_1   = (buttons & 0x20000) != 0;
-      touchpad_finger_2   = (buttons & 0x10000) != 0;
-      touchpad            = (buttons & 0x08000) != 0;
-      left_stick_button   = (buttons & 0x04000) != 0;
-      right_stick_button  = (buttons & 0x02000) != 0;
-      dpad_up             = (buttons & 0x01000) != 0;
-      dpad_down           = (buttons & 0x00800) != 0;
-      dpad_left           = (buttons & 0x00400) != 0;
-      dpad_right          = (buttons & 0x00200) != 0;
-      a                   = (buttons & 0x00100) != 0;
-      b                   = (buttons & 0x00080) != 0;
-      x                   = (buttons & 0x00040) != 0;
-      y                   = (buttons & 0x00020) != 0;
-      guide               = (buttons & 0x00010) != 0;
-      start               = (buttons & 0x00008) != 0;
-      back                = (buttons & 0x00004) != 0;
-      left_bumper         = (buttons & 0x00002) != 0;
-      right_bumper        = (buttons & 0x00001) != 0;
+      setButtonsFromInt(byteBuffer.getInt());
     }
 
     // extract version 2 values
@@ -491,6 +454,56 @@ public class Gamepad extends RobocolParsableBase {
     updateButtonAliases();
   }
 
+  /**
+   * Packs the state of the buttons into the bit layout used on the wire.
+   */
+  int getButtonsAsInt() {
+    int buttons = 0;
+    buttons = (buttons << 1) + (touchpad_finger_1 ? 1 : 0);
+    buttons = (buttons << 1) + (touchpad_finger_2 ? 1 : 0);
+    buttons = (buttons << 1) + (touchpad ? 1 : 0);
+    buttons = (buttons << 1) + (left_stick_button ? 1 : 0);
+    buttons = (buttons << 1) + (right_stick_button ? 1 : 0);
+    buttons = (buttons << 1) + (dpad_up ? 1 : 0);
+    buttons = (buttons << 1) + (dpad_down ? 1 : 0);
+    buttons = (buttons << 1) + (dpad_left ? 1 : 0);
+    buttons = (buttons << 1) + (dpad_right ? 1 : 0);
+    buttons = (buttons << 1) + (a ? 1 : 0);
+    buttons = (buttons << 1) + (b ? 1 : 0);
+    buttons = (buttons << 1) + (x ? 1 : 0);
+    buttons = (buttons << 1) + (y ? 1 : 0);
+    buttons = (buttons << 1) + (guide ? 1 : 0);
+    buttons = (buttons << 1) + (start ? 1 : 0);
+    buttons = (buttons << 1) + (back ? 1 : 0);
+    buttons = (buttons << 1) + (left_bumper ? 1 : 0);
+    buttons = (buttons << 1) + (right_bumper ? 1 : 0);
+    return buttons;
+  }
+
+  /**
+   * Unpacks the state of the buttons from the bit layout used on the wire.
+   */
+  void setButtonsFromInt(int buttons) {
+    touchpad_finger_1   = (buttons & 0x20000) != 0;
+    touchpad_finger_2   = (buttons & 0x10000) != 0;
+    touchpad            = (buttons & 0x08000) != 0;
+    left_stick_button   = (buttons & 0x04000) != 0;
+    right_stick_button  = (buttons & 0x02000) != 0;
+    dpad_up             = (buttons & 0x01000) != 0;
+    dpad_down           = (buttons & 0x00800) != 0;
+    dpad_left           = (buttons & 0x00400) != 0;
+    dpad_right          = (buttons & 0x00200) != 0;
+    a                   = (buttons & 0x00100) != 0;
+    b                   = (buttons & 0x00080) != 0;
+    x                   = (buttons & 0x00040) != 0;
+    y                   = (buttons & 0x00020) != 0;
+    guide               = (buttons & 0x00010) != 0;
+    start               = (buttons & 0x00008) != 0;
+    back                = (buttons & 0x00004) != 0;
+    left_bumper         = (buttons & 0x00002) != 0;
+    right_bumper        = (buttons & 0x00001) != 0;
+  }
+
   /**
    * Are all analog sticks and triggers in their rest position?
    * @return true if all analog sticks and triggers are at rest; otherwise false
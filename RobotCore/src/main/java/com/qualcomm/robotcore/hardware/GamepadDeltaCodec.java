@@ -0,0 +1,459 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.qualcomm.robotcore.hardware;
+
+import androidx.annotation.Nullable;
+
+import com.qualcomm.robotcore.exception.RobotCoreException;
+import com.qualcomm.robotcore.robocol.RobocolParsable;
+import com.qualcomm.robotcore.robocol.RobocolParsableBase;
+import com.qualcomm.robotcore.util.Range;
+import com.qualcomm.robotcore.util.TypeConversion;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compact encoding of gamepad state for transmission from the driver station.
+ *
+ * Every {@link #KEYFRAME_INTERVAL} packets, and whenever the gamepad's identity changes, the full
+ * state is sent as a keyframe. The packets in between carry only what differs from the most recent
+ * keyframe. Since every delta is relative to a keyframe rather than to the previous packet, losing
+ * a delta costs nothing. So that losing a keyframe costs little, every
+ * {@link #KEYFRAME_REPEAT_INTERVAL}th delta carries a copy of its keyframe, from which the robot
+ * controller can recover. With one lost keyframe, the robot controller drops at most
+ * {@link #KEYFRAME_REPEAT_INTERVAL} - 1 deltas (80ms at the send loop's rate); each further
+ * consecutive loss of a packet carrying the keyframe adds up to {@link #KEYFRAME_REPEAT_INTERVAL}
+ * more, and the worst case, when every packet carrying it is lost, is {@link #KEYFRAME_INTERVAL}
+ * packets (400ms), after which a new keyframe is sent. Stick, trigger and touchpad values are
+ * quantized to a byte each.
+ *
+ * Peers that don't know about this encoding can't parse it, so it is only used once the robot
+ * controller has announced that it understands it (see
+ * {@link org.firstinspires.ftc.robotcore.internal.network.RobotCoreCommandList#CMD_NOTIFY_GAMEPAD_DELTAS_SUPPORTED}).
+ *
+ * Wire format, following the robocol header (all multi-byte values big endian):
+ *
+ *  1 byte    version ({@link #ROBOCOL_GAMEPAD_DELTA_VERSION}), which distinguishes these packets
+ *            from those produced by {@link Gamepad#toByteArray()}
+ *  1 byte    flags
+ *  1 byte    user
+ *  2 bytes   sequence number of the keyframe (for a keyframe, its own sequence number)
+ *
+ * followed, for a keyframe or a delta that carries a copy of its keyframe, by
+ *
+ *  4 bytes   gamepad id
+ *  8 bytes   timestamp
+ *  1 byte    gamepad type
+ *  4 bytes   buttons, in the layout used by {@link Gamepad#toByteArray()}
+ *  10 bytes  quantized analog values
+ *
+ * and, for a delta, by
+ *
+ *  2 bytes   mask of the values that differ from the keyframe
+ *  4 bytes   timestamp, relative to the keyframe's (if it differs)
+ *  4 bytes   mask of the buttons that differ from the keyframe (if any do)
+ *  n bytes   the quantized analog values that differ from the keyframe, in order
+ */
+public final class GamepadDeltaCodec {
+
+  static final byte ROBOCOL_GAMEPAD_DELTA_VERSION = 6;
+
+  /** How many deltas are sent between keyframes; at the send loop's rate, this is 400ms. */
+  public static final int KEYFRAME_INTERVAL = 10;
+
+  /** Every this many deltas, a delta also carries a copy of its keyframe. */
+  public static final int KEYFRAME_REPEAT_INTERVAL = 3;
+
+  private static final byte FLAG_KEYFRAME = 0x01;
+  private static final byte FLAG_CARRIES_KEYFRAME = 0x02;
+
+  /**
+   * How far behind the newest packet received for a gamepad a packet may be and still be
+   * considered out of order rather than from a sender whose sequence numbers have started over.
+   * The sequence numbers are shared with the sender's other messages, so this is generous.
+   */
+  private static final int REORDER_WINDOW = 1024;
+
+  private static final int ANALOG_COUNT = 10;
+  private static final int CHANGED_TIMESTAMP = 1 << ANALOG_COUNT;
+  private static final int CHANGED_BUTTONS = 1 << (ANALOG_COUNT + 1);
+
+  private static final int HEADER_SIZE = 1 + 1 + 1 + 2;
+  private static final int KEYFRAME_BODY_SIZE = 4 + 8 + 1 + 4 + ANALOG_COUNT;
+  private static final int DELTA_BODY_MAX_SIZE = 2 + 4 + 4 + ANALOG_COUNT;
+  private static final int MAX_PACKET_SIZE = HEADER_SIZE + KEYFRAME_BODY_SIZE + DELTA_BODY_MAX_SIZE;
+
+  private GamepadDeltaCodec() { }
+
+  /**
+   * Returns whether the given gamepad packet (including its robocol header) uses this encoding.
+   */
+  public static boolean isDeltaEncoded(byte[] packetData) {
+    return packetData.length > RobocolParsable.HEADER_LENGTH
+        && packetData[RobocolParsable.HEADER_LENGTH] == ROBOCOL_GAMEPAD_DELTA_VERSION;
+  }
+
+  /**
+   * Returns whether the gamepad packet {@code older} has been made redundant by {@code newer}: both
+   * are for the same user, and {@code newer} has the later sequence number. Either may use either
+   * encoding. A packet that carries a keyframe is only made redundant by another that does, since
+   * the deltas that follow it depend on the keyframe.
+   */
+  public static boolean supersedes(byte[] newer, byte[] older) {
+    int user = userOf(newer);
+    if (user < 0 || user != userOf(older)) {
+      return false;
+    }
+    if (carriesKeyframe(older) && isDeltaEncoded(newer) && !carriesKeyframe(newer)) {
+      return false;
+    }
+    return (short) (sequenceNumberOf(newer) - sequenceNumberOf(older)) > 0;
+  }
+
+  static boolean carriesKeyframe(byte[] packetData) {
+    return isDeltaEncoded(packetData)
+        && packetData.length > RobocolParsable.HEADER_LENGTH + 1
+        && (packetData[RobocolParsable.HEADER_LENGTH + 1] & (FLAG_KEYFRAME | FLAG_CARRIES_KEYFRAME)) != 0;
+  }
+
+  static int keyframeSequenceNumberOf(byte[] packetData) {
+    return TypeConversion.unsignedShortToInt(
+        TypeConversion.byteArrayToShort(packetData, RobocolParsable.HEADER_LENGTH + 3, ByteOrder.BIG_ENDIAN));
+  }
+
+  private static int userOf(byte[] packetData) {
+    if (isDeltaEncoded(packetData)) {
+      return packetData.length > RobocolParsable.HEADER_LENGTH + 2 ? packetData[RobocolParsable.HEADER_LENGTH + 2] : -1;
+    }
+    // version, id, timestamp, sticks and triggers, buttons; the user was added in version 2
+    final int userOffset = RobocolParsable.HEADER_LENGTH + 1 + 4 + 8 + 6 * 4 + 4;
+    return packetData.length > userOffset && packetData[RobocolParsable.HEADER_LENGTH] >= 2 ? packetData[userOffset] : -1;
+  }
+
+  private static short sequenceNumberOf(byte[] packetData) {
+    return TypeConversion.byteArrayToShort(packetData, RobocolParsable.HEADER_LENGTH - 2, ByteOrder.BIG_ENDIAN);
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Encoding
+  //------------------------------------------------------------------------------------------------
+
+  /**
+   * Encodes the gamepads that are sent to one peer. Not thread-safe; it is meant to be used from
+   * the send loop.
+   */
+  public static class Encoder {
+    private final Map<Byte, KeyframeState> states = new HashMap<>();
+
+    /**
+     * Returns a packet that carries the current state of the given gamepad.
+     */
+    public RobocolParsable encode(Gamepad gamepad) {
+      Frame frame = Frame.from(gamepad);
+      Packet packet = new Packet(); // takes the next sequence number
+      KeyframeState state = states.get(frame.user);
+
+      boolean keyframe = state == null
+          || state.deltasSinceKeyframe >= KEYFRAME_INTERVAL
+          || state.keyframe.id != frame.id
+          || state.keyframe.type != frame.type;
+
+      ByteBuffer buffer = ByteBuffer.allocate(MAX_PACKET_SIZE);
+      if (keyframe) {
+        state = new KeyframeState(frame, packet.getSequenceNumber());
+        states.put(frame.user, state);
+
+        buffer.put(ROBOCOL_GAMEPAD_DELTA_VERSION);
+        buffer.put(FLAG_KEYFRAME);
+        buffer.put(frame.user);
+        buffer.putShort((short) state.sequenceNumber);
+        frame.putKeyframe(buffer);
+      } else {
+        state.deltasSinceKeyframe++;
+        Frame base = state.keyframe;
+        boolean carriesKeyframe = state.deltasSinceKeyframe % KEYFRAME_REPEAT_INTERVAL == 0;
+
+        int changed = 0;
+        for (int i = 0; i < ANALOG_COUNT; i++) {
+          if (frame.analog[i] != base.analog[i]) changed |= 1 << i;
+        }
+        if (frame.timestamp != base.timestamp) changed |= CHANGED_TIMESTAMP;
+        if (frame.buttons != base.buttons) changed |= CHANGED_BUTTONS;
+
+        buffer.put(ROBOCOL_GAMEPAD_DELTA_VERSION);
+        buffer.put(carriesKeyframe ? FLAG_CARRIES_KEYFRAME : 0);
+        buffer.put(frame.user);
+        buffer.putShort((short) state.sequenceNumber);
+        if (carriesKeyframe) base.putKeyframe(buffer);
+        buffer.putShort((short) changed);
+        if ((changed & CHANGED_TIMESTAMP) != 0) buffer.putInt((int) (frame.timestamp - base.timestamp));
+        if ((changed & CHANGED_BUTTONS) != 0) buffer.putInt(frame.buttons ^ base.buttons);
+        for (int i = 0; i < ANALOG_COUNT; i++) {
+          if ((changed & (1 << i)) != 0) buffer.put(frame.analog[i]);
+        }
+      }
+
+      packet.payload = Arrays.copyOf(buffer.array(), buffer.position());
+      return packet;
+    }
+
+    /**
+     * Forgets the keyframes sent so far, so that the next packet for each gamepad is a keyframe.
+     * Call when the peer changes.
+     */
+    public void reset() {
+      states.clear();
+    }
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Decoding
+  //------------------------------------------------------------------------------------------------
+
+  /**
+   * Reconstructs gamepad state from the packets received from one peer.
+   */
+  public static class Decoder {
+    private final Map<Byte, KeyframeState> states = new HashMap<>();
+
+    /**
+     * Returns the gamepad state carried by the given gamepad packet (including its robocol header),
+     * which may use either this encoding or that of {@link Gamepad#toByteArray()}. Returns null if
+     * the packet is out of date, or is a delta against a keyframe that was never received and that
+     * it doesn't carry a copy of.
+     */
+    @Nullable public synchronized Gamepad decode(byte[] packetData) throws RobotCoreException {
+      Gamepad gamepad = new Gamepad();
+      if (!isDeltaEncoded(packetData)) {
+        gamepad.fromByteArray(packetData);
+        return gamepad;
+      }
+
+      Frame frame;
+      try {
+        ByteBuffer buffer = ByteBuffer.wrap(packetData);
+        buffer.position(RobocolParsable.HEADER_LENGTH - 2);
+        int sequenceNumber = TypeConversion.unsignedShortToInt(buffer.getShort());
+        buffer.get(); // version
+        byte flags = buffer.get();
+        byte user = buffer.get();
+        int keyframeSequenceNumber = TypeConversion.unsignedShortToInt(buffer.getShort());
+
+        KeyframeState state = states.get(user);
+        if (state != null && state.isStale(sequenceNumber)) {
+          return null; // arrived out of order; we've already applied newer state
+        }
+
+        if ((flags & (FLAG_KEYFRAME | FLAG_CARRIES_KEYFRAME)) != 0) {
+          if (state == null || state.sequenceNumber != keyframeSequenceNumber) {
+            // A new keyframe, or one we missed: it stands on its own, so we can take it. That way
+            // we also recover if the sender's sequence numbers start over.
+            state = new KeyframeState(Frame.getKeyframe(buffer, user), keyframeSequenceNumber);
+            states.put(user, state);
+          } else {
+            buffer.position(buffer.position() + KEYFRAME_BODY_SIZE);
+          }
+        } else if (state == null || state.sequenceNumber != keyframeSequenceNumber) {
+          return null; // we missed the keyframe; wait for the next packet that carries one
+        }
+        state.lastSequenceNumber = sequenceNumber;
+
+        Frame base = state.keyframe;
+        frame = base.copy();
+        if ((flags & FLAG_KEYFRAME) == 0) {
+          int changed = buffer.getShort() & 0xFFFF;
+          if ((changed & CHANGED_TIMESTAMP) != 0) frame.timestamp = base.timestamp + buffer.getInt();
+          if ((changed & CHANGED_BUTTONS) != 0) frame.buttons = base.buttons ^ buffer.getInt();
+          for (int i = 0; i < ANALOG_COUNT; i++) {
+            if ((changed & (1 << i)) != 0) frame.analog[i] = buffer.get();
+          }
+        }
+      } catch (BufferUnderflowException | IllegalArgumentException e) {
+        throw new RobotCoreException("Truncated delta-encoded gamepad packet of " + packetData.length + " bytes");
+      }
+
+      frame.applyTo(gamepad);
+      return gamepad;
+    }
+
+    /**
+     * Forgets the keyframes received so far. Call when the peer changes.
+     */
+    public synchronized void reset() {
+      states.clear();
+    }
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Internal
+  //------------------------------------------------------------------------------------------------
+
+  private static class KeyframeState {
+    final Frame keyframe;
+    final int sequenceNumber;
+    int lastSequenceNumber;
+    int deltasSinceKeyframe = 0;
+
+    KeyframeState(Frame keyframe, int sequenceNumber) {
+      this.keyframe = keyframe;
+      this.sequenceNumber = sequenceNumber;
+      this.lastSequenceNumber = sequenceNumber;
+    }
+
+    /** Returns whether a packet with the given sequence number is older than one already applied */
+    boolean isStale(int sequenceNumber) {
+      int age = (short) (lastSequenceNumber - sequenceNumber);
+      return age >= 0 && age <= REORDER_WINDOW;
+    }
+  }
+
+  /** Gamepad state, quantized as it is on the wire. */
+  private static class Frame {
+    byte user;
+    int id;
+    long timestamp;
+    byte type;
+    int buttons;
+    final byte[] analog = new byte[ANALOG_COUNT];
+
+    static Frame from(Gamepad gamepad) {
+      Frame frame = new Frame();
+      frame.user = gamepad.user;
+      frame.id = gamepad.id;
+      frame.timestamp = gamepad.timestamp;
+      frame.type = (byte) gamepad.type.ordinal();
+      frame.buttons = gamepad.getButtonsAsInt();
+      frame.analog[0] = quantizeSigned(gamepad.left_stick_x);
+      frame.analog[1] = quantizeSigned(gamepad.left_stick_y);
+      frame.analog[2] = quantizeSigned(gamepad.right_stick_x);
+      frame.analog[3] = quantizeSigned(gamepad.right_stick_y);
+      frame.analog[4] = quantizeUnsigned(gamepad.left_trigger);
+      frame.analog[5] = quantizeUnsigned(gamepad.right_trigger);
+      frame.analog[6] = quantizeSigned(gamepad.touchpad_finger_1_x);
+      frame.analog[7] = quantizeSigned(gamepad.touchpad_finger_1_y);
+      frame.analog[8] = quantizeSigned(gamepad.touchpad_finger_2_x);
+      frame.analog[9] = quantizeSigned(gamepad.touchpad_finger_2_y);
+      return frame;
+    }
+
+    static Frame getKeyframe(ByteBuffer buffer, byte user) {
+      Frame frame = new Frame();
+      frame.user = user;
+      frame.id = buffer.getInt();
+      frame.timestamp = buffer.getLong();
+      frame.type = buffer.get();
+      frame.buttons = buffer.getInt();
+      buffer.get(frame.analog);
+      return frame;
+    }
+
+    void putKeyframe(ByteBuffer buffer) {
+      buffer.putInt(id);
+      buffer.putLong(timestamp);
+      buffer.put(type);
+      buffer.putInt(buttons);
+      buffer.put(analog);
+    }
+
+    Frame copy() {
+      Frame frame = new Frame();
+      frame.user = user;
+      frame.id = id;
+      frame.timestamp = timestamp;
+      frame.type = type;
+      frame.buttons = buttons;
+      System.arraycopy(analog, 0, frame.analog, 0, ANALOG_COUNT);
+      return frame;
+    }
+
+    void applyTo(Gamepad gamepad) {
+      gamepad.user = user;
+      gamepad.id = id;
+      gamepad.timestamp = timestamp;
+      if (type >= 0 && type < Gamepad.Type.values().length) {
+        gamepad.type = Gamepad.Type.values()[type];
+      }
+      gamepad.setButtonsFromInt(buttons);
+      gamepad.left_stick_x = dequantizeSigned(analog[0]);
+      gamepad.left_stick_y = dequantizeSigned(analog[1]);
+      gamepad.right_stick_x = dequantizeSigned(analog[2]);
+      gamepad.right_stick_y = dequantizeSigned(analog[3]);
+      gamepad.left_trigger = dequantizeUnsigned(analog[4]);
+      gamepad.right_trigger = dequantizeUnsigned(analog[5]);
+      gamepad.touchpad_finger_1_x = dequantizeSigned(analog[6]);
+      gamepad.touchpad_finger_1_y = dequantizeSigned(analog[7]);
+      gamepad.touchpad_finger_2_x = dequantizeSigned(analog[8]);
+      gamepad.touchpad_finger_2_y = dequantizeSigned(analog[9]);
+      gamepad.updateButtonAliases();
+    }
+  }
+
+  // Zero and full scale are represented exactly, so that atRest() works on the robot controller.
+
+  private static byte quantizeSigned(float value) {
+    return (byte) Math.round(Range.clip(value, -1f, 1f) * 127f);
+  }
+
+  private static float dequantizeSigned(byte value) {
+    return Math.max(value, -127) / 127f;
+  }
+
+  private static byte quantizeUnsigned(float value) {
+    return (byte) Math.round(Range.clip(value, 0f, 1f) * 255f);
+  }
+
+  private static float dequantizeUnsigned(byte value) {
+    return TypeConversion.unsignedByteToInt(value) / 255f;
+  }
+
+  private static class Packet extends RobocolParsableBase {
+    byte[] payload;
+
+    @Override public MsgType getRobocolMsgType() {
+      return MsgType.GAMEPAD;
+    }
+
+    @Override public byte[] toByteArray() throws RobotCoreException {
+      ByteBuffer buffer = getWriteBuffer(payload.length);
+      buffer.put(payload);
+      return buffer.array();
+    }
+
+    @Override public void fromByteArray(byte[] byteArray) throws RobotCoreException {
+      throw new RobotCoreException("Delta-encoded gamepad state must be decoded with a GamepadDeltaCodec.Decoder");
+    }
+  }
+}
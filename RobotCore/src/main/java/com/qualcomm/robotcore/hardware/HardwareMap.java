@@ -107,6 +107,9 @@ public class HardwareMap implements Iterable<HardwareDevice> {
   public final Context appContext;
   protected final Object lock = new Object();
 
+  /** Immutable lookup index; rebuilt (under {@link #lock}) after the map is mutated. Readers never lock. */
+  protected volatile DeviceIndex                deviceIndex         = null;
+
   private static final String TAG = "HardwareMap";
   @SuppressWarnings("rawtypes") // We have to use the raw type here as far as I (Noah) can tell
   private static final Class<I2cDeviceSynchDevice> i2cDriverBaseClass = I2cDeviceSynchDevice.class;
@@ -165,6 +168,11 @@ public class HardwareMap implements Iterable<HardwareDevice> {
    * may take some time. As a result, you should ONLY call this method during the Init phase of your
    * Op Mode.
    *
+   * Once a device has been retrieved, later calls with the same type and name are answered from a
+   * memo without locking, but that is still a pair of hash lookups per call. Code which fetches the
+   * same device every loop should instead hold on to a {@link DeviceHandle} from
+   * {@link #getHandle(Class, String)}, whose {@link DeviceHandle#get()} is a single array access.
+   *
    * @param classOrInterface  the class or interface indicating the type of the device object to be retrieved
    * @param deviceName        the name of the device object to be retrieved
    * @return a device with the indicated name which is an instance of the indicated class or interface
@@ -174,10 +182,11 @@ public class HardwareMap implements Iterable<HardwareDevice> {
    * @see #tryGet(Class, String)
    */
   public <T> T get(Class<? extends T> classOrInterface, String deviceName) {
+    T result = lookupIndexed(classOrInterface, deviceName);
+    if (result != null) return result;
     synchronized (lock) {
-      deviceName = deviceName.trim();
-      T result = tryGet(classOrInterface, deviceName);
-      if (result==null) throw new IllegalArgumentException(String.format("Unable to find a hardware device with name \"%s\" and type %s", deviceName, classOrInterface.getSimpleName()));
+      result = tryGet(classOrInterface, deviceName); // untrimmed, so that the name as given is memoized
+      if (result==null) throw new IllegalArgumentException(String.format("Unable to find a hardware device with name \"%s\" and type %s", deviceName.trim(), classOrInterface.getSimpleName()));
       return result;
       }
   }
@@ -196,19 +205,22 @@ public class HardwareMap implements Iterable<HardwareDevice> {
    * @see #get(Class, String)
    */
   public @Nullable <T> T tryGet(Class<? extends T> classOrInterface, String deviceName) {
+    @Nullable T result = lookupIndexed(classOrInterface, deviceName);
+    if (result != null) return result;
+
     synchronized (lock) {
+      String nameAsGiven = deviceName;
       deviceName = deviceName.trim();
-      List<HardwareDevice> list = allDevicesMap.get(deviceName);
-      @Nullable T result = null;
-
-      if (list != null) {
-        for (HardwareDevice device : list) {
-          if (classOrInterface.isInstance(device)) {
-            initializeDeviceIfNecessary(device);
-            result = classOrInterface.cast(device);
-            break;
-          }
+      DeviceIndex index = ensureDeviceIndex();
+      int slot = index.resolve(classOrInterface, deviceName);
+      if (slot >= 0) {
+        HardwareDevice device = index.devices[slot];
+        initializeDeviceIfNecessary(device);
+        index.memoize(classOrInterface, deviceName, slot);
+        if (!nameAsGiven.equals(deviceName)) {
+          index.memoize(classOrInterface, nameAsGiven, slot); // so the lock-free path needn't trim
         }
+        result = classOrInterface.cast(device);
       }
 
       // Show a warning if the user tried to get the BNO055 IMU when a BHI260 IMU is configured
@@ -312,6 +324,33 @@ public class HardwareMap implements Iterable<HardwareDevice> {
     }
   }
 
+  /**
+   * Resolves the (first) device with the indicated name which is also an instance of the indicated
+   * class or interface, and returns a {@link DeviceHandle} through which that device can thereafter
+   * be retrieved cheaply. Resolving the handle has the same semantics (and initialization
+   * side effects) as {@link #get(Class, String)}; subsequent calls to {@link DeviceHandle#get()}
+   * neither lock the map nor search it unless the map has since been modified. Example:
+   *
+   * <pre>
+   *    HardwareMap.DeviceHandle&lt;DcMotor&gt; motorLeft = hardwareMap.getHandle(DcMotor.class, "motorLeft");
+   *    ...
+   *    while (opModeIsActive()) {
+   *        motorLeft.get().setPower(gamepad1.left_stick_y);
+   *    }
+   * </pre>
+   *
+   * @param classOrInterface  the class or interface indicating the type of the device object to be retrieved
+   * @param deviceName        the name of the device object to be retrieved
+   * @return a handle to the device with the indicated name and type
+   * @throws IllegalArgumentException if no such device exists
+   * @see #get(Class, String)
+   */
+  public <T> DeviceHandle<T> getHandle(Class<T> classOrInterface, String deviceName) {
+    DeviceHandle<T> handle = new DeviceHandle<T>(classOrInterface, deviceName.trim());
+    handle.get(); // resolve now so that a bad name is reported during init, not later in the loop
+    return handle;
+  }
+
   /**
    * Puts a device in the overall map without having it also reside in a type-specific DeviceMapping.
    * @param deviceName the name by which the device is to be known (case sensitive)
@@ -342,6 +381,7 @@ public class HardwareMap implements Iterable<HardwareDevice> {
       }
       if (!list.contains(device)) {
         allDevicesList = null;
+        deviceIndex = null;
         list.add(device);
       }
       if (serialNumber != null) {
@@ -389,6 +429,7 @@ public class HardwareMap implements Iterable<HardwareDevice> {
           allDevicesMap.remove(deviceName);
         }
         allDevicesList = null;
+        deviceIndex = null;
         deviceNames = null;
         if (serialNumber != null) {
           serialNumberMap.remove(serialNumber);
@@ -437,6 +478,32 @@ public class HardwareMap implements Iterable<HardwareDevice> {
     }
   }
 
+  /**
+   * Lock-free lookup against the current index snapshot. Returns null if the index is stale or the
+   * (type, name) pair has not yet been resolved, in which case callers fall back to the locked path.
+   * The name is looked up as given: {@link #tryGet} memoizes untrimmed names alongside trimmed ones.
+   */
+  private @Nullable <T> T lookupIndexed(Class<? extends T> classOrInterface, String deviceName) {
+    DeviceIndex index = deviceIndex;
+    if (index != null) {
+      int slot = index.lookup(classOrInterface, deviceName);
+      if (slot >= 0) {
+        return classOrInterface.cast(index.devices[slot]);
+      }
+    }
+    return null;
+  }
+
+  /** Must be called while holding {@link #lock} */
+  private DeviceIndex ensureDeviceIndex() {
+    DeviceIndex index = deviceIndex;
+    if (index == null) {
+      index = new DeviceIndex(allDevicesMap);
+      deviceIndex = index;
+    }
+    return index;
+  }
+
   private void buildAllDevicesList() {
     if (allDevicesList == null) {
       Set<HardwareDevice> set = new HashSet<HardwareDevice>();
@@ -515,6 +582,130 @@ public class HardwareMap implements Iterable<HardwareDevice> {
   // Types
   //------------------------------------------------------------------------------------------------
 
+  /**
+   * An immutable snapshot of the devices in the map, flattened into a single array in name order
+   * so that a resolved (type, name) pair reduces to a slot number. Resolutions are memoized in a
+   * concurrent map owned by the snapshot; the whole snapshot (memos included) is discarded when
+   * the map is mutated.
+   */
+  protected static final class DeviceIndex {
+    final HardwareDevice[] devices;
+    final Map<String, int[]> slotsByName;   // name -> slots into devices[], in insertion order
+    final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Integer>> resolved = new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Integer>>();
+
+    DeviceIndex(Map<String, List<HardwareDevice>> allDevicesMap) {
+      int count = 0;
+      for (List<HardwareDevice> list : allDevicesMap.values()) {
+        count += list.size();
+      }
+      devices = new HardwareDevice[count];
+      slotsByName = new HashMap<String, int[]>(allDevicesMap.size() * 2);
+      int slot = 0;
+      for (Map.Entry<String, List<HardwareDevice>> pair : allDevicesMap.entrySet()) {
+        List<HardwareDevice> list = pair.getValue();
+        int[] slots = new int[list.size()];
+        for (int i = 0; i < slots.length; i++) {
+          devices[slot] = list.get(i);
+          slots[i] = slot++;
+        }
+        slotsByName.put(pair.getKey(), slots);
+      }
+    }
+
+    /** Returns the memoized slot for the pair, or -1 if it has not (yet) been resolved */
+    int lookup(Class<?> classOrInterface, String deviceName) {
+      ConcurrentHashMap<String, Integer> byName = resolved.get(classOrInterface);
+      if (byName != null) {
+        Integer slot = byName.get(deviceName);
+        if (slot != null) return slot;
+      }
+      return -1;
+    }
+
+    /** Searches the snapshot for the first device of the indicated name and type; -1 if none */
+    int resolve(Class<?> classOrInterface, String deviceName) {
+      int[] slots = slotsByName.get(deviceName);
+      if (slots != null) {
+        for (int slot : slots) {
+          if (classOrInterface.isInstance(devices[slot])) {
+            return slot;
+          }
+        }
+      }
+      return -1;
+    }
+
+    void memoize(Class<?> classOrInterface, String deviceName, int slot) {
+      ConcurrentHashMap<String, Integer> byName = resolved.get(classOrInterface);
+      if (byName == null) {
+        resolved.putIfAbsent(classOrInterface, new ConcurrentHashMap<String, Integer>());
+        byName = resolved.get(classOrInterface);
+      }
+      byName.put(deviceName, slot);
+    }
+  }
+
+  /**
+   * A DeviceHandle is a pre-resolved reference to a device in a {@link HardwareMap}, obtained from
+   * {@link HardwareMap#getHandle(Class, String)}. Retrieving the device through the handle is a
+   * single array access against the map's current index; only if the map has been modified since
+   * the handle was last used is the device looked up again.
+   *
+   * @param <T> the type of the device
+   */
+  public class DeviceHandle<T> {
+    private final    Class<T>   classOrInterface;
+    private final    String     deviceName;
+    private volatile Resolution resolution = null;  // index and slot are published together
+
+    protected DeviceHandle(Class<T> classOrInterface, String deviceName) {
+      this.classOrInterface = classOrInterface;
+      this.deviceName = deviceName;
+    }
+
+    /** Returns the name of the device to which this handle refers */
+    public String getDeviceName() {
+      return deviceName;
+    }
+
+    /** Returns the type through which this handle accesses its device */
+    public Class<T> getDeviceTypeClass() {
+      return classOrInterface;
+    }
+
+    /**
+     * Returns the device to which this handle refers.
+     * @throws IllegalArgumentException if the device is no longer present in the map
+     */
+    public T get() {
+      Resolution current = resolution;
+      if (current == null || current.index != deviceIndex) {
+        // The map has changed (or we've never resolved): do it the slow way, which re-memoizes
+        synchronized (lock) {
+          T device = HardwareMap.this.get(classOrInterface, deviceName);
+          DeviceIndex index = ensureDeviceIndex();
+          int slot = index.lookup(classOrInterface, deviceName);
+          if (slot >= 0) {
+            resolution = new Resolution(index, slot);
+          }
+          return device;
+        }
+      }
+      return classOrInterface.cast(current.index.devices[current.slot]);
+    }
+  }
+
+  /** A slot in a particular {@link DeviceIndex}, as resolved by a {@link DeviceHandle} */
+  private static final class Resolution {
+    final DeviceIndex index;
+    final int         slot;
+
+    Resolution(DeviceIndex index, int slot) {
+      this.index = index;
+      this.slot = slot;
+    }
+  }
+
   /**
    * A DeviceMapping contains a subcollection of the devices registered in a {@link HardwareMap}
    * comprised of all the devices of a particular device type.
@@ -0,0 +1,383 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.qualcomm.robotcore.hardware.configuration;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.Version;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * {@link CompiledConfigCache} maintains a compiled (that is, Java-serialized) form of parsed XML
+ * robot configurations, so that restarting the robot or switching between configurations need
+ * not run the XML pull parser over and over again.
+ *
+ * <p>Compiled forms live in a hidden folder alongside the XML files. Each records the length,
+ * modification time and CRC of the XML from which it was compiled, together with the library
+ * version that compiled it and the fingerprint of the user configuration types then registered
+ * (see {@link ConfigurationTypeManager#getUserTypesFingerprint()}), since the compiled form
+ * refers to those types only by XML tag; if any of these fail to match, the compiled form is
+ * ignored and the XML is parsed afresh. Compiled forms are read using memory-mapped I/O.</p>
+ *
+ * <p>The cache also maintains an index of the names of the XML files in a folder, which is
+ * valid for as long as the folder itself has not been modified.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class CompiledConfigCache
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "CompiledConfigCache";
+
+    public static final String CACHE_DIR_NAME = ".configcache";
+    public static final String COMPILED_EXT = ".bin";
+    public static final String INDEX_FILE_NAME = "index";
+
+    protected static final int MAGIC = 0x46544343; // 'FTCC'
+    protected static final int FORMAT_VERSION = 2;
+
+    /** The result of a successful load of a compiled configuration */
+    public static class Compiled
+        {
+        /** The controllers, as {@link ReadXMLFileHandler} produced them prior to any embedded-module fixup */
+        public final List<ControllerConfiguration> controllers;
+        /** The devices on which {@link ReadXMLFileHandler#onDeviceParsed} was called, in order */
+        public final List<DeviceConfiguration> parsedDevices;
+
+        public Compiled(List<ControllerConfiguration> controllers, List<DeviceConfiguration> parsedDevices)
+            {
+            this.controllers = controllers;
+            this.parsedDevices = parsedDevices;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Compiled configurations
+    //----------------------------------------------------------------------------------------------
+
+    public static File getCacheDir(File xmlFile)
+        {
+        return new File(xmlFile.getAbsoluteFile().getParentFile(), CACHE_DIR_NAME);
+        }
+
+    public static File getCompiledFile(File xmlFile)
+        {
+        return new File(getCacheDir(xmlFile), xmlFile.getName() + COMPILED_EXT);
+        }
+
+    /**
+     * Returns the compiled form of the indicated XML, whose contents are also provided, or null
+     * if no current compiled form exists.
+     */
+    public static @Nullable Compiled load(File xmlFile, byte[] xmlContents)
+        {
+        File compiledFile = getCompiledFile(xmlFile);
+        if (!compiledFile.isFile())
+            {
+            return null;
+            }
+
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(compiledFile, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            DataInputStream header = new DataInputStream(new ByteBufferInputStream(buffer));
+            if (header.readInt() != MAGIC
+                    || header.readInt() != FORMAT_VERSION
+                    || !header.readUTF().equals(Version.getLibraryVersion())
+                    || header.readLong() != xmlFile.length()
+                    || header.readLong() != xmlFile.lastModified()
+                    || header.readLong() != crcOf(xmlContents)
+                    || header.readLong() != ConfigurationTypeManager.getInstance().getUserTypesFingerprint())
+                {
+                RobotLog.vv(TAG, "compiled form of %s is stale", xmlFile.getName());
+                return null;
+                }
+
+            ObjectInputStream objectInputStream = new ObjectInputStream(new ByteBufferInputStream(buffer));
+            @SuppressWarnings("unchecked") List<ControllerConfiguration> controllers = (List<ControllerConfiguration>) objectInputStream.readObject();
+            @SuppressWarnings("unchecked") List<DeviceConfiguration> parsedDevices = (List<DeviceConfiguration>) objectInputStream.readObject();
+            return new Compiled(controllers, parsedDevices);
+            }
+        catch (IOException|ClassNotFoundException|ClassCastException e)
+            {
+            // Corrupt, or written by a version whose classes differ: just reparse
+            RobotLog.ww(TAG, e, "unable to load compiled form of %s; ignoring", xmlFile.getName());
+            return null;
+            }
+        finally
+            {
+            closeQuietly(randomAccessFile);
+            }
+        }
+
+    /**
+     * Records the compiled form of a configuration freshly parsed from the indicated XML. Must
+     * be called before the parsed configurations are modified in any way.
+     */
+    public static void store(File xmlFile, byte[] xmlContents, List<ControllerConfiguration> controllers, List<DeviceConfiguration> parsedDevices)
+        {
+        File compiledFile = getCompiledFile(xmlFile);
+        File tempFile = new File(compiledFile.getParentFile(), compiledFile.getName() + ".tmp");
+        FileOutputStream fileOutputStream = null;
+        try {
+            if (!ensureDir(compiledFile.getParentFile())) return;
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            DataOutputStream header = new DataOutputStream(bytes);
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            header.writeUTF(Version.getLibraryVersion());
+            header.writeLong(xmlFile.length());
+            header.writeLong(xmlFile.lastModified());
+            header.writeLong(crcOf(xmlContents));
+            header.writeLong(ConfigurationTypeManager.getInstance().getUserTypesFingerprint());
+            header.flush();
+
+            ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes);
+            objectOutputStream.writeObject(new ArrayList<ControllerConfiguration>(controllers));
+            objectOutputStream.writeObject(new ArrayList<DeviceConfiguration>(parsedDevices));
+            objectOutputStream.flush();
+
+            // Write-then-rename so that a reader never sees a partial file
+            fileOutputStream = new FileOutputStream(tempFile);
+            bytes.writeTo(fileOutputStream);
+            fileOutputStream.getFD().sync();
+            fileOutputStream.close();
+            fileOutputStream = null;
+            if (!tempFile.renameTo(compiledFile))
+                {
+                RobotLog.ww(TAG, "unable to rename %s", tempFile.getPath());
+                tempFile.delete();
+                }
+            }
+        catch (IOException|RuntimeException e)
+            {
+            RobotLog.ww(TAG, e, "unable to store compiled form of %s", xmlFile.getName());
+            closeQuietly(fileOutputStream);
+            tempFile.delete();
+            }
+        }
+
+    /** Discards any compiled form of the indicated XML file */
+    public static void invalidate(File xmlFile)
+        {
+        File compiledFile = getCompiledFile(xmlFile);
+        if (compiledFile.exists() && !compiledFile.delete())
+            {
+            RobotLog.ww(TAG, "unable to delete %s", compiledFile.getPath());
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Index
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the names in the index of the indicated folder, or null if there is no index or the
+     * folder has been modified since the index was written.
+     */
+    public static @Nullable List<String> readIndex(File dir)
+        {
+        File indexFile = new File(new File(dir, CACHE_DIR_NAME), INDEX_FILE_NAME);
+        if (!indexFile.isFile())
+            {
+            return null;
+            }
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new FileInputStream(indexFile));
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != FORMAT_VERSION || inputStream.readLong() != dir.lastModified())
+                {
+                return null;
+                }
+            int count = inputStream.readInt();
+            List<String> result = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++)
+                {
+                result.add(inputStream.readUTF());
+                }
+            return result;
+            }
+        catch (IOException e)
+            {
+            RobotLog.ww(TAG, e, "unable to read index of %s; ignoring", dir.getPath());
+            return null;
+            }
+        finally
+            {
+            closeQuietly(inputStream);
+            }
+        }
+
+    /**
+     * Records the names in the indicated folder. Note that we deliberately sample the folder's
+     * modification time *before* creating the cache folder, as the latter modifies the former.
+     */
+    public static void writeIndex(File dir, long dirLastModified, List<String> names)
+        {
+        File cacheDir = new File(dir, CACHE_DIR_NAME);
+        if (!ensureDir(cacheDir))
+            {
+            return;
+            }
+        if (dir.lastModified() != dirLastModified)
+            {
+            return; // we just created the cache folder, or someone else changed things: try again next time
+            }
+        DataOutputStream outputStream = null;
+        try {
+            outputStream = new DataOutputStream(new FileOutputStream(new File(cacheDir, INDEX_FILE_NAME)));
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(FORMAT_VERSION);
+            outputStream.writeLong(dirLastModified);
+            outputStream.writeInt(names.size());
+            for (String name : names)
+                {
+                outputStream.writeUTF(name);
+                }
+            }
+        catch (IOException e)
+            {
+            RobotLog.ww(TAG, e, "unable to write index of %s", dir.getPath());
+            }
+        finally
+            {
+            closeQuietly(outputStream);
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    public static byte[] readFully(File file) throws IOException
+        {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            byte[] result = new byte[(int) file.length()];
+            int cb = 0;
+            while (cb < result.length)
+                {
+                int cbRead = inputStream.read(result, cb, result.length - cb);
+                if (cbRead < 0) throw new IOException("unexpected EOF reading " + file.getPath());
+                cb += cbRead;
+                }
+            return result;
+            }
+        finally
+            {
+            inputStream.close();
+            }
+        }
+
+    protected static long crcOf(byte[] bytes)
+        {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, bytes.length);
+        return crc32.getValue();
+        }
+
+    protected static boolean ensureDir(File dir)
+        {
+        if (!dir.isDirectory() && !dir.mkdirs())
+            {
+            RobotLog.ww(TAG, "unable to create %s", dir.getPath());
+            return false;
+            }
+        return true;
+        }
+
+    protected static void closeQuietly(@Nullable Closeable closeable)
+        {
+        if (closeable != null)
+            {
+            try {
+                closeable.close();
+                }
+            catch (IOException ignored)
+                {
+                }
+            }
+        }
+
+    /** Reads sequentially from a (mapped) buffer, advancing its position as it goes */
+    protected static class ByteBufferInputStream extends InputStream
+        {
+        protected final ByteBuffer buffer;
+
+        public ByteBufferInputStream(@NonNull ByteBuffer buffer)
+            {
+            this.buffer = buffer;
+            }
+
+        @Override public int read()
+            {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+            }
+
+        @Override public int read(@NonNull byte[] bytes, int off, int len)
+            {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            len = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, len);
+            return len;
+            }
+
+        @Override public int available()
+            {
+            return buffer.remaining();
+            }
+        }
+    }
@@ -68,6 +68,7 @@ import org.firstinspires.ftc.robotcore.internal.opmode.ClassFilter;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -78,6 +79,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
 
 /**
  * {@link ConfigurationTypeManager} is responsible for managing configuration types.
@@ -110,6 +113,7 @@ public final class ConfigurationTypeManager implements ClassFilter
     private Map<String, UserConfigurationType> mapTagToUserType = new HashMap<>();
     private Set<String>  existingXmlTags = new HashSet<>();
     private Map<ConfigurationType.DeviceFlavor, Set<String>> existingTypeDisplayNamesMap = new HashMap<>();
+    private volatile long userTypesFingerprint;
 
     private static String unspecifiedMotorTypeXmlTag = getXmlTag(UnspecifiedMotor.class);
     private static String standardServoTypeXmlTag = getXmlTag(Servo.class);
@@ -137,6 +141,7 @@ public final class ConfigurationTypeManager implements ClassFilter
             existingTypeDisplayNamesMap.put(flavor, new HashSet<String>());
             }
         addBuiltinConfigurationTypes();
+        updateUserTypesFingerprint();
         }
 
     //----------------------------------------------------------------------------------------------
@@ -167,6 +172,23 @@ public final class ConfigurationTypeManager implements ClassFilter
         return result;
         }
 
+    /**
+     * Returns a checksum of the user configuration types currently registered, which changes
+     * whenever a type is added, removed or altered. Anything that persists configuration types by
+     * their XML tag can use this to tell whether the types it saw are still the ones registered.
+     */
+    public long getUserTypesFingerprint()
+        {
+        return userTypesFingerprint;
+        }
+
+    private void updateUserTypesFingerprint()
+        {
+        CRC32 crc32 = new CRC32();
+        crc32.update(gson.toJson(new TreeMap<>(mapTagToUserType).values()).getBytes(Charset.forName("UTF-8")));
+        userTypesFingerprint = crc32.getValue();
+        }
+
     // TODO(Noah): Remove flavor parameter after I2cSensor and the original MotorType have been removed
     public @Nullable UserConfigurationType userTypeFromClass(ConfigurationType.DeviceFlavor flavor, Class<?> clazz)
         {
@@ -309,6 +331,7 @@ public final class ConfigurationTypeManager implements ClassFilter
             if (deviceType.isDeviceFlavor(ConfigurationType.DeviceFlavor.BUILT_IN)) continue; // paranoia
             add((UserConfigurationType) deviceType);
             }
+        updateUserTypesFingerprint();
 
         if (DEBUG)
             {
@@ -481,17 +504,17 @@ public final class ConfigurationTypeManager implements ClassFilter
 
     @Override public void filterAllClassesComplete()
         {
-        // Nothing to do
+        updateUserTypesFingerprint();
         }
 
     @Override public void filterOnBotJavaClassesComplete()
         {
-        // Nothing to do
+        updateUserTypesFingerprint();
         }
 
     @Override public void filterExternalLibrariesClassesComplete()
         {
-        // Nothing to do
+        updateUserTypesFingerprint();
         }
 
     @SuppressWarnings("unchecked")
@@ -41,6 +41,8 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlPullParserFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -53,6 +55,7 @@ public class ReadXMLFileHandler extends ConfigurationUtility {
 
   private XmlPullParser parser;
   private DeviceManager deviceManager;
+  private List<DeviceConfiguration> parsedDevices = new ArrayList<DeviceConfiguration>();
 
   private static WarningManager warningManager;
 
@@ -94,8 +97,56 @@ public class ReadXMLFileHandler extends ConfigurationUtility {
     return parseDocument();
   }
 
+  /**
+   * Parses the robot configuration in the indicated XML file. If the {@link CompiledConfigCache}
+   * holds a current compiled form of that file, that is used instead of parsing the XML; otherwise,
+   * the XML is parsed and its compiled form is recorded for next time.
+   */
+  public List<ControllerConfiguration> parse(File xmlFile) throws RobotCoreException {
+    byte[] xmlContents;
+    try {
+      xmlContents = CompiledConfigCache.readFully(xmlFile);
+    } catch (IOException e) {
+      throw new RobotCoreException("unable to read " + xmlFile.getPath(), e);
+    }
+
+    List<ControllerConfiguration> deviceControllers;
+    CompiledConfigCache.Compiled compiled = CompiledConfigCache.load(xmlFile, xmlContents);
+    if (compiled != null) {
+      RobotLog.vv(TAG, "using compiled form of %s", xmlFile.getName());
+      warningManager.actuallyClearWarning();
+      parsedDevices = new ArrayList<DeviceConfiguration>();
+      for (DeviceConfiguration device : compiled.parsedDevices) {
+        onDeviceParsed(device);
+      }
+      deviceControllers = compiled.controllers;
+    } else {
+      parser = null;
+      try {
+        XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        parser = factory.newPullParser();
+        parser.setInput(new ByteArrayInputStream(xmlContents), null);
+      } catch (XmlPullParserException e) {
+        throw new RobotCoreException("unable to create XML parser", e);
+      }
+      deviceControllers = parseDocumentWithoutFixups();
+      CompiledConfigCache.store(xmlFile, xmlContents, deviceControllers, parsedDevices);
+    }
+
+    addEmbeddedLynxModuleIfNecessary(deviceControllers);
+    return deviceControllers;
+  }
+
   private List<ControllerConfiguration> parseDocument() throws RobotCoreException {
+    List<ControllerConfiguration> deviceControllers = parseDocumentWithoutFixups();
+    addEmbeddedLynxModuleIfNecessary(deviceControllers);
+    return deviceControllers;
+  }
+
+  private List<ControllerConfiguration> parseDocumentWithoutFixups() throws RobotCoreException {
     warningManager.actuallyClearWarning();
+    parsedDevices = new ArrayList<DeviceConfiguration>();
 
     List<ControllerConfiguration> deviceControllers = null;
     try {
@@ -125,7 +176,6 @@ public class ReadXMLFileHandler extends ConfigurationUtility {
       deviceControllers = new ArrayList<ControllerConfiguration>();
     }
 
-    addEmbeddedLynxModuleIfNecessary(deviceControllers);
     return deviceControllers;
   }
 
@@ -198,6 +248,7 @@ public class ReadXMLFileHandler extends ConfigurationUtility {
   }
 
   public void onDeviceParsed(DeviceConfiguration device) {
+    parsedDevices.add(device);
     noteExistingName(device.getConfigurationType(), device.getName());
     handleDeprecation(device);
     if (device instanceof LynxModuleConfiguration) {
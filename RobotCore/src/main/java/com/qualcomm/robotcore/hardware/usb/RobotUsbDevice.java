@@ -158,6 +158,14 @@ public interface RobotUsbDevice {
    */
   void write(byte[] data) throws InterruptedException, RobotUsbException;
 
+  /**
+   * Write the indicated portion of a byte array to the device. Implementations which can write
+   * directly from the middle of an array should override this to avoid the copy made here.
+   */
+  default void write(byte[] data, int ibFirst, int cbToWrite) throws InterruptedException, RobotUsbException {
+    write(Arrays.copyOfRange(data, ibFirst, ibFirst + cbToWrite));
+  }
+
   /**
    * Skips to the beginning of a USB packet, if not already there. It is safe to err
    * on the side of saying we're at the start when in fact we may not be. The point of this
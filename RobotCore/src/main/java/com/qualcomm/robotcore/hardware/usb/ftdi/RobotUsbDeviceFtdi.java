@@ -116,6 +116,11 @@ public class RobotUsbDeviceFtdi extends RobotUsbDeviceImplBase implements RobotU
     device.write(data);
   }
 
+  @Override
+  public void write(final byte[] data, int ibFirst, int cbToWrite) throws InterruptedException, RobotUsbException {
+    device.write(data, ibFirst, cbToWrite);
+  }
+
   @Override
   public int read(byte[] data, int ibFirst, int cbToRead, long msTimeout, @Nullable TimeWindow timeWindow) throws RobotUsbException, InterruptedException {
     try {
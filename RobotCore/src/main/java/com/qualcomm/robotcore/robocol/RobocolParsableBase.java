@@ -108,6 +108,18 @@ public abstract class RobocolParsableBase implements RobocolParsable
         return this.nanotimeTransmit==0 || (nanotimeNow - this.nanotimeTransmit > nanotimeTransmitInterval);
         }
 
+    /** Returns the time at which this was last serialized for transmission, or zero if it never has been */
+    public long getNanotimeTransmit()
+        {
+        return this.nanotimeTransmit;
+        }
+
+    /** Returns the interval after a transmission before {@link #shouldTransmit} will again return true */
+    public static long getNanotimeTransmitInterval()
+        {
+        return nanotimeTransmitInterval;
+        }
+
     //----------------------------------------------------------------------------------------------
     // Utility
     //----------------------------------------------------------------------------------------------
@@ -34,6 +34,7 @@ package org.firstinspires.ftc.robotcore.external.hardware.camera;
 
 import android.hardware.camera2.CaptureFailure;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.firstinspires.ftc.robotcore.external.function.Continuation;
 
@@ -119,6 +120,23 @@ public interface CameraCaptureSession
      */
     void stopCapture();
 
+    /**
+     * Returns the pool from which this session draws the frame copies it hands out, whether
+     * those copies are made for asynchronous delivery to {@link CaptureCallback#onNewFrame}
+     * or by an explicit {@link CameraFrame#copy()}. Frames are returned to the pool when their
+     * last reference is released, so pipelines which promptly {@link CameraFrame#releaseRef()}
+     * the frames they are done with run without allocating new frame buffers.
+     *
+     * Sessions which don't pool their frames return null; their frames are copied with
+     * {@link CameraFrame#copy()} as usual.
+     *
+     * @see CameraFramePool#copyOf(CameraFrame)
+     */
+    default @Nullable CameraFramePool getFramePool()
+        {
+        return null;
+        }
+
     /**
      * <p>A callback object for tracking the progress of a {@link CameraCaptureRequest} submitted to the
      * camera device.</p>
@@ -38,6 +38,7 @@ import androidx.annotation.NonNull;
 import org.firstinspires.ftc.robotcore.external.android.util.Size;
 import org.firstinspires.ftc.robotcore.internal.camera.libuvc.constants.UvcFrameFormat;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.Executor;
 
 /**
@@ -108,6 +109,19 @@ public interface CameraFrame
      */
     long getImageBuffer();
 
+    /**
+     * Returns a read-only view of the data of the image, positioned at zero and {@link #getImageSize()}
+     * in length. No data is copied. The view is valid only as long as a reference to this frame is
+     * held: once the frame is {@link #releaseRef()}'d its storage may be recycled for a later frame.
+     * Pipelines which need the data to outlive the frame should {@link #copy()} or {@link #addRef()}
+     * the frame instead of retaining the view. The default implementation wraps a copy of
+     * {@link #getImageData()}, and so is independent of the frame's lifetime, but does not avoid the copy.
+     */
+    default ByteBuffer getImageByteBuffer()
+        {
+        return ByteBuffer.wrap(getImageData()).asReadOnlyBuffer();
+        }
+
     /**
      * Returns the time on the System.nanoTime() clock at which this frame was captured.
      */
@@ -0,0 +1,81 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.external.hardware.camera;
+
+import androidx.annotation.NonNull;
+
+/**
+ * THIS INTERFACE IS EXPERIMENTAL. Its form and function may change in whole or in part
+ * before being finalized for production use. Caveat emptor.
+ *
+ * {@link CameraFramePool} is a cache of recyclable frame buffers. Frames drawn from the pool are
+ * reference counted just like any other {@link CameraFrame}; when the last reference to one is
+ * released, its buffer goes back to the pool (up to {@link #getCapacity()} buffers are retained)
+ * rather than being freed, and is reused by the next copy of a frame of compatible size.
+ *
+ * @see CameraCaptureSession#getFramePool()
+ */
+@SuppressWarnings("WeakerAccess")
+public interface CameraFramePool
+    {
+    /**
+     * Returns a copy of the indicated frame whose buffer is drawn from this pool. The copy
+     * carries the same metadata as the original and is independent of its lifetime. The
+     * caller owns one reference to the result and should {@link CameraFrame#releaseRef()} it
+     * when done so that the buffer can be recycled.
+     */
+    @NonNull CameraFrame copyOf(@NonNull CameraFrame frame);
+
+    /**
+     * Returns the maximum number of idle buffers retained by the pool
+     */
+    int getCapacity();
+
+    /**
+     * Sets the maximum number of idle buffers retained by the pool. Zero disables pooling.
+     */
+    void setCapacity(int capacity);
+
+    /**
+     * Returns the number of copies made by this pool which required a fresh buffer
+     */
+    long getAllocationCount();
+
+    /**
+     * Returns the number of copies made by this pool which reused a recycled buffer
+     */
+    long getReuseCount();
+
+    /**
+     * Releases all the idle buffers currently held by the pool. Frames which are still
+     * referenced are unaffected, and their buffers will be recycled as usual.
+     */
+    void trim();
+    }
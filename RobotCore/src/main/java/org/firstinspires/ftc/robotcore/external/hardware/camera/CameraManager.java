@@ -40,6 +40,7 @@ import org.firstinspires.ftc.robotcore.external.function.Continuation;
 import org.firstinspires.ftc.robotcore.internal.camera.delegating.SwitchableCameraName;
 import org.firstinspires.ftc.robotcore.internal.system.Deadline;
 
+import java.io.File;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -92,6 +93,21 @@ public interface CameraManager
      */
     SwitchableCameraName nameForSwitchableCamera(CameraName... cameraNames);
 
+    /**
+     * Returns the name of a software camera which, when opened, plays back the images found in the
+     * indicated directory (in file name order) at the frame rate of its capture request. Images are
+     * scaled to the requested size; files ending in .yuy2, .yuv or .raw are taken as raw YUY2 data.
+     * This allows vision pipelines to be run and profiled without a webcam attached.
+     *
+     * @param directory the directory containing the images to replay
+     * @param loop      whether playback restarts from the first image after the last
+     * @return the name of the replay camera, or null if this camera manager doesn't support replay
+     */
+    default @Nullable CameraName nameForReplayCamera(File directory, boolean loop)
+        {
+        return null;
+        }
+
     //----------------------------------------------------------------------------------------------
     // Opening cameras
     //----------------------------------------------------------------------------------------------
@@ -32,6 +32,9 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package org.firstinspires.ftc.robotcore.external.matrices;
 
+import org.firstinspires.ftc.robotcore.external.Const;
+import org.firstinspires.ftc.robotcore.external.NonConst;
+
 /**
  * A {@link DenseMatrixF} is a matrix of floats whose storage is a contiguous float[] array. It may
  * logically be ranged arranged either in row or column major order.
@@ -72,4 +75,250 @@ public abstract class DenseMatrixF extends MatrixF
      * @return the index of (row,col) in the data returned by {@link #getData()}
      */
     protected abstract int indexFromRowCol(int row, int col);
+
+    //----------------------------------------------------------------------------------------------
+    // Allocation-free operations
+    //
+    // These variants write their result into a caller-supplied matrix or vector rather than
+    // allocating a new one. The result may be the receiver or one of the operands. When the
+    // matrices involved are 3x3 or 4x4 and share the same storage order, unrolled kernels
+    // operating directly on the backing arrays are used.
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Computes the product of the receiver and another matrix, storing it in the indicated result.
+     * @param him    the matrix by which the receiver is to be multiplied
+     * @param result the matrix in which the product is to be stored; may be the receiver or him
+     * @return the result matrix
+     */
+    @Const public <T extends DenseMatrixF> T multiplyInto(DenseMatrixF him, T result)
+        {
+        if (this.numCols != him.numRows || result.numRows != this.numRows || result.numCols != him.numCols) throw dimensionsError();
+
+        Boolean columnMajor = commonStorageOrder(this, him, result);
+        if (columnMajor != null && this.numRows == this.numCols && this.numCols == him.numCols)
+            {
+            // A row-major array is the column-major array of the transpose, and (AB)' = B'A'
+            float[] a = columnMajor ? this.getData() : him.getData();
+            float[] b = columnMajor ? him.getData()  : this.getData();
+            if (numRows == 4)
+                {
+                multiply4x4(a, b, result.getData());
+                return result;
+                }
+            if (numRows == 3)
+                {
+                multiply3x3(a, b, result.getData());
+                return result;
+                }
+            }
+
+        MatrixF product = this.multiplied(him);
+        result.copyFrom(product);
+        return result;
+        }
+
+    /**
+     * Computes the product of the receiver and a vector (considered as a column matrix), storing
+     * it in the indicated result vector, which must not be the same as him.
+     * @return the result vector
+     */
+    @Const public VectorF multiplyInto(VectorF him, VectorF result)
+        {
+        if (this.numCols != him.length() || result.length() != this.numRows || him == result) throw dimensionsError();
+        float[] m = this.getData();
+        float[] v = him.getData();
+        float[] r = result.getData();
+        for (int i = 0; i < numRows; i++)
+            {
+            float sum = 0f;
+            for (int k = 0; k < numCols; k++)
+                {
+                sum += m[indexFromRowCol(i, k)] * v[k];
+                }
+            r[i] = sum;
+            }
+        return result;
+        }
+
+    /** @see #multiplyInto(VectorF, VectorF) */
+    @Override @Const public VectorF multiplied(VectorF him)
+        {
+        return multiplyInto(him, VectorF.length(this.numRows));
+        }
+
+    /**
+     * Stores the transposition of the receiver in the indicated result, which may be the receiver
+     * itself if the receiver is square.
+     * @return the result matrix
+     */
+    @Const public <T extends DenseMatrixF> T transposeInto(T result)
+        {
+        if (result.numRows != this.numCols || result.numCols != this.numRows) throw dimensionsError();
+        if (result == this)
+            {
+            float[] d = getData();
+            for (int i = 0; i < numRows; i++)
+                {
+                for (int j = i + 1; j < numCols; j++)
+                    {
+                    int ij = indexFromRowCol(i, j);
+                    int ji = indexFromRowCol(j, i);
+                    float t = d[ij]; d[ij] = d[ji]; d[ji] = t;
+                    }
+                }
+            }
+        else
+            {
+            float[] src = this.getData();
+            float[] dst = result.getData();
+            for (int i = 0; i < result.numRows; i++)
+                {
+                for (int j = 0; j < result.numCols; j++)
+                    {
+                    dst[result.indexFromRowCol(i, j)] = src[this.indexFromRowCol(j, i)];
+                    }
+                }
+            }
+        return result;
+        }
+
+    /**
+     * Stores the element-wise sum of the receiver and the addend in the indicated result, which
+     * may be either of the two.
+     * @return the result matrix
+     */
+    @Const public <T extends DenseMatrixF> T addInto(DenseMatrixF addend, T result)
+        {
+        return addInto(addend, 1f, result);
+        }
+
+    /**
+     * Stores the element-wise difference of the receiver and the subtrahend in the indicated
+     * result, which may be either of the two.
+     * @return the result matrix
+     */
+    @Const public <T extends DenseMatrixF> T subtractInto(DenseMatrixF subtrahend, T result)
+        {
+        return addInto(subtrahend, -1f, result);
+        }
+
+    protected <T extends DenseMatrixF> T addInto(DenseMatrixF him, float sign, T result)
+        {
+        if (this.numRows != him.numRows || this.numCols != him.numCols || result.numRows != this.numRows || result.numCols != this.numCols) throw dimensionsError();
+        float[] a = this.getData();
+        float[] b = him.getData();
+        float[] r = result.getData();
+        if (commonStorageOrder(this, him, result) != null)
+            {
+            for (int i = 0; i < r.length; i++)
+                {
+                r[i] = a[i] + sign * b[i];
+                }
+            }
+        else
+            {
+            MatrixF sum = sign > 0 ? this.added((MatrixF)him) : this.subtracted((MatrixF)him);
+            result.copyFrom(sum);
+            }
+        return result;
+        }
+
+    @Override @NonConst public void add(MatrixF addend)
+        {
+        if (addend instanceof DenseMatrixF)
+            addInto((DenseMatrixF)addend, this);
+        else
+            super.add(addend);
+        }
+
+    @Override @NonConst public void subtract(MatrixF subtrahend)
+        {
+        if (subtrahend instanceof DenseMatrixF)
+            subtractInto((DenseMatrixF)subtrahend, this);
+        else
+            super.subtract(subtrahend);
+        }
+
+    /**
+     * Updates the receiver to be the product of itself and another square matrix, without
+     * allocating when the unrolled kernels apply.
+     */
+    @Override @NonConst public void multiply(MatrixF him)
+        {
+        if (him instanceof DenseMatrixF && him.numRows == him.numCols)
+            multiplyInto((DenseMatrixF)him, this);
+        else
+            super.multiply(him);
+        }
+
+    /** Copies the entries of another, same-sized, matrix into the receiver */
+    @NonConst public void copyFrom(MatrixF him)
+        {
+        if (this.numRows != him.numRows || this.numCols != him.numCols) throw dimensionsError();
+        if (him instanceof DenseMatrixF && commonStorageOrder(this, (DenseMatrixF)him, this) != null)
+            {
+            float[] src = ((DenseMatrixF)him).getData();
+            System.arraycopy(src, 0, this.getData(), 0, src.length);
+            }
+        else
+            {
+            for (int i = 0; i < numRows; i++)
+                {
+                for (int j = 0; j < numCols; j++)
+                    {
+                    this.put(i, j, him.get(i, j));
+                    }
+                }
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Kernels
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns TRUE if all the matrices are column-major, FALSE if they're all row-major, and null
+     * otherwise (including when we can't tell).
+     */
+    protected static Boolean commonStorageOrder(DenseMatrixF a, DenseMatrixF b, DenseMatrixF c)
+        {
+        if (a instanceof ColumnMajorMatrixF && b instanceof ColumnMajorMatrixF && c instanceof ColumnMajorMatrixF) return Boolean.TRUE;
+        if (a instanceof RowMajorMatrixF && b instanceof RowMajorMatrixF && c instanceof RowMajorMatrixF) return Boolean.FALSE;
+        return null;
+        }
+
+    /** c = a * b, all column-major 4x4. c may alias a or b. */
+    protected static void multiply4x4(float[] a, float[] b, float[] c)
+        {
+        final float a00=a[0], a10=a[1], a20=a[2],  a30=a[3];
+        final float a01=a[4], a11=a[5], a21=a[6],  a31=a[7];
+        final float a02=a[8], a12=a[9], a22=a[10], a32=a[11];
+        final float a03=a[12],a13=a[13],a23=a[14], a33=a[15];
+
+        for (int col = 0; col < 16; col += 4)
+            {
+            final float b0=b[col], b1=b[col+1], b2=b[col+2], b3=b[col+3];
+            c[col]   = a00*b0 + a01*b1 + a02*b2 + a03*b3;
+            c[col+1] = a10*b0 + a11*b1 + a12*b2 + a13*b3;
+            c[col+2] = a20*b0 + a21*b1 + a22*b2 + a23*b3;
+            c[col+3] = a30*b0 + a31*b1 + a32*b2 + a33*b3;
+            }
+        }
+
+    /** c = a * b, all column-major 3x3. c may alias a or b. */
+    protected static void multiply3x3(float[] a, float[] b, float[] c)
+        {
+        final float a00=a[0], a10=a[1], a20=a[2];
+        final float a01=a[3], a11=a[4], a21=a[5];
+        final float a02=a[6], a12=a[7], a22=a[8];
+
+        for (int col = 0; col < 9; col += 3)
+            {
+            final float b0=b[col], b1=b[col+1], b2=b[col+2];
+            c[col]   = a00*b0 + a01*b1 + a02*b2;
+            c[col+1] = a10*b0 + a11*b1 + a12*b2;
+            c[col+2] = a20*b0 + a21*b1 + a22*b2;
+            }
+        }
     }
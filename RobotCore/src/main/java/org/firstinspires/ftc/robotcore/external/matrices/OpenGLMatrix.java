@@ -178,7 +178,7 @@ public class OpenGLMatrix extends ColumnMajorMatrixF
     @NonConst public void rotate(AxesReference axesReference, AxesOrder axesOrder, AngleUnit angleUnit, float first, float second, float third)
         {
         OpenGLMatrix rotation = Orientation.getRotationMatrix(axesReference, axesOrder, angleUnit, first, second, third);
-        this.data = this.multiplied(rotation).getData();
+        this.multiply(rotation);
         }
 
     //----------------------------------------------------------------------------------------------
@@ -252,7 +252,83 @@ public class OpenGLMatrix extends ColumnMajorMatrixF
      */
     @NonConst public void multiply(OpenGLMatrix him)
         {
-        this.data = this.multiplied(him).getData();
+        // The product goes into a new array, rather than over our own, so that arrays shared through
+        // our constructor or through getData() keep their values, as they always have. Use
+        // multiplyInto() to update in place.
+        float[] product = new float[4*4];
+        multiply4x4(this.data, him.data, product);
+        this.data = product;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Allocation-free operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Stores the product of the receiver and another matrix into the indicated result, which
+     * may be the receiver or him.
+     * @return the result matrix
+     */
+    @Const public OpenGLMatrix multiplyInto(OpenGLMatrix him, OpenGLMatrix result)
+        {
+        multiply4x4(this.data, him.data, result.data);
+        return result;
+        }
+
+    /**
+     * Stores the inverse of the receiver in the indicated result, which may be the receiver.
+     * @return the result matrix
+     * @throws IllegalArgumentException if the receiver is singular, in which case result is unchanged
+     */
+    @Const public OpenGLMatrix invertInto(OpenGLMatrix result)
+        {
+        // invertM reads all of the source before writing, and writes nothing if it fails
+        if (!Matrix.invertM(result.data, 0, this.data, 0))
+            {
+            throw new IllegalArgumentException("matrix is singular");
+            }
+        return result;
+        }
+
+    /**
+     * Updates the receiver to be its own inverse.
+     * @throws IllegalArgumentException if the receiver is singular, in which case it is unchanged
+     */
+    @NonConst public void invert()
+        {
+        invertInto(this);
+        }
+
+    /**
+     * Updates the receiver to be its own transpose.
+     */
+    @NonConst public void transpose()
+        {
+        transposeInto(this);
+        }
+
+    /**
+     * Allocation-free form of {@link #transform(VectorF)}: transforms the 3D coordinate or 3D
+     * homogeneous coordinate him by this matrix, storing the normalized 3D result in result
+     * (which must have length 3, and may be the same as him only if him also has length 3).
+     * @return the result vector
+     */
+    @Const public VectorF transformInto(VectorF him, VectorF result)
+        {
+        final float[] m = this.data;
+        final float[] v = him.getData();
+        final float[] r = result.getData();
+        if (r.length != 3 || (v.length != 3 && v.length != 4)) throw dimensionsError();
+
+        final float x = v[0], y = v[1], z = v[2], w = v.length == 4 ? v[3] : 1f;
+        final float rx = m[0]*x + m[4]*y + m[8]*z  + m[12]*w;
+        final float ry = m[1]*x + m[5]*y + m[9]*z  + m[13]*w;
+        final float rz = m[2]*x + m[6]*y + m[10]*z + m[14]*w;
+        final float rw = m[3]*x + m[7]*y + m[11]*z + m[15]*w;
+        r[0] = rx / rw;
+        r[1] = ry / rw;
+        r[2] = rz / rw;
+        return result;
         }
 
     /**
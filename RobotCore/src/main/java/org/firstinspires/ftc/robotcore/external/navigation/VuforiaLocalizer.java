@@ -45,6 +45,8 @@ import android.view.ViewGroup;
 import com.qualcomm.robotcore.R;
 import com.vuforia.CameraDevice;
 import com.vuforia.Frame;
+import com.vuforia.Image;
+import com.vuforia.PIXEL_FORMAT;
 
 import org.firstinspires.ftc.robotcore.external.ClassFactory;
 import org.firstinspires.ftc.robotcore.external.function.Consumer;
@@ -55,6 +57,7 @@ import org.firstinspires.ftc.robotcore.external.stream.CameraStreamSource;
 import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.BlockingQueue;
 
@@ -167,6 +170,33 @@ public interface VuforiaLocalizer extends CameraStreamSource
      */
     int getFrameQueueCapacity();
 
+    /**
+     * (Advanced) Sets whether the number of {@link Frame}s actually retained in the frame queue
+     * adapts to how promptly they are consumed. When adaptive, the capacity set with
+     * {@link #setFrameQueueCapacity(int)} becomes an upper bound, and the queue retains only as
+     * many frames as arrive during the measured interval between successive reads of the queue.
+     * Consumers that keep up thus always see recent frames, rather than working through a
+     * backlog of stale ones. The frame queue is initially not adaptive.
+     *
+     * <p>Unlike {@link #setFrameQueueCapacity(int)}, this does not invalidate the frame queue.
+     * Localizers which don't support an adaptive frame queue ignore this.</p>
+     *
+     * @param adaptive whether the retained depth of the frame queue adapts to its consumer
+     * @see #isFrameQueueAdaptive()
+     */
+    default void setFrameQueueAdaptive(boolean adaptive)
+        {
+        }
+
+    /**
+     * (Advanced) Returns whether the retained depth of the frame queue adapts to its consumer.
+     * @see #setFrameQueueAdaptive(boolean)
+     */
+    default boolean isFrameQueueAdaptive()
+        {
+        return false;
+        }
+
     /**
      * (Advanced) Calls the indicated code with a frame from the video stream, exactly once.
      * @param frameConsumer the code to call with the to-be-processed frame.
@@ -198,6 +228,17 @@ public interface VuforiaLocalizer extends CameraStreamSource
      */
     @Nullable Bitmap convertFrameToBitmap(Frame frame);
 
+    /**
+     * (Advanced) Returns a {@link Bitmap} obtained from {@link #convertFrameToBitmap(Frame)} so that
+     * it may be reused by a subsequent conversion rather than a new one being allocated. The
+     * caller must make no further use of the bitmap. Doing this for every converted frame avoids
+     * the garbage collection pauses that allocating a bitmap per frame would otherwise cause.
+     * Localizers which don't reuse bitmaps simply leave this one to the garbage collector.
+     */
+    default void recycleBitmap(Bitmap bitmap)
+        {
+        }
+
 
     /** {@link CloseableFrame} exposes a close() method so that one can proactively
      * reduce memory pressure when we're done with a Frame */
@@ -210,8 +251,47 @@ public interface VuforiaLocalizer extends CameraStreamSource
             }
         public void close()
             {
+            images = null;
             super.delete();
             }
+
+        private Image[] images; // lazily retrieved, then shared by subsequent lookups
+
+        /**
+         * Returns the image in this frame of the indicated {@link PIXEL_FORMAT}, or null if there
+         * is none. The images are retrieved from Vuforia only once per frame, however many times
+         * this is called.
+         */
+        public @Nullable Image findImage(int pixelFormat)
+            {
+            if (images == null)
+                {
+                images = new Image[getNumImages()];
+                for (int i = 0; i < images.length; i++)
+                    {
+                    images[i] = super.getImage(i);
+                    }
+                }
+            for (Image image : images)
+                {
+                if (image.getFormat() == pixelFormat)
+                    {
+                    return image;
+                    }
+                }
+            return null;
+            }
+
+        /**
+         * Returns direct access to the pixels of the image in this frame of the indicated
+         * {@link PIXEL_FORMAT}, or null if there is none. The buffer refers to Vuforia's own
+         * memory and so is valid only until the frame is {@link #close() closed}.
+         */
+        public @Nullable ByteBuffer findPixels(int pixelFormat)
+            {
+            Image image = findImage(pixelFormat);
+            return image != null ? image.getPixels() : null;
+            }
         }
 
     /**
@@ -0,0 +1,105 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.external.navigation;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraName;
+import org.firstinspires.ftc.robotcore.external.matrices.OpenGLMatrix;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link VuforiaRobotLocalization} is the result of locating the robot on the field using all
+ * the trackables of a {@link VuforiaTrackables} visible in a single camera frame. Instances are
+ * immutable.
+ *
+ * @see VuforiaTrackables#getRobotLocalization()
+ * @see VuforiaTrackables#getUpdatedRobotLocalization()
+ */
+@SuppressWarnings("WeakerAccess")
+public class VuforiaRobotLocalization
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    /** The {@link System#nanoTime()} at which the frame was processed */
+    public final long                     acquisitionTime;
+
+    /** The camera from which the frame came */
+    public final @Nullable CameraName     cameraName;
+
+    /** The trackables visible in the frame */
+    public final List<VuforiaTrackable>   visibleTrackables;
+
+    /**
+     * The location of the robot on the field as determined from each of the visible trackables
+     * individually, in the same order as {@link #visibleTrackables}. Each maps robot coordinates
+     * to FTC field coordinates.
+     */
+    public final List<OpenGLMatrix>       robotLocations;
+
+    /**
+     * The single best estimate of the location of the robot on the field, combining those of
+     * all visible trackables, or null if no trackables are visible.
+     */
+    public final @Nullable OpenGLMatrix   robotLocation;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public VuforiaRobotLocalization(long acquisitionTime, @Nullable CameraName cameraName, @NonNull List<VuforiaTrackable> visibleTrackables, @NonNull List<OpenGLMatrix> robotLocations, @Nullable OpenGLMatrix robotLocation)
+        {
+        this.acquisitionTime = acquisitionTime;
+        this.cameraName = cameraName;
+        this.visibleTrackables = Collections.unmodifiableList(visibleTrackables);
+        this.robotLocations = Collections.unmodifiableList(robotLocations);
+        this.robotLocation = robotLocation;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public boolean isRobotLocated()
+        {
+        return robotLocation != null;
+        }
+
+    @Override public String toString()
+        {
+        return String.format("VuforiaRobotLocalization(visible=%d location=%s)", visibleTrackables.size(), robotLocation==null ? "null" : robotLocation.formatAsTransform());
+        }
+    }
@@ -32,6 +32,8 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package org.firstinspires.ftc.robotcore.external.navigation;
 
+import androidx.annotation.Nullable;
+
 import java.util.List;
 
 /**
@@ -75,4 +77,35 @@ public interface VuforiaTrackables extends List<VuforiaTrackable>
      * @return the {@link VuforiaLocalizer} which manages this list of trackables.
      */
     VuforiaLocalizer getLocalizer();
+
+    /**
+     * Returns the location of the robot as most recently determined from all of the trackables
+     * herein that were visible in the same frame, or null if this trackables has not yet been
+     * active. The location from each visible trackable is that which its
+     * {@link VuforiaTrackableDefaultListener} would report; the locations from several visible
+     * trackables are combined into a single estimate. Computing the locations once per frame,
+     * for all trackables together, is much cheaper than polling each listener in turn.
+     * Trackables which don't compute a combined localization always return null.
+     *
+     * @return the most recent localization of the robot, or null
+     * @see #getUpdatedRobotLocalization()
+     * @see VuforiaTrackableDefaultListener#setCameraLocationOnRobot
+     * @see VuforiaTrackable#setLocation
+     */
+    default @Nullable VuforiaRobotLocalization getRobotLocalization()
+        {
+        return null;
+        }
+
+    /**
+     * Returns the location of the robot as per {@link #getRobotLocalization()}, but only if a new
+     * frame has been processed since the last call to this method.
+     *
+     * @return the localization from the latest frame, or null if there has been no new frame
+     * @see #getRobotLocalization()
+     */
+    default @Nullable VuforiaRobotLocalization getUpdatedRobotLocalization()
+        {
+        return null;
+        }
     }
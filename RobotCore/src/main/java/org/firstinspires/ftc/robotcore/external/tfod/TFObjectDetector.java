@@ -25,6 +25,7 @@ import android.view.ViewGroup;
 import org.firstinspires.ftc.robotcore.external.stream.CameraStreamSource;
 
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Interface for TensorFlow Object Detector.
@@ -76,6 +77,35 @@ public interface TFObjectDetector extends CameraStreamSource {
    */
   void setZoom(double magnification, double aspectRatio);
 
+  /**
+   * Limits object detection to at most the given number of recognitions per second. Frames that
+   * arrive sooner are not run through the model, though the object tracker, if in use, continues
+   * to follow objects on every frame. Zero, the default, means as fast as frames arrive and
+   * recognizers become free. Implementations that don't support rate limiting ignore this.
+   */
+  default void setMaxRecognitionsPerSecond(double recognitionsPerSecond) {
+  }
+
+  /**
+   * Limits the fraction of time, greater than 0 and at most 1, that the recognizers are kept
+   * busy running the model. For example, 0.25 spaces recognitions so that the model runs
+   * a quarter of the time. The default, 1, imposes no limit. This bounds the processor load
+   * independently of how long the model happens to take on a particular device.
+   * Implementations that don't support an inference budget ignore this.
+   */
+  default void setInferenceBudget(double fraction) {
+  }
+
+  /**
+   * When the object tracker is in use, runs the model over the full zoom area only on every nth
+   * recognition. The recognitions in between look only at the region surrounding the
+   * objects currently being tracked, which re-detects them at a higher effective resolution.
+   * The default, 1, looks at the full zoom area every time. Implementations that don't support
+   * region of interest recognition ignore this.
+   */
+  default void setFullFrameDetectionInterval(int n) {
+  }
+
   /**
    * Returns the list of recognitions, but only if they are different than the last call to {@link #getUpdatedRecognitions()}.
    */
@@ -86,11 +116,73 @@ public interface TFObjectDetector extends CameraStreamSource {
    */
   List<Recognition> getRecognitions();
 
+  /**
+   * Returns a snapshot of how frames have been flowing through this TFObjectDetector: how many
+   * were processed or dropped, and how long each stage of processing has recently been taking.
+   * Implementations that don't keep statistics return all zeros.
+   */
+  default Statistics getStatistics() {
+    return new Statistics(0, 0, 0, 0, 0, 0, 0, 0, 0);
+  }
+
   /**
    * Perform whatever cleanup is necessary to release all acquired resources.
    */
   void shutdown();
 
+  /**
+   * {@link Statistics} is a snapshot of the performance of a TFObjectDetector. Times are the mean
+   * over recently processed frames, in milliseconds.
+   */
+  class Statistics {
+    /** The number of frames delivered by the camera while active */
+    public final long framesReceived;
+    /** The number of frames which made it all the way through a recognizer */
+    public final long framesProcessed;
+    /** The number of frames skipped because every recognizer was still busy with an earlier one */
+    public final long framesDropped;
+    /** The number of frames not run through the model, so as to honor the rate or budget limits */
+    public final long framesSkipped;
+    /** The number of recognitions that looked only at a region around tracked objects */
+    public final long regionOfInterestRecognitions;
+
+    /** Copying and scaling the zoom area and converting it to the model's input format */
+    public final double msPreprocess;
+    /** Running the model */
+    public final double msInference;
+    /** Converting the model's output into recognitions */
+    public final double msPostprocess;
+    /** Updating the object tracker, per frame and per set of recognitions */
+    public final double msTracker;
+
+    public Statistics(long framesReceived, long framesProcessed, long framesDropped,
+        double msPreprocess, double msInference, double msPostprocess, double msTracker) {
+      this(framesReceived, framesProcessed, framesDropped, 0, 0,
+          msPreprocess, msInference, msPostprocess, msTracker);
+    }
+
+    public Statistics(long framesReceived, long framesProcessed, long framesDropped,
+        long framesSkipped, long regionOfInterestRecognitions,
+        double msPreprocess, double msInference, double msPostprocess, double msTracker) {
+      this.framesReceived = framesReceived;
+      this.framesProcessed = framesProcessed;
+      this.framesDropped = framesDropped;
+      this.framesSkipped = framesSkipped;
+      this.regionOfInterestRecognitions = regionOfInterestRecognitions;
+      this.msPreprocess = msPreprocess;
+      this.msInference = msInference;
+      this.msPostprocess = msPostprocess;
+      this.msTracker = msTracker;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.US,
+          "received=%d processed=%d dropped=%d skipped=%d roi=%d preprocess=%.1fms inference=%.1fms postprocess=%.1fms tracker=%.1fms",
+          framesReceived, framesProcessed, framesDropped, framesSkipped, regionOfInterestRecognitions, msPreprocess, msInference, msPostprocess, msTracker);
+    }
+  }
+
   /**
    * {@link Parameters} provides configuration information for instantiating the TFObjectDetector
    */
@@ -123,6 +215,13 @@ public interface TFObjectDetector extends CameraStreamSource {
     public float trackerMarginalCorrelation = 0.75f;
     public float trackerMinCorrelation = 0.3f;
 
+    /** @see TFObjectDetector#setMaxRecognitionsPerSecond(double) */
+    public double maxRecognitionsPerSecond = 0;
+    /** @see TFObjectDetector#setInferenceBudget(double) */
+    public double inferenceBudget = 1.0;
+    /** @see TFObjectDetector#setFullFrameDetectionInterval(int) */
+    public int fullFrameDetectionInterval = 1;
+
     /**
      * The resource id of the view within {@link #activity} that will be used
      * as the parent for a live monitor which provides feedback as to what objects
@@ -0,0 +1,179 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.internal.camera;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * {@link BitmapPool} retains recently used {@link Bitmap}s so that a steady stream of frames of
+ * the same (width, height, config) can be converted into bitmaps without allocating a new one
+ * each time. As with {@link FrameBufferPool}, the most recently recycled bitmaps are kept at the
+ * front; those beyond the pool's capacity are {@link Bitmap#recycle() recycled}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class BitmapPool
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final int defaultCapacity = 4;
+
+    protected final Object             lock = new Object();
+    protected final ArrayDeque<Bitmap> idle = new ArrayDeque<>();
+    protected int                      capacity = defaultCapacity;
+    protected boolean                  closed = false;
+    protected long                     allocationCount = 0;
+    protected long                     reuseCount = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public int getCapacity()
+        {
+        synchronized (lock)
+            {
+            return capacity;
+            }
+        }
+
+    public void setCapacity(int capacity)
+        {
+        synchronized (lock)
+            {
+            this.capacity = Math.max(0, capacity);
+            while (idle.size() > this.capacity)
+                {
+                idle.removeLast().recycle();
+                }
+            }
+        }
+
+    public long getAllocationCount()
+        {
+        synchronized (lock)
+            {
+            return allocationCount;
+            }
+        }
+
+    public long getReuseCount()
+        {
+        synchronized (lock)
+            {
+            return reuseCount;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns a mutable bitmap of the indicated size and config, reusing an idle one if
+     * there is one. The contents of a reused bitmap are whatever they were when it was recycled.
+     */
+    public @NonNull Bitmap obtain(int width, int height, @NonNull Bitmap.Config config)
+        {
+        synchronized (lock)
+            {
+            for (Iterator<Bitmap> iterator = idle.iterator(); iterator.hasNext(); )
+                {
+                Bitmap bitmap = iterator.next();
+                if (bitmap.getWidth()==width && bitmap.getHeight()==height && bitmap.getConfig()==config)
+                    {
+                    iterator.remove();
+                    reuseCount++;
+                    return bitmap;
+                    }
+                }
+            allocationCount++;
+            }
+        return Bitmap.createBitmap(width, height, config);
+        }
+
+    /**
+     * Returns a bitmap obtained from {@link #obtain} to the pool. The caller must make no
+     * further use of it. If the pool is full or closed, the bitmap is recycled instead.
+     */
+    public void recycle(@NonNull Bitmap bitmap)
+        {
+        if (bitmap.isRecycled() || !bitmap.isMutable())
+            {
+            return;
+            }
+        synchronized (lock)
+            {
+            if (!closed && capacity > 0)
+                {
+                if (idle.size() >= capacity)
+                    {
+                    idle.removeLast().recycle();
+                    }
+                idle.addFirst(bitmap);
+                return;
+                }
+            }
+        bitmap.recycle();
+        }
+
+    /**
+     * Recycles all idle bitmaps
+     */
+    public void trim()
+        {
+        synchronized (lock)
+            {
+            while (!idle.isEmpty())
+                {
+                idle.removeFirst().recycle();
+                }
+            }
+        }
+
+    /**
+     * Trims the pool and recycles all bitmaps subsequently returned to it
+     */
+    public void close()
+        {
+        synchronized (lock)
+            {
+            closed = true;
+            trim();
+            }
+        }
+    }
@@ -0,0 +1,90 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.camera;
+
+import androidx.annotation.NonNull;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureRequest;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSequenceId;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
+import org.firstinspires.ftc.robotcore.internal.camera.libuvc.constants.UvcFrameFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link ByteBufferFramePool} is a {@link FrameBufferPool} of direct {@link ByteBuffer}s. It can
+ * copy any {@link CameraFrame}, and is also a source of empty frames for frame producers that
+ * live on the Java side.
+ *
+ * @see PooledCameraFrame
+ */
+@SuppressWarnings("WeakerAccess")
+public class ByteBufferFramePool extends FrameBufferPool<ByteBuffer>
+    {
+    //----------------------------------------------------------------------------------------------
+    // FrameBufferPool
+    //----------------------------------------------------------------------------------------------
+
+    @Override protected int capacityOf(ByteBuffer buffer)
+        {
+        return buffer.capacity();
+        }
+
+    @Override protected void dispose(ByteBuffer buffer)
+        {
+        // Nothing to do: the garbage collector will take it from here
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns a frame, with one reference, whose cbData bytes of image data are unspecified
+     * and are to be filled in by the caller.
+     */
+    public PooledCameraFrame newFrame(CameraCaptureRequest captureRequest, CameraCaptureSequenceId captureSequenceId, long frameNumber, long captureTime, UvcFrameFormat uvcFrameFormat, int stride, int cbData)
+        {
+        ByteBuffer buffer = obtain(cbData);
+        if (buffer == null)
+            {
+            buffer = ByteBuffer.allocateDirect(cbData).order(ByteOrder.nativeOrder());
+            }
+        return new PooledCameraFrame(this, buffer, cbData, captureRequest, captureSequenceId, frameNumber, captureTime, uvcFrameFormat, stride);
+        }
+
+    @NonNull @Override public PooledCameraFrame copyOf(@NonNull CameraFrame frame)
+        {
+        PooledCameraFrame result = newFrame(frame.getRequest(), frame.getCaptureSequenceId(), frame.getFrameNumber(), frame.getCaptureTime(), frame.getUvcFrameFormat(), frame.getStride(), frame.getImageSize());
+        result.getWritableImageByteBuffer().put(frame.getImageByteBuffer());
+        return result;
+        }
+    }
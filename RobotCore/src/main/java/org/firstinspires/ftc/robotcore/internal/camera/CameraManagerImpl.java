@@ -70,6 +70,8 @@ import org.firstinspires.ftc.robotcore.internal.camera.libuvc.nativeobject.UvcDe
 import org.firstinspires.ftc.robotcore.internal.camera.names.BuiltinCameraNameImpl;
 import org.firstinspires.ftc.robotcore.internal.camera.names.UnknownCameraNameImpl;
 import org.firstinspires.ftc.robotcore.internal.camera.names.WebcamNameImpl;
+import org.firstinspires.ftc.robotcore.internal.camera.replay.ReplayCamera;
+import org.firstinspires.ftc.robotcore.internal.camera.replay.ReplayCameraName;
 import org.firstinspires.ftc.robotcore.internal.collections.MutableReference;
 import org.firstinspires.ftc.robotcore.internal.hardware.usb.ArmableUsbDevice;
 import org.firstinspires.ftc.robotcore.internal.network.CallbackLooper;
@@ -80,6 +82,7 @@ import org.firstinspires.ftc.robotcore.internal.system.DestructOnFinalize;
 import org.firstinspires.ftc.robotcore.internal.system.Misc;
 import org.firstinspires.ftc.robotcore.internal.system.Tracer;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -328,6 +331,11 @@ public class CameraManagerImpl extends DestructOnFinalize/*no parent*/ implement
         return SwitchableCameraNameImpl.forSwitchable(cameraNames);
         }
 
+    @NonNull @Override public CameraName nameForReplayCamera(File directory, boolean loop)
+        {
+        return ReplayCameraName.forDirectory(directory, loop);
+        }
+
     //----------------------------------------------------------------------------------------------
     // CameraManager
     //----------------------------------------------------------------------------------------------
@@ -435,6 +443,10 @@ public class CameraManagerImpl extends DestructOnFinalize/*no parent*/ implement
                     {
                     asyncOpenSwitchableAssumingPermission((SwitchableCameraName)cameraName, tracingContinuation, reopenDuration, reopenTimeUnit);
                     }
+                else if (cameraName instanceof ReplayCameraName)
+                    {
+                    new ReplayCamera((ReplayCameraName)cameraName, tracingContinuation).reportOpened();
+                    }
                 else
                     {
                     tracer.traceError("asyncOpenCamera(): %s is not a kind of camera we can open", cameraName);
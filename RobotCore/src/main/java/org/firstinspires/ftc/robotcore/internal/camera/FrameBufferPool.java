@@ -0,0 +1,181 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.camera;
+
+import androidx.annotation.Nullable;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFramePool;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * {@link FrameBufferPool} holds the idle buffers of a {@link CameraFramePool}. Subclasses supply
+ * the notion of what a buffer is and how large it is; the pool keeps the most recently recycled
+ * buffers at the front, so that a steady stream of same-sized frames cycles through a small,
+ * cache-warm working set.
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class FrameBufferPool<T> implements CameraFramePool
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final int defaultCapacity = 4;
+
+    protected final Object        lock = new Object();
+    protected final ArrayDeque<T> idle = new ArrayDeque<>();
+    protected int                 capacity = defaultCapacity;
+    protected boolean             closed = false;
+    protected long                allocationCount = 0;
+    protected long                reuseCount = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Subclass responsibility
+    //----------------------------------------------------------------------------------------------
+
+    /** Returns the number of bytes of image data the buffer can hold */
+    protected abstract int capacityOf(T buffer);
+
+    /** Frees a buffer that the pool is no longer going to retain */
+    protected abstract void dispose(T buffer);
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    @Override public int getCapacity()
+        {
+        synchronized (lock)
+            {
+            return capacity;
+            }
+        }
+
+    @Override public void setCapacity(int capacity)
+        {
+        synchronized (lock)
+            {
+            this.capacity = Math.max(0, capacity);
+            while (idle.size() > this.capacity)
+                {
+                dispose(idle.removeLast());
+                }
+            }
+        }
+
+    @Override public long getAllocationCount()
+        {
+        synchronized (lock)
+            {
+            return allocationCount;
+            }
+        }
+
+    @Override public long getReuseCount()
+        {
+        synchronized (lock)
+            {
+            return reuseCount;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Removes and returns an idle buffer able to hold cbNeeded bytes, or null if there is none,
+     * in which case the caller is expected to allocate a fresh buffer.
+     */
+    protected @Nullable T obtain(int cbNeeded)
+        {
+        synchronized (lock)
+            {
+            for (Iterator<T> iterator = idle.iterator(); iterator.hasNext(); )
+                {
+                T buffer = iterator.next();
+                if (capacityOf(buffer) >= cbNeeded)
+                    {
+                    iterator.remove();
+                    reuseCount++;
+                    return buffer;
+                    }
+                }
+            allocationCount++;
+            return null;
+            }
+        }
+
+    /**
+     * Returns a buffer whose frame is no longer referenced to the pool. If the pool is
+     * full or closed, the buffer is disposed of instead.
+     */
+    public void recycle(T buffer)
+        {
+        synchronized (lock)
+            {
+            if (!closed && capacity > 0)
+                {
+                if (idle.size() >= capacity)
+                    {
+                    dispose(idle.removeLast());
+                    }
+                idle.addFirst(buffer);
+                return;
+                }
+            }
+        dispose(buffer);
+        }
+
+    @Override public void trim()
+        {
+        synchronized (lock)
+            {
+            while (!idle.isEmpty())
+                {
+                dispose(idle.removeFirst());
+                }
+            }
+        }
+
+    /**
+     * Trims the pool and disposes of all buffers subsequently recycled to it
+     */
+    public void close()
+        {
+        synchronized (lock)
+            {
+            closed = true;
+            trim();
+            }
+        }
+    }
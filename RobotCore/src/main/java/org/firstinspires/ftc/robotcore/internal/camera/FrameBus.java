@@ -0,0 +1,392 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.camera;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.function.Consumer;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
+
+import java.io.Closeable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link FrameBus} fans frames out from one producer to any number of independent consumers.
+ * Each consumer has a {@link Subscription} holding a single slot containing the most recent
+ * frame it has yet to consume: a newly published frame replaces (and releases) any frame left
+ * waiting there, and that replacement is counted as a drop. Thus each consumer proceeds at
+ * its own rate, always working on the freshest frame available, and a slow consumer never
+ * holds up either the producer or the other consumers.
+ *
+ * Frames are shared, not copied: what each subscription holds is a counted reference to the
+ * published frame, taken and given back through the bus's {@link FrameLifecycle}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class FrameBus<T>
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * How the bus takes and gives back references to the frames it carries
+     */
+    public interface FrameLifecycle<T>
+        {
+        /** Returns a reference to the frame which remains valid until passed to {@link #release} */
+        T retain(T frame);
+        void release(T frame);
+        }
+
+    public static final FrameLifecycle<CameraFrame> cameraFrameLifecycle = new FrameLifecycle<CameraFrame>()
+        {
+        @Override public CameraFrame retain(CameraFrame frame)
+            {
+            frame.addRef();
+            return frame;
+            }
+        @Override public void release(CameraFrame frame)
+            {
+            frame.releaseRef();
+            }
+        };
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final String                                  tag;
+    protected final FrameLifecycle<T>                       lifecycle;
+    protected final CopyOnWriteArrayList<Subscription>      subscriptions = new CopyOnWriteArrayList<>();
+    protected final AtomicLong                              publishedCount = new AtomicLong(0);
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public FrameBus(String tag, FrameLifecycle<T> lifecycle)
+        {
+        this.tag = tag;
+        this.lifecycle = lifecycle;
+        }
+
+    public static FrameBus<CameraFrame> forCameraFrames(String tag)
+        {
+        return new FrameBus<>(tag, cameraFrameLifecycle);
+        }
+
+    /**
+     * Closes all current subscriptions
+     */
+    public void close()
+        {
+        for (Subscription subscription : subscriptions)
+            {
+            subscription.close();
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Producers may use this to avoid the work of preparing a frame that nobody will see
+     */
+    public boolean hasSubscribers()
+        {
+        return !subscriptions.isEmpty();
+        }
+
+    public long getPublishedCount()
+        {
+        return publishedCount.get();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns a subscription from which frames are to be retrieved with {@link Subscription#take()}
+     * or {@link Subscription#poll()}.
+     */
+    public Subscription subscribe(String name)
+        {
+        Subscription result = new Subscription(name, null, null);
+        subscriptions.add(result);
+        return result;
+        }
+
+    /**
+     * Returns a subscription whose frames are delivered to the consumer on the executor. At most
+     * one delivery to a given consumer is ever outstanding, and frames that arrive while the
+     * consumer is busy supersede one another. The frame is released when the consumer returns;
+     * consumers that wish to retain it longer must take their own reference.
+     */
+    public Subscription subscribe(String name, @NonNull Executor executor, @NonNull Consumer<T> consumer)
+        {
+        Subscription result = new Subscription(name, executor, consumer);
+        subscriptions.add(result);
+        return result;
+        }
+
+    /**
+     * Makes the frame available to all current subscribers. The caller's own reference to the
+     * frame is neither consumed nor released.
+     */
+    public void publish(T frame)
+        {
+        publishedCount.incrementAndGet();
+        for (Subscription subscription : subscriptions)
+            {
+            subscription.offer(lifecycle.retain(frame));
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Subscription
+    //----------------------------------------------------------------------------------------------
+
+    public class Subscription implements Closeable
+        {
+        protected final String                  name;
+        protected final AtomicReference<T>      slot = new AtomicReference<>(null);
+        protected final Object                  lock = new Object();
+        protected final @Nullable Executor      executor;
+        protected final @Nullable Consumer<T>   consumer;
+        protected final AtomicBoolean           deliveryScheduled = new AtomicBoolean(false);
+        protected final AtomicLong              offeredCount = new AtomicLong(0);
+        protected final AtomicLong              droppedCount = new AtomicLong(0);
+        protected volatile boolean              closed = false;
+
+        protected Subscription(String name, @Nullable Executor executor, @Nullable Consumer<T> consumer)
+            {
+            this.name = name;
+            this.executor = executor;
+            this.consumer = consumer;
+            }
+
+        @Override public String toString()
+            {
+            return String.format("%s(%s)", tag, name);
+            }
+
+        public String getName()
+            {
+            return name;
+            }
+
+        /** The number of frames published to this subscription */
+        public long getOfferedCount()
+            {
+            return offeredCount.get();
+            }
+
+        /** The number of frames superseded before they could be consumed */
+        public long getDroppedCount()
+            {
+            return droppedCount.get();
+            }
+
+        /** The number of frames actually consumed */
+        public long getConsumedCount()
+            {
+            return offeredCount.get() - droppedCount.get() - (slot.get() != null ? 1 : 0);
+            }
+
+        protected void offer(T frame)
+            {
+            offeredCount.incrementAndGet();
+            T superseded = slot.getAndSet(frame);
+            if (superseded != null)
+                {
+                droppedCount.incrementAndGet();
+                lifecycle.release(superseded);
+                }
+            if (closed)
+                {
+                // Lost a race with close(): don't leave the frame stranded
+                releaseSlot();
+                return;
+                }
+            if (executor != null)
+                {
+                scheduleDelivery();
+                }
+            else
+                {
+                synchronized (lock)
+                    {
+                    lock.notifyAll();
+                    }
+                }
+            }
+
+        /**
+         * Returns the frame waiting in this subscription, or null if there is none. Ownership
+         * of the frame passes to the caller, who must release it (e.g. with
+         * {@link CameraFrame#releaseRef()}) when done.
+         */
+        public @Nullable T poll()
+            {
+            return slot.getAndSet(null);
+            }
+
+        /**
+         * Waits for and returns the next frame, which the caller must release when done.
+         * Returns null if the subscription is closed.
+         */
+        public @Nullable T take() throws InterruptedException
+            {
+            return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+
+        /**
+         * As {@link #take()}, but returns null if no frame arrives within the timeout
+         */
+        public @Nullable T poll(long timeout, TimeUnit unit) throws InterruptedException
+            {
+            long nsDeadline = System.nanoTime() + Math.min(unit.toNanos(timeout), Long.MAX_VALUE / 2);
+            synchronized (lock)
+                {
+                for (;;)
+                    {
+                    T result = slot.getAndSet(null);
+                    if (result != null || closed)
+                        {
+                        return result;
+                        }
+                    long nsRemaining = nsDeadline - System.nanoTime();
+                    if (nsRemaining <= 0)
+                        {
+                        return null;
+                        }
+                    TimeUnit.NANOSECONDS.timedWait(lock, nsRemaining);
+                    }
+                }
+            }
+
+        protected void scheduleDelivery()
+            {
+            if (deliveryScheduled.compareAndSet(false, true))
+                {
+                try {
+                    executor.execute(new Runnable()
+                        {
+                        @Override public void run()
+                            {
+                            deliver();
+                            }
+                        });
+                    }
+                catch (RejectedExecutionException e)
+                    {
+                    // Typically the executor is shutting down. Don't strand the frame, and don't
+                    // let one subscriber's executor keep the frame from the other subscribers.
+                    RobotLog.ww(tag, "frame delivery to %s rejected; frame dropped", name);
+                    deliveryScheduled.set(false);
+                    T frame = slot.getAndSet(null);
+                    if (frame != null)
+                        {
+                        droppedCount.incrementAndGet();
+                        lifecycle.release(frame);
+                        }
+                    }
+                }
+            }
+
+        protected void deliver()
+            {
+            for (;;)
+                {
+                T frame = slot.getAndSet(null);
+                if (frame == null)
+                    {
+                    deliveryScheduled.set(false);
+                    // A frame may have arrived after our getAndSet but before we cleared the flag
+                    if (slot.get() != null && deliveryScheduled.compareAndSet(false, true))
+                        {
+                        continue;
+                        }
+                    return;
+                    }
+                try {
+                    consumer.accept(frame);
+                    }
+                catch (RuntimeException e)
+                    {
+                    RobotLog.ee(tag, e, "exception in frame consumer %s; ignored", name);
+                    }
+                finally
+                    {
+                    lifecycle.release(frame);
+                    }
+                }
+            }
+
+        protected void releaseSlot()
+            {
+            T frame = slot.getAndSet(null);
+            if (frame != null)
+                {
+                lifecycle.release(frame);
+                }
+            }
+
+        /**
+         * Stops further delivery to this subscription and releases any frame waiting in it.
+         * Threads blocked in {@link #take()} return null.
+         */
+        @Override public void close()
+            {
+            if (!closed)
+                {
+                closed = true;
+                subscriptions.remove(this);
+                releaseSlot();
+                synchronized (lock)
+                    {
+                    lock.notifyAll();
+                    }
+                RobotLog.vv(tag, "%s closed: offered=%d dropped=%d", this, getOfferedCount(), getDroppedCount());
+                }
+            }
+        }
+    }
@@ -0,0 +1,244 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.camera;
+
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.android.util.Size;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureRequest;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSequenceId;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
+import org.firstinspires.ftc.robotcore.internal.camera.libuvc.constants.UvcFrameFormat;
+import org.firstinspires.ftc.robotcore.internal.system.RefCounted;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link CameraFrame} whose image data lives in a direct {@link ByteBuffer} drawn from a
+ * {@link ByteBufferFramePool}. The buffer goes back to the pool when the last reference to
+ * the frame is released.
+ *
+ * Being Java memory, the data has no native address: {@link #getImageBuffer()} returns zero, and
+ * so such frames cannot be handed to native consumers that require one.
+ */
+@SuppressWarnings("WeakerAccess")
+public class PooledCameraFrame extends RefCounted implements CameraFrame
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "PooledCameraFrame";
+    public String getTag() { return TAG; }
+
+    protected final ByteBufferFramePool     framePool;
+    protected ByteBuffer                    buffer;
+    protected final int                     cbData;
+    protected final CameraCaptureRequest    captureRequest;
+    protected final CameraCaptureSequenceId captureSequenceId;
+    protected final long                    frameNumber;
+    protected final long                    captureTime;
+    protected final UvcFrameFormat          uvcFrameFormat;
+    protected final int                     stride;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public PooledCameraFrame(ByteBufferFramePool framePool, ByteBuffer buffer, int cbData, CameraCaptureRequest captureRequest, CameraCaptureSequenceId captureSequenceId, long frameNumber, long captureTime, UvcFrameFormat uvcFrameFormat, int stride)
+        {
+        super(TraceLevel.VeryVerbose);
+        this.framePool = framePool;
+        this.buffer = buffer;
+        this.cbData = cbData;
+        this.captureRequest = captureRequest;
+        this.captureSequenceId = captureSequenceId;
+        this.frameNumber = frameNumber;
+        this.captureTime = captureTime;
+        this.uvcFrameFormat = uvcFrameFormat;
+        this.stride = stride;
+        }
+
+    @Override protected void destructor()
+        {
+        if (buffer != null)
+            {
+            framePool.recycle(buffer);
+            buffer = null;
+            }
+        super.destructor();
+        }
+
+    /**
+     * Returns a writable view of the image data, for use by whoever is filling the frame in
+     */
+    public ByteBuffer getWritableImageByteBuffer()
+        {
+        ByteBuffer result = buffer.duplicate().order(buffer.order());
+        result.clear();
+        result.limit(cbData);
+        return result;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // CameraFrame
+    //----------------------------------------------------------------------------------------------
+
+    @NonNull @Override public CameraCaptureRequest getRequest()
+        {
+        return captureRequest;
+        }
+
+    @Override public long getFrameNumber()
+        {
+        return frameNumber;
+        }
+
+    @Override public Size getSize()
+        {
+        return captureRequest.getSize();
+        }
+
+    @Override public int getImageSize()
+        {
+        return cbData;
+        }
+
+    @Override public byte[] getImageData()
+        {
+        return getImageData(new byte[cbData]);
+        }
+
+    @Override public byte[] getImageData(byte[] buf)
+        {
+        if (buf.length != cbData)
+            {
+            buf = new byte[cbData];
+            }
+        getImageByteBuffer().get(buf);
+        return buf;
+        }
+
+    @Override public long getImageBuffer()
+        {
+        return 0;
+        }
+
+    @Override public ByteBuffer getImageByteBuffer()
+        {
+        return getWritableImageByteBuffer().asReadOnlyBuffer().order(buffer.order());
+        }
+
+    @Override public long getCaptureTime()
+        {
+        return captureTime;
+        }
+
+    @Override public UvcFrameFormat getUvcFrameFormat()
+        {
+        return uvcFrameFormat;
+        }
+
+    @Override public int getStride()
+        {
+        return stride;
+        }
+
+    @Override public CameraCaptureSequenceId getCaptureSequenceId()
+        {
+        return captureSequenceId;
+        }
+
+    @Override public void copyToBitmap(Bitmap bitmap)
+        {
+        switch (uvcFrameFormat)
+            {
+            case YUY2:  yuy2ToBitmap(bitmap); break;
+            default:    break; // throw?
+            }
+        }
+
+    @Override public CameraFrame copy()
+        {
+        return framePool.copyOf(this);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Conversion
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * A Java rendition of the BT.601 conversion done natively for UVC frames. Adequate for
+     * previews and testing, but not as fast as its native counterpart.
+     */
+    protected void yuy2ToBitmap(Bitmap bitmap)
+        {
+        if (bitmap.getConfig() != Bitmap.Config.ARGB_8888)
+            {
+            RobotLog.ee(getTag(), "conversion to %s not yet implemented; ignored", bitmap.getConfig());
+            return;
+            }
+
+        int width = Math.min(bitmap.getWidth(), getSize().getWidth()) & ~1;
+        int height = Math.min(bitmap.getHeight(), getSize().getHeight());
+        int[] row = new int[width];
+        ByteBuffer data = getImageByteBuffer();
+        for (int y = 0; y < height; y++)
+            {
+            int ib = y * stride;
+            for (int x = 0; x < width; x += 2, ib += 4)
+                {
+                int y0 = (data.get(ib) & 0xFF) - 16;
+                int u  = (data.get(ib+1) & 0xFF) - 128;
+                int y1 = (data.get(ib+2) & 0xFF) - 16;
+                int v  = (data.get(ib+3) & 0xFF) - 128;
+                row[x]   = yuvToArgb(y0, u, v);
+                row[x+1] = yuvToArgb(y1, u, v);
+                }
+            bitmap.setPixels(row, 0, width, 0, y, width, 1);
+            }
+        }
+
+    protected static int yuvToArgb(int c, int d, int e)
+        {
+        int r = clip((298 * c           + 409 * e + 128) >> 8);
+        int g = clip((298 * c - 100 * d - 208 * e + 128) >> 8);
+        int b = clip((298 * c + 516 * d           + 128) >> 8);
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+
+    protected static int clip(int value)
+        {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+        }
+    }
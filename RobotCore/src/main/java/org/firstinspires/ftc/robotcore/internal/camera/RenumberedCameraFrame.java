@@ -34,15 +34,19 @@ package org.firstinspires.ftc.robotcore.internal.camera;
 
 import android.graphics.Bitmap;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.firstinspires.ftc.robotcore.external.android.util.Size;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureRequest;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSequenceId;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFramePool;
 import org.firstinspires.ftc.robotcore.internal.camera.libuvc.api.UvcApiCameraFrame;
 import org.firstinspires.ftc.robotcore.internal.camera.libuvc.constants.UvcFrameFormat;
 import org.firstinspires.ftc.robotcore.internal.system.RefCounted;
 
+import java.nio.ByteBuffer;
+
 /**
  * A {@link CameraFrame} that maintains its own notion of frame number. This allows frames
  * that might in fact come from independent actual sources to be unified into one overall capture
@@ -136,6 +140,11 @@ public class RenumberedCameraFrame extends RefCounted implements CameraFrame, Ca
         return innerFrame.getImageBuffer();
         }
 
+    @Override public ByteBuffer getImageByteBuffer()
+        {
+        return innerFrame.getImageByteBuffer();
+        }
+
     @Override public long getCaptureTime()
         {
         return innerFrame.getCaptureTime();
@@ -163,7 +172,15 @@ public class RenumberedCameraFrame extends RefCounted implements CameraFrame, Ca
 
     @Override public CameraFrame copy()
         {
-        CameraFrame innerCopy = innerFrame.copy();
+        return copy(null);
+        }
+
+    /**
+     * Copies this frame, drawing the copy of the inner frame from the indicated pool if there is one
+     */
+    public CameraFrame copy(@Nullable CameraFramePool framePool)
+        {
+        CameraFrame innerCopy = framePool != null ? framePool.copyOf(innerFrame) : innerFrame.copy();
         CameraFrame result = new RenumberedCameraFrame(captureRequest, captureSequenceId, innerCopy, frameNumber);
         innerCopy.releaseRef();
         return result;
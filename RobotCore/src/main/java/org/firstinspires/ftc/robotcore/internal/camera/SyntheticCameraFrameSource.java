@@ -0,0 +1,166 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.camera;
+
+import android.graphics.ImageFormat;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.android.util.Size;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureRequest;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSequenceId;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFramePool;
+import org.firstinspires.ftc.robotcore.internal.camera.libuvc.constants.UvcFrameFormat;
+import org.firstinspires.ftc.robotcore.internal.system.Misc;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * {@link SyntheticCameraFrameSource} produces YUY2 {@link CameraFrame}s without the need for
+ * a camera: each frame is a diagonal luma ramp that shifts by one pixel per frame, so that
+ * successive frames differ. It exists so that frame pooling and the pipelines downstream of it
+ * can be exercised, and measured, on a robot controller with no webcam attached.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SyntheticCameraFrameSource
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "SyntheticFrameSource";
+
+    protected final CameraCaptureRequest    captureRequest;
+    protected final CameraCaptureSequenceId captureSequenceId;
+    protected final ByteBufferFramePool     framePool;
+    protected final int                     stride;
+    protected final byte[]                  pattern;  // a row's worth of pixels plus room to slide
+    protected long                          nextFrameNumber = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public SyntheticCameraFrameSource(Size size, int fps)
+        {
+        this(size, fps, new ByteBufferFramePool());
+        }
+
+    public SyntheticCameraFrameSource(Size size, int fps, ByteBufferFramePool framePool)
+        {
+        this.captureRequest = new CameraCaptureRequestImpl(ImageFormat.YUY2, size, fps) { };
+        this.captureSequenceId = new CameraCaptureSequenceIdImpl(null, 0, CameraCaptureSequenceIdImpl.class);
+        this.framePool = framePool;
+        this.stride = size.getWidth() * 2;
+        this.pattern = new byte[stride + 256 * 2];
+        for (int ib = 0; ib < pattern.length; ib += 2)
+            {
+            pattern[ib]   = (byte)(ib / 2);   // Y
+            pattern[ib+1] = (byte)0x80;       // alternately U and V: no chroma
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public CameraCaptureRequest getRequest()
+        {
+        return captureRequest;
+        }
+
+    public ByteBufferFramePool getFramePool()
+        {
+        return framePool;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the next synthetic frame, with one reference, drawn from our frame pool
+     */
+    public CameraFrame nextFrame()
+        {
+        long frameNumber = nextFrameNumber++;
+        int height = captureRequest.getSize().getHeight();
+        PooledCameraFrame frame = framePool.newFrame(captureRequest, captureSequenceId, frameNumber, System.nanoTime(), UvcFrameFormat.YUY2, stride, stride * height);
+        ByteBuffer data = frame.getWritableImageByteBuffer();
+        for (int y = 0; y < height; y++)
+            {
+            int shift = (int)((y + frameNumber) & 0xFF);
+            data.put(pattern, shift * 2, stride);
+            }
+        return frame;
+        }
+
+    /**
+     * Runs frames from this source through the indicated pool the way an asynchronous consumer
+     * would: each frame is copied, the copy is held while framesInFlight newer ones are made,
+     * then released. Returns a summary of the cost per copy and of how well the pool recycled.
+     */
+    public String benchmark(CameraFramePool copyPool, int frameCount, int framesInFlight)
+        {
+        ArrayDeque<CameraFrame> inFlight = new ArrayDeque<>();
+        long allocationsBefore = copyPool.getAllocationCount();
+        long reusesBefore = copyPool.getReuseCount();
+        long nsCopying = 0;
+
+        for (int i = 0; i < frameCount; i++)
+            {
+            CameraFrame frame = nextFrame();
+            long nsStart = System.nanoTime();
+            CameraFrame copy = copyPool.copyOf(frame);
+            nsCopying += System.nanoTime() - nsStart;
+            frame.releaseRef();
+
+            inFlight.addLast(copy);
+            while (inFlight.size() > framesInFlight)
+                {
+                inFlight.removeFirst().releaseRef();
+                }
+            }
+        while (!inFlight.isEmpty())
+            {
+            inFlight.removeFirst().releaseRef();
+            }
+
+        String result = Misc.formatInvariant("%s %d frames, %d in flight: %.1f us/copy allocations=%d reuses=%d",
+                captureRequest.getSize(), frameCount, framesInFlight,
+                frameCount > 0 ? nsCopying / 1000.0 / frameCount : 0.0,
+                copyPool.getAllocationCount() - allocationsBefore,
+                copyPool.getReuseCount() - reusesBefore);
+        RobotLog.vv(TAG, "benchmark: %s", result);
+        return result;
+        }
+    }
@@ -45,6 +45,7 @@ import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSes
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraException;
 import org.firstinspires.ftc.robotcore.external.function.Continuation;
 import org.firstinspires.ftc.robotcore.external.function.ContinuationResult;
+import org.firstinspires.ftc.robotcore.internal.camera.libuvc.api.UvcApiCameraFramePool;
 import org.firstinspires.ftc.robotcore.internal.system.CloseableRefCounted;
 import org.firstinspires.ftc.robotcore.internal.system.Misc;
 import org.firstinspires.ftc.robotcore.internal.system.Tracer;
@@ -69,6 +70,7 @@ public class DelegatingCaptureSession extends CloseableRefCounted implements Cam
     protected int                               nextCaptureSequenceId = 1;
     protected boolean                           closeReported = false;
     protected DelegatingCaptureSequence         delegatingCaptureSequence = null;
+    protected final UvcApiCameraFramePool       framePool = new UvcApiCameraFramePool(); // for explicit copies; streaming copies come from the underlying camera's session
 
     @Override public String toString()
         {
@@ -115,6 +117,7 @@ public class DelegatingCaptureSession extends CloseableRefCounted implements Cam
             @Override public void run()
                 {
                 shutdown();
+                framePool.close();
                 delegatingCamera.onClosed(DelegatingCaptureSession.this);
                 DelegatingCaptureSession.super.destructor();
                 }
@@ -283,6 +286,11 @@ public class DelegatingCaptureSession extends CloseableRefCounted implements Cam
             });
         }
 
+    @NonNull @Override public UvcApiCameraFramePool getFramePool()
+        {
+        return framePool;
+        }
+
     @Override public void stopCapture()
         {
         try {
@@ -34,6 +34,7 @@ package org.firstinspires.ftc.robotcore.internal.camera.libuvc.api;
 
 import android.graphics.Bitmap;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.firstinspires.ftc.robotcore.external.android.util.Size;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureRequest;
@@ -44,6 +45,8 @@ import org.firstinspires.ftc.robotcore.internal.camera.libuvc.constants.UvcFrame
 import org.firstinspires.ftc.robotcore.internal.camera.libuvc.nativeobject.UvcFrame;
 import org.firstinspires.ftc.robotcore.internal.system.DestructOnFinalize;
 
+import java.nio.ByteBuffer;
+
 /**
  * {@link UvcApiCameraFrame} is the internal implementation of {@link CameraFrame}
  */
@@ -60,14 +63,25 @@ public class UvcApiCameraFrame extends DestructOnFinalize/*no parent*/ implement
      */
     protected UvcApiCameraCaptureSequence captureSequence;
     protected UvcFrame uvcFrame;
+    protected @Nullable UvcApiCameraFramePool framePool; // where uvcFrame goes when we're done, if anywhere
 
     public UvcApiCameraFrame(UvcApiCameraCaptureSequence captureSequence, UvcFrame uvcFrame, boolean copyFrame)
+        {
+        this(captureSequence, uvcFrame, copyFrame ? captureSequence.getCaptureSession().getFramePool() : null);
+        }
+
+    /**
+     * If a frame pool is provided, the frame is copied using a buffer from that pool, else
+     * the frame is referenced directly.
+     */
+    public UvcApiCameraFrame(UvcApiCameraCaptureSequence captureSequence, UvcFrame uvcFrame, @Nullable UvcApiCameraFramePool framePool)
         {
         super(TraceLevel.VeryVerbose);
         this.captureSequence = captureSequence;
-        if (copyFrame)
+        this.framePool = framePool;
+        if (framePool != null)
             {
-            this.uvcFrame = uvcFrame.copy();
+            this.uvcFrame = framePool.copyOf(uvcFrame);
             }
         else
             {
@@ -85,7 +99,14 @@ public class UvcApiCameraFrame extends DestructOnFinalize/*no parent*/ implement
         {
         if (this.uvcFrame != null)
             {
-            this.uvcFrame.releaseRef();
+            if (framePool != null)
+                {
+                framePool.recycle(this.uvcFrame);
+                }
+            else
+                {
+                this.uvcFrame.releaseRef();
+                }
             this.uvcFrame = null;
             }
         super.destructor();
@@ -141,6 +162,13 @@ public class UvcApiCameraFrame extends DestructOnFinalize/*no parent*/ implement
         return uvcFrame.getImageBuffer();
         }
 
+    @Override public ByteBuffer getImageByteBuffer()
+        {
+        ByteBuffer buffer = uvcFrame.getImageByteBuffer();
+        buffer.limit(Math.min(buffer.capacity(), uvcFrame.getImageSize()));
+        return buffer.asReadOnlyBuffer().order(buffer.order());
+        }
+
     @Override public long getCaptureTime()
         {
         return uvcFrame.getCaptureTime();
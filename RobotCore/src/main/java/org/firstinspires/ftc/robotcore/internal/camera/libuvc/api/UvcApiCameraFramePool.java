@@ -0,0 +1,100 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.camera.libuvc.api;
+
+import androidx.annotation.NonNull;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
+import org.firstinspires.ftc.robotcore.internal.camera.FrameBufferPool;
+import org.firstinspires.ftc.robotcore.internal.camera.RenumberedCameraFrame;
+import org.firstinspires.ftc.robotcore.internal.camera.libuvc.nativeobject.UvcFrame;
+
+/**
+ * {@link UvcApiCameraFramePool} recycles the native {@link UvcFrame}s that back copied
+ * {@link UvcApiCameraFrame}s. A recycled frame is refilled in place by {@link UvcFrame#copyFrom},
+ * so in steady state copying a frame costs one bulk copy of the image data and no native
+ * allocation.
+ */
+@SuppressWarnings("WeakerAccess")
+public class UvcApiCameraFramePool extends FrameBufferPool<UvcFrame>
+    {
+    //----------------------------------------------------------------------------------------------
+    // FrameBufferPool
+    //----------------------------------------------------------------------------------------------
+
+    @Override protected int capacityOf(UvcFrame uvcFrame)
+        {
+        return uvcFrame.getAllocatedSize();
+        }
+
+    @Override protected void dispose(UvcFrame uvcFrame)
+        {
+        uvcFrame.releaseRef();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns a copy of the native frame, with one reference, drawn from the pool if possible
+     */
+    public UvcFrame copyOf(UvcFrame src)
+        {
+        UvcFrame result = obtain(src.getImageSize());
+        if (result != null)
+            {
+            if (result.copyFrom(src))
+                {
+                return result;
+                }
+            dispose(result);
+            }
+        return src.copy();
+        }
+
+    /**
+     * Frames not of our own making can't share our native buffers, and so are copied
+     * in the usual way.
+     */
+    @NonNull @Override public CameraFrame copyOf(@NonNull CameraFrame frame)
+        {
+        if (frame instanceof UvcApiCameraFrame)
+            {
+            UvcApiCameraFrame uvcApiCameraFrame = (UvcApiCameraFrame)frame;
+            return new UvcApiCameraFrame(uvcApiCameraFrame.captureSequence, uvcApiCameraFrame.uvcFrame, this);
+            }
+        if (frame instanceof RenumberedCameraFrame)
+            {
+            return ((RenumberedCameraFrame)frame).copy(this);
+            }
+        return frame.copy();
+        }
+    }
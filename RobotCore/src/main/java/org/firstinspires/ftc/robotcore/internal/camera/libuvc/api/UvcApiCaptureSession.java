@@ -70,6 +70,7 @@ public class UvcApiCaptureSession extends CloseableDestructOnFinalize<UvcDeviceH
     protected int                           nextCaptureSequenceId = 1;
     protected boolean                       closeReported = false;
     protected UvcApiCameraCaptureSequence   uvcCaptureSequence = null;
+    protected final UvcApiCameraFramePool   framePool = new UvcApiCameraFramePool();
 
     @Override public String toString()
         {
@@ -120,6 +121,7 @@ public class UvcApiCaptureSession extends CloseableDestructOnFinalize<UvcDeviceH
             @Override public void run()
                 {
                 shutdown();
+                framePool.close();
                 getParent().onClosed(UvcApiCaptureSession.this);
                 UvcApiCaptureSession.super.destructor();
                 }
@@ -211,6 +213,11 @@ public class UvcApiCaptureSession extends CloseableDestructOnFinalize<UvcDeviceH
             }
         }
 
+    @NonNull @Override public UvcApiCameraFramePool getFramePool()
+        {
+        return framePool;
+        }
+
     @Override public void stopCapture() // throws NOTHING
         {
         try {
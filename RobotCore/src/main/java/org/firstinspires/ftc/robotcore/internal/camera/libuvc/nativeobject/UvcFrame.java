@@ -71,6 +71,37 @@ public class UvcFrame extends NativeObject<UvcContext>
         return new UvcFrame(checkAlloc(nativeCopyFrame(pointer)), MemoryAllocator.EXTERNAL, getParent());
         }
 
+    /**
+     * Overwrites this frame with the image data and metadata of another, reusing the storage
+     * already allocated here. This is how pooled copies avoid a native allocation per frame.
+     *
+     * @return false, leaving this frame untouched, if the image won't fit in our storage
+     */
+    public boolean copyFrom(UvcFrame src)
+        {
+        int cbData = src.getImageSize();
+        if (cbData > getAllocatedSize())
+            {
+            return false;
+            }
+        setSizet(Fields.cbData.offset(), cbData);
+        setInt(Fields.width.offset(), src.getWidth());
+        setInt(Fields.height.offset(), src.getHeight());
+        setInt(Fields.frameFormat.offset(), src.getInt(Fields.frameFormat.offset()));
+        setInt(Fields.stride.offset(), src.getStride());
+        setUInt(Fields.frameNumber.offset(), src.getFrameNumber());
+        setUInt(Fields.pts.offset(), src.getUInt(Fields.pts.offset()));
+        setLong(Fields.captureTime.offset(), src.getCaptureTime());
+        setUInt(Fields.sourceClockReference.offset(), src.getUInt(Fields.sourceClockReference.offset()));
+
+        ByteBuffer from = src.getImageByteBuffer();
+        from.limit(cbData);
+        ByteBuffer to = getImageByteBuffer();
+        to.limit(cbData);
+        to.put(from);
+        return true;
+        }
+
     @Override protected void destructor()
         {
         if (memoryAllocator == MemoryAllocator.EXTERNAL) // some frames might use malloc
@@ -182,6 +213,12 @@ public class UvcFrame extends NativeObject<UvcContext>
         return getSizet(Fields.cbData.offset());
         }
 
+    /** The number of bytes of image data this frame has room for */
+    public int getAllocatedSize()
+        {
+        return getSizet(Fields.cbAllocated.offset());
+        }
+
     public long getImageBuffer()
         {
         return getLong(Fields.pbData.offset());
@@ -0,0 +1,194 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.internal.camera.replay;
+
+import android.graphics.ImageFormat;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.android.util.Size;
+import org.firstinspires.ftc.robotcore.external.function.Continuation;
+import org.firstinspires.ftc.robotcore.external.function.ContinuationResult;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.Camera;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureRequest;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSession;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraException;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraName;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.controls.CameraControl;
+import org.firstinspires.ftc.robotcore.internal.camera.CameraCaptureRequestImpl;
+
+/**
+ * {@link ReplayCamera} is a software {@link Camera} that plays back a directory of images,
+ * delivering them through the usual {@link CameraCaptureSession} callbacks at the frame rate of
+ * the capture request. With it, the vision pipelines downstream of a webcam can be exercised
+ * and profiled without one. Only the YUY2 format is offered; any size and frame rate may be
+ * requested, the images being scaled as needed. The camera has no controls.
+ *
+ * @see ReplayFrameSequence
+ */
+@SuppressWarnings("WeakerAccess")
+public class ReplayCamera implements Camera
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "ReplayCamera";
+
+    protected final Object                                      lock = new Object();
+    protected final ReplayCameraName                            cameraName;
+    protected final Continuation<? extends Camera.StateCallback> stateContinuation;
+    protected int                                               openCount = 1;
+    protected @Nullable ReplayCaptureSession                    session = null;
+
+    @Override public String toString()
+        {
+        return cameraName.toString();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public ReplayCamera(@NonNull ReplayCameraName cameraName, @NonNull Continuation<? extends Camera.StateCallback> stateContinuation)
+        {
+        this.cameraName = cameraName;
+        this.stateContinuation = stateContinuation;
+        }
+
+    /** Reports the camera as opened. A replay camera can't fail to open: a bad directory is reported when capture starts. */
+    public void reportOpened()
+        {
+        stateContinuation.dispatch(new ContinuationResult<Camera.StateCallback>()
+            {
+            @Override public void handle(Camera.StateCallback callback)
+                {
+                callback.onOpened(ReplayCamera.this);
+                }
+            });
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Camera
+    //----------------------------------------------------------------------------------------------
+
+    @NonNull @Override public CameraName getCameraName()
+        {
+        return cameraName;
+        }
+
+    @Override public CameraCaptureRequest createCaptureRequest(int androidFormat, Size size, int fps) throws CameraException
+        {
+        if (androidFormat != ImageFormat.YUY2)
+            {
+            throw new CameraException(Camera.Error.StreamingRequestNotSupported, "%s supports only YUY2: format=%d", this, androidFormat);
+            }
+        if (size.getWidth() <= 0 || size.getHeight() <= 0 || fps <= 0)
+            {
+            throw new CameraException(Camera.Error.StreamingRequestNotSupported, "%s: unsupported size=%s fps=%d", this, size, fps);
+            }
+        return new CameraCaptureRequestImpl(androidFormat, size, fps) { };
+        }
+
+    @NonNull @Override public CameraCaptureSession createCaptureSession(Continuation<? extends CameraCaptureSession.StateCallback> continuation) throws CameraException
+        {
+        synchronized (lock)
+            {
+            if (openCount <= 0)
+                {
+                throw new CameraException(Camera.Error.OtherError, "%s is closed", this);
+                }
+            if (session != null)
+                {
+                session.close();
+                }
+            session = new ReplayCaptureSession(this, continuation);
+            session.reportConfigured();
+            return session;
+            }
+        }
+
+    @Override public Camera dup()
+        {
+        synchronized (lock)
+            {
+            openCount++;
+            return this;
+            }
+        }
+
+    @Override public void close()
+        {
+        synchronized (lock)
+            {
+            if (openCount <= 0 || --openCount > 0)
+                {
+                return;
+                }
+            if (session != null)
+                {
+                session.close();
+                session = null;
+                }
+            }
+        RobotLog.vv(TAG, "closed %s", this);
+        stateContinuation.dispatch(new ContinuationResult<Camera.StateCallback>()
+            {
+            @Override public void handle(Camera.StateCallback callback)
+                {
+                callback.onClosed(ReplayCamera.this);
+                }
+            });
+        }
+
+    @Nullable @Override public <T extends CameraControl> T getControl(Class<T> controlType)
+        {
+        return null;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Internal
+    //----------------------------------------------------------------------------------------------
+
+    void onSessionClosed(ReplayCaptureSession closed)
+        {
+        synchronized (lock)
+            {
+            if (session == closed)
+                {
+                session = null;
+                }
+            }
+        }
+    }
@@ -0,0 +1,109 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.internal.camera.replay;
+
+import androidx.annotation.NonNull;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraName;
+import org.firstinspires.ftc.robotcore.internal.camera.names.CameraNameImplBase;
+
+import java.io.File;
+
+/**
+ * {@link ReplayCameraName} names a {@link ReplayCamera}: a software camera that plays back the
+ * images in a directory as though they were being captured live.
+ *
+ * @see org.firstinspires.ftc.robotcore.external.hardware.camera.CameraManager#nameForReplayCamera(File, boolean)
+ */
+@SuppressWarnings("WeakerAccess")
+public class ReplayCameraName extends CameraNameImplBase
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final File    directory;
+    protected final boolean loop;
+
+    @Override public String toString()
+        {
+        return "ReplayCamera(" + directory.getPath() + ")";
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Construction (all internal)
+    //----------------------------------------------------------------------------------------------
+
+    private ReplayCameraName(@NonNull File directory, boolean loop)
+        {
+        this.directory = directory.getAbsoluteFile();
+        this.loop = loop;
+        }
+
+    public static CameraName forDirectory(@NonNull File directory, boolean loop)
+        {
+        return new ReplayCameraName(directory, loop);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public File getDirectory()
+        {
+        return directory;
+        }
+
+    /** Whether playback starts over from the first image after the last rather than ending */
+    public boolean isLooping()
+        {
+        return loop;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Equality
+    //----------------------------------------------------------------------------------------------
+
+    @Override public boolean equals(Object o)
+        {
+        if (o instanceof ReplayCameraName)
+            {
+            ReplayCameraName them = (ReplayCameraName)o;
+            return directory.equals(them.directory) && loop==them.loop;
+            }
+        return super.equals(o);
+        }
+
+    @Override public int hashCode()
+        {
+        return directory.hashCode() ^ (loop ? 1 : 0) ^ ReplayCameraName.class.hashCode();
+        }
+    }
@@ -0,0 +1,318 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.internal.camera.replay;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
+
+import org.firstinspires.ftc.robotcore.external.android.util.Size;
+import org.firstinspires.ftc.robotcore.external.function.Continuation;
+import org.firstinspires.ftc.robotcore.external.function.ContinuationResult;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.Camera;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureRequest;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSequenceId;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSession;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraException;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFramePool;
+import org.firstinspires.ftc.robotcore.internal.camera.ByteBufferFramePool;
+import org.firstinspires.ftc.robotcore.internal.camera.CameraCaptureSequenceIdImpl;
+import org.firstinspires.ftc.robotcore.internal.camera.PooledCameraFrame;
+import org.firstinspires.ftc.robotcore.internal.camera.libuvc.constants.UvcFrameFormat;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link ReplayCaptureSession} is the {@link CameraCaptureSession} of a {@link ReplayCamera}.
+ * A capture runs on a worker thread of its own which renders each image of the replay directory
+ * into a pooled frame and delivers it, pacing itself to the frame duration of the capture request.
+ * If a frame is delivered late, the schedule is reset rather than bursting to catch up, as a real
+ * camera would drop frames rather than queue them.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ReplayCaptureSession implements CameraCaptureSession
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "ReplayCaptureSession";
+
+    protected final Object                                                    lock = new Object();
+    protected final ReplayCamera                                              camera;
+    protected final Continuation<? extends CameraCaptureSession.StateCallback> stateContinuation;
+    protected final ByteBufferFramePool                                       framePool = new ByteBufferFramePool();
+    protected boolean                                                         closed = false;
+    protected int                                                             nextSequenceId = 0;
+    protected @Nullable Capture                                               capture = null;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public ReplayCaptureSession(@NonNull ReplayCamera camera, @NonNull Continuation<? extends CameraCaptureSession.StateCallback> stateContinuation)
+        {
+        this.camera = camera;
+        this.stateContinuation = stateContinuation;
+        }
+
+    void reportConfigured()
+        {
+        stateContinuation.dispatch(new ContinuationResult<CameraCaptureSession.StateCallback>()
+            {
+            @Override public void handle(CameraCaptureSession.StateCallback callback)
+                {
+                callback.onConfigured(ReplayCaptureSession.this);
+                }
+            });
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // CameraCaptureSession
+    //----------------------------------------------------------------------------------------------
+
+    @NonNull @Override public Camera getCamera()
+        {
+        return camera;
+        }
+
+    @NonNull @Override public CameraFramePool getFramePool()
+        {
+        return framePool;
+        }
+
+    @Override public CameraCaptureSequenceId startCapture(@NonNull CameraCaptureRequest cameraCaptureRequest, @NonNull CaptureCallback captureCallback, @NonNull Continuation<? extends StatusCallback> statusContinuation) throws CameraException
+        {
+        return startCapture(cameraCaptureRequest, Continuation.createTrivial(captureCallback), statusContinuation);
+        }
+
+    @Override public CameraCaptureSequenceId startCapture(@NonNull CameraCaptureRequest cameraCaptureRequest, @NonNull Continuation<? extends CaptureCallback> captureContinuation, @NonNull Continuation<? extends StatusCallback> statusContinuation) throws CameraException
+        {
+        // Load (and validate) the replay before we disturb any capture that's already running
+        ReplayFrameSequence frames = new ReplayFrameSequence(camera.cameraName.getDirectory(), cameraCaptureRequest.getSize());
+
+        // Stopping waits for the worker thread, so never do so while holding the lock
+        stopCapture();
+        CameraCaptureSequenceId id;
+        Capture superseded;
+        synchronized (lock)
+            {
+            if (closed)
+                {
+                throw new IllegalStateException("ReplayCaptureSession is closed");
+                }
+            superseded = capture; // started by a concurrent startCapture() since we stopped
+            id = new CameraCaptureSequenceIdImpl(null, nextSequenceId++, CameraCaptureSequenceIdImpl.class);
+            capture = new Capture(cameraCaptureRequest, id, frames, captureContinuation, statusContinuation);
+            capture.start();
+            }
+        if (superseded != null)
+            {
+            superseded.stop();
+            }
+        return id;
+        }
+
+    @Override public void stopCapture()
+        {
+        Capture toStop;
+        synchronized (lock)
+            {
+            toStop = capture;
+            capture = null;
+            }
+        if (toStop != null)
+            {
+            toStop.stop();
+            }
+        }
+
+    @Override public void close()
+        {
+        synchronized (lock)
+            {
+            if (closed)
+                {
+                return;
+                }
+            closed = true;
+            }
+        stopCapture();
+        camera.onSessionClosed(this);
+        stateContinuation.dispatch(new ContinuationResult<CameraCaptureSession.StateCallback>()
+            {
+            @Override public void handle(CameraCaptureSession.StateCallback callback)
+                {
+                callback.onClosed(ReplayCaptureSession.this);
+                }
+            });
+        framePool.close();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Capturing
+    //----------------------------------------------------------------------------------------------
+
+    protected class Capture implements Runnable
+        {
+        protected final CameraCaptureRequest                    request;
+        protected final CameraCaptureSequenceId                 id;
+        protected final ReplayFrameSequence                     frames;
+        protected final Continuation<? extends CaptureCallback> captureContinuation;
+        protected final Continuation<? extends StatusCallback>  statusContinuation;
+        protected final ExecutorService                         executor = ThreadPool.newSingleThreadExecutor("ReplayCamera");
+        protected volatile boolean                              stopRequested = false;
+        protected volatile Thread                               thread = null;
+        protected volatile long                                 lastFrameNumber = -1;
+        protected final AtomicBoolean                           completed = new AtomicBoolean(false);
+
+        protected Capture(CameraCaptureRequest request, CameraCaptureSequenceId id, ReplayFrameSequence frames, Continuation<? extends CaptureCallback> captureContinuation, Continuation<? extends StatusCallback> statusContinuation)
+            {
+            this.request = request;
+            this.id = id;
+            this.frames = frames;
+            this.captureContinuation = captureContinuation;
+            this.statusContinuation = statusContinuation;
+            }
+
+        protected void start()
+            {
+            executor.execute(this);
+            }
+
+        protected void stop()
+            {
+            stopRequested = true;
+            executor.shutdownNow();
+            if (Thread.currentThread() != thread) // stopping from within onNewFrame mustn't wait on itself
+                {
+                try {
+                    ThreadPool.awaitTermination(executor, 1, TimeUnit.SECONDS, TAG);
+                    }
+                catch (InterruptedException e)
+                    {
+                    Thread.currentThread().interrupt();
+                    }
+                }
+            reportCompleted();
+            }
+
+        protected void reportCompleted()
+            {
+            if (completed.getAndSet(true)) return;
+            statusContinuation.dispatch(new ContinuationResult<StatusCallback>()
+                {
+                @Override public void handle(StatusCallback statusCallback)
+                    {
+                    statusCallback.onCaptureSequenceCompleted(ReplayCaptureSession.this, id, lastFrameNumber);
+                    }
+                });
+            }
+
+        @Override public void run()
+            {
+            thread = Thread.currentThread();
+            final Size size = request.getSize();
+            final int stride = frames.getStride();
+            final int cbFrame = stride * size.getHeight();
+            final long nsFrameDuration = request.getNsFrameDuration();
+            final boolean loop = camera.cameraName.isLooping();
+
+            RobotLog.vv(TAG, "replaying %d frames from %s at %s", frames.getFrameCount(), camera.cameraName, size);
+            long frameNumber = 0;
+            int index = 0;
+            long nsDeadline = System.nanoTime();
+            try {
+                while (!stopRequested && !Thread.currentThread().isInterrupted())
+                    {
+                    if (index == frames.getFrameCount())
+                        {
+                        if (!loop) break;
+                        index = 0;
+                        }
+
+                    final PooledCameraFrame frame = framePool.newFrame(request, id, frameNumber, System.nanoTime(), UvcFrameFormat.YUY2, stride, cbFrame);
+                    try {
+                        frames.render(index, frame.getWritableImageByteBuffer());
+                        }
+                    catch (IOException e)
+                        {
+                        frame.releaseRef();
+                        RobotLog.ee(TAG, e, "unable to replay frame %d of %s", index, camera.cameraName);
+                        break;
+                        }
+                    lastFrameNumber = frameNumber;
+                    ContinuationResult<CaptureCallback> callOnNewFrame = new ContinuationResult<CaptureCallback>()
+                        {
+                        @Override public void handle(CaptureCallback captureCallback)
+                            {
+                            captureCallback.onNewFrame(ReplayCaptureSession.this, request, frame);
+                            frame.releaseRef();
+                            }
+                        };
+                    // The frame is ours alone, so no copy is needed whichever thread it's delivered on
+                    if (captureContinuation.isDispatchSynchronous() || captureContinuation.canBorrowThread(Thread.currentThread()))
+                        {
+                        captureContinuation.dispatchHere(callOnNewFrame);
+                        }
+                    else
+                        {
+                        captureContinuation.dispatch(callOnNewFrame);
+                        }
+                    frameNumber++;
+                    index++;
+
+                    nsDeadline += nsFrameDuration;
+                    long nsNow = System.nanoTime();
+                    if (nsDeadline <= nsNow)
+                        {
+                        nsDeadline = nsNow; // we've fallen behind: resynchronize rather than burst
+                        }
+                    else
+                        {
+                        TimeUnit.NANOSECONDS.sleep(nsDeadline - nsNow);
+                        }
+                    }
+                }
+            catch (InterruptedException e)
+                {
+                Thread.currentThread().interrupt();
+                }
+            RobotLog.vv(TAG, "replay of %s ended after %d frames", camera.cameraName, frameNumber);
+            reportCompleted();
+            }
+        }
+    }
@@ -0,0 +1,232 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.internal.camera.replay;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+
+import org.firstinspires.ftc.robotcore.external.android.util.Size;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.Camera;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraException;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * {@link ReplayFrameSequence} is the ordered set of images in a directory, each rendered as a
+ * YUY2 frame of a given size. Files are taken in name order. Files named *.yuy2, *.yuv or *.raw
+ * must hold exactly one YUY2 frame of that size; any other file is decoded as an image (PNG,
+ * JPEG, etc) and scaled to that size.
+ *
+ * <p>Rendered frames are retained, up to a memory budget, so that playback measures the
+ * pipeline being fed rather than file I/O and image decoding.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class ReplayFrameSequence
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private static volatile int maxCachedBytes = 64 * 1024 * 1024;
+
+    protected final File[]   files;
+    protected final Size     size;
+    protected final int      cbFrame;
+    protected final byte[][] cache;
+    protected int            cbCached = 0;
+
+    /** Returns the memory budget, in bytes, for the rendered frames retained by each sequence */
+    public static int getMaxCachedBytes()
+        {
+        return maxCachedBytes;
+        }
+
+    /** Sets the memory budget for the rendered frames retained by each sequence. Zero disables retention. */
+    public static void setMaxCachedBytes(int cb)
+        {
+        maxCachedBytes = Math.max(0, cb);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public ReplayFrameSequence(@NonNull File directory, @NonNull Size size) throws CameraException
+        {
+        File[] files = directory.listFiles(new FileFilter()
+            {
+            @Override public boolean accept(File file)
+                {
+                return file.isFile() && !file.isHidden();
+                }
+            });
+        if (files == null || files.length == 0)
+            {
+            throw new CameraException(Camera.Error.OtherError, "no images found in %s", directory);
+            }
+        Arrays.sort(files);
+        this.files = files;
+        this.size = size;
+        this.cbFrame = size.getWidth() * size.getHeight() * 2;
+        this.cache = new byte[files.length][];
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public int getFrameCount()
+        {
+        return files.length;
+        }
+
+    /** The number of bytes in each YUY2 frame */
+    public int getFrameSize()
+        {
+        return cbFrame;
+        }
+
+    /** The number of bytes of pixel data in each row of each frame */
+    public int getStride()
+        {
+        return size.getWidth() * 2;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Writes the YUY2 data of the indicated frame into the buffer at its position, which it advances.
+     */
+    public void render(int index, ByteBuffer buffer) throws IOException
+        {
+        byte[] data = cache[index];
+        if (data == null)
+            {
+            data = load(files[index]);
+            if (cbCached + data.length <= maxCachedBytes)
+                {
+                cache[index] = data;
+                cbCached += data.length;
+                }
+            }
+        buffer.put(data, 0, cbFrame);
+        }
+
+    protected byte[] load(File file) throws IOException
+        {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".yuy2") || name.endsWith(".yuv") || name.endsWith(".raw"))
+            {
+            if (file.length() != cbFrame)
+                {
+                throw new IOException(String.format(Locale.ROOT, "%s: expected %d bytes of YUY2 for %s; found %d", file, cbFrame, size, file.length()));
+                }
+            byte[] data = new byte[cbFrame];
+            try (InputStream inputStream = new FileInputStream(file))
+                {
+                int cbRead = 0;
+                while (cbRead < cbFrame)
+                    {
+                    int cb = inputStream.read(data, cbRead, cbFrame - cbRead);
+                    if (cb < 0) throw new IOException("unexpected end of file: " + file);
+                    cbRead += cb;
+                    }
+                }
+            return data;
+            }
+
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath());
+        if (bitmap == null)
+            {
+            throw new IOException("unable to decode image: " + file);
+            }
+        if (bitmap.getWidth() != size.getWidth() || bitmap.getHeight() != size.getHeight())
+            {
+            Bitmap scaled = Bitmap.createScaledBitmap(bitmap, size.getWidth(), size.getHeight(), true);
+            bitmap.recycle();
+            bitmap = scaled;
+            }
+        byte[] data = argbToYuy2(bitmap);
+        bitmap.recycle();
+        return data;
+        }
+
+    /** Converts using the BT.601 coefficients, as the YUY2 decoders hereabouts assume */
+    protected byte[] argbToYuy2(Bitmap bitmap)
+        {
+        int width = size.getWidth();
+        int height = size.getHeight();
+        int[] row = new int[width];
+        byte[] data = new byte[cbFrame];
+        int ib = 0;
+        for (int y = 0; y < height; y++)
+            {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = 0; x + 1 < width; x += 2)
+                {
+                int p0 = row[x], p1 = row[x+1];
+                int r0 = (p0 >> 16) & 0xFF, g0 = (p0 >> 8) & 0xFF, b0 = p0 & 0xFF;
+                int r1 = (p1 >> 16) & 0xFF, g1 = (p1 >> 8) & 0xFF, b1 = p1 & 0xFF;
+                int r = (r0 + r1) >> 1, g = (g0 + g1) >> 1, b = (b0 + b1) >> 1;
+                data[ib++] = (byte)clip((( 66*r0 + 129*g0 +  25*b0 + 128) >> 8) + 16);
+                data[ib++] = (byte)clip(((-38*r  -  74*g  + 112*b  + 128) >> 8) + 128);
+                data[ib++] = (byte)clip((( 66*r1 + 129*g1 +  25*b1 + 128) >> 8) + 16);
+                data[ib++] = (byte)clip(((112*r  -  94*g  -  18*b  + 128) >> 8) + 128);
+                }
+            if ((width & 1) != 0)
+                {
+                // An odd final pixel: pair it with itself
+                int p = row[width-1];
+                int r = (p >> 16) & 0xFF, g = (p >> 8) & 0xFF, b = p & 0xFF;
+                int luma = clip(((66*r + 129*g + 25*b + 128) >> 8) + 16);
+                data[ib++] = (byte)luma;
+                data[ib++] = (byte)clip(((-38*r - 74*g + 112*b + 128) >> 8) + 128);
+                }
+            }
+        return data;
+        }
+
+    protected static int clip(int value)
+        {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+        }
+    }
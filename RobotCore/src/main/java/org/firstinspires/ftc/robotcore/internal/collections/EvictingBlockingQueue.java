@@ -63,6 +63,7 @@ public class EvictingBlockingQueue<E> extends AbstractQueue<E> implements Blocki
     protected final Object     theLock = new Object();
     protected BlockingQueue<E> targetQueue;
     protected Consumer<E>      evictAction = null;
+    protected int              sizeLimit = Integer.MAX_VALUE;
 
     //----------------------------------------------------------------------------------------------
     // Construction
@@ -86,6 +87,40 @@ public class EvictingBlockingQueue<E> extends AbstractQueue<E> implements Blocki
             }
         }
 
+    /**
+     * Limits the number of elements retained to fewer than the target queue could hold. Elements
+     * beyond the new limit are evicted immediately. The limit is always at least one.
+     */
+    public void setSizeLimit(int sizeLimit)
+        {
+        synchronized (theLock)
+            {
+            this.sizeLimit = Math.max(1, sizeLimit);
+            while (targetQueue.size() > this.sizeLimit)
+                {
+                evict();
+                }
+            }
+        }
+
+    public int getSizeLimit()
+        {
+        synchronized (theLock)
+            {
+            return sizeLimit;
+            }
+        }
+
+    protected void evict()
+        {
+        E evicted = targetQueue.poll();
+        Assert.assertNotNull(evicted);
+        if (evictAction != null)
+            {
+            evictAction.accept(evicted);
+            }
+        }
+
     //----------------------------------------------------------------------------------------------
     // AbstractCollection
     //----------------------------------------------------------------------------------------------
@@ -108,14 +143,9 @@ public class EvictingBlockingQueue<E> extends AbstractQueue<E> implements Blocki
         {
         synchronized (theLock)
             {
-            if (targetQueue.remainingCapacity() == 0)
+            while (targetQueue.remainingCapacity() == 0 || targetQueue.size() >= sizeLimit)
                 {
-                E evicted = targetQueue.poll();
-                Assert.assertNotNull(evicted);
-                if (evictAction != null)
-                    {
-                    evictAction.accept(evicted);
-                    }
+                evict();
                 }
             boolean result = targetQueue.offer(e);
             Assert.assertTrue(result);
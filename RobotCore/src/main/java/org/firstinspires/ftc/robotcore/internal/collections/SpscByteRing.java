@@ -0,0 +1,223 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.collections;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link SpscByteRing} is a fixed-capacity, lock-free ring of bytes for exactly one producer
+ * thread and one consumer thread. Alongside each byte it records the time at which the byte
+ * arrived and whether it began a packet, which lets a USB reader recover packet alignment and
+ * report timing without the companion queues that {@link CircularByteBuffer} would require.
+ * <p>
+ * Producer methods ({@link #write}, {@link #remainingCapacity}) must only be called on the
+ * producer thread; consumer methods ({@link #read}, {@link #skip}, {@link #applyRequestedClear},
+ * and the peeking accessors) only on the consumer thread. {@link #size} and {@link #requestClear}
+ * may be called on any thread.
+ * <p>
+ * Since only the consumer may move the tail, a clear requested from elsewhere is recorded as a
+ * mark (the head at the time of the request) which the consumer later adopts as its tail in
+ * {@link #applyRequestedClear}. Until then the purged bytes still occupy space as far as the
+ * producer is concerned, as the consumer may yet be in the middle of copying them out.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SpscByteRing
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final byte[]     data;
+    protected final long[]     timestamps;
+    protected final boolean[]  packetStarts;
+    protected final int        mask;
+
+    protected final AtomicLong head = new AtomicLong(0);   // next index to write; owned by producer
+    protected final AtomicLong tail = new AtomicLong(0);   // next index to read; owned by consumer
+    protected final AtomicLong clearMark = new AtomicLong(0); // tail requested by requestClear(); written by any thread
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    /** The capacity is rounded up to a power of two */
+    public SpscByteRing(int capacity)
+        {
+        int allocation = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.data         = new byte[allocation];
+        this.timestamps   = new long[allocation];
+        this.packetStarts = new boolean[allocation];
+        this.mask         = allocation - 1;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public int capacity()
+        {
+        return data.length;
+        }
+
+    /** The number of bytes neither read nor purged. The mark is read first so that it can't
+     * overtake the head we read after it. */
+    public int size()
+        {
+        long mark = clearMark.get();
+        long index = Math.max(tail.get(), mark);
+        return (int)(head.get() - index);
+        }
+
+    public boolean isEmpty()
+        {
+        return size() == 0;
+        }
+
+    /** Producer only. Purged bytes count as occupied until the consumer has applied the purge. */
+    public int remainingCapacity()
+        {
+        return capacity() - (int)(head.get() - tail.get());
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Producing
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Appends the remaining contents of the buffer, all stamped with the indicated time, the
+     * first of them marked as starting a packet. The caller must first have checked that there
+     * is room; the buffer's position is advanced past the bytes written. Producer only.
+     */
+    public void write(ByteBuffer buffer, long nsTimestamp)
+        {
+        int cb = buffer.remaining();
+        if (cb > remainingCapacity()) throw new IllegalStateException("write(): insufficient capacity");
+
+        long index = head.get();
+        for (int ib = 0; ib < cb; ib++)
+            {
+            int i = (int)(index + ib) & mask;
+            data[i]         = buffer.get();
+            timestamps[i]   = nsTimestamp;
+            packetStarts[i] = ib == 0;
+            }
+
+        // Publish: the ordered store makes the element writes above visible to the consumer
+        // before it can observe the advanced head
+        head.lazySet(index + cb);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Consuming
+    //----------------------------------------------------------------------------------------------
+
+    /** Returns the arrival time of the byte at the indicated offset from the front. Consumer only. */
+    public long peekTimestamp(int offset)
+        {
+        return timestamps[(int)(tail.get() + offset) & mask];
+        }
+
+    /** Answers whether the front byte began a packet. Consumer only. */
+    public boolean isAtPacketStart()
+        {
+        return packetStarts[(int)tail.get() & mask];
+        }
+
+    /** Copies out and removes cb bytes, which the caller must know to be present. Consumer only. */
+    public int read(byte[] dst, int ibFirst, int cb)
+        {
+        long index = tail.get();
+        int first = (int)index & mask;
+        int cbFirst = Math.min(cb, data.length - first);
+        System.arraycopy(data, first, dst, ibFirst, cbFirst);
+        System.arraycopy(data, 0, dst, ibFirst + cbFirst, cb - cbFirst);
+        tail.lazySet(index + cb);
+        return cb;
+        }
+
+    /** Discards up to cb bytes from the front, returning the number discarded. Consumer only. */
+    public int skip(int cb)
+        {
+        cb = Math.min(cb, size());
+        tail.lazySet(tail.get() + cb);
+        return cb;
+        }
+
+    /** Discards bytes up to (but not including) the next packet start, or everything if there
+     * is none. Nothing is discarded if the front byte itself starts a packet. Consumer only. */
+    public int skipToNextPacketStartOrEnd()
+        {
+        int size = size();
+        long index = tail.get();
+        int cb = 0;
+        while (cb < size && !packetStarts[(int)(index + cb) & mask])
+            {
+            cb++;
+            }
+        return skip(cb);
+        }
+
+    /**
+     * Discards the bytes requested by {@link #requestClear}, if that hasn't already been done.
+     * Consumers should call this before deciding what to read. Consumer only.
+     */
+    public void applyRequestedClear()
+        {
+        long mark = clearMark.get();
+        if (mark > tail.get())
+            {
+            tail.lazySet(mark);
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Clearing
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Asks that everything presently in the ring be discarded. The bytes disappear from
+     * {@link #size} at once, but are actually released only when the consumer next calls
+     * {@link #applyRequestedClear}. May be called on any thread.
+     */
+    public void requestClear()
+        {
+        long mark = head.get();
+        for (;;)
+            {
+            // Don't let a racing, earlier request move the mark backwards
+            long current = clearMark.get();
+            if (current >= mark || clearMark.compareAndSet(current, mark))
+                {
+                return;
+                }
+            }
+        }
+    }
@@ -0,0 +1,187 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.ftdi;
+
+import android.hardware.usb.UsbEndpoint;
+import android.hardware.usb.UsbRequest;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.usb.exception.RobotUsbException;
+import org.firstinspires.ftc.robotcore.internal.usb.exception.RobotUsbUnspecifiedException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link BulkPacketInWorker} that keeps several asynchronous bulk-in requests queued at the
+ * host controller at once, so that the device is always being polled even while we're busy
+ * handling a just-completed packet. Completed packets are cracked open right here, on this
+ * thread, directly into the read ring of the {@link ReadBufferManager}: there's no hand-off to
+ * a {@link ReadBufferWorker} and no monitor between the USB and the reader.
+ *
+ * @see FtDeviceManagerParams#setAsyncReadRequestCount(int)
+ */
+@SuppressWarnings("WeakerAccess")
+public class AsyncBulkPacketInWorker extends BulkPacketInWorker
+    {
+    public static final String TAG = "AsyncBulkPacketInWorker";
+
+    final int              requestCount;
+    final List<UsbRequest> requests = new ArrayList<UsbRequest>();
+    volatile boolean       stopping = false;
+
+    AsyncBulkPacketInWorker(FtDevice ftDevice, ReadBufferManager readBufferManager, MonitoredUsbDeviceConnection usbDeviceConnection, UsbEndpoint endpoint)
+        {
+        super(ftDevice, readBufferManager, usbDeviceConnection, endpoint);
+        this.requestCount = ftDevice.getDriverParameters().getAsyncReadRequestCount();
+        }
+
+    @Override public void requestStop()
+        {
+        synchronized (requests)
+            {
+            // A cancelled request can complete before our thread sees its interrupt; set this
+            // first so that it isn't queued again (see queue()).
+            stopping = true;
+            for (UsbRequest request : requests)
+                {
+                request.cancel();   // completes any requestWait() that's waiting on it
+                }
+            }
+        }
+
+    @Override public void run()
+        {
+        try
+            {
+            int cbPacket = ftDevice.getEndpointMaxPacketSize();
+            for (int i = 0; i < requestCount; i++)
+                {
+                UsbRequest request = usbDeviceConnection.newRequest(endpoint);
+                if (request == null)
+                    {
+                    throw new RobotUsbUnspecifiedException("%s: unable to initialize bulk-in request", ftDevice.getSerialNumber());
+                    }
+                request.setClientData(ByteBuffer.allocateDirect(cbPacket));
+                synchronized (requests)
+                    {
+                    requests.add(request);
+                    }
+                queue(request);
+                }
+
+            while (!stopping && !Thread.interrupted())
+                {
+                UsbRequest request;
+                try {
+                    request = usbDeviceConnection.requestWait(msReadTimeout);
+                    }
+                catch (TimeoutException e)
+                    {
+                    errorReporter.reset();
+                    continue;   // the requests remain queued
+                    }
+
+                if (request == null)
+                    {
+                    // The connection has failed or is being closed: nothing more is coming
+                    errorReporter.ee(-1, TAG, "%s: requestWait() error", ftDevice.getSerialNumber());
+                    break;
+                    }
+
+                long nsArrival = System.nanoTime();
+                ByteBuffer buffer = (ByteBuffer) request.getClientData();
+                buffer.flip();  // position is the count of bytes received
+                int cbRead = buffer.remaining();
+                if (cbRead > 0)
+                    {
+                    readBufferManager.processBulkInData(buffer, nsArrival);
+                    if (cbRead <= MODEM_STATUS_SIZE)
+                        {
+                        noteTrivialInput();
+                        }
+                    }
+
+                if (stopping || Thread.currentThread().isInterrupted())
+                    {
+                    break;
+                    }
+                queue(request);
+                }
+
+            throw new InterruptedException();
+            }
+        catch (InterruptedException interrupt)
+            {
+            // Unlike our superclass, we don't purge here: only the reader may touch the front of the ring
+            Thread.currentThread().interrupt();
+            }
+        catch (RuntimeException|RobotUsbException e)
+            {
+            RobotLog.ee(TAG, e, "unexpected exception");
+            }
+        finally
+            {
+            synchronized (requests)
+                {
+                for (UsbRequest request : requests)
+                    {
+                    request.cancel();
+                    request.close();
+                    }
+                requests.clear();
+                }
+            }
+        }
+
+    protected void queue(UsbRequest request) throws RobotUsbException, InterruptedException
+        {
+        synchronized (requests)
+            {
+            // Checked under the same lock that requestStop() holds while it cancels, so no request
+            // can be queued after they've all been cancelled, leaving requestWait() with nothing to
+            // return (pre-O, it doesn't time out).
+            if (stopping)
+                {
+                throw new InterruptedException();
+                }
+            ByteBuffer buffer = (ByteBuffer) request.getClientData();
+            buffer.clear();
+            //noinspection deprecation: the replacement queue(ByteBuffer) requires O
+            if (!request.queue(buffer, buffer.capacity()))
+                {
+                throw new RobotUsbUnspecifiedException("%s: unable to queue bulk-in request", ftDevice.getSerialNumber());
+                }
+            }
+        }
+    }
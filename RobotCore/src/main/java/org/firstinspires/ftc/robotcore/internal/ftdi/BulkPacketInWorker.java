@@ -95,6 +95,11 @@ public class BulkPacketInWorker extends FtConstants implements Runnable
             }
         }
 
+    /** Called before our thread is interrupted so that we can unblock ourselves if needed */
+    public void requestStop()
+        {
+        }
+
     public void run()
         {
         try
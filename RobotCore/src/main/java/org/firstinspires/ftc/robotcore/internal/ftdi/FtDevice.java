@@ -508,16 +508,26 @@ public class FtDevice extends FtConstants
                             RobotLog.vv(TAG, "vv********************%s opening********************vv 0x%08x", getSerialNumber(), hashCode());
 
                             this.mReadBufferManager = new ReadBufferManager(this, mDebugRetainBuffers);
-                            this.mBulkPacketInWorker = new BulkPacketInWorker(this, this.mReadBufferManager, this.getConnection(), this.mBulkInEndpoint);
+                            if (this.mReadBufferManager.isAsyncRead())
+                                {
+                                // Packets go straight from the USB completions into the read ring
+                                this.mBulkPacketInWorker = new AsyncBulkPacketInWorker(this, this.mReadBufferManager, this.getConnection(), this.mBulkInEndpoint);
+                                }
+                            else
+                                {
+                                this.mBulkPacketInWorker = new BulkPacketInWorker(this, this.mReadBufferManager, this.getConnection(), this.mBulkInEndpoint);
+                                this.mReadBufferManagerThread = new ThreadHelper(new ReadBufferWorker(this.mReadBufferManager), Thread.currentThread().getPriority());
+                                this.mReadBufferManagerThread.setName("readBufferManager");
+                                }
                             this.mBulkPacketInThread = new ThreadHelper(this.mBulkPacketInWorker, Thread.currentThread().getPriority()+1);  // note: higher priority
                             this.mBulkPacketInThread.setName("bulkPacketInWorker");
-
-                            this.mReadBufferManagerThread = new ThreadHelper(new ReadBufferWorker(this.mReadBufferManager), Thread.currentThread().getPriority());
-                            this.mReadBufferManagerThread.setName("readBufferManager");
                             this.purgeRxTx(true, true);
 
                             this.mBulkPacketInThread.start();
-                            this.mReadBufferManagerThread.start();
+                            if (this.mReadBufferManagerThread != null)
+                                {
+                                this.mReadBufferManagerThread.start();
+                                }
 
                             this.setOpen();
                             RobotLog.vv(TAG, "^^********************%s opened ********************^^", getSerialNumber());
@@ -606,6 +616,7 @@ public class FtDevice extends FtConstants
 
             if (this.mBulkPacketInThread != null)
                 {
+                if (this.mBulkPacketInWorker != null) this.mBulkPacketInWorker.requestStop();
                 this.mBulkPacketInThread.stop();    // TODO: can this possibly get wedged? See BulkPacketInWorker
                 this.mBulkPacketInThread = null;
                 }
@@ -43,11 +43,17 @@ public class FtDeviceManagerParams
     {
     public static final String TAG = "FtDeviceManagerParams";
 
+    /** Number of asynchronous bulk-in requests kept in flight by devices opened hereafter. Zero
+     * selects the synchronous, one-packet-at-a-time reader. Off by default: the Android USB
+     * request queueing this relies on has historically been suspect (see {@link FtDevice#write}). */
+    public static int defaultAsyncReadRequestCount = 0;
+
     private int cbReadBufferMax         = 16384;
     private int packetBufferCacheSize   = 16;
     private int msBulkInReadTimeout     = 5000;
     private int retainedBufferCapacity  = 5;    // pretty arbitrary
     private boolean debugRetainBuffers  = true; // could reconsider, but is cheap and usefl
+    private int asyncReadRequestCount   = defaultAsyncReadRequestCount;
 
     public FtDeviceManagerParams()
         {
@@ -102,4 +108,19 @@ public class FtDeviceManagerParams
         {
         this.debugRetainBuffers = debugRetainBuffers;
         }
+    
+    public int getAsyncReadRequestCount()
+        {
+        return asyncReadRequestCount;
+        }
+
+    public void setAsyncReadRequestCount(int asyncReadRequestCount)
+        {
+        this.asyncReadRequestCount = asyncReadRequestCount;
+        }
+
+    public boolean isAsyncRead()
+        {
+        return asyncReadRequestCount > 0;
+        }
     }
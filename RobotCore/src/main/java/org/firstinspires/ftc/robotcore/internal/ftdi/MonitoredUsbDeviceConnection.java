@@ -36,7 +36,10 @@ import android.hardware.usb.UsbConstants;
 import android.hardware.usb.UsbDeviceConnection;
 import android.hardware.usb.UsbEndpoint;
 import android.hardware.usb.UsbInterface;
+import android.hardware.usb.UsbRequest;
+import android.os.Build;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.ThreadPool;
@@ -53,6 +56,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * {@link MonitoredUsbDeviceConnection} is a delegator to UsbDeviceConnection that performs
@@ -221,6 +225,31 @@ public class MonitoredUsbDeviceConnection
         return delegate.getRawDescriptors();
         }
 
+    /** Returns a request for asynchronous transfers on the endpoint, or null on failure */
+    public @Nullable UsbRequest newRequest(UsbEndpoint endpoint)
+        {
+        UsbRequest request = new UsbRequest();
+        if (request.initialize(delegate, endpoint))
+            {
+            return request;
+            }
+        request.close();
+        return null;
+        }
+
+    /**
+     * Waits for some queued request to complete. Before O, there's no way to bound the wait, so
+     * callers must be prepared to {@link UsbRequest#cancel()} requests to get themselves unstuck.
+     */
+    public @Nullable UsbRequest requestWait(long msTimeout) throws TimeoutException
+        {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O)
+            {
+            return delegate.requestWait(msTimeout);
+            }
+        return delegate.requestWait();
+        }
+
     public int controlTransfer(int requestType, int request, int value, int index, byte[] buffer, int length, int timeout) throws RobotUsbException
         {
         return controlTransfer(requestType, request, value, index, buffer, 0, length, timeout);
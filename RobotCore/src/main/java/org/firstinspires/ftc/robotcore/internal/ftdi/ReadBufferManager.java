@@ -45,6 +45,7 @@ import org.firstinspires.ftc.robotcore.internal.collections.ArrayRunQueueLong;
 import org.firstinspires.ftc.robotcore.internal.collections.CircularByteBuffer;
 import org.firstinspires.ftc.robotcore.internal.collections.EvictingBlockingQueue;
 import org.firstinspires.ftc.robotcore.internal.collections.MarkedItemQueue;
+import org.firstinspires.ftc.robotcore.internal.collections.SpscByteRing;
 import org.firstinspires.ftc.robotcore.internal.hardware.TimeWindow;
 import org.firstinspires.ftc.robotcore.internal.system.Assert;
 import org.firstinspires.ftc.robotcore.internal.system.Deadline;
@@ -54,9 +55,15 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Manager of bulk data received from USB
+ * Manager of bulk data received from USB.
+ *
+ * In the classic arrangement, a {@link BulkPacketInWorker} hands packets to a {@link ReadBufferWorker},
+ * which copies them into a monitor-guarded {@link CircularByteBuffer} that readers drain. When the
+ * device is configured for asynchronous reads, an {@link AsyncBulkPacketInWorker} instead writes
+ * packet contents straight into a lock-free {@link SpscByteRing} from which the (single) reader reads.
  */
 @SuppressWarnings("WeakerAccess")
 public class ReadBufferManager extends FtConstants
@@ -80,6 +87,8 @@ public class ReadBufferManager extends FtConstants
     private final    CircularByteBuffer                  mCircularBuffer;
     private final    MarkedItemQueue                     mMarkedItemQueue;
     private final    ArrayRunQueueLong                   mTimestamps;
+    private final    SpscByteRing                        mRing;                 // non-null iff async reads
+    private final    long                                nsProducerBackoff = 100 * 1000;
     private          boolean                             mReadBulkInDataInterruptRequested;
     private volatile Thread                              mReadBulkInDataThread;
     private volatile boolean                             mProcessBulkInDataCallInFlight;
@@ -100,6 +109,7 @@ public class ReadBufferManager extends FtConstants
         this.mCircularBuffer            = new CircularByteBuffer(this.mEndpointMaxPacketSize * 5 /* a guess */, this.mParams.getMaxReadBufferSize());
         this.mMarkedItemQueue           = new MarkedItemQueue();
         this.mTimestamps                = new ArrayRunQueueLong();
+        this.mRing                      = this.mParams.isAsyncRead() ? new SpscByteRing(this.mParams.getMaxReadBufferSize()) : null;
         this.mAvailableInBuffersCapacity  = this.mParams.getPacketBufferCacheSize();
         this.mAvailableOutBuffersCapacity = Math.min(this.mAvailableInBuffersCapacity,mParams.getRetainedBufferCapacity());
         this.mAvailableInBuffers        = new ArrayList<BulkPacketBufferIn>();
@@ -118,8 +128,17 @@ public class ReadBufferManager extends FtConstants
     // Accessing
     //----------------------------------------------------------------------------------------------
 
+    public boolean isAsyncRead()
+        {
+        return mRing != null;
+        }
+
     public boolean isReadBufferFull()
         {
+        if (mRing != null)
+            {
+            return mRing.size() == mRing.capacity();
+            }
         synchronized (mCircularBuffer)
             {
             return mCircularBuffer.remainingCapacity() == 0;
@@ -128,6 +147,10 @@ public class ReadBufferManager extends FtConstants
 
     public int getReadBufferSize()
         {
+        if (mRing != null)
+            {
+            return mRing.size();
+            }
         synchronized (mCircularBuffer)
             {
             return mCircularBuffer.size();
@@ -392,6 +415,68 @@ public class ReadBufferManager extends FtConstants
             }
         }
 
+    /**
+     * Called on {@link AsyncBulkPacketInWorker} thread with the bytes of a just-completed
+     * bulk-in request (position through limit), which are extracted into the ring.
+     */
+    public void processBulkInData(ByteBuffer byteBuffer, long nsArrival) throws InterruptedException
+        {
+        final int cbBuffer = byteBuffer.remaining();
+        if (!isOpen() || cbBuffer < MODEM_STATUS_SIZE)
+            {
+            return;
+            }
+
+        // Back pressure: the reader doesn't signal us when it frees space, so poll politely
+        final int packetCount = (cbBuffer + mEndpointMaxPacketSize - 1) / mEndpointMaxPacketSize;
+        final int cbNeeded = cbBuffer - packetCount * MODEM_STATUS_SIZE;
+        while (mRing.remainingCapacity() < cbNeeded)
+            {
+            LockSupport.parkNanos(nsProducerBackoff);
+            if (Thread.interrupted()) throw new InterruptedException("interrupted in processBulkInData()");
+            if (!isOpen()) return;
+            }
+
+        final int ibBase = byteBuffer.position();
+        final int ibEnd  = byteBuffer.limit();
+        int cbExtracted = 0;
+        for (int iPacket = 0; iPacket < packetCount; ++iPacket)
+            {
+            int ibFirst = ibBase + iPacket * mEndpointMaxPacketSize;
+            int ibMax   = Math.min(ibFirst + mEndpointMaxPacketSize, ibEnd);
+            setBufferBounds(byteBuffer, ibFirst, ibMax);
+            if (iPacket == packetCount - 1)
+                {
+                // Last packet : use modem status at start of packet
+                noteModemStatus(byteBuffer.get(), byteBuffer.get());
+                }
+            else
+                {
+                byteBuffer.position(ibFirst + MODEM_STATUS_SIZE);
+                }
+            if (byteBuffer.hasRemaining())
+                {
+                cbExtracted += byteBuffer.remaining();
+                mRing.write(byteBuffer, nsArrival);
+                }
+            }
+
+        if (cbExtracted > 0)
+            {
+            Thread reader = mReadBulkInDataThread;
+            if (reader != null)
+                {
+                LockSupport.unpark(reader);
+                }
+            }
+        }
+
+    private void noteModemStatus(byte b0, byte b1)
+        {
+        this.mDevice.mDeviceInfo.modemStatus = (short) (b0 & 0xF0);
+        this.mDevice.mDeviceInfo.lineStatus = (short) (b1 & 0xFF);
+        }
+
     /** called on {@link ReadBufferWorker} thread */
     private void extractReadData(BulkPacketBufferIn packetBuffer) throws InterruptedException
         {
@@ -519,6 +604,10 @@ public class ReadBufferManager extends FtConstants
             {
             throw new InterruptedException("interrupted in readBulkInData()");
             }
+        else if (cbToRead > 0 && isOpen() && mRing != null)
+            {
+            return readBulkInDataAsync(data, ibFirst, cbToRead, msTimeout, timeWindow);
+            }
         else if (cbToRead > 0 && isOpen())
             {
             mReadBulkInDataThread = Thread.currentThread();
@@ -592,6 +681,48 @@ public class ReadBufferManager extends FtConstants
             }
         }
 
+    /** The lock-free counterpart of {@link #readBulkInData}: waits by parking, and is unparked by the producer */
+    protected int readBulkInDataAsync(final byte[] data, final int ibFirst, final int cbToRead, long msTimeout, @Nullable TimeWindow timeWindow) throws InterruptedException
+        {
+        // Publish ourselves *before* looking at the ring so that we can't miss an unpark
+        mReadBulkInDataThread = Thread.currentThread();
+        try {
+            final Deadline readDeadline = getReadDeadline(msTimeout);
+            while (isOpen())
+                {
+                mRing.applyRequestedClear();
+                if (mRing.size() >= cbToRead)
+                    {
+                    if (timeWindow != null)
+                        {
+                        timeWindow.setNanosecondsFirst(mRing.peekTimestamp(0));
+                        timeWindow.setNanosecondsLast(mRing.peekTimestamp(cbToRead - 1));
+                        }
+                    return mRing.read(data, ibFirst, cbToRead);
+                    }
+
+                if (readDeadline.hasExpired())
+                    {
+                    return 0;
+                    }
+
+                if (Thread.interrupted() || mReadBulkInDataInterruptRequested)
+                    {
+                    throw new InterruptedException("interrupted reading USB data");
+                    }
+
+                LockSupport.parkNanos(this, readDeadline.timeRemaining(TimeUnit.NANOSECONDS));
+                }
+
+            // The device was closed while we were waiting
+            return FtDevice.RC_DEVICE_CLOSED;
+            }
+        finally
+            {
+            mReadBulkInDataThread = null;
+            }
+        }
+
     /** We cache in member variable to as to avoid creating oodles of short-lived objects */
     protected Deadline getReadDeadline(long msTimeout)
         {
@@ -612,12 +743,23 @@ public class ReadBufferManager extends FtConstants
 
     public boolean mightBeAtUsbPacketStart()
         {
+        if (mRing != null)
+            {
+            mRing.applyRequestedClear();
+            return mRing.isEmpty() || mRing.isAtPacketStart();
+            }
         // If it's empty, then the next data will be the start of a packet, by definition
         return mMarkedItemQueue.isAtMarkedItem() || mMarkedItemQueue.isEmpty();
         }
 
     public void skipToLikelyUsbPacketStart()
         {
+        if (mRing != null)
+            {
+            mRing.applyRequestedClear();
+            mRing.skipToNextPacketStartOrEnd();
+            return;
+            }
         synchronized (mCircularBuffer)
             {
             int cbSkip = mMarkedItemQueue.removeUpToNextMarkedItemOrEnd();
@@ -637,6 +779,11 @@ public class ReadBufferManager extends FtConstants
 
     private void wakeReadBulkInData()
         {
+        Thread reader = mReadBulkInDataThread;
+        if (mRing != null && reader != null)
+            {
+            LockSupport.unpark(reader);
+            }
         synchronized (this.mCircularBuffer)
             {
             this.mCircularBuffer.notifyAll();
@@ -680,8 +827,14 @@ public class ReadBufferManager extends FtConstants
         return mProcessBulkInDataCallInFlight;
         }
 
+    /** In async mode, the purge is carried out by the reading thread the next time it looks at the ring */
     public void purgeInputData()
         {
+        if (mRing != null)
+            {
+            mRing.requestClear();
+            return;
+            }
         synchronized (mCircularBuffer)
             {
             synchronized (mReadableBuffers)
@@ -0,0 +1,170 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.internal.network;
+
+import androidx.annotation.NonNull;
+
+import com.qualcomm.robotcore.robocol.Command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Holds the commands that are waiting to be sent or acknowledged. Each command is filed in a timer
+ * wheel under the time at which it is next due, so that a send cycle only has to look at the
+ * commands that are due then, rather than at every outstanding command.
+ *
+ * Commands may be added and removed from any thread, but {@link #collectDue} and {@link #schedule}
+ * must only be called from the send loop.
+ */
+class CommandRetransmissionWheel {
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    /** the wheel must span more time than the longest delay that is ever scheduled */
+    protected static final int SLOT_COUNT = 32;
+
+    protected final long nsPerTick;
+    protected final long nanotimeBase = System.nanoTime();
+    protected final List<Entry>[] slots;
+    protected long lastTick; // the last tick whose slot has been collected
+
+    /** the outstanding commands, for removal on acknowledgement; a command is outstanding only while it maps to its current entry */
+    protected final ConcurrentHashMap<Command, Entry> outstanding = new ConcurrentHashMap<>();
+    /** commands added since the last send cycle; these are due immediately */
+    protected final ConcurrentLinkedQueue<Entry> added = new ConcurrentLinkedQueue<>();
+
+    protected static class Entry {
+        final Command command;
+        boolean scheduled; // filed in a slot since it was last collected; only touched by the send loop
+
+        Entry(Command command) {
+            this.command = command;
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    CommandRetransmissionWheel(long nsPerTick) {
+        this.nsPerTick = nsPerTick;
+        this.slots = new List[SLOT_COUNT];
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.lastTick = 0;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    void add(@NonNull Command command) {
+        Entry entry = new Entry(command);
+        outstanding.put(command, entry);
+        added.add(entry);
+    }
+
+    boolean remove(@NonNull Command command) {
+        return outstanding.remove(command) != null;
+    }
+
+    void clear() {
+        outstanding.clear();
+        added.clear();
+    }
+
+    int size() {
+        return outstanding.size();
+    }
+
+    /**
+     * Moves the commands that are due at the indicated time into due. Each must then either be
+     * passed to {@link #schedule} or to {@link #remove}.
+     */
+    void collectDue(long nanotimeNow, List<Command> due) {
+        Entry entry;
+        while ((entry = added.poll()) != null) {
+            if (isCurrent(entry)) due.add(entry.command);
+        }
+
+        long currentTick = tickOf(nanotimeNow);
+        // If we've fallen a whole revolution behind, every slot is due, but only once
+        long firstTick = Math.max(lastTick + 1, currentTick - SLOT_COUNT + 1);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            List<Entry> slot = slots[slotIndexOf(tick)];
+            for (Entry slotEntry : slot) {
+                slotEntry.scheduled = false;
+                if (isCurrent(slotEntry)) due.add(slotEntry.command);
+            }
+            slot.clear();
+        }
+        lastTick = Math.max(lastTick, currentTick);
+    }
+
+    /**
+     * Files a command that was returned by {@link #collectDue} under the time it is next due. If the
+     * command has been removed in the meantime, it is dropped; if it has already been scheduled
+     * since it was collected, it stays where it was.
+     */
+    void schedule(@NonNull Command command, long nanotimeDue) {
+        Entry entry = outstanding.get(command);
+        if (entry == null || entry.command != command || entry.scheduled) return;
+        entry.scheduled = true;
+
+        long tick = tickOf(nanotimeDue);
+        tick = Math.max(tick, lastTick + 1);
+        tick = Math.min(tick, lastTick + SLOT_COUNT);
+        slots[slotIndexOf(tick)].add(entry);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    protected boolean isCurrent(Entry entry) {
+        return outstanding.get(entry.command) == entry;
+    }
+
+    protected long tickOf(long nanotime) {
+        return Math.max(0, nanotime - nanotimeBase) / nsPerTick;
+    }
+
+    protected int slotIndexOf(long tick) {
+        return (int) (tick % SLOT_COUNT);
+    }
+}
@@ -772,6 +772,11 @@ public class NetworkConnectionHandler {
         }
 
         @Override public CallbackResult commandEvent(Command command) throws RobotCoreException {
+            // This concerns the send loop rather than any event loop, so we handle it ourselves
+            if (command.getName().equals(RobotCoreCommandList.CMD_NOTIFY_GAMEPAD_DELTAS_SUPPORTED)) {
+                sendOnceRunnable.parameters.sendGamepadDeltas = true;
+                return CallbackResult.HANDLED;
+            }
             boolean handled = false;
             for (RecvLoopRunnable.RecvLoopCallback callback : callbacks) {
                 CallbackResult result = callback.commandEvent(command);
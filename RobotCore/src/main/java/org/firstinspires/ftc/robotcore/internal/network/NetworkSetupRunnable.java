@@ -22,6 +22,8 @@ public class NetworkSetupRunnable implements Runnable
     protected NetworkConnection                 networkConnection;
     protected PeerDiscoveryManager              peerDiscoveryManager;
     protected ExecutorService                   recvLoopService;
+    protected ExecutorService                   gamepadProcessorService;
+    protected ExecutorService                   commandProcessorService;
     protected volatile RecvLoopRunnable         recvLoopRunnable;
     protected RecvLoopRunnable.RecvLoopCallback recvLoopCallback;
     protected final ElapsedTime                 lastRecvPacket;
@@ -52,13 +54,17 @@ public class NetworkSetupRunnable implements Runnable
                 }
 
                 // start the new event loops
-                recvLoopService = ThreadPool.newFixedThreadPool(3, "ReceiveLoopService");
+                recvLoopService = ThreadPool.newFixedThreadPool(2, "ReceiveLoopService");
+                gamepadProcessorService = ThreadPool.newSingleThreadExecutor("GamepadProcessor");
+                commandProcessorService = ThreadPool.newSingleThreadExecutor("CommandProcessor");
                 recvLoopRunnable = new RecvLoopRunnable(recvLoopCallback, socket, lastRecvPacket);
                 RecvLoopRunnable.PacketProcessor packetProcessor = recvLoopRunnable.new PacketProcessor();
+                RecvLoopRunnable.GamepadProcessor gamepadProcessor = recvLoopRunnable.new GamepadProcessor();
                 RecvLoopRunnable.CommandProcessor commandProcessor = recvLoopRunnable.new CommandProcessor();
                 NetworkConnectionHandler.getInstance().setRecvLoopRunnable(recvLoopRunnable);
                 recvLoopService.execute(packetProcessor);
-                recvLoopService.execute(commandProcessor);
+                gamepadProcessorService.execute(gamepadProcessor);
+                commandProcessorService.execute(commandProcessor);
                 recvLoopService.execute(recvLoopRunnable);
 
                 // start peer discovery service. do this after we set up listener so as not to miss anything
@@ -114,8 +120,14 @@ public class NetworkSetupRunnable implements Runnable
 
         if (recvLoopService != null) {
             recvLoopService.shutdownNow();
+            gamepadProcessorService.shutdownNow();
+            commandProcessorService.shutdownNow();
             ThreadPool.awaitTerminationOrExitApplication(recvLoopService, 5, TimeUnit.SECONDS, "ReceiveLoopService", "internal error");
+            ThreadPool.awaitTerminationOrExitApplication(gamepadProcessorService, 5, TimeUnit.SECONDS, "GamepadProcessor", "internal error");
+            ThreadPool.awaitTerminationOrExitApplication(commandProcessorService, 5, TimeUnit.SECONDS, "CommandProcessor", "internal error");
             recvLoopService = null;
+            gamepadProcessorService = null;
+            commandProcessorService = null;
             recvLoopRunnable = null;
         }
 
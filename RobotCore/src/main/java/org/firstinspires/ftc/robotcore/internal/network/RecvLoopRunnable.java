@@ -4,6 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.qualcomm.robotcore.exception.RobotCoreException;
+import com.qualcomm.robotcore.hardware.GamepadDeltaCodec;
 import com.qualcomm.robotcore.robocol.Command;
 import com.qualcomm.robotcore.robocol.RobocolDatagram;
 import com.qualcomm.robotcore.robocol.RobocolDatagramSocket;
@@ -12,6 +13,7 @@ import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.concurrent.LinkedBlockingDeque;
 
 @SuppressWarnings("WeakerAccess")
@@ -71,19 +73,36 @@ public class RecvLoopRunnable implements Runnable {
 
     protected ElapsedTime lastRecvPacket;
     protected ElapsedTime packetProcessingTimer;
+    protected ElapsedTime gamepadProcessingTimer;
     protected ElapsedTime commandProcessingTimer;
     protected double msCommandProcessingTimerReportingThreshold;
     protected double msPacketProcessingTimerReportingThreshold;
     protected RobocolDatagramSocket socket;
     protected RecvLoopCallback callback;
-    protected LinkedBlockingDeque<RobocolDatagram> packetsToProcess = new LinkedBlockingDeque<>();
+
+    /*
+     * Received packets are dispatched in lanes, each drained by its own thread, so that driver input
+     * is never stuck behind telemetry or a slow command. The lanes are bounded: when one backs up,
+     * we drop packets rather than let latency grow without limit. That is safe because gamepads and
+     * telemetry are sent again continually, and commands are retransmitted until acknowledged.
+     *
+     * The command queue itself is unbounded, so that locally injected commands are never lost; we
+     * bound it only against commands received from the peer, which we drop before acknowledging.
+     */
+    protected static final int GAMEPAD_QUEUE_CAPACITY = 16;
+    protected static final int PACKET_QUEUE_CAPACITY = 256;
+    protected static final int COMMAND_QUEUE_CAPACITY = 256;
+    protected LinkedBlockingDeque<RobocolDatagram> gamepadsToProcess = new LinkedBlockingDeque<>(GAMEPAD_QUEUE_CAPACITY);
+    protected LinkedBlockingDeque<RobocolDatagram> packetsToProcess = new LinkedBlockingDeque<>(PACKET_QUEUE_CAPACITY);
     protected LinkedBlockingDeque<Command> commandsToProcess = new LinkedBlockingDeque<>();
+    protected long commandsDropped = 0; // only touched by the packet processor
 
     public RecvLoopRunnable(RecvLoopCallback callback, @NonNull RobocolDatagramSocket socket, @Nullable ElapsedTime lastRecvPacket ) {
         this.callback = callback;
         this.socket = socket;
         this.lastRecvPacket = lastRecvPacket;
         this.packetProcessingTimer = new ElapsedTime();
+        this.gamepadProcessingTimer = new ElapsedTime();
         this.commandProcessingTimer = new ElapsedTime();
         this.msCommandProcessingTimerReportingThreshold = 500;
         this.msPacketProcessingTimerReportingThreshold = 50;
@@ -95,69 +114,125 @@ public class RecvLoopRunnable implements Runnable {
         this.callback = callback;
     }
 
+    /**
+     * Dispatches a received packet to the callback, then reclaims it.
+     */
+    protected void processPacket(RobocolDatagram packet, String processorName, ElapsedTime timer) throws InterruptedException {
+        try {
+            timer.reset();
+            if (callback.packetReceived(packet)!=CallbackResult.HANDLED) {
+                // NOTE: Heartbeat packets are processed directly in RecvLoopRunnable, not here
+                switch (packet.getMsgType()) {
+                    case PEER_DISCOVERY:
+                        callback.peerDiscoveryEvent(packet);
+                        break;
+                    case COMMAND:
+                        // Handle acks here so they get back to sender quickly, then queue for
+                        // internal processing. The queue allows command processing to take a
+                        // long time w/o adversely affecting network responsiveness, which could
+                        // otherwise lead to apparent disconnects.
+                        Command command = new Command(packet);
+                        if (!command.isAcknowledged() && commandsToProcess.size() >= COMMAND_QUEUE_CAPACITY) {
+                            // Never block here, as that would hold up acks and peer discovery too.
+                            // Left unacknowledged, the command will be retransmitted to us later.
+                            commandsDropped++;
+                            RobotLog.ww(TAG, "command queue full; %s(%d) dropped unacknowledged (%d so far)", command.getName(), command.getSequenceNumber(), commandsDropped);
+                            break;
+                        }
+                        CallbackResult result = NetworkConnectionHandler.getInstance().processAcknowledgments(command);
+                        if (!result.isHandled()) {
+                            RobotLog.vv(RobocolDatagram.TAG, "received command: %s(%d) %s", command.getName(), command.getSequenceNumber(), command.getExtra());
+                            commandsToProcess.addLast(command);
+                        }
+                        break;
+                    case TELEMETRY:
+                        callback.telemetryEvent(packet);
+                        break;
+                    case GAMEPAD:
+                        callback.gamepadEvent(packet);
+                        break;
+                    case EMPTY:
+                        callback.emptyEvent(packet);
+                        break;
+                    case KEEPALIVE:
+                        /*
+                         * Intentionally swallow.
+                         */
+                        break;
+                    default:
+                        RobotLog.ee(TAG, "Unhandled message type: " + packet.getMsgType().name());
+                        break;
+                }
+            }
+            double ms = timer.milliseconds();
+            if (ms > msPacketProcessingTimerReportingThreshold) {
+                RobotLog.vv(TAG, "packet processing took %.1fms: type=%s", ms, packet.getMsgType().toString());
+            }
+        } catch (RobotCoreException e) {
+            // Report the error, but stay alive
+            RobotLog.ee(TAG, e, "exception in %s thread %s", processorName, Thread.currentThread().getName());
+            callback.reportGlobalError(e.getMessage(), false);
+        } finally {
+            // proactively reclaim the receive buffer of the message (don't wait for GC)
+            packet.close();
+        }
+    }
+
     public class PacketProcessor implements Runnable {
         @Override public void run() {
             RobotLog.vv(TAG, "PacketProcessor started");
             while (!Thread.currentThread().isInterrupted()) {
                 try {
-                    RobocolDatagram packet = packetsToProcess.takeFirst();
-                    try {
-                        packetProcessingTimer.reset();
-                        if (callback.packetReceived(packet)!=CallbackResult.HANDLED) {
-                            // NOTE: Heartbeat packets are processed directly in RecvLoopRunnable, not here
-                            switch (packet.getMsgType()) {
-                                case PEER_DISCOVERY:
-                                    callback.peerDiscoveryEvent(packet);
-                                    break;
-                                case COMMAND:
-                                    // Handle acks here so they get back to sender quickly, then queue for
-                                    // internal processing. The queue allows command processing to take a
-                                    // long time w/o adversely affecting network responsiveness, which could
-                                    // otherwise lead to apparent disconnects.
-                                    Command command = new Command(packet);
-                                    CallbackResult result = NetworkConnectionHandler.getInstance().processAcknowledgments(command);
-                                    if (!result.isHandled()) {
-                                        RobotLog.vv(RobocolDatagram.TAG, "received command: %s(%d) %s", command.getName(), command.getSequenceNumber(), command.getExtra());
-                                        commandsToProcess.addLast(command);
-                                    }
-                                    break;
-                                case TELEMETRY:
-                                    callback.telemetryEvent(packet);
-                                    break;
-                                case GAMEPAD:
-                                    callback.gamepadEvent(packet);
-                                    break;
-                                case EMPTY:
-                                    callback.emptyEvent(packet);
-                                    break;
-                                case KEEPALIVE:
-                                    /*
-                                     * Intentionally swallow.
-                                     */
-                                    break;
-                                default:
-                                    RobotLog.ee(TAG, "Unhandled message type: " + packet.getMsgType().name());
-                                    break;
-                            }
-                        }
-                        double ms = packetProcessingTimer.milliseconds();
-                        if (ms > msPacketProcessingTimerReportingThreshold) {
-                            RobotLog.vv(TAG, "packet processing took %.1fms: type=%s", ms, packet.getMsgType().toString());
+                    processPacket(packetsToProcess.takeFirst(), "PacketProcessor", packetProcessingTimer);
+                } catch (InterruptedException e) {
+                    RobotLog.vv(TAG, "PacketProcessor exiting");
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes gamepad packets, and only those. Whatever has piled up is taken at once, and any
+     * packet superseded by a later one in the same batch is skipped: its state would be overwritten
+     * immediately anyway, so applying it would only delay the input that matters.
+     */
+    public class GamepadProcessor implements Runnable {
+        protected final ArrayList<RobocolDatagram> batch = new ArrayList<>(GAMEPAD_QUEUE_CAPACITY);
+
+        @Override public void run() {
+            RobotLog.vv(TAG, "GamepadProcessor started");
+            Thread.currentThread().setPriority(Thread.NORM_PRIORITY+1);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(gamepadsToProcess.takeFirst());
+                    gamepadsToProcess.drainTo(batch);
+                    for (int i = 0; i < batch.size(); i++) {
+                        RobocolDatagram packet = batch.get(i);
+                        if (isSuperseded(i)) {
+                            packet.close();
+                        } else {
+                            processPacket(packet, "GamepadProcessor", gamepadProcessingTimer);
                         }
-                    } catch (RobotCoreException e) {
-                        // Report the error, but stay alive
-                        RobotLog.ee(TAG, e, "exception in PacketProcessor thread %s", Thread.currentThread().getName());
-                        callback.reportGlobalError(e.getMessage(), false);
-                    } finally {
-                        // proactively reclaim the receive buffer of the message (don't wait for GC)
-                        packet.close();
                     }
                 } catch (InterruptedException e) {
-                    RobotLog.vv(TAG, "PacketProcessor exiting");
+                    RobotLog.vv(TAG, "GamepadProcessor exiting");
                     return;
+                } finally {
+                    batch.clear();
                 }
             }
         }
+
+        protected boolean isSuperseded(int index) {
+            byte[] data = batch.get(index).getData();
+            for (int i = index + 1; i < batch.size(); i++) {
+                if (GamepadDeltaCodec.supersedes(batch.get(i).getData(), data)) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
     public class CommandProcessor implements Runnable {
@@ -193,6 +268,21 @@ public class RecvLoopRunnable implements Runnable {
         commandsToProcess.addLast(cmd);
     }
 
+    protected void enqueueGamepad(RobocolDatagram packet) {
+        while (!gamepadsToProcess.offerLast(packet)) {
+            // The lane is backed up; the oldest input is the least useful
+            RobocolDatagram oldest = gamepadsToProcess.pollFirst();
+            if (oldest != null) oldest.close();
+        }
+    }
+
+    protected void enqueuePacket(RobocolDatagram packet) {
+        if (!packetsToProcess.offerLast(packet)) {
+            if (DEBUG) RobotLog.vv(TAG, "packet queue full; %s dropped", packet.getMsgType());
+            packet.close();
+        }
+    }
+
     public long getBytesPerSecond() {
         return (long)(bytesPerMilli * 1000);
     }
@@ -254,9 +344,12 @@ public class RecvLoopRunnable implements Runnable {
                             RobotLog.ee(TAG, e, "exception processing heartbeat", Thread.currentThread().getName());
                             callback.reportGlobalError(e.getMessage(), false);
                         }
+                    } else if (packet.getMsgType() == RobocolParsable.MsgType.GAMEPAD) {
+                        // Gamepads have their own lane, so driver input isn't delayed by other traffic
+                        enqueueGamepad(packet);
                     } else {
-                        // Delegate non-heartbeat packets to the PacketProcessor
-                        packetsToProcess.addLast(packet);
+                        // Delegate everything else to the PacketProcessor
+                        enqueuePacket(packet);
                     }
 
                     if (DO_TRAFFIC_DATA) calculateBytesPerMilli();
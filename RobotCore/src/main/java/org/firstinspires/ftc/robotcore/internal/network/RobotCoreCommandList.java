@@ -170,6 +170,10 @@ public class RobotCoreCommandList
     public static final String CMD_NOTIFY_USER_DEVICE_LIST      = "CMD_NOTIFY_USER_DEVICE_LIST";
     public static final String CMD_NOTIFY_ROBOT_STATE           = "CMD_NOTIFY_ROBOT_STATE";
 
+    // Sent by the RC to announce that it can decode gamepads sent with GamepadDeltaCodec. A DS only
+    // uses that encoding once it has received this, since older RCs can't parse it.
+    public static final String CMD_NOTIFY_GAMEPAD_DELTAS_SUPPORTED = "CMD_NOTIFY_GAMEPAD_DELTAS_SUPPORTED";
+
     // Used for sending a (pref,value) pair either from a RC to a DS or the other way around.
     // The pair is always a setting of the robot controller. When sent to the RC, it is a request
     // to update the setting; when sent from the RC, it is an announcement of the current value
@@ -276,6 +280,25 @@ public class RobotCoreCommandList
             return SimpleGson.getInstance().fromJson(serialized, LynxFirmwareUpdate.class);
             }
         }
+    /** Per-device progress of a firmware update. Broadcast via WebSocket, so this should be
+     * considered a part of the public API. Several of these may be in flight at once, one per
+     * device being updated, so they're distinguished by serial number. */
+    public static class LynxFirmwareUpdateProgress extends ProgressParameters
+        {
+        public SerialNumber serialNumber;
+        public String originatorId;
+        public boolean done;
+        public boolean success;
+
+        public String serialize()
+            {
+            return SimpleGson.getInstance().toJson(this);
+            }
+        public static LynxFirmwareUpdateProgress deserialize(String serialized)
+            {
+            return SimpleGson.getInstance().fromJson(serialized, LynxFirmwareUpdateProgress.class);
+            }
+        }
     /** This class should be considered a part of the public JSON API exposed via the webserver */
     public static final String CMD_LYNX_FIRMWARE_UPDATE_RESP = "CMD_LYNX_FIRMWARE_UPDATE_RESP";
     public static class LynxFirmwareUpdateResp
@@ -5,10 +5,12 @@ import androidx.annotation.NonNull;
 
 import com.qualcomm.robotcore.R;
 import com.qualcomm.robotcore.hardware.Gamepad;
+import com.qualcomm.robotcore.hardware.GamepadDeltaCodec;
 import com.qualcomm.robotcore.robocol.Command;
 import com.qualcomm.robotcore.robocol.Heartbeat;
 import com.qualcomm.robotcore.robocol.KeepAlive;
 import com.qualcomm.robotcore.robocol.RobocolDatagram;
+import com.qualcomm.robotcore.robocol.RobocolParsableBase;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 
@@ -18,7 +20,6 @@ import org.firstinspires.ftc.robotcore.internal.ui.RobotCoreGamepadManager;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TimeZone;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Handles batch-sending certain data to the remote device at a regular interval
@@ -42,6 +43,8 @@ public class SendOnceRunnable implements Runnable {
         public boolean                          originateHeartbeats = AppUtil.getInstance().isDriverStation();
         public boolean                          originateKeepAlives = false;
         public volatile RobotCoreGamepadManager gamepadManager      = null;
+        /** whether the peer has told us it can decode gamepads sent with {@link GamepadDeltaCodec} */
+        public volatile boolean                 sendGamepadDeltas   = false;
 
         public Parameters() { }
     }
@@ -61,12 +64,14 @@ public class SendOnceRunnable implements Runnable {
 
 
     @NonNull protected final ElapsedTime                lastRecvPacket;
-    @NonNull protected volatile List<Command>           pendingCommands = new CopyOnWriteArrayList<Command>();
+    @NonNull protected final CommandRetransmissionWheel pendingCommands = new CommandRetransmissionWheel(MS_BATCH_TRANSMISSION_INTERVAL * ElapsedTime.MILLIS_IN_NANO);
+    @NonNull protected final List<Command>              dueCommands = new ArrayList<Command>(); // only touched by run()
     @NonNull protected Heartbeat                        heartbeatSend = new Heartbeat();
     @NonNull protected KeepAlive                        keepAliveSend = new KeepAlive();
     @NonNull protected DisconnectionCallback            disconnectionCallback;
     @NonNull protected final Parameters                 parameters;
     @NonNull protected final AppUtil                    appUtil = AppUtil.getInstance();
+    @NonNull protected final GamepadDeltaCodec.Encoder  gamepadEncoder = new GamepadDeltaCodec.Encoder();
 
     //----------------------------------------------------------------------------------------------
     // Construction
@@ -97,6 +102,9 @@ public class SendOnceRunnable implements Runnable {
             // place to continue to leave it.
             double seconds = lastRecvPacket.seconds();
             if (parameters.disconnectOnTimeout && seconds > ASSUME_DISCONNECT_TIMER) {
+                // The next peer may not understand gamepad deltas; it will tell us if it does
+                parameters.sendGamepadDeltas = false;
+                gamepadEncoder.reset();
                 disconnectionCallback.disconnected();
                 return;
             }
@@ -133,8 +141,12 @@ public class SendOnceRunnable implements Runnable {
                     if (now - gamepad.timestamp > GAMEPAD_UPDATE_THRESHOLD && gamepad.atRest())
                         continue;
 
-                    gamepad.setSequenceNumber();
-                    networkConnectionHandler.sendDataToPeer(gamepad);
+                    if (parameters.sendGamepadDeltas) {
+                        networkConnectionHandler.sendDataToPeer(gamepadEncoder.encode(gamepad));
+                    } else {
+                        gamepad.setSequenceNumber();
+                        networkConnectionHandler.sendDataToPeer(gamepad);
+                    }
                     sentPacket = true;
                 }
             }
@@ -146,35 +158,55 @@ public class SendOnceRunnable implements Runnable {
 
             long nanotimeNow = System.nanoTime();
 
-            // send commands
-            List<Command> commandsToRemove = new ArrayList<Command>();
-            for (Command command : pendingCommands) {
-
-                // if this command has exceeded max attempts or is no longer worth transmitting, give up
-                if (command.getAttempts() > MAX_COMMAND_ATTEMPTS || command.hasExpired()) {
-                    String msg = String.format(AppUtil.getDefContext().getString(R.string.configGivingUpOnCommand), command.getName(), command.getSequenceNumber(), command.getAttempts());
-                    RobotLog.vv(TAG, msg);
-                    commandsToRemove.add(command);
-                    continue;
-                }
-
-                // Commands that we originate we only send out every once in a while so as to give ack's a chance to get back to us
-                if (command.isAcknowledged() || command.shouldTransmit(nanotimeNow)) {
-                    // log commands we initiated, ack the ones we didn't
-                    if (!command.isAcknowledged()) {
-                        RobotLog.vv(TAG, "sending %s(%d), attempt: %d", command.getName(), command.getSequenceNumber(), command.getAttempts());
-                    } else if (DEBUG) {
-                        RobotLog.vv(TAG, "acking %s(%d)", command.getName(), command.getSequenceNumber());
+            // send the commands that are due; the others are waiting for an ack or for their next retransmission
+            pendingCommands.collectDue(nanotimeNow, dueCommands);
+            int processed = 0;
+            try {
+                for (; processed < dueCommands.size(); processed++) {
+                    Command command = dueCommands.get(processed);
+
+                    // if this command has exceeded max attempts or is no longer worth transmitting, give up
+                    if (command.getAttempts() > MAX_COMMAND_ATTEMPTS || command.hasExpired()) {
+                        String msg = String.format(AppUtil.getDefContext().getString(R.string.configGivingUpOnCommand), command.getName(), command.getSequenceNumber(), command.getAttempts());
+                        RobotLog.vv(TAG, msg);
+                        pendingCommands.remove(command);
+                        continue;
                     }
 
-                    // send the command
-                    networkConnectionHandler.sendDataToPeer(command);
-
-                    // if this is a command we handled, remove it
-                    if (command.isAcknowledged()) commandsToRemove.add(command);
+                    // Commands that we originate we only send out every once in a while so as to give ack's a chance to get back to us
+                    if (command.isAcknowledged() || command.shouldTransmit(nanotimeNow)) {
+                        // log commands we initiated, ack the ones we didn't
+                        if (!command.isAcknowledged()) {
+                            RobotLog.vv(TAG, "sending %s(%d), attempt: %d", command.getName(), command.getSequenceNumber(), command.getAttempts());
+                        } else if (DEBUG) {
+                            RobotLog.vv(TAG, "acking %s(%d)", command.getName(), command.getSequenceNumber());
+                        }
+
+                        // send the command
+                        networkConnectionHandler.sendDataToPeer(command);
+
+                        // if this is a command we handled, we're done with it; otherwise, it's next due once
+                        // the retransmission interval has passed since it actually went out, which is what
+                        // shouldTransmit() measures from
+                        if (command.isAcknowledged()) {
+                            pendingCommands.remove(command);
+                        } else {
+                            long nanotimeTransmit = Math.max(command.getNanotimeTransmit(), nanotimeNow);
+                            pendingCommands.schedule(command, nanotimeTransmit + RobocolParsableBase.getNanotimeTransmitInterval());
+                        }
+                    } else {
+                        // The previous transmission went out later than we expected; check again next cycle
+                        pendingCommands.schedule(command, nanotimeNow);
+                    }
+                }
+            } finally {
+                // If something went wrong part way through, the commands we didn't get to are due next
+                // cycle. That includes the one we were on: schedule() ignores it if we got that far.
+                for (int i = processed; i < dueCommands.size(); i++) {
+                    pendingCommands.schedule(dueCommands.get(i), nanotimeNow);
                 }
+                dueCommands.clear();
             }
-            pendingCommands.removeAll(commandsToRemove);
         }
         // For robustness and attempted ongoing liveness of the app, we catch
         // *all* types of exception. This will help minimize disruption to the sendLoopService.
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.firstinspires.ftc.robotcore.external.ExportClassToBlocks;
@@ -81,6 +82,8 @@ public class BlocksClassFilter implements ClassFilter {
   private final Map<Class<? extends HardwareDevice>, Set<Method>> hardwareMethodsByClass = new TreeMap<>(classComparator);
   private final Map<String, Method> hardwareMethods = new HashMap<>();
 
+  private final Map<String, Class<? extends CompiledBlocksOpMode>> compiledBlocksOpModes = new ConcurrentHashMap<>();
+
   // Singleton
 
   private static class InstanceHolder {
@@ -102,10 +105,14 @@ public class BlocksClassFilter implements ClassFilter {
     staticMethods.clear();
     hardwareMethodsByClass.clear();
     hardwareMethods.clear();
+    compiledBlocksOpModes.clear();
   }
 
   @Override
   public void filterOnBotJavaClassesStart() {
+    // Compiled blocks op modes only ever come from OnBotJava.
+    compiledBlocksOpModes.clear();
+
     // Remove old OnBotJava methods.
     Iterator<Map.Entry<Class, Set<Method>>> iter = staticMethodsByClass.entrySet().iterator();
     while (iter.hasNext()) {
@@ -177,6 +184,9 @@ public class BlocksClassFilter implements ClassFilter {
 
   @Override
   public void filterOnBotJavaClassesComplete() {
+    // The blocks op modes are registered as compiled classes or as JavaScript according to
+    // which compiled classes exist, so have them registered again.
+    RegisteredOpModes.getInstance().setBlocksOpModesChanged();
   }
 
   @Override
@@ -184,6 +194,11 @@ public class BlocksClassFilter implements ClassFilter {
   }
 
   private void exploreClass(Class<?> clazz) {
+    if (getPackage(clazz).equals(CompiledBlocksOpMode.PACKAGE_NAME) &&
+        CompiledBlocksOpMode.class.isAssignableFrom(clazz)) {
+      compiledBlocksOpModes.put(clazz.getSimpleName(), clazz.asSubclass(CompiledBlocksOpMode.class));
+      return;
+    }
     if (getPackage(clazz).equals("org.firstinspires.ftc.teamcode") ||
         clazz.isAnnotationPresent(ExportClassToBlocks.class)) {
       lookForStaticMethods(clazz);
@@ -309,6 +324,14 @@ public class BlocksClassFilter implements ClassFilter {
     return hardwareMethods.get(lookupString);
   }
 
+  /**
+   * Returns the compiled blocks op mode class with the given simple name, or null if OnBotJava
+   * hasn't built one.
+   */
+  public Class<? extends CompiledBlocksOpMode> findCompiledBlocksOpMode(String simpleClassName) {
+    return compiledBlocksOpModes.get(simpleClassName);
+  }
+
   /**
    * Returns a lookup string that can be saved and used later to retrieve the given method if it
    * still exists.
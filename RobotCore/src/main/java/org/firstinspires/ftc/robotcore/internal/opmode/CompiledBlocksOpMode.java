@@ -0,0 +1,129 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.opmode;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.util.ReadWriteFile;
+
+import org.firstinspires.ftc.robotcore.external.BlocksOpModeCompanion;
+
+import java.io.File;
+
+/**
+ * The superclass of the {@link LinearOpMode}s into which Blocks projects are compiled.
+ *
+ * <p>When a Blocks project is saved, the editor also generates it as Java, which OnBotJava
+ * compiles apart from the team's own sources, so that generated code which doesn't compile is
+ * simply left out. While that build is current, the project runs as the compiled class rather than as
+ * JavaScript in a WebView. This class provides the environment the Blocks runtime would:
+ * {@link BlocksOpModeCompanion} is populated, and a fatal error is reported with the label of
+ * the block that was executing, found from the marker comments in the generated source.</p>
+ */
+public abstract class CompiledBlocksOpMode extends LinearOpMode {
+  public static final String PACKAGE_NAME = "org.firstinspires.ftc.blocks.compiled";
+  public static final File SOURCE_DIR = new File(OnBotJavaHelper.blocksSrcDir, PACKAGE_NAME.replace('.', '/'));
+
+  /**
+   * Precedes, in the generated source, the code for each statement block.
+   */
+  public static final String BLOCK_MARKER = "// @block ";
+
+  private RuntimeException lastException;
+  private RuntimeException lastLabeledException;
+
+  /**
+   * Returns the CRC-32 of the blocks file from which this class was generated, so that a class
+   * left over from an earlier save is not run in place of the current blocks.
+   */
+  public abstract long getBlkChecksum();
+
+  @Override
+  public void internalPreInit() {
+    super.internalPreInit();
+    BlocksOpModeCompanion.opMode = this;
+    BlocksOpModeCompanion.linearOpMode = this;
+    BlocksOpModeCompanion.hardwareMap = hardwareMap;
+    BlocksOpModeCompanion.telemetry = telemetry;
+    BlocksOpModeCompanion.gamepad1 = gamepad1;
+    BlocksOpModeCompanion.gamepad2 = gamepad2;
+  }
+
+  @Override
+  protected void handleLoop() {
+    try {
+      super.handleLoop();
+    } catch (RuntimeException e) {
+      if (e != lastException) {
+        lastException = e;
+        lastLabeledException = labelException(e);
+      }
+      throw lastLabeledException;
+    }
+  }
+
+  private RuntimeException labelException(RuntimeException e) {
+    String label = findBlockLabel(e);
+    if (label == null) {
+      return e;
+    }
+    String errorMessage = e.getClass().getSimpleName() + (e.getMessage() != null ? " - " + e.getMessage() : "");
+    return new RuntimeException(
+        "Fatal error occurred while executing the block labeled \"" + label + "\". " + errorMessage, e);
+  }
+
+  /**
+   * Returns the label of the block whose code threw the given exception, or null if the
+   * exception didn't arise in this class's code.
+   */
+  private String findBlockLabel(Throwable e) {
+    String className = getClass().getName();
+    int lineNumber = -1;
+    for (Throwable t = e; t != null && lineNumber < 0; t = t.getCause()) {
+      for (StackTraceElement element : t.getStackTrace()) {
+        if ((element.getClassName().equals(className) || element.getClassName().startsWith(className + "$"))
+            && element.getLineNumber() > 0) {
+          lineNumber = element.getLineNumber();
+          break;
+        }
+      }
+    }
+    if (lineNumber < 0) {
+      return null;
+    }
+    String[] lines = ReadWriteFile.readFile(new File(SOURCE_DIR, getClass().getSimpleName() + ".java")).split("\n");
+    for (int i = Math.min(lineNumber, lines.length) - 1; i >= 0; i--) {
+      String line = lines[i].trim();
+      if (line.startsWith(BLOCK_MARKER)) {
+        return line.substring(BLOCK_MARKER.length());
+      }
+    }
+    return null;
+  }
+}
@@ -38,10 +38,12 @@ public interface OnBotJavaHelper {
 
     File javaRoot               = new File(AppUtil.FIRST_FOLDER, "/java/");
     File srcDir                 = new File(javaRoot, "/src/");
+    File blocksSrcDir           = new File(javaRoot, "/blocks/");
     File statusDir              = new File(javaRoot, "/status/");
     File buildSuccessfulFile    = new File(statusDir, "buildSuccessful.txt");
 
     File controlDir             = new File(javaRoot, "/control/");
+    File buildRequestFile       = new File(controlDir, "buildRequest.txt");
 
     /**
      * Create a ClassLoader for the current OnBotJava output .dex files.
@@ -165,6 +165,10 @@ public class RegisteredOpModes implements OpModeManager
         {
         blocksOpModesChanged = false;
         }
+    public void setBlocksOpModesChanged()
+        {
+        blocksOpModesChanged = true;
+        }
 
     //----------------------------------------------------------------------------------------------
     // OpMode management
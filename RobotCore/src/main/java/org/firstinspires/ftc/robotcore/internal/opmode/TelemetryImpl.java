@@ -32,7 +32,6 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package org.firstinspires.ftc.robotcore.internal.opmode;
 
-import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
@@ -49,6 +48,8 @@ import org.firstinspires.ftc.robotcore.internal.network.RobotCoreCommandList;
 import org.firstinspires.ftc.robotcore.internal.network.RobotCoreCommandList.TextToSpeech;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Formatter;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -75,7 +76,6 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         protected Object[]      formatArgs      = null;
         protected Object        value           = null;
         protected Func<T>       valueProducer   = null;
-        protected String        composed        = null;
 
         //------------------------------------------------------------------------------------------
         // Construction
@@ -112,35 +112,26 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             return this.valueProducer != null;
             }
 
-        @NonNull String getComposed(boolean recompose)
-            {
-            if (recompose || composed==null)
-                {
-                composed = compose();
-                }
-            return composed;
-            }
-
-        protected String compose()
+        /** Appends the value to the composer */
+        protected void compose()
             {
             if (format != null)
                 {
-                if (this.formatArgs != null)      return String.format(this.format, this.formatArgs);
-                if (this.valueProducer != null)   return String.format(this.format, this.valueProducer.value());
+                if (this.formatArgs != null)            formatter.format(this.format, this.formatArgs);
+                else if (this.valueProducer != null)    formatter.format(this.format, this.valueProducer.value());
                 }
             else
                 {
-                if (this.value != null)          return this.value.toString();
-                if (this.valueProducer != null)  return this.valueProducer.value().toString();
+                if (this.value != null)                 composer.append(this.value.toString());
+                else if (this.valueProducer != null)    composer.append(this.valueProducer.value().toString());
                 }
-
-            return "";
             }
         }
 
     protected interface Lineable
         {
-        String getComposed(boolean recompose);
+        /** Appends the text of this line or item to the composer */
+        void compose();
         }
 
     protected class LineableContainer implements Iterable<Lineable>
@@ -205,6 +196,14 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
                 }
             }
 
+        Lineable get(int index)
+            {
+            synchronized (theLock)
+                {
+                return list.get(index);
+                }
+            }
+
         int size()
             {
             synchronized (theLock)
@@ -296,11 +295,12 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         // Operations
         //------------------------------------------------------------------------------------------
 
-        @Override public String getComposed(boolean recompose)
+        @Override public void compose()
             {
             synchronized (theLock)
                 {
-                return String.format("%s%s%s", this.caption, getCaptionValueSeparator(), this.value.getComposed(recompose));
+                composer.append(this.caption).append(getCaptionValueSeparator());
+                this.value.compose();
                 }
             }
 
@@ -420,21 +420,20 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         // Operations
         //------------------------------------------------------------------------------------------
 
-        @Override public String getComposed(boolean recompose)
+        @Override public void compose()
             {
-            StringBuilder result = new StringBuilder();
-            result.append(this.lineCaption);
-            boolean firstTime = true;
-            for (Lineable lineable : lineables)
+            synchronized (theLock)
                 {
-                if (!firstTime)
+                composer.append(this.lineCaption);
+                for (int i = 0; i < lineables.size(); i++)
                     {
-                    result.append(getItemSeparator());
+                    if (i > 0)
+                        {
+                        composer.append(getItemSeparator());
+                        }
+                    lineables.get(i).compose();
                     }
-                result.append(lineable.getComposed(recompose));
-                firstTime = false;
                 }
-            return result.toString();
             }
 
         @Override public Item addData(String caption, String format, Object... args)
@@ -463,8 +462,14 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         //------------------------------------------------------------------------------------------
         // State
         //------------------------------------------------------------------------------------------
-        List<String> entries;
+
+        // The entries are kept in a ring buffer: the oldest entry is at entries[first], and adding
+        // to a full log overwrites it rather than shuffling the rest. The buffer grows as entries
+        // are added until it reaches the capacity, so a huge capacity costs nothing up front.
+        String[]     entries;
         int          capacity;
+        int          first;
+        int          count;
         DisplayOrder displayOrder;
         boolean      isDirty;
 
@@ -508,29 +513,60 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
 
         int size()
             {
-            return entries.size();
+            return count;
             }
 
+        /** Returns the index'th oldest entry */
         String get(int index)
             {
-            return entries.get(index);
+            return entries[(first + index) % entries.length];
             }
 
-        void prune()
+        void append(String entry)
             {
             synchronized (getLock())
                 {
-                while (this.entries.size() > this.capacity && this.entries.size() > 0)
+                if (capacity == 0)
                     {
-                    this.entries.remove(0);
+                    return;
                     }
+                if (count == entries.length && entries.length < capacity)
+                    {
+                    resize(entries.length > capacity / 2 ? capacity : Math.max(9, entries.length * 2));
+                    }
+                if (count < entries.length)
+                    {
+                    entries[(first + count) % entries.length] = entry;
+                    count++;
+                    }
+                else
+                    {
+                    entries[first] = entry;
+                    first = (first + 1) % entries.length;
+                    }
+                }
+            }
+
+        /** Moves the newest entries that fit into a buffer of the indicated length */
+        void resize(int length)
+            {
+            String[] resized = new String[length];
+            int keep = Math.min(this.count, length);
+            for (int i = 0; i < keep; i++)
+                {
+                resized[i] = get(this.count - keep + i);
                 }
+            this.entries = resized;
+            this.first   = 0;
+            this.count   = keep;
             }
 
         void reset()
             {
-            this.entries    = new ArrayList<>();
+            this.entries    = new String[9];
             this.capacity   = 9;
+            this.first      = 0;
+            this.count      = 0;
             this.isDirty    = false;
             this.displayOrder = DisplayOrder.OLDEST_FIRST;
             }
@@ -548,8 +584,10 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             {
             synchronized (getLock())
                 {
-                this.capacity = capacity;
-                prune();
+                // Keep the newest entries that still fit. Only room for what's held is allocated
+                // now, so that a capacity of Integer.MAX_VALUE still means 'unbounded'.
+                this.capacity = Math.max(0, capacity);
+                resize(Math.min(this.capacity, Math.max(this.count, 9)));
                 }
             }
 
@@ -567,29 +605,29 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             }
 
         @Override public void add(String format, Object... args)
+            {
+            add(String.format(format, args));
+            }
+
+        @Override public void add(String entry)
             {
             synchronized (getLock())
                 {
-                String datum = String.format(format, args);
-                this.entries.add(datum);
+                this.append(String.valueOf(entry));
                 this.markDirty();
-                this.prune();
 
                 // Maybe provoke an update
                 tryUpdate(UpdateReason.LOG);
                 }
             }
 
-        @Override public void add(String entry)
-            {
-            this.add("%s", entry);
-            }
-
         @Override public void clear()
             {
             synchronized (getLock())
                 {
-                this.entries.clear();
+                Arrays.fill(this.entries, null);
+                this.first = 0;
+                this.count = 0;
                 this.markDirty();
                 }
             }
@@ -602,6 +640,9 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
     protected final Object theLock = new Object();
     protected LineableContainer   lines;
     protected List<String>        composedLines;
+    protected final StringBuilder composer    = new StringBuilder(256);     // lines are composed here, under theLock...
+    protected final Formatter     formatter   = new Formatter(composer);    // ...including their formatted values
+    protected final TelemetryMessage transmitter = new TelemetryMessage();  // reused for each transmission, under theLock
     protected List<Runnable>      actions;
     protected LogImpl             log;
     protected ElapsedTime         transmissionTimer;
@@ -663,12 +704,21 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
     // Updating
     //----------------------------------------------------------------------------------------------
 
+    protected static final String[] keys = new String[TelemetryMessage.cCountMax];
+    static
+        {
+        for (int iLine = 0; iLine < keys.length; iLine++)
+            {
+            keys[iLine] = String.format("\0%c", 0x180 + iLine);
+            }
+        }
+
     protected static String getKey(int iLine)
         {
         // Keys must be unique. If they start with nul, then they're not shown on the driver display.
         // Historically, they were always shown, and sorted, so we used an *increasing sequence*
         // of unrenderable strings.
-        return String.format("\0%c", 0x180 + iLine);
+        return iLine < keys.length ? keys[iLine] : String.format("\0%c", 0x180 + iLine);
         }
 
     @Override public boolean update()
@@ -706,8 +756,10 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
                     action.run();
                     }
 
-                // Build an object to cary our telemetry data
-                TelemetryMessage transmitter = new TelemetryMessage();
+                // Fill in the object that carries our telemetry data. Whoever transmits it
+                // clears it afterwards, but not everyone transmits it.
+                transmitter.clearData();
+                transmitter.setSequenceNumber();
                 this.saveToTransmitter(recompose, transmitter);
 
                 // Transmit if there's anything to transmit
@@ -754,10 +806,28 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         // a subsequent user update().
         if (recompose)
             {
-            this.composedLines = new ArrayList<String>();
-            for (Lineable lineable : this.lines)
+            int count = this.lines.size();
+            for (int i = 0; i < count; i++)
                 {
-                this.composedLines.add(lineable.getComposed(recompose));
+                composer.setLength(0);
+                this.lines.get(i).compose();
+
+                // A line whose text hasn't changed keeps the string we made for it last time
+                if (i < this.composedLines.size())
+                    {
+                    if (!this.composedLines.get(i).contentEquals(composer))
+                        {
+                        this.composedLines.set(i, composer.toString());
+                        }
+                    }
+                else
+                    {
+                    this.composedLines.add(composer.toString());
+                    }
+                }
+            while (this.composedLines.size() > count)
+                {
+                this.composedLines.remove(this.composedLines.size()-1);
                 }
             }
 
@@ -926,6 +996,22 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         markClean();
         }
 
+    protected final Predicate<ItemImpl> unretainedItems = new Predicate<ItemImpl>()
+        {
+        @Override public boolean test(ItemImpl item)
+            {
+            return !item.isRetained();
+            }
+        };
+
+    protected final Predicate<ItemImpl> allItems = new Predicate<ItemImpl>()
+        {
+        @Override public boolean test(ItemImpl item)
+            {
+            return true;
+            }
+        };
+
     @Override public void clear()
         {
         synchronized (theLock)
@@ -933,13 +1019,7 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             this.clearOnAdd = false;
             markClean();
             //
-            this.lines.removeAllRecurse(new Predicate<ItemImpl>()
-                {
-                @Override public boolean test(ItemImpl item)
-                    {
-                    return !item.isRetained();
-                    }
-                });
+            this.lines.removeAllRecurse(unretainedItems);
             }
         }
 
@@ -951,13 +1031,7 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             markClean();
             //
             this.actions.clear();
-            this.lines.removeAllRecurse(new Predicate<ItemImpl>()
-                {
-                @Override public boolean test(ItemImpl item)
-                    {
-                    return true;
-                    }
-                });
+            this.lines.removeAllRecurse(allItems);
             }
         }
 
@@ -33,6 +33,7 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package org.firstinspires.ftc.robotcore.internal.stellaris;
 
 import com.qualcomm.robotcore.hardware.usb.RobotUsbDevice;
+import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.TypeConversion;
 
 import org.firstinspires.ftc.robotcore.external.Consumer;
@@ -76,9 +77,16 @@ public class FlashLoaderManager
     protected int retrySendWithRetriesCount = 3;
     protected int retryVerifyStatusCount = 3;
     protected int retrySendWithRetriesAndVerifyCount = 2;
-    protected int msRetryPause = 40;          // just seems prudent
+    protected int msRetryPause = 40;          // just seems prudent; now the ceiling of the adaptive pause
+    protected int msRetryPauseMin = 2;        // floor of the adaptive pause
     protected int msReadTimeout = 1000;       // sflash example uses very long timeouts; ours aren't quite as long, but still hefty
 
+    /* Smoothed round trip from the end of a write to the arrival of its ack, which is what
+     * the retry pause is derived from. Negative until we've observed one. */
+    protected double msAckLatencyAverage = -1;
+    protected double ackLatencyWeight = 0.125; // as in TCP's SRTT estimator
+    protected long   nsLastWrite = 0;
+
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
@@ -311,14 +319,16 @@ public class FlashLoaderManager
 
     protected boolean readAckOrNackOrException() throws IOException, TimeoutException, InterruptedException
         {
+        byte[] payload = new byte[1];
         while (true)
             {
-            byte[] payload = new byte[1];
             read(payload);
             switch (payload[0])
                 {
                 case 0:                         continue;       // filler/idling byte
-                case FlashLoaderDatagram.ACK:   return true;    // explicit ack
+                case FlashLoaderDatagram.ACK:                   // explicit ack
+                    noteAckLatency(System.nanoTime() - nsLastWrite);
+                    return true;
                 case FlashLoaderDatagram.NAK:
                     tracer.traceError("nak received");
                     return false;   // explicit nak
@@ -329,9 +339,37 @@ public class FlashLoaderManager
             }
         }
 
+    /**
+     * Pauses before a retry. Rather than always waiting the worst case, we wait a couple of
+     * observed ack round trips: a loader that's been answering quickly has most likely just
+     * dropped a byte, and there's nothing to be gained by idling the link for long.
+     */
     protected void pauseBetweenRetryWrites() throws InterruptedException
         {
-        Thread.sleep(msRetryPause);
+        Thread.sleep(getMsRetryPause());
+        }
+
+    public int getMsRetryPause()
+        {
+        if (msAckLatencyAverage < 0)
+            {
+            return msRetryPause;
+            }
+        int ms = (int)Math.ceil(msAckLatencyAverage * 2);
+        return Math.max(msRetryPauseMin, Math.min(msRetryPause, ms));
+        }
+
+    protected void noteAckLatency(long nsLatency)
+        {
+        double msLatency = nsLatency / (double)ElapsedTime.MILLIS_IN_NANO;
+        if (msAckLatencyAverage < 0)
+            {
+            msAckLatencyAverage = msLatency;
+            }
+        else
+            {
+            msAckLatencyAverage += ackLatencyWeight * (msLatency - msAckLatencyAverage);
+            }
         }
 
     protected void write(byte[] data) throws IOException, InterruptedException
@@ -339,6 +377,7 @@ public class FlashLoaderManager
         verboseTracer.trace("writing %d bytes", data.length);
         try {
             robotUsbDevice.write(data);
+            nsLastWrite = System.nanoTime();
             }
         catch (RobotUsbException e)
             {
@@ -179,6 +179,7 @@ public class AppUtil
     public static final String PROGRESS_NAMESPACE = "progress";
     public static final String SHOW_PROGRESS_MSG = "showProgress";
     public static final String DISMISS_PROGRESS_MSG = "dismissProgress";
+    public static final String FIRMWARE_UPDATE_PROGRESS_MSG = "firmwareUpdateProgress";
 
     //----------------------------------------------------------------------------------------------
     // Static State
@@ -915,7 +916,7 @@ public class AppUtil
 
         if (webSocketManager != null)
             {
-            webSocketManager.broadcastToNamespace(PROGRESS_NAMESPACE, new FtcWebSocketMessage(PROGRESS_NAMESPACE, SHOW_PROGRESS_MSG, showProgress.serialize()));
+            webSocketManager.broadcastToNamespace(PROGRESS_NAMESPACE, new FtcWebSocketMessage(PROGRESS_NAMESPACE, SHOW_PROGRESS_MSG, showProgress.serialize()), SHOW_PROGRESS_MSG);
             }
 
         if (uiLocation == UILocation.BOTH)
@@ -949,6 +950,20 @@ public class AppUtil
             }
         }
 
+    /**
+     * Broadcasts the progress of one of possibly several concurrent firmware updates. Unlike
+     * {@link #showProgress}, this doesn't touch the (single) progress dialog.
+     */
+    public void broadcastFirmwareUpdateProgress(RobotCoreCommandList.LynxFirmwareUpdateProgress progress)
+        {
+        if (webSocketManager != null)
+            {
+            // Updates of different modules proceed concurrently, so each reports its own latest value
+            webSocketManager.broadcastToNamespace(PROGRESS_NAMESPACE, new FtcWebSocketMessage(PROGRESS_NAMESPACE, FIRMWARE_UPDATE_PROGRESS_MSG, progress.serialize()),
+                    FIRMWARE_UPDATE_PROGRESS_MSG + ":" + progress.serialNumber);
+            }
+        }
+
     //----------------------------------------------------------------------------------------------
     // USB Permissions Management
     //----------------------------------------------------------------------------------------------
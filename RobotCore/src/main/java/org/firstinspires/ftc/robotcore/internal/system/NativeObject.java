@@ -213,6 +213,10 @@ public class NativeObject<ParentType extends RefCounted> extends DestructOnFinal
         {
         return getInt(ib);
         }
+    protected void setSizet(int ib, int value)
+        {
+        setInt(ib, value);
+        }
 
     protected long getLong(int ib)
         {
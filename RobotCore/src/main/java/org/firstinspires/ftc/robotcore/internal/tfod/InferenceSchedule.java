@@ -0,0 +1,77 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.tfod;
+
+/**
+ * The settings that govern how often, and over how much of the frame, the recognizers run.
+ * Like {@link Zoom}, instances are shared with the frame manager and changed at run time, so
+ * access is synchronized on the instance.
+ */
+class InferenceSchedule {
+  private static final double NANOS_PER_SECOND = 1e9;
+
+  double maxRecognitionsPerSecond; // zero means unlimited
+  double inferenceBudget;          // fraction of time the recognizers may be busy; one means unlimited
+  int fullFrameDetectionInterval;  // one means every recognition sees the whole zoom area
+
+  InferenceSchedule(double maxRecognitionsPerSecond, double inferenceBudget, int fullFrameDetectionInterval) {
+    validateArguments(maxRecognitionsPerSecond, inferenceBudget, fullFrameDetectionInterval);
+    this.maxRecognitionsPerSecond = maxRecognitionsPerSecond;
+    this.inferenceBudget = inferenceBudget;
+    this.fullFrameDetectionInterval = fullFrameDetectionInterval;
+  }
+
+  static void validateArguments(double maxRecognitionsPerSecond, double inferenceBudget, int fullFrameDetectionInterval) {
+    if (maxRecognitionsPerSecond < 0) {
+      throw new IllegalArgumentException("maxRecognitionsPerSecond must be greater than or equal to 0");
+    }
+    if (inferenceBudget <= 0 || inferenceBudget > 1) {
+      throw new IllegalArgumentException("inferenceBudget must be greater than 0 and at most 1");
+    }
+    if (fullFrameDetectionInterval < 1) {
+      throw new IllegalArgumentException("fullFrameDetectionInterval must be at least 1");
+    }
+  }
+
+  /**
+   * Returns the minimum time between the starts of successive recognitions, given how long a
+   * recognition has recently been taking.
+   */
+  long minNanosBetweenRecognitions(long nanosPerRecognition) {
+    long result = 0;
+    if (maxRecognitionsPerSecond > 0) {
+      result = (long) (NANOS_PER_SECOND / maxRecognitionsPerSecond);
+    }
+    if (inferenceBudget < 1) {
+      result = Math.max(result, (long) (nanosPerRecognition / inferenceBudget));
+    }
+    return result;
+  }
+}
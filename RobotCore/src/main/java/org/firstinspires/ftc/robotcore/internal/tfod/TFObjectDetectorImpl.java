@@ -19,11 +19,8 @@ package org.firstinspires.ftc.robotcore.internal.tfod;
 import static android.view.View.GONE;
 import static android.view.View.VISIBLE;
 import static android.view.ViewGroup.LayoutParams.MATCH_PARENT;
-import static org.firstinspires.ftc.robotcore.internal.system.AppUtil.TFLITE_MODELS_DIR;
 
 import android.app.Activity;
-import android.content.res.AssetFileDescriptor;
-import android.content.res.AssetManager;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.view.Gravity;
@@ -43,11 +40,6 @@ import org.firstinspires.ftc.robotcore.external.tfod.Recognition;
 import org.firstinspires.ftc.robotcore.external.tfod.TFObjectDetector;
 import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerImpl;
 import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -75,6 +67,7 @@ public class TFObjectDetectorImpl implements TFObjectDetector, OpModeManagerNoti
 
   private final ClippingMargins clippingMargins = new ClippingMargins();
   private final Zoom zoom = new Zoom(1.0, 16.0/9.0);
+  private final InferenceSchedule inferenceSchedule;
 
   private final TfodParameters params;
   private final FrameGenerator frameGenerator;
@@ -105,6 +98,8 @@ public class TFObjectDetectorImpl implements TFObjectDetector, OpModeManagerNoti
   public TFObjectDetectorImpl(Parameters parameters, FrameGenerator frameGenerator) {
 
     this.params = makeTfodParameters(parameters);
+    this.inferenceSchedule = new InferenceSchedule(parameters.maxRecognitionsPerSecond,
+        parameters.inferenceBudget, parameters.fullFrameDetectionInterval);
 
     Activity activity = (parameters.activity != null)
         ? parameters.activity
@@ -137,7 +132,7 @@ public class TFObjectDetectorImpl implements TFObjectDetector, OpModeManagerNoti
     }
   }
 
-  private static TfodParameters makeTfodParameters(Parameters parameters) {
+  static TfodParameters makeTfodParameters(Parameters parameters) {
     return new TfodParameters.Builder(parameters.isModelQuantized, parameters.inputSize)
         .tensorFlow2(parameters.isModelTensorFlow2)
         .useObjectTracker(parameters.useObjectTracker)
@@ -171,40 +166,17 @@ public class TFObjectDetectorImpl implements TFObjectDetector, OpModeManagerNoti
 
   @Override
   public void loadModelFromAsset(String assetName, String... labels) {
-    try {
-      AssetManager assetManager = AppUtil.getDefContext().getAssets();
-      AssetFileDescriptor afd = assetManager.openFd(assetName);
-      try (FileInputStream fis = afd.createInputStream()) {
-        initialize(fis, afd.getStartOffset(), afd.getDeclaredLength(), labels);
-      }
-    } catch (IOException e) {
-      throw new RuntimeException("TFObjectDetector loadModelFromAsset failed", e);
-    }
+    initialize(TfodModelCache.getInstance().getModelFromAsset(assetName), labels);
   }
 
   @Override
   public void loadModelFromFile(String fileName, String... labels) {
-    try {
-      File file = new File(TFLITE_MODELS_DIR, fileName);
-      if (file.exists()) {
-        fileName = file.getAbsolutePath();
-      } else {
-        file = new File(fileName);
-      }
-
-      try (FileInputStream fis = new FileInputStream(fileName)) {
-        initialize(fis, 0, file.length(), labels);
-      }
-    } catch (IOException e) {
-      throw new RuntimeException("TFObjectDetector loadModelFromFile failed", e);
-    }
+    initialize(TfodModelCache.getInstance().getModelFromFile(fileName), labels);
   }
 
-  private void initialize(FileInputStream fileInputStream, long startOffset, long declaredLength,
-      String... labels) throws IOException {
-    // Load the model.
-    MappedByteBuffer modelData = fileInputStream.getChannel()
-        .map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
+  private void initialize(TfodModelCache.Model model, String... labels) {
+    // Start building the interpreters now, in parallel; they're needed when the first frame arrives.
+    model.prepareEngines(params, params.numExecutorThreads);
 
     // Add the given labels to our List.
     for (String label : labels) {
@@ -215,18 +187,18 @@ public class TFObjectDetectorImpl implements TFObjectDetector, OpModeManagerNoti
     // of processing a single camera frame, passing it through the model, and returning a list of
     // recognitions.
     synchronized (frameManagerLock) {
-      frameManager = newTfodFrameManager(modelData);
+      frameManager = newTfodFrameManager(model);
       // Attach our frame consumer from the frame generator.
       frameGenerator.setFrameConsumer(frameManager.getFrameConsumer());
     }
   }
 
-  private TfodFrameManager newTfodFrameManager(MappedByteBuffer modelData) {
+  private TfodFrameManager newTfodFrameManager(TfodModelCache.Model model) {
     ResultsCallback resultsCallback = this;
     Consumer<Bitmap> annotatedFrameCallback = this;
     return params.isModelTensorFlow2
-        ? new TfodFrameManager2(modelData, labels, params, cameraInformation, clippingMargins, zoom, resultsCallback, annotatedFrameCallback)
-        : new TfodFrameManager1(modelData, labels, params, cameraInformation, clippingMargins, zoom, resultsCallback, annotatedFrameCallback);
+        ? new TfodFrameManager2(model, labels, params, cameraInformation, clippingMargins, zoom, inferenceSchedule, resultsCallback, annotatedFrameCallback)
+        : new TfodFrameManager1(model, labels, params, cameraInformation, clippingMargins, zoom, inferenceSchedule, resultsCallback, annotatedFrameCallback);
   }
 
   // ResultsCallback
@@ -373,6 +345,33 @@ public class TFObjectDetectorImpl implements TFObjectDetector, OpModeManagerNoti
     }
   }
 
+  @Override
+  public void setMaxRecognitionsPerSecond(double recognitionsPerSecond) {
+    synchronized (inferenceSchedule) {
+      InferenceSchedule.validateArguments(recognitionsPerSecond,
+          inferenceSchedule.inferenceBudget, inferenceSchedule.fullFrameDetectionInterval);
+      inferenceSchedule.maxRecognitionsPerSecond = recognitionsPerSecond;
+    }
+  }
+
+  @Override
+  public void setInferenceBudget(double fraction) {
+    synchronized (inferenceSchedule) {
+      InferenceSchedule.validateArguments(inferenceSchedule.maxRecognitionsPerSecond,
+          fraction, inferenceSchedule.fullFrameDetectionInterval);
+      inferenceSchedule.inferenceBudget = fraction;
+    }
+  }
+
+  @Override
+  public void setFullFrameDetectionInterval(int n) {
+    synchronized (inferenceSchedule) {
+      InferenceSchedule.validateArguments(inferenceSchedule.maxRecognitionsPerSecond,
+          inferenceSchedule.inferenceBudget, n);
+      inferenceSchedule.fullFrameDetectionInterval = n;
+    }
+  }
+
   private @NonNull Results getResults() {
     synchronized (resultsLock) {
       return results;
@@ -421,6 +420,20 @@ public class TFObjectDetectorImpl implements TFObjectDetector, OpModeManagerNoti
     return makeRecognitionsList(getResults());
   }
 
+  /**
+   * Returns a snapshot of how frames have been flowing through the current frame manager, or
+   * all zeros if the detector has not been activated.
+   */
+  @Override
+  public Statistics getStatistics() {
+    synchronized (frameManagerLock) {
+      if (frameManager != null) {
+        return frameManager.getStatistics();
+      }
+      return new Statistics(0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+  }
+
   /**
    * Perform whatever cleanup is necessary to release all acquired resources.
    */
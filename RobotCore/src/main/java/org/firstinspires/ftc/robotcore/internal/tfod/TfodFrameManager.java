@@ -28,7 +28,6 @@ import android.util.Log;
 import android.text.TextUtils;
 import com.google.ftcresearch.tfod.util.ImageUtils;
 import com.google.ftcresearch.tfod.util.Size;
-import java.nio.MappedByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
@@ -37,12 +36,14 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.firstinspires.ftc.robotcore.external.function.Consumer;
 import org.firstinspires.ftc.robotcore.external.tfod.CameraInformation;
 import org.firstinspires.ftc.robotcore.external.tfod.FrameConsumer;
 import org.firstinspires.ftc.robotcore.external.tfod.Recognition;
+import org.firstinspires.ftc.robotcore.external.tfod.TFObjectDetector;
 import org.firstinspires.ftc.robotcore.internal.tfod.LabeledObject.CoordinateSystem;
 
 /**
@@ -55,6 +56,11 @@ abstract class TfodFrameManager {
 
   private static final String TAG = "TfodFrameManager";
 
+  // Margin added on each side of the tracked objects, as a fraction of their extent
+  private static final float REGION_OF_INTEREST_MARGIN = 0.5f;
+  // Regions larger than this fraction of the zoom area aren't worth cropping to
+  private static final double REGION_OF_INTEREST_MAX_AREA = 0.6;
+
   protected static final Paint boxPaint = new Paint(); // Used to draw recognitions without tracker
   static {
     boxPaint.setColor(Color.RED);
@@ -64,38 +70,45 @@ abstract class TfodFrameManager {
   protected static final BorderedText borderedText = new BorderedText(60);
 
   // Parameters passed in to the constructor
-  private MappedByteBuffer modelData;
+  private final TfodModelCache.Model model;
+  // The interpreters taken from the model cache, to be returned to it on shutdown
+  private final List<Object> engines = new ArrayList<>();
   protected final List<String> labels;
   protected final TfodParameters params;
   protected final CameraInformation cameraInformation;
   private final ClippingMargins clippingMargins;
   private final Zoom zoom;
+  private final InferenceSchedule inferenceSchedule;
   private final ResultsCallback resultsCallback;
   private final Consumer<Bitmap> annotatedFrameCallback;
 
   private final MainPipeline mainPipeline;
+  protected final TfodTimings timings = new TfodTimings();
 
   private final Object lastResultsFrameTimeNanosLock = new Object();
   private volatile long lastResultsFrameTimeNanos;
 
   private volatile boolean active;
   private volatile Results lastResultsPublished;
+  private volatile List<LabeledObject> lastLabeledObjectsPublished; // in zoom area coordinates
 
   protected TfodFrameManager(
-      MappedByteBuffer modelData,
+      TfodModelCache.Model model,
       List<String> labels,
       TfodParameters params,
       CameraInformation cameraInformation,
       ClippingMargins clippingMargins,
       Zoom zoom,
+      InferenceSchedule inferenceSchedule,
       ResultsCallback resultsCallback,
       Consumer<Bitmap> annotatedFrameCallback) {
-    this.modelData = modelData;
+    this.model = model;
     this.labels = labels;
     this.params = params;
     this.cameraInformation = cameraInformation;
     this.clippingMargins = clippingMargins;
     this.zoom = zoom;
+    this.inferenceSchedule = inferenceSchedule;
     this.resultsCallback = resultsCallback;
     this.annotatedFrameCallback = annotatedFrameCallback;
 
@@ -106,7 +119,28 @@ abstract class TfodFrameManager {
     return mainPipeline;
   }
 
-  protected abstract RecognizerPipeline createRecognizerPipeline(MappedByteBuffer modelData, ZoomHelper zoomHelper, Bitmap bitmap);
+  TFObjectDetector.Statistics getStatistics() {
+    return timings.snapshot();
+  }
+
+  /**
+   * Returns a mutable ARGB_8888 bitmap of the given size, reusing the given bitmap, by
+   * reconfiguring it if necessary, when its allocation is large enough.
+   */
+  static Bitmap reuseOrCreateBitmap(Bitmap bitmap, int width, int height) {
+    if (bitmap != null && bitmap.isMutable()) {
+      if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+        return bitmap;
+      }
+      if (bitmap.getAllocationByteCount() >= width * height * 4) {
+        bitmap.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+        return bitmap;
+      }
+    }
+    return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+  }
+
+  protected abstract RecognizerPipeline createRecognizerPipeline(Object engine, ZoomHelper zoomHelper, Bitmap bitmap);
 
   protected void onResultsFromRecognizerPipeline(
       long frameTimeNanos, List<LabeledObject> labeledObjects,
@@ -126,10 +160,13 @@ abstract class TfodFrameManager {
     }
 
     if (mainPipeline.trackerPipeline != null) {
-      // Send TFOD recognitions to the tracker pipeline.
+      // Send TFOD recognitions to the tracker pipeline. No copy of the bitmap is needed: this
+      // runs on the recognizer pipeline's thread, and the bitmap isn't touched again until the
+      // pipeline has gone idle.
+      long nanosStart = System.nanoTime();
       mainPipeline.trackerPipeline.onResultsFromRecognizerPipeline(
-          frameTimeNanos, labeledObjects,
-          bitmapFromRecognizerPipeline.copy(Bitmap.Config.ARGB_8888, false /* mutable */));
+          frameTimeNanos, labeledObjects, bitmapFromRecognizerPipeline);
+      timings.add(TfodTimings.Stage.TRACKER, System.nanoTime() - nanosStart);
     } else {
       // No tracker. Publish the results now.
       publishResults(frameTimeNanos, labeledObjects);
@@ -153,6 +190,7 @@ abstract class TfodFrameManager {
     }
     Results results = new Results(cameraInformation, frameTimeNanos,
         labeledObjectsInCamaraCoordinates);
+    lastLabeledObjectsPublished = labeledObjects;
     lastResultsPublished = results;
     resultsCallback.onResults(results);
   }
@@ -168,11 +206,23 @@ abstract class TfodFrameManager {
   void shutdown() {
     if (!mainPipeline.executorService.isShutdown()) {
       mainPipeline.executorService.shutdown();
+      boolean terminated = false;
       try {
-        boolean terminated = mainPipeline.executorService.awaitTermination(2, TimeUnit.SECONDS);
+        terminated = mainPipeline.executorService.awaitTermination(2, TimeUnit.SECONDS);
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
       }
+      // Keep the interpreters warm for the next OpMode, unless one might still be running.
+      synchronized (engines) {
+        if (terminated) {
+          for (Object engine : engines) {
+            model.releaseEngine(params, engine);
+          }
+        } else {
+          Log.w(TAG, "recognizers did not stop; not returning their interpreters to the cache");
+        }
+        engines.clear();
+      }
     }
   }
 
@@ -185,19 +235,22 @@ abstract class TfodFrameManager {
     private final Rect destZoomRect = new Rect();
 
     private final ExecutorService executorService;
+    // A recognizer pipeline is owned by whoever removed its index from here, until it is returned.
     private final Queue<Integer> availableRecognizerIndex;
-    private final Object[] lockForRecognizerPipeline;
     private final RecognizerPipeline[] recognizerPipeline;
 
     private TrackerPipeline trackerPipeline;
 
+    // Scheduling state; accessed only on the frame thread
+    private long lastRecognitionNanos;
+    private long recognitionCount;
+    private final Rect regionOfInterest = new Rect();
+
     MainPipeline() {
       executorService = Executors.newFixedThreadPool(params.numExecutorThreads);
       availableRecognizerIndex = new ConcurrentLinkedQueue<>();
-      lockForRecognizerPipeline = new Object[params.numExecutorThreads];
       for (int i = 0; i < params.numExecutorThreads; i++) {
         availableRecognizerIndex.add(i);
-        lockForRecognizerPipeline[i] = new Object();
       }
       recognizerPipeline = new RecognizerPipeline[params.numExecutorThreads];
     }
@@ -223,13 +276,13 @@ abstract class TfodFrameManager {
       }
 
       for (int i = 0; i < params.numExecutorThreads; i++) {
-        synchronized (lockForRecognizerPipeline[i]) {
-          recognizerPipeline[i] = createRecognizerPipeline(modelData, zoomHelper,
-              Bitmap.createBitmap(zoomHelper.width(), zoomHelper.height(), Bitmap.Config.ARGB_8888));
+        Object engine = model.acquireEngine(params);
+        synchronized (engines) {
+          engines.add(engine);
         }
+        recognizerPipeline[i] = createRecognizerPipeline(engine, zoomHelper,
+            Bitmap.createBitmap(zoomHelper.width(), zoomHelper.height(), Bitmap.Config.ARGB_8888));
       }
-      // After the RecognizerPipelines are created, we don't need modelData anymore.
-      modelData = null;
 
       if (params.useObjectTracker) {
         trackerPipeline = new TrackerPipeline(zoomHelper,
@@ -242,6 +295,7 @@ abstract class TfodFrameManager {
       if (!active) {
         return;
       }
+      timings.noteFrameReceived();
 
       final long frameTimeNanos = System.nanoTime();
 
@@ -267,40 +321,19 @@ abstract class TfodFrameManager {
       clippingMarginsHelper.fillClippingMargins(canvas);
       zoomHelper.blurAroundZoomArea(canvas);
 
-      final Integer i = availableRecognizerIndex.poll();
-      if (i != null) {
-        synchronized (lockForRecognizerPipeline[i]) {
-          executorService.submit(new Runnable() {
-            @Override
-            public void run() {
-              synchronized (lockForRecognizerPipeline[i]) {
-                if (!zoomHelper.equals(recognizerPipeline[i].zoomHelper)) {
-                  // The zoom has changed. We need to create a new bitmap for this recognizer
-                  // pipeline.
-                  recognizerPipeline[i].onResized(zoomHelper,
-                      Bitmap.createBitmap(zoomHelper.width(), zoomHelper.height(), Bitmap.Config.ARGB_8888));
-                }
-              }
-              // Copy the zoom area onto the recognizerPipeline[i].zoomBitmap.
-              Canvas zoomCanvas = new Canvas(recognizerPipeline[i].zoomBitmap);
-              zoomCanvas.drawBitmap(bitmap, srcZoomRect, destZoomRect, null);
-              recognizerPipeline[i].processFrame(frameTimeNanos);
-              availableRecognizerIndex.add(i);
-            }
-          });
-        }
-      }
+      scheduleRecognition(frameTimeNanos);
 
       if (trackerPipeline != null) {
+        long nanosStart = System.nanoTime();
         if (!zoomHelper.equals(trackerPipeline.zoomHelper)) {
-          // The zoom has changed. We need to create a new bitmap for the tracker pipeline.
+          // The zoom has changed. Resize the bitmap for the tracker pipeline.
           trackerPipeline.onResized(zoomHelper,
-              Bitmap.createBitmap(zoomHelper.width(), zoomHelper.height(), Bitmap.Config.ARGB_8888));
+              reuseOrCreateBitmap(trackerPipeline.zoomBitmap, zoomHelper.width(), zoomHelper.height()));
         }
         // Copy the zoom area onto the trackerPipeline.zoomBitmap.
-        Canvas zoomCanvas = new Canvas(trackerPipeline.zoomBitmap);
-        zoomCanvas.drawBitmap(bitmap, srcZoomRect, destZoomRect, null);
+        trackerPipeline.copyZoomArea(bitmap, srcZoomRect, destZoomRect);
         trackerPipeline.processFrame(frameTimeNanos);
+        timings.add(TfodTimings.Stage.TRACKER, System.nanoTime() - nanosStart);
       }
 
       if (trackerPipeline != null) {
@@ -327,20 +360,130 @@ abstract class TfodFrameManager {
 
       annotatedFrameCallback.accept(bitmap);
     }
+
+    /**
+     * Hands the frame to an idle recognizer pipeline. If every pipeline is busy, the frame is
+     * dropped rather than queued: by the time a pipeline became free, a newer frame would be
+     * waiting. The zoom area is copied here, on the frame thread, so that the recognizer works
+     * on its own copy while the frame bitmap is annotated and then overwritten by the next frame.
+     */
+    private void scheduleRecognition(final long frameTimeNanos) {
+      long minNanosBetweenRecognitions;
+      int fullFrameDetectionInterval;
+      synchronized (inferenceSchedule) {
+        minNanosBetweenRecognitions = inferenceSchedule.minNanosBetweenRecognitions(timings.getNanosPerRecognition());
+        fullFrameDetectionInterval = inferenceSchedule.fullFrameDetectionInterval;
+      }
+      if (lastRecognitionNanos != 0 && frameTimeNanos - lastRecognitionNanos < minNanosBetweenRecognitions) {
+        timings.noteFrameSkipped();
+        return;
+      }
+
+      final Integer i = availableRecognizerIndex.poll();
+      if (i == null) {
+        timings.noteFrameDropped();
+        return;
+      }
+      final RecognizerPipeline pipeline = recognizerPipeline[i];
+
+      long nanosStart = System.nanoTime();
+      if (!zoomHelper.equals(pipeline.zoomHelper)) {
+        // The zoom has changed. Resize the bitmap for this recognizer pipeline.
+        pipeline.onResized(zoomHelper,
+            reuseOrCreateBitmap(pipeline.zoomBitmap, zoomHelper.width(), zoomHelper.height()));
+      }
+      pipeline.copyZoomArea(bitmap, srcZoomRect, destZoomRect);
+      pipeline.nanosZoomCopy = System.nanoTime() - nanosStart;
+
+      // Between full frame detections, look only around what the tracker is following.
+      boolean fullFrame = trackerPipeline == null
+          || fullFrameDetectionInterval <= 1
+          || recognitionCount % fullFrameDetectionInterval == 0
+          || !computeRegionOfInterest(regionOfInterest);
+      pipeline.setRegionOfInterest(fullFrame ? null : regionOfInterest);
+      if (!fullFrame) {
+        timings.noteRegionOfInterestRecognition();
+      }
+      recognitionCount++;
+      lastRecognitionNanos = frameTimeNanos;
+
+      try {
+        executorService.submit(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              pipeline.processFrame(frameTimeNanos);
+              timings.noteFrameProcessed();
+            } finally {
+              availableRecognizerIndex.add(i);
+            }
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // We're shutting down.
+        availableRecognizerIndex.add(i);
+      }
+    }
+
+    /**
+     * Computes, in zoom area coordinates, a square-ish region enclosing the most recently
+     * published objects with a generous margin around them. Returns false if there are no such
+     * objects or if the region would cover most of the zoom area anyway.
+     */
+    private boolean computeRegionOfInterest(Rect result) {
+      List<LabeledObject> labeledObjects = lastLabeledObjectsPublished;
+      if (labeledObjects == null || labeledObjects.isEmpty()) {
+        return false;
+      }
+      float left = Float.MAX_VALUE, top = Float.MAX_VALUE;
+      float right = -Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+      for (LabeledObject labeledObject : labeledObjects) {
+        if (!zoomHelper.equals(labeledObject.zoomHelper)) {
+          return false; // stale: the zoom has changed since
+        }
+        left = Math.min(left, labeledObject.left);
+        top = Math.min(top, labeledObject.top);
+        right = Math.max(right, labeledObject.right);
+        bottom = Math.max(bottom, labeledObject.bottom);
+      }
+
+      // The model's input is square: grow the region to a square, then by the margin.
+      float size = Math.max(right - left, bottom - top) * (1 + 2 * REGION_OF_INTEREST_MARGIN);
+      size = Math.max(size, params.inputSize);
+      float centerX = (left + right) / 2;
+      float centerY = (top + bottom) / 2;
+      int width = zoomHelper.width();
+      int height = zoomHelper.height();
+      result.set(
+          Math.max(0, Math.round(centerX - size / 2)),
+          Math.max(0, Math.round(centerY - size / 2)),
+          Math.min(width, Math.round(centerX + size / 2)),
+          Math.min(height, Math.round(centerY + size / 2)));
+      return !result.isEmpty()
+          && (long) result.width() * result.height() < REGION_OF_INTEREST_MAX_AREA * width * height;
+    }
   }
 
   abstract class AbstractPipeline {
     ZoomHelper zoomHelper;
     Bitmap zoomBitmap;
+    private Canvas zoomCanvas;
 
     AbstractPipeline(ZoomHelper zoomHelper, Bitmap zoomBitmap) {
       this.zoomHelper = zoomHelper;
       this.zoomBitmap = zoomBitmap;
+      this.zoomCanvas = new Canvas(zoomBitmap);
     }
 
     void onResized(ZoomHelper zoomHelper, Bitmap zoomBitmap) {
       this.zoomHelper = zoomHelper;
       this.zoomBitmap = zoomBitmap;
+      // The bitmap may be the same one, reconfigured, so the canvas must be renewed regardless.
+      this.zoomCanvas = new Canvas(zoomBitmap);
+    }
+
+    void copyZoomArea(Bitmap frameBitmap, Rect srcZoomRect, Rect destZoomRect) {
+      zoomCanvas.drawBitmap(frameBitmap, srcZoomRect, destZoomRect, null /* paint */);
     }
 
     protected abstract void processFrame(long frameTimeNanos);
@@ -351,6 +494,11 @@ abstract class TfodFrameManager {
     private final Canvas canvasForTfod;
     private final Rect rectForTfod;
     protected Matrix tfodToZoomAreaMatrix;
+    private Matrix tfodToFullZoomAreaMatrix;
+    private final Matrix tfodToRegionOfInterestMatrix = new Matrix();
+    private final Rect regionOfInterest = new Rect();
+    private boolean useRegionOfInterest;
+    long nanosZoomCopy; // time spent copying the zoom area for the current frame
 
     protected RecognizerPipeline(ZoomHelper zoomHelper, Bitmap zoomBitmap) {
       super(zoomHelper, zoomBitmap);
@@ -358,18 +506,48 @@ abstract class TfodFrameManager {
       bitmapForTfod = Bitmap.createBitmap(params.inputSize, params.inputSize, Bitmap.Config.ARGB_8888);
       canvasForTfod = new Canvas(bitmapForTfod);
       rectForTfod = new Rect(0, 0, params.inputSize, params.inputSize);
-      tfodToZoomAreaMatrix = ImageUtils.transformBetweenImageSizes(
+      tfodToFullZoomAreaMatrix = ImageUtils.transformBetweenImageSizes(
           new Size(params.inputSize, params.inputSize), new Size(zoomBitmap.getWidth(), zoomBitmap.getHeight()));
+      tfodToZoomAreaMatrix = tfodToFullZoomAreaMatrix;
     }
 
     void onResized(ZoomHelper zoomHelper, Bitmap zoomBitmap) {
       super.onResized(zoomHelper, zoomBitmap);
-      tfodToZoomAreaMatrix = ImageUtils.transformBetweenImageSizes(
+      tfodToFullZoomAreaMatrix = ImageUtils.transformBetweenImageSizes(
           new Size(params.inputSize, params.inputSize), new Size(zoomBitmap.getWidth(), zoomBitmap.getHeight()));
+      tfodToZoomAreaMatrix = tfodToFullZoomAreaMatrix;
+    }
+
+    /**
+     * Restricts the next recognition to the given region of the zoom area, or, if null, lets it
+     * see the whole zoom area.
+     */
+    void setRegionOfInterest(Rect regionOfInterest) {
+      if (regionOfInterest == null) {
+        useRegionOfInterest = false;
+        tfodToZoomAreaMatrix = tfodToFullZoomAreaMatrix;
+      } else {
+        useRegionOfInterest = true;
+        this.regionOfInterest.set(regionOfInterest);
+        tfodToRegionOfInterestMatrix.setScale(
+            regionOfInterest.width() / (float) params.inputSize,
+            regionOfInterest.height() / (float) params.inputSize);
+        tfodToRegionOfInterestMatrix.postTranslate(regionOfInterest.left, regionOfInterest.top);
+        tfodToZoomAreaMatrix = tfodToRegionOfInterestMatrix;
+      }
     }
 
     protected void updateBitmapForTfod() {
-      canvasForTfod.drawBitmap(zoomBitmap, null, rectForTfod, null /* paint */);
+      canvasForTfod.drawBitmap(zoomBitmap, useRegionOfInterest ? regionOfInterest : null,
+          rectForTfod, null /* paint */);
+    }
+
+    /** Records the timings of the stages of processing one frame, given the time at which each began */
+    protected void recordTimings(long nanosPreprocess, long nanosInference, long nanosPostprocess, long nanosEnd) {
+      timings.add(TfodTimings.Stage.PREPROCESS, nanosZoomCopy + nanosInference - nanosPreprocess);
+      timings.add(TfodTimings.Stage.INFERENCE, nanosPostprocess - nanosInference);
+      timings.add(TfodTimings.Stage.POSTPROCESS, nanosEnd - nanosPostprocess);
+      timings.noteRecognitionTime(nanosZoomCopy + nanosEnd - nanosPreprocess);
     }
   }
 
@@ -433,11 +611,11 @@ abstract class TfodFrameManager {
       sendResults(frameTimeNanos, newLabeledObjects);
     }
 
-    private void onResultsFromRecognizerPipeline(
+    // Recognizer pipelines may report concurrently; they share luminosityArrayFromRecognizerPipeline.
+    private synchronized void onResultsFromRecognizerPipeline(
         long frameTimeNanos, List<LabeledObject> labeledObjectsFromRecognizerPipeline,
         Bitmap bitmapFromRecognizerPipeline) {
 
-
       // Convert the results to the tracker frame coordinates.
       List<LabeledObject> labeledObjectsInTrackerCoordinates =
           transformLocations(labeledObjectsFromRecognizerPipeline, zoomAreaToTrackerMatrix,
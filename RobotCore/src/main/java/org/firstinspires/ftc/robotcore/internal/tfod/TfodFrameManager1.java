@@ -22,7 +22,6 @@ import android.graphics.RectF;
 import android.util.Log;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.MappedByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -45,16 +44,17 @@ class TfodFrameManager1 extends TfodFrameManager {
   private static final float IMAGE_MEAN = 128.0f;
   private static final float IMAGE_STD = 128.0f;
 
-  TfodFrameManager1(MappedByteBuffer modelData, List<String> labels, TfodParameters params,
+  TfodFrameManager1(TfodModelCache.Model model, List<String> labels, TfodParameters params,
       CameraInformation cameraInformation, ClippingMargins clippingMargins, Zoom zoom,
-      ResultsCallback resultsCallback, Consumer<Bitmap> annotatedFrameCallback) {
-    super(modelData, labels, params, cameraInformation, clippingMargins, zoom, resultsCallback,
-        annotatedFrameCallback);
+      InferenceSchedule inferenceSchedule, ResultsCallback resultsCallback,
+      Consumer<Bitmap> annotatedFrameCallback) {
+    super(model, labels, params, cameraInformation, clippingMargins, zoom, inferenceSchedule,
+        resultsCallback, annotatedFrameCallback);
   }
 
   @Override
-  protected RecognizerPipeline createRecognizerPipeline(MappedByteBuffer modelData, ZoomHelper zoomHelper, Bitmap zoomBitmap) {
-    return new RecognizerPipeline1(modelData, zoomHelper, zoomBitmap);
+  protected RecognizerPipeline createRecognizerPipeline(Object engine, ZoomHelper zoomHelper, Bitmap zoomBitmap) {
+    return new RecognizerPipeline1((Interpreter) engine, zoomHelper, zoomBitmap);
   }
 
   private class RecognizerPipeline1 extends RecognizerPipeline {
@@ -66,10 +66,10 @@ class TfodFrameManager1 extends TfodFrameManager {
     private final float[][] outputScores;
     private final float[] numDetections;
 
-    private RecognizerPipeline1(MappedByteBuffer modelData, ZoomHelper zoomHelper, Bitmap zoomBitmap) {
+    private RecognizerPipeline1(Interpreter interpreter, ZoomHelper zoomHelper, Bitmap zoomBitmap) {
       super(zoomHelper, zoomBitmap);
 
-      interpreter = new Interpreter(modelData, params.numInterpreterThreads);
+      this.interpreter = interpreter;
 
       argb8888Array = new int[4 * params.inputSize * params.inputSize];
 
@@ -90,6 +90,7 @@ class TfodFrameManager1 extends TfodFrameManager {
 
     @Override
     protected void processFrame(long frameTimeNanos) {
+      long nanosPreprocess = System.nanoTime();
       updateBitmapForTfod();
 
       bitmapForTfod.getPixels(argb8888Array, 0, params.inputSize, 0, 0, params.inputSize, params.inputSize);
@@ -120,10 +121,13 @@ class TfodFrameManager1 extends TfodFrameManager {
       outputMap.put(1, outputClasses);
       outputMap.put(2, outputScores);
       outputMap.put(3, numDetections);
+      long nanosInference = System.nanoTime();
       interpreter.runForMultipleInputsOutputs(inputArray, outputMap);
 
+      long nanosPostprocess = System.nanoTime();
       List<LabeledObject> labeledObjects = postProcessDetections(
           outputLocations[0], outputClasses[0], outputScores[0]);
+      recordTimings(nanosPreprocess, nanosInference, nanosPostprocess, System.nanoTime());
       onResultsFromRecognizerPipeline(frameTimeNanos, labeledObjects, zoomBitmap);
     }
 
@@ -20,7 +20,6 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.RectF;
 import android.util.Log;
-import java.nio.MappedByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -31,7 +30,6 @@ import org.tensorflow.lite.support.image.TensorImage;
 import org.tensorflow.lite.support.label.Category;
 import org.tensorflow.lite.task.vision.detector.Detection;
 import org.tensorflow.lite.task.vision.detector.ObjectDetector;
-import org.tensorflow.lite.task.vision.detector.ObjectDetector.ObjectDetectorOptions;
 
 /**
  * Subclass of TfodFrameManager that uses {@link ObjectDetector} to support TensorFlow 2 object
@@ -40,37 +38,37 @@ import org.tensorflow.lite.task.vision.detector.ObjectDetector.ObjectDetectorOpt
  * @author lizlooney@google.com (Liz Looney)
  */
 class TfodFrameManager2 extends TfodFrameManager {
-  TfodFrameManager2(MappedByteBuffer modelData, List<String> labels, TfodParameters params,
+  TfodFrameManager2(TfodModelCache.Model model, List<String> labels, TfodParameters params,
       CameraInformation cameraInformation, ClippingMargins clippingMargins, Zoom zoom,
-      ResultsCallback resultsCallback, Consumer<Bitmap> annotatedFrameCallback) {
-    super(modelData, labels, params, cameraInformation, clippingMargins, zoom, resultsCallback,
-        annotatedFrameCallback);
+      InferenceSchedule inferenceSchedule, ResultsCallback resultsCallback,
+      Consumer<Bitmap> annotatedFrameCallback) {
+    super(model, labels, params, cameraInformation, clippingMargins, zoom, inferenceSchedule,
+        resultsCallback, annotatedFrameCallback);
   }
 
   @Override
-  protected RecognizerPipeline createRecognizerPipeline(MappedByteBuffer modelData, ZoomHelper zoomHelper, Bitmap zoomBitmap) {
-    return new RecognizerPipeline2(modelData, zoomHelper, zoomBitmap);
+  protected RecognizerPipeline createRecognizerPipeline(Object engine, ZoomHelper zoomHelper, Bitmap zoomBitmap) {
+    return new RecognizerPipeline2((ObjectDetector) engine, zoomHelper, zoomBitmap);
   }
 
   private class RecognizerPipeline2 extends RecognizerPipeline {
     private final ObjectDetector objectDetector;
 
-    private RecognizerPipeline2(MappedByteBuffer modelData, ZoomHelper zoomHelper, Bitmap zoomBitmap) {
+    private RecognizerPipeline2(ObjectDetector objectDetector, ZoomHelper zoomHelper, Bitmap zoomBitmap) {
       super(zoomHelper, zoomBitmap);
 
-      // Create the ObjectDetector.
-      ObjectDetectorOptions options = ObjectDetectorOptions.builder()
-          .setMaxResults(params.maxNumDetections)
-          .setNumThreads(params.numInterpreterThreads)
-          .build();
-      objectDetector = ObjectDetector.createFromBufferAndOptions(modelData, options);
+      this.objectDetector = objectDetector;
     }
 
     @Override
     protected void processFrame(long frameTimeNanos) {
+      long nanosPreprocess = System.nanoTime();
       TensorImage tensorImage = createTensorImage();
+      long nanosInference = System.nanoTime();
       List<Detection> detections = objectDetector.detect(tensorImage);
+      long nanosPostprocess = System.nanoTime();
       List<LabeledObject> labeledObjects = postProcessDetections(detections);
+      recordTimings(nanosPreprocess, nanosInference, nanosPostprocess, System.nanoTime());
       onResultsFromRecognizerPipeline(frameTimeNanos, labeledObjects, zoomBitmap);
     }
 
@@ -0,0 +1,342 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.internal.tfod;
+
+import static org.firstinspires.ftc.robotcore.internal.system.AppUtil.TFLITE_MODELS_DIR;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import org.firstinspires.ftc.robotcore.external.tfod.TFObjectDetector;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.task.vision.detector.ObjectDetector;
+import org.tensorflow.lite.task.vision.detector.ObjectDetector.ObjectDetectorOptions;
+
+/**
+ * A process-wide cache of TensorFlow Lite models and the interpreters built from them.
+ *
+ * <p>Mapping a model and building its interpreters takes seconds, and used to happen on every
+ * OpMode init. Models are now kept mapped, keyed by their location and a checksum of their
+ * contents, and interpreters are built in parallel on background threads and handed back to the
+ * cache when the TFObjectDetector that used them shuts down, so the next OpMode that loads the
+ * same model with the same settings starts immediately.
+ *
+ * <p>Interpreters can be built ahead of time with {@link #preloadModelFromAsset} or
+ * {@link #preloadModelFromFile}, which return immediately and are safe to call from
+ * {@link com.qualcomm.robotcore.eventloop.opmode.OpModeManagerNotifier.Notifications#onOpModePreInit}.
+ */
+public class TfodModelCache {
+  private static final String TAG = "TfodModelCache";
+
+  // The number of models kept warm; the least recently used beyond this are released.
+  private static final int MAX_CACHED_MODELS = 2;
+
+  private static final TfodModelCache instance = new TfodModelCache();
+
+  public static TfodModelCache getInstance() {
+    return instance;
+  }
+
+  private final ExecutorService builderExecutor = ThreadPool.newCachedThreadPool("TfodModelCache");
+
+  // Keyed by model location; access order, so the eldest entry is the least recently used.
+  private final LinkedHashMap<String, Model> models = new LinkedHashMap<>(4, 0.75f, true);
+
+  private TfodModelCache() {
+  }
+
+  /**
+   * Starts building the interpreters that a TFObjectDetector with the given parameters will
+   * need for the given asset. Returns once the model is mapped; the interpreters are built in
+   * the background.
+   */
+  public void preloadModelFromAsset(String assetName, TFObjectDetector.Parameters parameters) {
+    TfodParameters params = TFObjectDetectorImpl.makeTfodParameters(parameters);
+    getModelFromAsset(assetName).prepareEngines(params, params.numExecutorThreads);
+  }
+
+  /**
+   * Starts building the interpreters that a TFObjectDetector with the given parameters will
+   * need for the given file. Returns once the model is mapped; the interpreters are built in
+   * the background.
+   */
+  public void preloadModelFromFile(String fileName, TFObjectDetector.Parameters parameters) {
+    TfodParameters params = TFObjectDetectorImpl.makeTfodParameters(parameters);
+    getModelFromFile(fileName).prepareEngines(params, params.numExecutorThreads);
+  }
+
+  /**
+   * Releases all cached models and closes their idle interpreters. Interpreters in use are
+   * closed when they are returned.
+   */
+  public void clear() {
+    List<Model> evicted;
+    synchronized (models) {
+      evicted = new ArrayList<>(models.values());
+      models.clear();
+    }
+    for (Model model : evicted) {
+      model.evict();
+    }
+  }
+
+  Model getModelFromAsset(String assetName) {
+    try {
+      AssetManager assetManager = AppUtil.getDefContext().getAssets();
+      AssetFileDescriptor afd = assetManager.openFd(assetName);
+      try (FileInputStream fis = afd.createInputStream()) {
+        return getModel("asset:" + assetName, fis, afd.getStartOffset(), afd.getDeclaredLength());
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("TFObjectDetector loadModelFromAsset failed", e);
+    }
+  }
+
+  Model getModelFromFile(String fileName) {
+    try {
+      File file = new File(TFLITE_MODELS_DIR, fileName);
+      if (!file.exists()) {
+        file = new File(fileName);
+      }
+      try (FileInputStream fis = new FileInputStream(file)) {
+        return getModel(file.getAbsolutePath(), fis, 0, file.length());
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("TFObjectDetector loadModelFromFile failed", e);
+    }
+  }
+
+  private Model getModel(String path, FileInputStream fileInputStream, long startOffset,
+      long declaredLength) throws IOException {
+    MappedByteBuffer modelData = fileInputStream.getChannel()
+        .map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
+    String key = path + "@" + startOffset + ":" + declaredLength + "#" + checksum(modelData);
+
+    List<Model> evicted = new ArrayList<>();
+    Model model;
+    synchronized (models) {
+      model = models.get(key);
+      if (model == null) {
+        model = new Model(key, modelData);
+        models.put(key, model);
+        Iterator<Model> iterator = models.values().iterator();
+        while (models.size() > MAX_CACHED_MODELS && iterator.hasNext()) {
+          evicted.add(iterator.next());
+          iterator.remove();
+        }
+      }
+    }
+    for (Model m : evicted) {
+      RobotLog.vv(TAG, "releasing model %s", m.key);
+      m.evict();
+    }
+    return model;
+  }
+
+  private static long checksum(ByteBuffer modelData) {
+    ByteBuffer buffer = modelData.duplicate();
+    CRC32 crc = new CRC32();
+    byte[] chunk = new byte[64 * 1024];
+    while (buffer.hasRemaining()) {
+      int cb = Math.min(chunk.length, buffer.remaining());
+      buffer.get(chunk, 0, cb);
+      crc.update(chunk, 0, cb);
+    }
+    return crc.getValue();
+  }
+
+  private static void closeEngine(Object engine) {
+    try {
+      if (engine instanceof Interpreter) {
+        ((Interpreter) engine).close();
+      } else if (engine instanceof Closeable) {
+        ((Closeable) engine).close();
+      }
+    } catch (IOException | RuntimeException e) {
+      RobotLog.ee(TAG, e, "exception closing interpreter");
+    }
+  }
+
+  /**
+   * A mapped model, together with the interpreters built from it that are not currently in use.
+   * An interpreter is an {@link Interpreter} for TensorFlow 1 models and an
+   * {@link ObjectDetector} for TensorFlow 2 models; which settings it was built with is captured
+   * by {@link #engineKey}.
+   */
+  class Model {
+    final String key;
+    final MappedByteBuffer modelData;
+
+    // Idle or still-being-built interpreters, by engineKey. Guarded by this.
+    private final Map<String, Deque<Future<Object>>> engines = new HashMap<>();
+    private boolean evicted;
+
+    private Model(String key, MappedByteBuffer modelData) {
+      this.key = key;
+      this.modelData = modelData;
+    }
+
+    /**
+     * Ensures that at least count interpreters for the given parameters are idle or being built.
+     */
+    void prepareEngines(final TfodParameters params, int count) {
+      synchronized (this) {
+        Deque<Future<Object>> deque = enginesFor(params);
+        while (deque.size() < count) {
+          deque.addLast(builderExecutor.submit(new Callable<Object>() {
+            @Override
+            public Object call() {
+              return createEngine(params);
+            }
+          }));
+        }
+      }
+    }
+
+    /**
+     * Returns an interpreter for the given parameters for the exclusive use of the caller,
+     * waiting for one being built in the background or building one if necessary.
+     */
+    Object acquireEngine(TfodParameters params) {
+      Future<Object> future;
+      synchronized (this) {
+        future = enginesFor(params).pollFirst();
+      }
+      if (future == null) {
+        return createEngine(params);
+      }
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("interrupted while building interpreter", e);
+      } catch (ExecutionException e) {
+        throw new RuntimeException("failed to build interpreter", e.getCause());
+      }
+    }
+
+    /**
+     * Returns an interpreter obtained from {@link #acquireEngine} to the cache.
+     */
+    void releaseEngine(TfodParameters params, final Object engine) {
+      synchronized (this) {
+        if (!evicted) {
+          FutureTask<Object> done = new FutureTask<>(new Callable<Object>() {
+            @Override
+            public Object call() {
+              return engine;
+            }
+          });
+          done.run();
+          enginesFor(params).addFirst(done);
+          return;
+        }
+      }
+      closeEngine(engine);
+    }
+
+    private void evict() {
+      List<Future<Object>> futures = new ArrayList<>();
+      synchronized (this) {
+        evicted = true;
+        for (Deque<Future<Object>> deque : engines.values()) {
+          futures.addAll(deque);
+        }
+        engines.clear();
+      }
+      for (Future<Object> future : futures) {
+        try {
+          closeEngine(future.get());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } catch (ExecutionException e) {
+          // Nothing was built, so there's nothing to close.
+        }
+      }
+    }
+
+    private Deque<Future<Object>> enginesFor(TfodParameters params) {
+      String engineKey = engineKey(params);
+      Deque<Future<Object>> deque = engines.get(engineKey);
+      if (deque == null) {
+        deque = new ArrayDeque<>();
+        engines.put(engineKey, deque);
+      }
+      return deque;
+    }
+
+    private String engineKey(TfodParameters params) {
+      return params.isModelTensorFlow2
+          ? "tf2/" + params.numInterpreterThreads + "/" + params.maxNumDetections
+          : "tf1/" + params.numInterpreterThreads;
+    }
+
+    private Object createEngine(TfodParameters params) {
+      long start = System.nanoTime();
+      Object engine;
+      if (params.isModelTensorFlow2) {
+        ObjectDetectorOptions options = ObjectDetectorOptions.builder()
+            .setMaxResults(params.maxNumDetections)
+            .setNumThreads(params.numInterpreterThreads)
+            .build();
+        engine = ObjectDetector.createFromBufferAndOptions(modelData, options);
+      } else {
+        engine = new Interpreter(modelData, params.numInterpreterThreads);
+      }
+      RobotLog.vv(TAG, "built interpreter for %s in %d ms", key, (System.nanoTime() - start) / 1000000);
+      return engine;
+    }
+  }
+}
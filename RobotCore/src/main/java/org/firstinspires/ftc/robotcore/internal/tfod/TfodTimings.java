@@ -0,0 +1,113 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.internal.tfod;
+
+import com.qualcomm.robotcore.util.MovingStatistics;
+import java.util.concurrent.atomic.AtomicLong;
+import org.firstinspires.ftc.robotcore.external.tfod.TFObjectDetector;
+
+/**
+ * Keeps the frame counts and per-stage timings reported by {@link TFObjectDetector#getStatistics()}.
+ */
+class TfodTimings {
+
+  enum Stage { PREPROCESS, INFERENCE, POSTPROCESS, TRACKER }
+
+  private static final int WINDOW = 30; // frames
+  private static final double NANOS_PER_MILLI = 1e6;
+
+  private final MovingStatistics[] stageStatistics = new MovingStatistics[Stage.values().length];
+  private final AtomicLong framesReceived = new AtomicLong();
+  private final AtomicLong framesProcessed = new AtomicLong();
+  private final AtomicLong framesDropped = new AtomicLong();
+  private final AtomicLong framesSkipped = new AtomicLong();
+  private final AtomicLong regionOfInterestRecognitions = new AtomicLong();
+  private final Object recognitionTimeLock = new Object();
+  private long nanosPerRecognition; // exponentially weighted average
+
+  TfodTimings() {
+    for (int i = 0; i < stageStatistics.length; i++) {
+      stageStatistics[i] = new MovingStatistics(WINDOW);
+    }
+  }
+
+  void add(Stage stage, long nanos) {
+    MovingStatistics statistics = stageStatistics[stage.ordinal()];
+    synchronized (statistics) {
+      statistics.add(nanos / NANOS_PER_MILLI);
+    }
+  }
+
+  void noteFrameReceived() {
+    framesReceived.incrementAndGet();
+  }
+
+  void noteFrameProcessed() {
+    framesProcessed.incrementAndGet();
+  }
+
+  void noteFrameDropped() {
+    framesDropped.incrementAndGet();
+  }
+
+  void noteFrameSkipped() {
+    framesSkipped.incrementAndGet();
+  }
+
+  void noteRegionOfInterestRecognition() {
+    regionOfInterestRecognitions.incrementAndGet();
+  }
+
+  void noteRecognitionTime(long nanos) {
+    synchronized (recognitionTimeLock) {
+      nanosPerRecognition = nanosPerRecognition == 0 ? nanos : (nanosPerRecognition * 7 + nanos) / 8;
+    }
+  }
+
+  long getNanosPerRecognition() {
+    synchronized (recognitionTimeLock) {
+      return nanosPerRecognition;
+    }
+  }
+
+  private double mean(Stage stage) {
+    MovingStatistics statistics = stageStatistics[stage.ordinal()];
+    synchronized (statistics) {
+      return statistics.getCount() > 0 ? statistics.getMean() : 0;
+    }
+  }
+
+  TFObjectDetector.Statistics snapshot() {
+    return new TFObjectDetector.Statistics(
+        framesReceived.get(), framesProcessed.get(), framesDropped.get(),
+        framesSkipped.get(), regionOfInterestRecognitions.get(),
+        mean(Stage.PREPROCESS), mean(Stage.INFERENCE), mean(Stage.POSTPROCESS), mean(Stage.TRACKER));
+  }
+}
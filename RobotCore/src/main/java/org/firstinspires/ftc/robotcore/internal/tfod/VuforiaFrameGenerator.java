@@ -22,6 +22,7 @@ import android.hardware.Camera.CameraInfo;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.vuforia.Image;
 import com.vuforia.PIXEL_FORMAT;
+import java.nio.ByteBuffer;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -33,11 +34,14 @@ import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer.Clos
 import org.firstinspires.ftc.robotcore.external.tfod.CameraInformation;
 import org.firstinspires.ftc.robotcore.external.tfod.FrameConsumer;
 import org.firstinspires.ftc.robotcore.external.tfod.FrameGenerator;
+import org.firstinspires.ftc.robotcore.internal.camera.FrameBus;
 import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
 import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.robotcore.internal.vuforia.VuforiaLocalizerImpl;
 
 /**
- * An implementation of FrameGenerator where the frames are retrieved from the Vuforia frame queue.
+ * An implementation of FrameGenerator where the frames are retrieved from the Vuforia frame bus or,
+ * for localizers that don't provide one, from the Vuforia frame queue.
  *
  * @author Vasu Agrawal
  * @author lizlooney@google.com (Liz Looney)
@@ -45,7 +49,8 @@ import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
 public class VuforiaFrameGenerator implements FrameGenerator, Runnable {
 
   private final VuforiaLocalizer vuforiaLocalizer;
-  private final BlockingQueue<CloseableFrame> frameQueue;
+  private final FrameBus<CloseableFrame>.Subscription frameSubscription; // null if frameQueue is used
+  private final BlockingQueue<CloseableFrame> frameQueue; // null if frameSubscription is used
   private final CameraInformation cameraInformation;
   private final Thread frameGeneratorThread;
   private final AtomicReference<FrameConsumer> frameConsumerHolder = new AtomicReference<>();
@@ -53,8 +58,16 @@ public class VuforiaFrameGenerator implements FrameGenerator, Runnable {
   public VuforiaFrameGenerator(VuforiaLocalizer vuforiaLocalizer) {
     this.vuforiaLocalizer = vuforiaLocalizer;
     vuforiaLocalizer.enableConvertFrameToBitmap();
-    vuforiaLocalizer.setFrameQueueCapacity(1);
-    frameQueue = vuforiaLocalizer.getFrameQueue();
+    // Where we can, subscribe to the frame bus rather than use the frame queue, so that we
+    // neither take frames from nor are starved by any user code reading the queue.
+    if (vuforiaLocalizer instanceof VuforiaLocalizerImpl) {
+      frameSubscription = ((VuforiaLocalizerImpl) vuforiaLocalizer).getFrameBus().subscribe("tfod");
+      frameQueue = null;
+    } else {
+      frameSubscription = null;
+      vuforiaLocalizer.setFrameQueueCapacity(1);
+      frameQueue = vuforiaLocalizer.getFrameQueue();
+    }
     cameraInformation = createCameraInformation(vuforiaLocalizer);
     frameGeneratorThread = new Thread(this, "VuforiaFrameGenerator");
   }
@@ -113,6 +126,11 @@ public class VuforiaFrameGenerator implements FrameGenerator, Runnable {
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
       }
+      if (frameSubscription != null) {
+        frameSubscription.close();
+        RobotLog.vv("VuforiaFrameGenerator", "frames offered=%d dropped=%d",
+            frameSubscription.getOfferedCount(), frameSubscription.getDroppedCount());
+      }
     }
   }
 
@@ -125,11 +143,14 @@ public class VuforiaFrameGenerator implements FrameGenerator, Runnable {
     while (true) {
       CloseableFrame frame;
       try {
-        frame = frameQueue.take();
+        frame = frameSubscription != null ? frameSubscription.take() : frameQueue.take();
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
         return;
       }
+      if (frame == null) {
+        return; // subscription closed
+      }
 
       if (bitmap == null) {
         bitmap = createBitmap(frame, Bitmap.Config.ARGB_8888);
@@ -160,24 +181,18 @@ public class VuforiaFrameGenerator implements FrameGenerator, Runnable {
   }
 
   private Bitmap createBitmap(CloseableFrame frame, Bitmap.Config bitmapConfig) {
-    int pixelFormat = getPixelFormat(bitmapConfig);
-    for (int i = 0; i < frame.getNumImages(); i++) {
-      Image image = frame.getImage(i);
-      if (image.getFormat() == pixelFormat) {
-        return Bitmap.createBitmap(image.getWidth(), image.getHeight(), bitmapConfig);
-      }
-    }
-    return null;
+    Image image = frame.findImage(getPixelFormat(bitmapConfig));
+    return image != null
+        ? Bitmap.createBitmap(image.getWidth(), image.getHeight(), bitmapConfig)
+        : null;
   }
 
   private boolean copyFrameToBitmap(CloseableFrame frame, Bitmap bitmap) {
-    int pixelFormat = getPixelFormat(bitmap.getConfig());
-    for (int i = 0; i < frame.getNumImages(); i++) {
-      Image image = frame.getImage(i);
-      if (image.getFormat() == pixelFormat) {
-        bitmap.copyPixelsFromBuffer(image.getPixels());
-        return true;
-      }
+    // Copy straight from Vuforia's image memory into the one bitmap we reuse for every frame.
+    ByteBuffer pixels = frame.findPixels(getPixelFormat(bitmap.getConfig()));
+    if (pixels != null) {
+      bitmap.copyPixelsFromBuffer(pixels);
+      return true;
     }
     RobotLog.e("Error: Didn't find a " + getPixelFormatName(bitmap.getConfig()) + " image from Vuforia!");
     return false;
@@ -0,0 +1,336 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.firstinspires.ftc.robotcore.internal.vuforia;
+
+import android.opengl.Matrix;
+
+import androidx.annotation.Nullable;
+
+import com.vuforia.TrackableResult;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraName;
+import org.firstinspires.ftc.robotcore.external.matrices.OpenGLMatrix;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaRobotLocalization;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackable;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackableDefaultListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link VuforiaBatchLocalizer} locates the robot from all the visible trackables of a
+ * {@link VuforiaTrackablesImpl} in one pass per frame, rather than each trackable's listener
+ * doing so separately and on demand. All intermediate matrices are preallocated; the only
+ * allocations made per frame are those of the published {@link VuforiaRobotLocalization}.
+ *
+ * <p>The location computed from each visible trackable is the same as that returned by
+ * {@link VuforiaTrackableDefaultListener#getFtcFieldFromRobot()}, and uses the camera location
+ * set on that listener. The fused location weights each trackable by the inverse square of its
+ * distance from the camera, as nearer targets are located more precisely.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class VuforiaBatchLocalizer
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    /** Column-major; see {@link VuforiaTrackableDefaultListener} for the coordinate systems */
+    protected static final float[] vuforiaCameraFromFtcCamera = new float[]
+        {
+            -1,  0, 0, 0,
+             0, -1, 0, 0,
+             0,  0, 1, 0,
+             0,  0, 0, 1
+        };
+
+    protected static final float minWeightDistance = 1f; // mm; guards against division by zero
+
+    protected final VuforiaTrackablesImpl trackables;
+
+    // Per-trackable state, indexed as the trackables are. Used only on the Vuforia callback thread.
+    protected final boolean[]        visible;
+    protected final float[][]        vuforiaCameraFromTarget;
+    protected final float[][]        ftcFieldFromRobot;
+    protected final float[]          weight;
+    protected final OpenGLMatrix[]   robotFromFtcCamera;     // as last fetched from the listener
+    protected final float[][]        vuforiaCameraFromRobot; // vuforiaCameraFromFtcCamera * inverse(robotFromFtcCamera)
+
+    protected final float[]          scratch = new float[16];
+    protected final float[]          targetFromVuforiaCamera = new float[16];
+    protected final double[]         quaternion = new double[4];
+    protected final double[]         quaternionSum = new double[4];
+
+    protected final Object                             lock = new Object();
+    protected @Nullable VuforiaRobotLocalization       localization = null;
+    protected boolean                                  localizationUpdated = false;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public VuforiaBatchLocalizer(VuforiaTrackablesImpl trackables)
+        {
+        this.trackables = trackables;
+        int count = trackables.size();
+        this.visible = new boolean[count];
+        this.vuforiaCameraFromTarget = new float[count][16];
+        this.ftcFieldFromRobot = new float[count][16];
+        this.weight = new float[count];
+        this.robotFromFtcCamera = new OpenGLMatrix[count];
+        this.vuforiaCameraFromRobot = new float[count][16];
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public @Nullable VuforiaRobotLocalization getLocalization()
+        {
+        synchronized (lock)
+            {
+            return localization;
+            }
+        }
+
+    public @Nullable VuforiaRobotLocalization getUpdatedLocalization()
+        {
+        synchronized (lock)
+            {
+            if (localizationUpdated)
+                {
+                localizationUpdated = false;
+                return localization;
+                }
+            return null;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Frame processing: called on the Vuforia callback thread
+    //----------------------------------------------------------------------------------------------
+
+    public void beginFrame()
+        {
+        Arrays.fill(visible, false);
+        }
+
+    /** Notes that the indicated trackable, or a VuMark instance thereof, is visible */
+    public void noteTracked(VuforiaTrackable vuforiaTrackable, TrackableResult trackableResult)
+        {
+        int index = trackables.indexOf(vuforiaTrackable);
+        if (index < 0 && vuforiaTrackable.getParent() != null)
+            {
+            index = trackables.indexOf(vuforiaTrackable.getParent());
+            }
+        if (index < 0)
+            {
+            return;
+            }
+
+        // Vuforia's pose is a row-major 3x4 [R|t]; make it a column-major 4x4
+        float[] pose = trackableResult.getPose().getData();
+        float[] matrix = vuforiaCameraFromTarget[index];
+        for (int row = 0; row < 3; row++)
+            {
+            for (int col = 0; col < 4; col++)
+                {
+                matrix[col*4 + row] = pose[row*4 + col];
+                }
+            }
+        matrix[3] = matrix[7] = matrix[11] = 0;
+        matrix[15] = 1;
+        visible[index] = true;
+        }
+
+    public void endFrame(@Nullable CameraName cameraName)
+        {
+        long now = System.nanoTime();
+        List<VuforiaTrackable> visibleTrackables = new ArrayList<>();
+        List<OpenGLMatrix> robotLocations = new ArrayList<>();
+        float totalWeight = 0;
+
+        for (int index = 0; index < visible.length; index++)
+            {
+            if (!visible[index]) continue;
+            VuforiaTrackable trackable = trackables.get(index);
+            updateCameraLocation(index, trackable, cameraName);
+
+            // ftcFieldFromRobot = ftcFieldFromTarget * inverse(vuforiaCameraFromTarget) * vuforiaCameraFromRobot
+            float[] pose = vuforiaCameraFromTarget[index];
+            invertRigid(pose, targetFromVuforiaCamera);
+            Matrix.multiplyMM(scratch, 0, targetFromVuforiaCamera, 0, vuforiaCameraFromRobot[index], 0);
+            Matrix.multiplyMM(ftcFieldFromRobot[index], 0, trackable.getFtcFieldFromTarget().getData(), 0, scratch, 0);
+
+            float distance = Math.max(minWeightDistance, Matrix.length(pose[12], pose[13], pose[14]));
+            weight[index] = 1 / (distance * distance);
+            totalWeight += weight[index];
+
+            visibleTrackables.add(trackable);
+            robotLocations.add(new OpenGLMatrix(ftcFieldFromRobot[index].clone()));
+            }
+
+        OpenGLMatrix fused = null;
+        if (robotLocations.size()==1)
+            {
+            fused = robotLocations.get(0);
+            }
+        else if (robotLocations.size() > 1)
+            {
+            fused = new OpenGLMatrix(fuse(totalWeight));
+            }
+
+        VuforiaRobotLocalization result = new VuforiaRobotLocalization(now, cameraName, visibleTrackables, robotLocations, fused);
+        synchronized (lock)
+            {
+            localization = result;
+            localizationUpdated = true;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    protected void updateCameraLocation(int index, VuforiaTrackable trackable, @Nullable CameraName cameraName)
+        {
+        VuforiaTrackable.Listener listener = trackable.getListener();
+        OpenGLMatrix location = (cameraName != null && listener instanceof VuforiaTrackableDefaultListener)
+                ? ((VuforiaTrackableDefaultListener)listener).getCameraLocationOnRobot(cameraName)
+                : null;
+        if (location == null)
+            {
+            location = OpenGLMatrix.identityMatrix();
+            }
+        OpenGLMatrix previous = robotFromFtcCamera[index];
+        if (previous == null || !Arrays.equals(previous.getData(), location.getData()))
+            {
+            robotFromFtcCamera[index] = location;
+            invertRigid(location.getData(), scratch);
+            Matrix.multiplyMM(vuforiaCameraFromRobot[index], 0, vuforiaCameraFromFtcCamera, 0, scratch, 0);
+            }
+        }
+
+    /** Inverts a rigid transform [R|t] as [R'|-R't], which is both cheaper and more accurate than a general inverse */
+    protected static void invertRigid(float[] m, float[] result)
+        {
+        for (int row = 0; row < 3; row++)
+            {
+            for (int col = 0; col < 3; col++)
+                {
+                result[col*4 + row] = m[row*4 + col];
+                }
+            }
+        for (int row = 0; row < 3; row++)
+            {
+            result[12 + row] = -(m[row*4] * m[12] + m[row*4 + 1] * m[13] + m[row*4 + 2] * m[14]);
+            }
+        result[3] = result[7] = result[11] = 0;
+        result[15] = 1;
+        }
+
+    /** Combines the visible locations: translations are averaged, rotations are averaged as quaternions */
+    protected float[] fuse(float totalWeight)
+        {
+        float[] result = new float[16];
+        Arrays.fill(quaternionSum, 0);
+        boolean first = true;
+        for (int index = 0; index < visible.length; index++)
+            {
+            if (!visible[index]) continue;
+            float[] m = ftcFieldFromRobot[index];
+            float w = weight[index] / totalWeight;
+            result[12] += w * m[12];
+            result[13] += w * m[13];
+            result[14] += w * m[14];
+
+            toQuaternion(m, quaternion);
+            // q and -q are the same rotation; keep them all in the same hemisphere as the first
+            double sign = 1;
+            if (!first && dot(quaternion, quaternionSum) < 0) sign = -1;
+            for (int i = 0; i < 4; i++) quaternionSum[i] += sign * w * quaternion[i];
+            first = false;
+            }
+        fromQuaternion(quaternionSum, result);
+        result[15] = 1;
+        return result;
+        }
+
+    protected static double dot(double[] a, double[] b)
+        {
+        return a[0]*b[0] + a[1]*b[1] + a[2]*b[2] + a[3]*b[3];
+        }
+
+    /** Extracts the rotation of a column-major transform as a unit quaternion (w, x, y, z) */
+    protected static void toQuaternion(float[] m, double[] q)
+        {
+        double m00 = m[0], m11 = m[5], m22 = m[10];
+        double m10 = m[1], m01 = m[4], m20 = m[2], m02 = m[8], m21 = m[6], m12 = m[9];
+        double trace = m00 + m11 + m22;
+        if (trace > 0)
+            {
+            double s = Math.sqrt(trace + 1) * 2;
+            q[0] = s / 4; q[1] = (m21 - m12) / s; q[2] = (m02 - m20) / s; q[3] = (m10 - m01) / s;
+            }
+        else if (m00 > m11 && m00 > m22)
+            {
+            double s = Math.sqrt(1 + m00 - m11 - m22) * 2;
+            q[0] = (m21 - m12) / s; q[1] = s / 4; q[2] = (m01 + m10) / s; q[3] = (m02 + m20) / s;
+            }
+        else if (m11 > m22)
+            {
+            double s = Math.sqrt(1 + m11 - m00 - m22) * 2;
+            q[0] = (m02 - m20) / s; q[1] = (m01 + m10) / s; q[2] = s / 4; q[3] = (m12 + m21) / s;
+            }
+        else
+            {
+            double s = Math.sqrt(1 + m22 - m00 - m11) * 2;
+            q[0] = (m10 - m01) / s; q[1] = (m02 + m20) / s; q[2] = (m12 + m21) / s; q[3] = s / 4;
+            }
+        }
+
+    /** Sets the rotation part of a column-major transform from a (not necessarily unit) quaternion */
+    protected static void fromQuaternion(double[] q, float[] m)
+        {
+        double norm = Math.sqrt(dot(q, q));
+        double w = q[0]/norm, x = q[1]/norm, y = q[2]/norm, z = q[3]/norm;
+        m[0]  = (float)(1 - 2*(y*y + z*z));
+        m[1]  = (float)(2*(x*y + w*z));
+        m[2]  = (float)(2*(x*z - w*y));
+        m[4]  = (float)(2*(x*y - w*z));
+        m[5]  = (float)(1 - 2*(x*x + z*z));
+        m[6]  = (float)(2*(y*z + w*x));
+        m[8]  = (float)(2*(x*z + w*y));
+        m[9]  = (float)(2*(y*z - w*x));
+        m[10] = (float)(1 - 2*(x*x + y*y));
+        }
+    }
@@ -94,12 +94,15 @@ import org.firstinspires.ftc.robotcore.external.function.ContinuationResult;
 import org.firstinspires.ftc.robotcore.external.function.Supplier;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.BuiltinCameraName;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.Camera;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraName;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackable;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackableDefaultListener;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackables;
 import org.firstinspires.ftc.robotcore.external.stream.CameraStreamServer;
+import org.firstinspires.ftc.robotcore.internal.camera.BitmapPool;
+import org.firstinspires.ftc.robotcore.internal.camera.FrameBus;
 import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
 import org.firstinspires.ftc.robotcore.internal.camera.delegating.SwitchableCameraName;
 import org.firstinspires.ftc.robotcore.internal.collections.EvictingBlockingQueue;
@@ -120,6 +123,7 @@ import org.firstinspires.ftc.robotcore.internal.vuforia.externalprovider.Vuforia
 
 import java.io.IOException;
 import java.nio.IntBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -207,10 +211,13 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
     protected   final Object            frameQueueLock              = new Object();
     protected   BlockingQueue<CloseableFrame> frameQueue;
     protected   int                     frameQueueCapacity;
+    protected   boolean                 frameQueueAdaptive          = false;
     protected   Continuation<? extends Consumer<Frame>> getFrameOnce = null;
+    protected   final FrameBus<CloseableFrame> frameBus             = new FrameBus<>(TAG, closeableFrameLifecycle);
 
     protected   final Object            bitmapFrameLock             = new Object();
     protected   Continuation<? extends Consumer<Bitmap>> bitmapContinuation;
+    protected   final BitmapPool        bitmapPool                  = new BitmapPool();
 
     // Some simple statistics, perhaps useful during debugging
     protected   int                     renderCount = 0;
@@ -360,6 +367,8 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
         stopAR();
         removeLoadingIndicator();
         unregisterLifeCycleCallbacks();
+        frameBus.close();
+        bitmapPool.close();
         }
 
     //----------------------------------------------------------------------------------------------
@@ -1780,7 +1789,8 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
                 }
             else
                 {
-                EvictingBlockingQueue<CloseableFrame> queue = new EvictingBlockingQueue<CloseableFrame>(new ArrayBlockingQueue<CloseableFrame>(capacity));
+                AdaptiveFrameQueue queue = new AdaptiveFrameQueue(new ArrayBlockingQueue<CloseableFrame>(capacity));
+                queue.setAdaptive(frameQueueAdaptive);
                 // Proactively close frames that the user doesn't consume to help reduce memory pressure
                 queue.setEvictAction(new Consumer<CloseableFrame>()
                     {
@@ -1802,6 +1812,137 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
             }
         }
 
+    @Override public void setFrameQueueAdaptive(boolean adaptive)
+        {
+        synchronized (this.frameQueueLock)
+            {
+            this.frameQueueAdaptive = adaptive;
+            if (this.frameQueue instanceof AdaptiveFrameQueue)
+                {
+                ((AdaptiveFrameQueue)this.frameQueue).setAdaptive(adaptive);
+                }
+            }
+        }
+
+    @Override public boolean isFrameQueueAdaptive()
+        {
+        synchronized (this.frameQueueLock)
+            {
+            return this.frameQueueAdaptive;
+            }
+        }
+
+    /**
+     * {@link AdaptiveFrameQueue} measures, in frames, how long its consumer leaves between visits
+     * to the queue, and, when adaptive, retains only that many. A consumer which empties the queue
+     * on each visit wants every frame produced since its last one; a consumer which takes a frame
+     * and leaves the rest wants only the latest. Either way, frames the consumer will never get to
+     * are evicted promptly instead of lingering and being served stale.
+     */
+    protected static class AdaptiveFrameQueue extends EvictingBlockingQueue<CloseableFrame>
+        {
+        protected static final double demandDecay = 0.9;
+
+        protected boolean adaptive = false;
+        protected int     offersSinceVisit = 0; // frames produced since the consumer last took any
+        protected int     takenThisVisit = 0;
+        protected boolean emptiedThisVisit = false;
+        protected double  demand = 0;           // decaying peak of frames wanted per visit
+
+        public AdaptiveFrameQueue(BlockingQueue<CloseableFrame> targetQueue)
+            {
+            super(targetQueue);
+            }
+
+        public void setAdaptive(boolean adaptive)
+            {
+            synchronized (theLock)
+                {
+                this.adaptive = adaptive;
+                if (!adaptive)
+                    {
+                    setSizeLimit(Integer.MAX_VALUE);
+                    }
+                }
+            }
+
+        @Override public boolean offer(@NonNull CloseableFrame frame)
+            {
+            synchronized (theLock)
+                {
+                if (takenThisVisit > 0)
+                    {
+                    int wanted = emptiedThisVisit ? offersSinceVisit : takenThisVisit;
+                    demand = Math.max(wanted, demand * demandDecay);
+                    if (adaptive)
+                        {
+                        setSizeLimit((int)Math.ceil(demand));
+                        }
+                    offersSinceVisit = 0;
+                    takenThisVisit = 0;
+                    emptiedThisVisit = false;
+                    }
+                offersSinceVisit++;
+                return super.offer(frame);
+                }
+            }
+
+        @Override public CloseableFrame poll()
+            {
+            synchronized (theLock)
+                {
+                CloseableFrame frame = super.poll();
+                if (frame != null)
+                    {
+                    takenThisVisit++;
+                    }
+                if (frame == null || targetQueue.isEmpty())
+                    {
+                    emptiedThisVisit = true;
+                    }
+                return frame;
+                }
+            }
+        }
+
+    /** Vuforia frames are themselves reference counted: making a {@link CloseableFrame} of one is cheap */
+    protected static final FrameBus.FrameLifecycle<CloseableFrame> closeableFrameLifecycle = new FrameBus.FrameLifecycle<CloseableFrame>()
+        {
+        @Override public CloseableFrame retain(CloseableFrame frame)
+            {
+            return new CloseableFrame(frame);
+            }
+        @Override public void release(CloseableFrame frame)
+            {
+            frame.close();
+            }
+        };
+
+    /**
+     * Returns the bus on which Vuforia {@link Frame}s are published as they become available.
+     * Unlike the frame queue, which hands each frame to whichever reader takes it first, every
+     * subscriber to the bus sees the latest frame, at its own pace, and without interfering with
+     * other subscribers. Frames taken from a subscription must be {@link CloseableFrame#close() closed}
+     * when no longer needed; frames delivered to a subscribed consumer are closed for it when the
+     * consumer returns.
+     *
+     * @see FrameBus#subscribe(String)
+     */
+    public FrameBus<CloseableFrame> getFrameBus()
+        {
+        return frameBus;
+        }
+
+    /**
+     * Returns the bus on which the raw frames of the webcam in use, if any, are published.
+     * These are shared with Vuforia itself, and so cost one copy per frame in total, regardless
+     * of the number of subscribers, and none at all if there are none.
+     */
+    public @Nullable FrameBus<CameraFrame> getCameraFrameBus()
+        {
+        return vuforiaWebcam != null ? vuforiaWebcam.getFrameBus() : null;
+        }
+
 
     @Override
     public void getFrameBitmap(Continuation<? extends Consumer<Bitmap>> continuation)
@@ -1845,33 +1986,43 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
         return results;
         }
 
+    protected static final int[] bitmapPixelFormats = new int[] { PIXEL_FORMAT.RGB565, PIXEL_FORMAT.RGBA8888 };
+
     @Override public Bitmap convertFrameToBitmap(Frame frame)
         {
-        int[] pixelFormats = new int[] { PIXEL_FORMAT.RGB565, PIXEL_FORMAT.RGBA8888 };
-
-        for (int pixelFormat : pixelFormats)
+        for (int pixelFormat : bitmapPixelFormats)
             {
-            for (int i = 0; i < frame.getNumImages(); i++)
+            Image image = findImage(frame, pixelFormat);
+            if (image != null)
                 {
-                Image image = frame.getImage(i);
-                if (image.getFormat() == pixelFormat)
-                    {
-                    Bitmap.Config config;
-                    switch (pixelFormat)
-                        {
-                        case PIXEL_FORMAT.RGB565: config = Bitmap.Config.RGB_565; break;
-                        case PIXEL_FORMAT.RGBA8888: config = Bitmap.Config.ARGB_8888; break;
-                        default:
-                            continue;
-                        }
-
-                    Bitmap bitmap = Bitmap.createBitmap(image.getWidth(), image.getHeight(), config);
-                    bitmap.copyPixelsFromBuffer(image.getPixels());
-                    return bitmap;
-                    }
+                Bitmap.Config config = pixelFormat==PIXEL_FORMAT.RGB565 ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+                Bitmap bitmap = bitmapPool.obtain(image.getWidth(), image.getHeight(), config);
+                bitmap.copyPixelsFromBuffer(image.getPixels());
+                return bitmap;
                 }
             }
+        return null;
+        }
+
+    @Override public void recycleBitmap(Bitmap bitmap)
+        {
+        bitmapPool.recycle(bitmap);
+        }
 
+    protected static @Nullable Image findImage(Frame frame, int pixelFormat)
+        {
+        if (frame instanceof CloseableFrame)
+            {
+            return ((CloseableFrame)frame).findImage(pixelFormat);
+            }
+        for (int i = 0; i < frame.getNumImages(); i++)
+            {
+            Image image = frame.getImage(i);
+            if (image.getFormat() == pixelFormat)
+                {
+                return image;
+                }
+            }
         return null;
         }
 
@@ -1901,6 +2052,12 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
                     capturedContinuation = getFrameOnce;
                     getFrameOnce = null;
                     }
+                if (frameBus.hasSubscribers())
+                    {
+                    CloseableFrame closeableFrame = new CloseableFrame(state.getFrame());
+                    frameBus.publish(closeableFrame);
+                    closeableFrame.close();
+                    }
                 if (capturedContinuation != null)
                     {
                     final CloseableFrame closeableFrame = new CloseableFrame(state.getFrame());
@@ -1918,11 +2075,17 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
                 // one know its status.
 
                 Set<VuforiaTrackable> notVisible = new HashSet<>();
+                List<VuforiaTrackablesImpl> activeTrackableSets = new ArrayList<>();
 
                 synchronized (loadedTrackableSets)
                     {
                     for (VuforiaTrackablesImpl trackables : loadedTrackableSets)
                         {
+                        if (trackables.isActive) // read unsynchronized: (de)activation calls into Vuforia, and so can wait on us
+                            {
+                            trackables.batchLocalizer.beginFrame();
+                            activeTrackableSets.add(trackables);
+                            }
                         for (VuforiaTrackable vuforiaTrackable : trackables)
                             {
                             // Add the trackable itself
@@ -1964,6 +2127,14 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
                                     {
                                     ((VuforiaTrackableNotify)vuforiaTrackable).noteTracked(trackableResult, getCameraName(), getCamera());
                                     }
+                                if (vuforiaTrackable instanceof VuforiaTrackableImpl)
+                                    {
+                                    VuforiaTrackablesImpl trackables = ((VuforiaTrackableImpl)vuforiaTrackable).trackables;
+                                    if (activeTrackableSets.contains(trackables))
+                                        {
+                                        trackables.batchLocalizer.noteTracked(vuforiaTrackable, trackableResult);
+                                        }
+                                    }
                                 }
                             else
                                 tracer.trace("vuforiaTrackable unexpectedly null: %s", trackableResult.getClass().getSimpleName());
@@ -1982,6 +2153,12 @@ public class VuforiaLocalizerImpl implements VuforiaLocalizer
                         ((VuforiaTrackableNotify)vuforiaTrackable).noteNotTracked();
                         }
                     }
+
+                // Locate the robot once, from all of each set's visible trackables together
+                for (VuforiaTrackablesImpl trackables : activeTrackableSets)
+                    {
+                    trackables.batchLocalizer.endFrame(getCameraName());
+                    }
                 }
             }
         }
@@ -32,9 +32,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package org.firstinspires.ftc.robotcore.internal.vuforia;
 
+import androidx.annotation.Nullable;
+
 import com.vuforia.DataSet;
 
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaRobotLocalization;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackable;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackables;
 
@@ -58,6 +61,7 @@ public class VuforiaTrackablesImpl extends AbstractList<VuforiaTrackable> implem
     String               name;
     boolean              isActive;
     List<VuforiaTrackableImpl> trackables;
+    VuforiaBatchLocalizer batchLocalizer;
 
     //------------------------------------------------------------------------------------------
     // Construction
@@ -74,6 +78,7 @@ public class VuforiaTrackablesImpl extends AbstractList<VuforiaTrackable> implem
             VuforiaTrackableImpl trackableImpl = new VuforiaTrackableImpl(this, i, listenerClass);
             this.trackables.add(trackableImpl);
             }
+        this.batchLocalizer = new VuforiaBatchLocalizer(this);
         }
 
     @Override public synchronized void setName(String name)
@@ -112,6 +117,16 @@ public class VuforiaTrackablesImpl extends AbstractList<VuforiaTrackable> implem
         return this.vuforiaLocalizer;
         }
 
+    @Override public @Nullable VuforiaRobotLocalization getRobotLocalization()
+        {
+        return this.batchLocalizer.getLocalization();
+        }
+
+    @Override public @Nullable VuforiaRobotLocalization getUpdatedRobotLocalization()
+        {
+        return this.batchLocalizer.getUpdatedLocalization();
+        }
+
     //------------------------------------------------------------------------------------------
     // Life-cycle
     //------------------------------------------------------------------------------------------
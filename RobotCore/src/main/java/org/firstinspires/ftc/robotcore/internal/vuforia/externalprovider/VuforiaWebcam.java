@@ -56,12 +56,14 @@ import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCaptureSes
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraCharacteristics;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraException;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFramePool;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraName;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.controls.ExposureControl;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.controls.FocusControl;
 import org.firstinspires.ftc.robotcore.internal.camera.CameraFrameInternal;
 import org.firstinspires.ftc.robotcore.internal.camera.CameraInternal;
 import org.firstinspires.ftc.robotcore.internal.camera.CameraManagerInternal;
+import org.firstinspires.ftc.robotcore.internal.camera.FrameBus;
 import org.firstinspires.ftc.robotcore.internal.camera.ImageFormatMapper;
 import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
 import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibrationIdentity;
@@ -122,6 +124,7 @@ public class VuforiaWebcam implements VuforiaWebcamInternal, VuforiaWebcamNative
     protected NativeVuforiaWebcam                   nativeVuforiaWebcam = null;
     protected Continuation<? extends Consumer<CameraFrame>> getFrameOnce = null;
     protected final Object                          getFrameOnceLock = new Object(); // a leaf lock: take no other locks w/ this lock held
+    protected final FrameBus<CameraFrame>           frameBus = FrameBus.forCameraFrames(TAG);
     protected final int                             secondsPermissionTimeout;
 
     protected final CameraName                      cameraName;
@@ -323,6 +326,11 @@ public class VuforiaWebcam implements VuforiaWebcamInternal, VuforiaWebcamNative
     // Opening and closing
     //----------------------------------------------------------------------------------------------
 
+    @Override public FrameBus<CameraFrame> getFrameBus()
+        {
+        return frameBus;
+        }
+
     public @Nullable Camera getCamera()
         {
         synchronized (lock)
@@ -555,6 +563,15 @@ public class VuforiaWebcam implements VuforiaWebcamInternal, VuforiaWebcamNative
                                                                 }
                                                             });
                                                         }
+
+                                                    if (frameBus.hasSubscribers())
+                                                        {
+                                                        // One shared copy serves all the subscribers
+                                                        CameraFramePool framePool = session.getFramePool();
+                                                        CameraFrame sharedFrame = framePool != null ? framePool.copyOf(cameraFrame) : cameraFrame.copy();
+                                                        frameBus.publish(sharedFrame);
+                                                        sharedFrame.releaseRef();
+                                                        }
                                                     }
                                                 },
                                             Continuation.create(serialThreadPool, new CameraCaptureSession.StatusCallback()
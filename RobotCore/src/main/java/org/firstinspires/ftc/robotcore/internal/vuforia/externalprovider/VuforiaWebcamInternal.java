@@ -37,6 +37,7 @@ import org.firstinspires.ftc.robotcore.external.function.Continuation;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.Camera;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraFrame;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.CameraName;
+import org.firstinspires.ftc.robotcore.internal.camera.FrameBus;
 import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
 import org.firstinspires.ftc.robotcore.internal.vuforia.VuforiaLocalizerImpl;
 
@@ -60,4 +61,6 @@ public interface VuforiaWebcamInternal
     CameraCalibration getCalibrationInUse();
 
     void getFrameOnce(Continuation<? extends Consumer<CameraFrame>> oneShot);
+
+    FrameBus<CameraFrame> getFrameBus();
     }
@@ -48,7 +48,8 @@ public enum CloseCode {
     TLS_HANDSHAKE(1015),
 
     // FTC close codes
-    PING_TIMEOUT(4000);
+    PING_TIMEOUT(4000),
+    CLIENT_TOO_SLOW(4001);
 
     public static CloseCode find(int value) {
         for (CloseCode code : values()) {
@@ -1,6 +1,7 @@
 package org.firstinspires.ftc.robotcore.internal.webserver.websockets;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.net.InetAddress;
 
@@ -13,6 +14,17 @@ public interface FtcWebSocket {
      */
     void send(@NonNull FtcWebSocketMessage message);
 
+    /**
+     * Queue an already serialized message to be sent to this WebSocket. This lets a broadcast
+     * serialize its message once for all of its recipients.
+     *
+     * @param json The serialized message
+     * @param coalescingKey If not null, the message replaces any message with the same key that
+     *                      is still waiting to be sent, so that a client that has fallen behind
+     *                      gets only the latest value
+     */
+    void sendSerialized(@NonNull String json, @Nullable String coalescingKey);
+
     /**
      * @return the IP address of the client this WebSocket is connected to
      */
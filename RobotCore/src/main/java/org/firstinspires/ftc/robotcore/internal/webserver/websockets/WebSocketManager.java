@@ -33,4 +33,19 @@ public interface WebSocketManager {
      * @throws IllegalStateException if the namespace has not been registered
      */
     int broadcastToNamespace(@NonNull String namespace, @NonNull FtcWebSocketMessage message);
+
+    /**
+     * Send a message that reports only the latest value of something to all WebSockets subscribed
+     * to a particular namespace. If an earlier message with the same coalescing key is still waiting
+     * to be sent to a WebSocket, it is dropped, so a WebSocket that can't keep up receives fewer of
+     * these messages rather than falling further behind.
+     *
+     * @param namespace The namespace to broadcast to
+     * @param message The message to broadcast
+     * @param coalescingKey Identifies the value that the message reports, within the namespace
+     * @return the number of WebSocket connections that was broadcasted to
+     * @throws IllegalArgumentException if the specified namespace doesn't match the message's namespace
+     * @throws IllegalStateException if the namespace has not been registered
+     */
+    int broadcastToNamespace(@NonNull String namespace, @NonNull FtcWebSocketMessage message, @NonNull String coalescingKey);
 }
@@ -0,0 +1,186 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.qualcomm.robotcore.hardware;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives {@link GamepadDeltaCodec.Encoder} into {@link GamepadDeltaCodec.Decoder} over a simulated
+ * link that drops and reorders packets, and checks that the robot controller never sees wrong or
+ * regressing state and never waits longer for usable state than the codec documents.
+ */
+public class GamepadDeltaCodecTest {
+
+  private static final int PACKETS = 20000;
+
+  /** A packet as sent, with the state it was encoded from. */
+  private static class Sent {
+    final int index;
+    final byte[] data;
+    final Gamepad state;
+
+    Sent(int index, byte[] data, Gamepad state) {
+      this.index = index;
+      this.data = data;
+      this.state = state;
+    }
+  }
+
+  /** Every packet on a perfect link decodes to the state it was encoded from. */
+  @Test
+  public void decodesEveryPacketOnALosslessLink() throws Exception {
+    GamepadDeltaCodec.Decoder decoder = new GamepadDeltaCodec.Decoder();
+    for (Sent sent : send(PACKETS, new Random(1))) {
+      Gamepad decoded = decoder.decode(sent.data);
+      assertNotNull("packet " + sent.index + " was not decoded on a lossless link", decoded);
+      assertSameState(sent, decoded);
+    }
+  }
+
+  /** Losing only a keyframe costs at most KEYFRAME_REPEAT_INTERVAL - 1 packets. */
+  @Test
+  public void recoversQuicklyFromALostKeyframe() throws Exception {
+    List<Sent> packets = send(3 * GamepadDeltaCodec.KEYFRAME_INTERVAL, new Random(2));
+    for (int lost = 0; lost < packets.size(); lost += GamepadDeltaCodec.KEYFRAME_INTERVAL + 1) {
+      GamepadDeltaCodec.Decoder decoder = new GamepadDeltaCodec.Decoder();
+      int dropped = 0;
+      for (Sent sent : packets) {
+        if (sent.index == lost) continue;
+        Gamepad decoded = decoder.decode(sent.data);
+        if (decoded == null) {
+          dropped++;
+        } else {
+          assertSameState(sent, decoded);
+        }
+      }
+      assertTrue("losing keyframe " + lost + " cost " + dropped + " packets",
+          dropped <= GamepadDeltaCodec.KEYFRAME_REPEAT_INTERVAL - 1);
+    }
+  }
+
+  @Test
+  public void survivesTenPercentLossWithReordering() throws Exception {
+    checkLossyLink(0.1, 0.2, 1234L);
+  }
+
+  @Test
+  public void survivesThirtyPercentLossWithReordering() throws Exception {
+    checkLossyLink(0.3, 0.2, 1234L);
+  }
+
+  @Test
+  public void survivesFiftyPercentLossWithReordering() throws Exception {
+    checkLossyLink(0.5, 0.2, 1234L);
+  }
+
+  /**
+   * On a link that loses the indicated fraction of packets and swaps neighbours with the indicated
+   * probability, decoded state is always that of its packet and never goes backwards, and a packet
+   * that arrives in order is only unusable if no packet carrying its keyframe has arrived.
+   */
+  private static void checkLossyLink(double loss, double reorder, long seed) throws Exception {
+    Random random = new Random(seed);
+    List<Sent> received = new ArrayList<>();
+    for (Sent sent : send(PACKETS, random)) {
+      if (random.nextDouble() >= loss) received.add(sent);
+    }
+    for (int i = 1; i < received.size(); i++) {
+      if (random.nextDouble() < reorder) Collections.swap(received, i - 1, i);
+    }
+
+    GamepadDeltaCodec.Decoder decoder = new GamepadDeltaCodec.Decoder();
+    Set<Integer> keyframesReceived = new HashSet<>();
+    int newest = -1;
+    for (Sent sent : received) {
+      int keyframe = GamepadDeltaCodec.keyframeSequenceNumberOf(sent.data);
+      if (GamepadDeltaCodec.carriesKeyframe(sent.data)) keyframesReceived.add(keyframe);
+      Gamepad decoded = decoder.decode(sent.data);
+      if (decoded != null) {
+        assertSameState(sent, decoded);
+        assertTrue("packet " + sent.index + " was applied after packet " + newest, sent.index > newest);
+        newest = sent.index;
+      } else if (sent.index > newest) {
+        assertFalse("packet " + sent.index + " was unusable at " + (int) (loss * 100) + "% loss although its keyframe arrived",
+            keyframesReceived.contains(keyframe));
+      }
+    }
+  }
+
+  /** Encodes a random walk of gamepad state, as the driver station's send loop would. */
+  private static List<Sent> send(int count, Random random) throws Exception {
+    GamepadDeltaCodec.Encoder encoder = new GamepadDeltaCodec.Encoder();
+    Gamepad gamepad = new Gamepad();
+    gamepad.user = 1;
+    gamepad.id = 42;
+    List<Sent> packets = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      gamepad.timestamp += 40;
+      gamepad.left_stick_x = walk(random, gamepad.left_stick_x, -1f);
+      gamepad.right_stick_y = walk(random, gamepad.right_stick_y, -1f);
+      gamepad.left_trigger = walk(random, gamepad.left_trigger, 0f);
+      gamepad.a = random.nextInt(8) == 0 ? !gamepad.a : gamepad.a;
+      gamepad.dpad_up = random.nextInt(16) == 0 ? !gamepad.dpad_up : gamepad.dpad_up;
+      if (random.nextInt(2000) == 0) gamepad.id++; // a gamepad is swapped
+      byte[] data = encoder.encode(gamepad).toByteArray();
+      Gamepad state = new Gamepad();
+      state.copy(gamepad);
+      packets.add(new Sent(i, data, state));
+    }
+    return packets;
+  }
+
+  private static float walk(Random random, float value, float min) {
+    return Math.max(min, Math.min(1f, value + (random.nextFloat() - 0.5f) * 0.2f));
+  }
+
+  private static void assertSameState(Sent sent, Gamepad decoded) {
+    final float quantum = 1f / 127f;
+    Gamepad state = sent.state;
+    String message = "packet " + sent.index + " decoded to the wrong state";
+    assertEquals(message, state.id, decoded.id);
+    assertEquals(message, state.timestamp, decoded.timestamp);
+    assertEquals(message, state.getButtonsAsInt(), decoded.getButtonsAsInt());
+    assertEquals(message, state.left_stick_x, decoded.left_stick_x, quantum);
+    assertEquals(message, state.right_stick_y, decoded.right_stick_y, quantum);
+    assertEquals(message, state.left_trigger, decoded.left_trigger, quantum);
+  }
+}
@@ -0,0 +1,185 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotcore.external.matrices;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the allocation-free matrix operations of {@link DenseMatrixF} and
+ * {@link OpenGLMatrix}, and their unrolled 3x3 and 4x4 kernels, with the generic, allocating
+ * paths through {@link MatrixF#get(int, int)} and {@link MatrixF#put(int, int, float)}.
+ *
+ * These run on the desktop JVM, where the android.opengl.Matrix routines are only stubs, so
+ * nothing here calls them. Run {@link #main} from the IDE with the RobotCore unit test classpath;
+ * add "-prof gc" to the JMH options to see the allocation rates as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    GeneralMatrixF a4, b4, result4;
+    GeneralMatrixF a3, b3, result3;
+    OpenGLMatrix   glA, glB, glResult;
+    VectorF        vector4, vectorResult4;
+    VectorF        point3, pointResult3;
+
+    @Setup public void setup()
+        {
+        Random random = new Random(42);
+        a4 = new GeneralMatrixF(4, 4, randomData(random, 16));
+        b4 = new GeneralMatrixF(4, 4, randomData(random, 16));
+        result4 = new GeneralMatrixF(4, 4);
+        a3 = new GeneralMatrixF(3, 3, randomData(random, 9));
+        b3 = new GeneralMatrixF(3, 3, randomData(random, 9));
+        result3 = new GeneralMatrixF(3, 3);
+        glA = new OpenGLMatrix(randomData(random, 16));
+        glB = new OpenGLMatrix(randomData(random, 16));
+        glResult = new OpenGLMatrix(new float[16]);
+        glA.put(3, 3, 1f); // keep the homogeneous w well away from zero
+        vector4 = new VectorF(randomData(random, 4));
+        vectorResult4 = new VectorF(new float[4]);
+        point3 = new VectorF(randomData(random, 3));
+        pointResult3 = new VectorF(new float[3]);
+        }
+
+    static float[] randomData(Random random, int count)
+        {
+        float[] result = new float[count];
+        for (int i = 0; i < count; i++)
+            {
+            result[i] = random.nextFloat() * 2 - 1;
+            }
+        return result;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Multiplication
+    //----------------------------------------------------------------------------------------------
+
+    @Benchmark public MatrixF multiply4x4Generic()
+        {
+        return a4.multiplied((MatrixF) b4);
+        }
+
+    @Benchmark public MatrixF multiply4x4Into()
+        {
+        return a4.multiplyInto(b4, result4);
+        }
+
+    @Benchmark public MatrixF multiply3x3Generic()
+        {
+        return a3.multiplied((MatrixF) b3);
+        }
+
+    @Benchmark public MatrixF multiply3x3Into()
+        {
+        return a3.multiplyInto(b3, result3);
+        }
+
+    @Benchmark public MatrixF multiplyOpenGLInto()
+        {
+        return glA.multiplyInto(glB, glResult);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Transposition and addition
+    //----------------------------------------------------------------------------------------------
+
+    @Benchmark public MatrixF transpose4x4Generic()
+        {
+        return a4.transposed();
+        }
+
+    @Benchmark public MatrixF transpose4x4Into()
+        {
+        return a4.transposeInto(result4);
+        }
+
+    @Benchmark public MatrixF add4x4Generic()
+        {
+        return a4.added(b4);
+        }
+
+    @Benchmark public MatrixF add4x4Into()
+        {
+        return a4.addInto(b4, result4);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Vectors
+    //----------------------------------------------------------------------------------------------
+
+    @Benchmark public VectorF multiplyVectorGeneric()
+        {
+        return a4.multiplied(new ColumnMatrixF(vector4)).toVector();
+        }
+
+    @Benchmark public VectorF multiplyVectorInto()
+        {
+        return a4.multiplyInto(vector4, vectorResult4);
+        }
+
+    @Benchmark public VectorF transformOpenGLInto()
+        {
+        return glA.transformInto(point3, pointResult3);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Running
+    //----------------------------------------------------------------------------------------------
+
+    public static void main(String[] args) throws RunnerException
+        {
+        new Runner(new OptionsBuilder().include(MatrixBenchmark.class.getSimpleName()).build()).run();
+        }
+    }
@@ -110,6 +110,7 @@ public class RobotControllerWebHandlers
     public static final String URI_UPLOAD_EXPANSION_HUB_FIRMWARE = "/uploadExpansionHubFirmware";
     public static final String URI_REV_HUBS_AVAILABLE_FOR_UPDATE = "/revHubsAvailableForUpdate";
     public static final String URI_PERFORM_REV_FIRMWARE_UPDATE = "/performRevFirmwareUpdate";
+    public static final String URI_PERFORM_REV_FIRMWARE_UPDATES = "/performRevFirmwareUpdates";
     public static final String URI_UPDATE_CONTROL_HUB_APK = "/updateControlHubAPK";
     public static final String URI_UPLOAD_WEBCAM_CALIBRATION_FILE = "/uploadWebcamCalibrationFile";
     public static final String URI_UPLOAD_TFLITE_MODEL_FILE = "/uploadTfliteModelFile";
@@ -161,6 +162,7 @@ public class RobotControllerWebHandlers
         manager.register(URI_UPLOAD_EXPANSION_HUB_FIRMWARE, new StandardUpload(AppUtil.LYNX_FIRMWARE_UPDATE_DIR.getAbsolutePath()));
         manager.register(URI_REV_HUBS_AVAILABLE_FOR_UPDATE, new RevHubsAvailableForUpdate());
         manager.register(URI_PERFORM_REV_FIRMWARE_UPDATE, decorateWithParms(new PerformRevFirmwareUpdate()));
+        manager.register(URI_PERFORM_REV_FIRMWARE_UPDATES, decorateWithParms(new PerformRevFirmwareUpdates()));
         manager.register(URI_UPLOAD_WEBCAM_CALIBRATION_FILE, new StandardUpload(AppUtil.WEBCAM_CALIBRATIONS_DIR.getAbsolutePath()));
         manager.register(URI_UPLOAD_TFLITE_MODEL_FILE, new StandardUpload(AppUtil.TFLITE_MODELS_DIR.getAbsolutePath()));
         manager.register(URI_UPLOAD_CONTROL_HUB_OTA, new OtaUpdate(chUpdaterCommManager));
@@ -582,26 +584,9 @@ public class RobotControllerWebHandlers
                 return NanoHTTPD.newFixedLengthResponse(Response.Status.BAD_REQUEST, MimeTypesUtil.MIME_TEXT, "serialNumber parameter not provided");
             }
             SerialNumber serialNumber = SerialNumber.fromString(serialNumberParameters.get(0));
-            RobotCoreCommandList.FWImage fwImage;
-            if (session.getParameters().containsKey(PARAM_FILENAME))
-            {
-                File fwFile = new File(AppUtil.LYNX_FIRMWARE_UPDATE_DIR, session.getParameters().get(PARAM_FILENAME).get(0));
-                fwImage = new RobotCoreCommandList.FWImage(fwFile, false);
-            }
-            else // No provided filename indicates that we should use the bundled fw file
-            {
-                fwImage = IncludedFirmwareFileInfo.FW_IMAGE;
-            }
+            RobotCoreCommandList.FWImage fwImage = getFirmwareImage(session);
 
-            RobotCoreCommandList.LynxFirmwareUpdate commandPayload = new RobotCoreCommandList.LynxFirmwareUpdate();
-            commandPayload.firmwareImageFile = fwImage;
-            commandPayload.serialNumber = serialNumber;
-            commandPayload.originatorId = UUID.randomUUID().toString();
-            Command firmwareUpdateCommand = new Command(RobotCoreCommandList.CMD_LYNX_FIRMWARE_UPDATE, commandPayload.serialize());
-
-            FirmwareUpdateResultReceiver receiver = new FirmwareUpdateResultReceiver(commandPayload.originatorId);
-            NetworkConnectionHandler.getInstance().pushReceiveLoopCallback(receiver);
-            NetworkConnectionHandler.getInstance().injectReceivedCommand(firmwareUpdateCommand);
+            FirmwareUpdateResultReceiver receiver = startFirmwareUpdate(serialNumber, fwImage);
             String result;
             try
             {
@@ -620,7 +605,36 @@ public class RobotControllerWebHandlers
             return newFixedLengthResponse(Response.Status.OK, MimeTypesUtil.MIME_JSON, result);
         }
 
-        private static final class FirmwareUpdateResultReceiver extends RecvLoopRunnable.DegenerateCallback {
+        static RobotCoreCommandList.FWImage getFirmwareImage(IHTTPSession session)
+        {
+            if (session.getParameters().containsKey(PARAM_FILENAME))
+            {
+                File fwFile = new File(AppUtil.LYNX_FIRMWARE_UPDATE_DIR, session.getParameters().get(PARAM_FILENAME).get(0));
+                return new RobotCoreCommandList.FWImage(fwFile, false);
+            }
+            else // No provided filename indicates that we should use the bundled fw file
+            {
+                return IncludedFirmwareFileInfo.FW_IMAGE;
+            }
+        }
+
+        /** Injects the update command for the indicated hub. The caller must remove the returned
+         * receiver from the receive loop once it's done waiting on it. */
+        static FirmwareUpdateResultReceiver startFirmwareUpdate(SerialNumber serialNumber, RobotCoreCommandList.FWImage fwImage)
+        {
+            RobotCoreCommandList.LynxFirmwareUpdate commandPayload = new RobotCoreCommandList.LynxFirmwareUpdate();
+            commandPayload.firmwareImageFile = fwImage;
+            commandPayload.serialNumber = serialNumber;
+            commandPayload.originatorId = UUID.randomUUID().toString();
+            Command firmwareUpdateCommand = new Command(RobotCoreCommandList.CMD_LYNX_FIRMWARE_UPDATE, commandPayload.serialize());
+
+            FirmwareUpdateResultReceiver receiver = new FirmwareUpdateResultReceiver(commandPayload.originatorId);
+            NetworkConnectionHandler.getInstance().pushReceiveLoopCallback(receiver);
+            NetworkConnectionHandler.getInstance().injectReceivedCommand(firmwareUpdateCommand);
+            return receiver;
+        }
+
+        static final class FirmwareUpdateResultReceiver extends RecvLoopRunnable.DegenerateCallback {
             private final CountDownLatch latch = new CountDownLatch(1);
             private final String originatorId;
             volatile String result = null;
@@ -655,6 +669,81 @@ public class RobotControllerWebHandlers
         }
     }
 
+    /**
+     * Updates several hubs at once. The event loop services each update command on its own
+     * worker thread, so injecting them all before waiting on any lets independent hubs be
+     * flashed concurrently; per-hub progress is broadcast over the progress WebSocket namespace.
+     * Responds with a JSON array holding one result per requested serial number.
+     */
+    private static final class PerformRevFirmwareUpdates implements WebHandler
+    {
+        private static final class Result
+        {
+            SerialNumber serialNumber;
+            boolean success;
+            String errorMessage;
+        }
+
+        @Override
+        public Response getResponse(IHTTPSession session)
+        {
+            if (session.getMethod() != NanoHTTPD.Method.POST)
+            {
+                return NanoHTTPD.newFixedLengthResponse(Response.Status.BAD_REQUEST, MimeTypesUtil.MIME_TEXT, "Only POST method is supported");
+            }
+
+            List<String> serialNumberParameters = session.getParameters().get(PARAM_SERIAL_NUMBER);
+            if (serialNumberParameters == null)
+            {
+                return NanoHTTPD.newFixedLengthResponse(Response.Status.BAD_REQUEST, MimeTypesUtil.MIME_TEXT, "serialNumber parameter not provided");
+            }
+            RobotCoreCommandList.FWImage fwImage = PerformRevFirmwareUpdate.getFirmwareImage(session);
+
+            List<SerialNumber> serialNumbers = new ArrayList<>();
+            for (String serialNumberParameter : serialNumberParameters)
+            {
+                SerialNumber serialNumber = SerialNumber.fromString(serialNumberParameter);
+                if (!serialNumbers.contains(serialNumber))
+                {
+                    serialNumbers.add(serialNumber);
+                }
+            }
+
+            List<PerformRevFirmwareUpdate.FirmwareUpdateResultReceiver> receivers = new ArrayList<>();
+            try
+            {
+                for (SerialNumber serialNumber : serialNumbers)
+                {
+                    receivers.add(PerformRevFirmwareUpdate.startFirmwareUpdate(serialNumber, fwImage));
+                }
+
+                List<Result> results = new ArrayList<>();
+                for (int i = 0; i < receivers.size(); i++)
+                {
+                    RobotCoreCommandList.LynxFirmwareUpdateResp resp = RobotCoreCommandList.LynxFirmwareUpdateResp.deserialize(receivers.get(i).didUpdateSucceed());
+                    Result result = new Result();
+                    result.serialNumber = serialNumbers.get(i);
+                    result.success = resp.success;
+                    result.errorMessage = resp.errorMessage;
+                    results.add(result);
+                }
+                return newFixedLengthResponse(Response.Status.OK, MimeTypesUtil.MIME_JSON, SimpleGson.getInstance().toJson(results));
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return RobotWebHandlerManager.INTERNAL_ERROR_RESPONSE;
+            }
+            finally
+            {
+                for (PerformRevFirmwareUpdate.FirmwareUpdateResultReceiver receiver : receivers)
+                {
+                    NetworkConnectionHandler.getInstance().removeReceiveLoopCallback(receiver);
+                }
+            }
+        }
+    }
+
     private static abstract class ControlHubUpdaterUpload extends FileUpload
     {
         private final ChUpdaterCommManager.UpdateType updateType;
@@ -970,6 +1059,7 @@ public class RobotControllerWebHandlers
             appendVariable(js, "URI_UPLOAD_EXPANSION_HUB_FIRMWARE", URI_UPLOAD_EXPANSION_HUB_FIRMWARE);
             appendVariable(js, "URI_REV_HUBS_AVAILABLE_FOR_UPDATE", URI_REV_HUBS_AVAILABLE_FOR_UPDATE);
             appendVariable(js, "URI_PERFORM_REV_FIRMWARE_UPDATE", URI_PERFORM_REV_FIRMWARE_UPDATE);
+            appendVariable(js, "URI_PERFORM_REV_FIRMWARE_UPDATES", URI_PERFORM_REV_FIRMWARE_UPDATES);
             appendVariable(js, "URI_UPDATE_CONTROL_HUB_APK", URI_UPDATE_CONTROL_HUB_APK);
             appendVariable(js, "URI_UPLOAD_WEBCAM_CALIBRATION_FILE", URI_UPLOAD_WEBCAM_CALIBRATION_FILE);
             appendVariable(js, "URI_UPLOAD_TFLITE_MODEL_FILE", URI_UPLOAD_TFLITE_MODEL_FILE);
@@ -33,9 +33,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package org.firstinspires.ftc.robotserver.internal.webserver.websockets;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.google.gson.JsonSyntaxException;
 import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
 
 import org.firstinspires.ftc.robotcore.internal.webserver.websockets.CloseCode;
 import org.firstinspires.ftc.robotcore.internal.webserver.websockets.FtcWebSocket;
@@ -43,18 +45,41 @@ import org.firstinspires.ftc.robotcore.internal.webserver.websockets.FtcWebSocke
 import org.firstinspires.ftc.robotcore.internal.webserver.websockets.WebSocketManager;
 
 import java.net.InetAddress;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 public final class FtcWebSocketImpl implements FtcWebSocket {
     private static final String TAG = "FtcWebSocket";
     private static final boolean DEBUG = false;
 
+    /** The most messages that may wait to be sent before we give up on a client. */
+    private static final int MAX_QUEUED_MESSAGES = 256;
+    /** The most frames that may be waiting in the WebSocket library before we hold messages back. */
+    private static final int MAX_PENDING_FRAMES = 16;
+    private static final long FLUSH_RETRY_MS = 20;
+
     private final InetAddress remoteIpAddress;
     private final String remoteHostname;
     private final int port;
     private final RawWebSocket rawWebSocket;
     private final WebSocketManager manager;
 
+    // Messages waiting to be sent, in order. A message that reports the latest value of something
+    // is keyed by its coalescing key, so that a newer one replaces it; any other message is keyed by
+    // an object of its own.
+    private final LinkedHashMap<Object, String> outboundQueue = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+    private boolean tooSlow = false;
+    private final Runnable flushRunnable = new Runnable() {
+        @Override public void run() {
+            synchronized (outboundQueue) {
+                flushScheduled = false;
+                flush();
+            }
+        }
+    };
 
     private FtcWebSocketImpl(int port, InetAddress remoteIpAddress, String remoteHostname, WebSocketManager webSocketManager, RawWebSocket rawWebSocket) {
         this.remoteIpAddress = remoteIpAddress;
@@ -65,13 +90,56 @@ public final class FtcWebSocketImpl implements FtcWebSocket {
     }
 
     void internalSend(@NonNull FtcWebSocketMessage message) {
-        String json = message.toJson();
+        sendSerialized(message.toJson(), null);
+    }
 
+    @Override public void sendSerialized(@NonNull String json, @Nullable String coalescingKey) {
         if (DEBUG) {
             RobotLog.vv(TAG, "sending message to %s: %s", this, json);
         }
 
-        rawWebSocket.send(json);
+        boolean becameTooSlow = false;
+        synchronized (outboundQueue) {
+            if (tooSlow) return;
+            if (coalescingKey != null) {
+                // Remove first, so that the newer message goes to the back of the queue
+                outboundQueue.remove(coalescingKey);
+                outboundQueue.put(coalescingKey, json);
+            } else if (outboundQueue.size() < MAX_QUEUED_MESSAGES) {
+                outboundQueue.put(new Object(), json);
+            } else {
+                tooSlow = true;
+                becameTooSlow = true;
+                outboundQueue.clear();
+            }
+        }
+
+        if (becameTooSlow) {
+            RobotLog.ww(TAG, "%s is not keeping up with the messages sent to it; closing", this);
+            close(CloseCode.CLIENT_TOO_SLOW, "Client is not keeping up");
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Hands queued messages to the WebSocket library until it has enough to be getting on with, and
+     * tries again later if any are left.
+     */
+    private void flush() {
+        // The lock is held while sending so that messages from different threads stay in order.
+        synchronized (outboundQueue) {
+            Iterator<String> iterator = outboundQueue.values().iterator();
+            while (iterator.hasNext() && rawWebSocket.getPendingFrameCount() < MAX_PENDING_FRAMES) {
+                String json = iterator.next();
+                iterator.remove();
+                rawWebSocket.send(json);
+            }
+            if (!outboundQueue.isEmpty() && !flushScheduled && rawWebSocket.isOpen()) {
+                flushScheduled = true;
+                ThreadPool.getDefaultScheduler().schedule(flushRunnable, FLUSH_RETRY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
     }
 
     //----------------------------------------------------------------------------------------------
@@ -120,6 +188,9 @@ public final class FtcWebSocketImpl implements FtcWebSocket {
     private void onClose(CloseCode closeCode, String reason, boolean initiatedByRemote) {
         RobotLog.vv(TAG, "%s has closed. closeCode:%s initiatedByRemote:%b Reason: %s", this, closeCode.toString(), initiatedByRemote, reason);
         ((WebSocketManagerImpl)manager).onWebSocketClose(this);
+        synchronized (outboundQueue) {
+            outboundQueue.clear();
+        }
     }
 
     private void onMessage(String message) {
@@ -147,12 +218,21 @@ public final class FtcWebSocketImpl implements FtcWebSocket {
             ftcWebSocket = new FtcWebSocketImpl(port, remoteIpAddress, remoteHostname, webSocketManager, this);
         }
 
+        FtcWebSocketImpl getFtcWebSocket() {
+            return ftcWebSocket;
+        }
+
         /**
          * Implementations of this method must be thread-safe
          */
         protected abstract boolean isOpen();
         protected abstract void send(String payload);
 
+        /**
+         * Returns how many frames have been sent but not yet written to the network
+         */
+        protected abstract int getPendingFrameCount();
+
         /**
          * Implementations of this method must be thread-safe
          */
@@ -92,20 +92,12 @@ public final class WebSocketManagerImpl implements WebSocketManager {
     }
 
     @Override public int broadcastToNamespace(@NonNull String namespace, @NonNull FtcWebSocketMessage message) {
-        if (!namespace.equals(message.getNamespace())) {
-            throw new IllegalArgumentException("Cannot broadcast to a different namespace than is listed in the message");
-        }
-        // This check can be done non-atomically because we never remove anything from the namespace maps
-        if (!namespaceSubscribersMap.containsKey(namespace)) {
-            throw new IllegalStateException("You must register a namespace before broadcasting to it.");
-        }
-        int numberOfConnections = 0;
-        //noinspection ConstantConditions
-        for (FtcWebSocket webSocket: namespaceSubscribersMap.get(namespace)) {
-            webSocket.send(message);
-            ++numberOfConnections;
-        }
-        return numberOfConnections;
+        return internalBroadcastToNamespace(namespace, message, null);
+    }
+
+    @Override public int broadcastToNamespace(@NonNull String namespace, @NonNull FtcWebSocketMessage message, @NonNull String coalescingKey) {
+        // Keys are scoped to the namespace, since each WebSocket has a single queue
+        return internalBroadcastToNamespace(namespace, message, namespace + ":" + coalescingKey);
     }
 
     //----------------------------------------------------------------------------------------------
@@ -146,6 +138,32 @@ public final class WebSocketManagerImpl implements WebSocketManager {
     // Private Methods
     //----------------------------------------------------------------------------------------------
 
+    private int internalBroadcastToNamespace(@NonNull String namespace, @NonNull FtcWebSocketMessage message, @Nullable String coalescingKey) {
+        if (!namespace.equals(message.getNamespace())) {
+            throw new IllegalArgumentException("Cannot broadcast to a different namespace than is listed in the message");
+        }
+        // This check can be done non-atomically because we never remove anything from the namespace maps
+        if (!namespaceSubscribersMap.containsKey(namespace)) {
+            throw new IllegalStateException("You must register a namespace before broadcasting to it.");
+        }
+        //noinspection ConstantConditions
+        return broadcast(namespaceSubscribersMap.get(namespace), message.toJson(), coalescingKey);
+    }
+
+    /**
+     * Sends the serialized message to each of the WebSockets, returning how many there were. We
+     * serialize once, rather than once per WebSocket. Each WebSocket queues the message and writes
+     * it when it can, so that a slow client doesn't hold up the others.
+     */
+    static int broadcast(Iterable<FtcWebSocket> webSockets, @NonNull String json, @Nullable String coalescingKey) {
+        int numberOfConnections = 0;
+        for (FtcWebSocket webSocket: webSockets) {
+            webSocket.sendSerialized(json, coalescingKey);
+            ++numberOfConnections;
+        }
+        return numberOfConnections;
+    }
+
     private synchronized void internalRegisterNamespaceHandler(@NonNull WebSocketNamespaceHandler handler) {
         String namespace = handler.getNamespace();
         if (!Util.isGoodString(namespace)) {
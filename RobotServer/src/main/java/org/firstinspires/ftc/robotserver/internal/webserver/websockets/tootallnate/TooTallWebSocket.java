@@ -38,6 +38,7 @@ import com.qualcomm.robotcore.util.RobotLog;
 import org.firstinspires.ftc.robotserver.internal.webserver.websockets.WebSocketManagerImpl;
 import org.firstinspires.ftc.robotserver.internal.webserver.websockets.FtcWebSocketImpl.RawWebSocket;
 import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
 import org.java_websocket.exceptions.WebsocketNotConnectedException;
 
 import java.net.InetAddress;
@@ -65,6 +66,13 @@ public class TooTallWebSocket extends RawWebSocket {
         }
     }
 
+    @Override protected int getPendingFrameCount() {
+        if (webSocket instanceof WebSocketImpl) {
+            return ((WebSocketImpl) webSocket).outQueue.size();
+        }
+        return webSocket.hasBufferedData() ? 1 : 0;
+    }
+
     @Override public void close(int closeCode, String reason) {
         webSocket.close(closeCode, reason);
     }
@@ -0,0 +1,132 @@
+/* Copyright (c) 2022 FIRST. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted (subject to the limitations in the disclaimer below) provided that
+ * the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list
+ * of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice, this
+ * list of conditions and the following disclaimer in the documentation and/or
+ * other materials provided with the distribution.
+ *
+ * Neither the name of FIRST nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ *
+ * NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+ * LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.firstinspires.ftc.robotserver.internal.webserver.websockets;
+
+import org.firstinspires.ftc.robotcore.internal.webserver.websockets.FtcWebSocket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the latency of a WebSocket broadcast to N synthetic clients: the time from
+ * the broadcast until every client that is keeping up has been handed the frame. Optionally, one
+ * of the clients never drains its frames, to show that a slow client doesn't hold up the others.
+ *
+ * The synthetic clients stand in for the WebSocket library, so what's measured is our own queueing
+ * and coalescing, not the network. Run {@link #main} from the IDE with the RobotServer unit test
+ * classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebSocketBroadcastBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    public int clients;
+
+    @Param({"false", "true"})
+    public boolean withSlowClient;
+
+    private final List<FtcWebSocket> webSockets = new ArrayList<>();
+    private String json;
+
+    /** A client whose frames are written to the network as soon as they are sent, or never. */
+    private static class SyntheticClient extends FtcWebSocketImpl.RawWebSocket {
+        private final boolean slow;
+        private int pendingFrames = 0;
+        private volatile boolean open = true;
+
+        SyntheticClient(int port, boolean slow) {
+            super(port, InetAddress.getLoopbackAddress(), "localhost", null);
+            this.slow = slow;
+        }
+
+        @Override protected boolean isOpen() {
+            return open;
+        }
+
+        @Override protected void send(String payload) {
+            if (slow) pendingFrames++;
+        }
+
+        @Override protected int getPendingFrameCount() {
+            return pendingFrames;
+        }
+
+        @Override protected void close(int closeCode, String reason) {
+            open = false;
+        }
+    }
+
+    @Setup(Level.Iteration) public void setup() {
+        webSockets.clear();
+        for (int i = 0; i < clients; i++) {
+            boolean slow = withSlowClient && i == 0;
+            webSockets.add(new SyntheticClient(8000 + i, slow).getFtcWebSocket());
+        }
+        StringBuilder builder = new StringBuilder("{\"namespace\":\"benchmark\",\"type\":\"status\",\"payload\":\"");
+        for (int i = 0; i < 200; i++) builder.append('x');
+        json = builder.append("\"}").toString();
+    }
+
+    /** Messages that each supersede the last, such as build status */
+    @Benchmark public int broadcastCoalesced() {
+        return WebSocketManagerImpl.broadcast(webSockets, json, "benchmark:status");
+    }
+
+    /** Messages that must each be delivered; a slow client is eventually disconnected */
+    @Benchmark public int broadcastUncoalesced() {
+        return WebSocketManagerImpl.broadcast(webSockets, json, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WebSocketBroadcastBenchmark.class.getSimpleName()).build()).run();
+    }
+}